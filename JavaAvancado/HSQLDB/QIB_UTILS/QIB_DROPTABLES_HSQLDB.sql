@@ -1,3 +1,4 @@
+DROP TABLE tb_versao_esquema IF EXISTS;
 DROP TABLE tb_gerentes_cliente;
 DROP TABLE tb_endereco;
 DROP TABLE tb_conta;
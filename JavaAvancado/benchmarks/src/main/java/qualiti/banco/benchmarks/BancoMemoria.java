@@ -0,0 +1,59 @@
+package qualiti.banco.benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import qualiti.banco.jdbcutil.JDBCConnectionUtil;
+
+/**
+ * Prepara o banco HSQLDB em memória usado pelos benchmarks dos repositórios. O banco é
+ * aberto pelo próprio JDBCConnectionUtil, com a URL do jdbc.properties deste módulo, e
+ * existe só enquanto a JVM do benchmark estiver rodando. O Hibernate recebe a mesma URL
+ * pela linha de comando (ver pom.xml), de forma que os dois usam o mesmo banco. As
+ * tabelas são criadas na primeira conexão, com o script que o pom.xml copia para o
+ * classpath (ver BancoEmbutido).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+final class BancoMemoria {
+
+	//Tabelas na ordem em que podem ser esvaziadas sem violar as chaves estrangeiras
+	private static final String[] TABELAS = {
+		"tb_gerentes_cliente", "tb_conta", "tb_endereco", "tb_cliente", "tb_gerente"
+	};
+
+	private BancoMemoria() {
+	}
+
+	/**
+	 * Apaga as linhas de todas as tabelas, mantendo as tabelas.
+	 */
+	static void apagarDados() throws SQLException {
+		String[] comandos = new String[TABELAS.length];
+		for (int i = 0; i < TABELAS.length; i++) {
+			comandos[i] = "DELETE FROM " + TABELAS[i];
+		}
+		executar(comandos);
+	}
+
+	private static void executar(String[] comandos) throws SQLException {
+		Connection con = JDBCConnectionUtil.getConnection();
+		try {
+			Statement st = con.createStatement();
+			try {
+				for (String comando : comandos) {
+					if (comando.trim().length() > 0) {
+						st.execute(comando);
+					}
+				}
+			} finally {
+				st.close();
+			}
+		} finally {
+			con.close();
+		}
+	}
+}
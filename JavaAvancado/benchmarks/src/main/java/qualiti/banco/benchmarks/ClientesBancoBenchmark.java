@@ -0,0 +1,103 @@
+package qualiti.banco.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.clientes.Endereco;
+import qualiti.banco.clientes.RepositorioClientes;
+import qualiti.banco.clientes.RepositorioClientesBDR;
+import qualiti.banco.clientes.RepositorioClientesHibernate;
+
+/**
+ * Benchmarks do CRUD dos repositórios de clientes persistentes (JDBC e Hibernate)
+ * contra o HSQLDB em memória: procura por CPF, atualização e inclusão seguida de
+ * exclusão, que mantém a quantidade de clientes no banco constante durante a medição.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientesBancoBenchmark {
+
+	//CPFs dos clientes incluídos durante a medição, fora da faixa dos já cadastrados
+	private static final AtomicLong NOVOS = new AtomicLong(90000000000L);
+
+	@Param({"BDR", "HIBERNATE"})
+	public String repositorio;
+
+	@Param({"10000"})
+	public int quantidade;
+
+	private RepositorioClientes clientes;
+
+	private String[] cpfs;
+
+	@Setup(Level.Trial)
+	public void preparar() throws Exception {
+		if ("BDR".equals(repositorio)) {
+			clientes = new RepositorioClientesBDR();
+		} else if ("HIBERNATE".equals(repositorio)) {
+			clientes = new RepositorioClientesHibernate();
+		} else {
+			throw new IllegalArgumentException("Repositorio desconhecido: " + repositorio);
+		}
+		cpfs = new String[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			cpfs[i] = String.valueOf(10000000000L + i);
+			clientes.inserir(novoCliente(cpfs[i], i));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() throws Exception {
+		BancoMemoria.apagarDados();
+	}
+
+	@Benchmark
+	public Cliente procurar() throws Exception {
+		return clientes.procurar(cpfs[sortear()]);
+	}
+
+	@Benchmark
+	public void atualizar() throws Exception {
+		int i = sortear();
+		clientes.atualizar(novoCliente(cpfs[i], i));
+	}
+
+	@Benchmark
+	public void inserirRemover() throws Exception {
+		String cpf = String.valueOf(NOVOS.getAndIncrement());
+		clientes.inserir(novoCliente(cpf, 0));
+		clientes.remover(cpf);
+	}
+
+	private int sortear() {
+		return ThreadLocalRandom.current().nextInt(quantidade);
+	}
+
+	private static Cliente novoCliente(String cpf, int i) {
+		return new Cliente(cpf, "Cliente " + i, new Endereco("50000000", String.valueOf(i % 100000), "Apto " + i));
+	}
+}
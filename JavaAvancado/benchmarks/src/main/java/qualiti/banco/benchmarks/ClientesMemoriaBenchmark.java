@@ -0,0 +1,76 @@
+package qualiti.banco.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.clientes.RepositorioClientes;
+import qualiti.banco.clientes.RepositorioClientesArray;
+import qualiti.banco.clientes.RepositorioClientesMap;
+
+/**
+ * Benchmarks das buscas por CPF nos repositórios de clientes em memória (array e
+ * mapa): procura de um cliente existente e teste de existência de um CPF que não está
+ * cadastrado.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientesMemoriaBenchmark {
+
+	@Param({"ARRAY", "MAP"})
+	public String repositorio;
+
+	@Param({"100", "1000000"})
+	public int quantidade;
+
+	private RepositorioClientes clientes;
+
+	private String[] cpfs;
+
+	@Setup(Level.Trial)
+	public void preparar() throws Exception {
+		if ("ARRAY".equals(repositorio)) {
+			clientes = new RepositorioClientesArray();
+		} else if ("MAP".equals(repositorio)) {
+			clientes = new RepositorioClientesMap();
+		} else {
+			throw new IllegalArgumentException("Repositorio desconhecido: " + repositorio);
+		}
+		cpfs = new String[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			cpfs[i] = String.valueOf(10000000000L + i);
+			clientes.inserir(new Cliente(cpfs[i], "Cliente " + i));
+		}
+	}
+
+	@Benchmark
+	public Cliente procurar() throws Exception {
+		return clientes.procurar(cpfs[ThreadLocalRandom.current().nextInt(quantidade)]);
+	}
+
+	@Benchmark
+	public boolean existeInexistente() throws Exception {
+		return clientes.existe("00000000000");
+	}
+}
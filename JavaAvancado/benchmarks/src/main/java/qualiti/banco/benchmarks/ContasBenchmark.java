@@ -0,0 +1,116 @@
+package qualiti.banco.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import qualiti.banco.contas.CadastroContas;
+import qualiti.banco.contas.Conta;
+import qualiti.banco.contas.OrdemTransferencia;
+import qualiti.banco.contas.RepositorioContas;
+import qualiti.banco.contas.RepositorioContasArray;
+import qualiti.banco.contas.RepositorioContasForaHeap;
+import qualiti.banco.contas.TravasContas;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Benchmarks das operações de CadastroContas (creditar, debitar e transferir) sobre o
+ * repositório de contas em memória (array ou fora do heap), com as travas por conta ligadas. As contas são
+ * sorteadas a cada operação; com "-t N" na linha do JMH, N threads disputam as mesmas
+ * contas. O benchmark transferirLote mede o tempo por ordem de um lote de LOTE
+ * transferências, para comparar com transferir.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContasBenchmark {
+
+	//Saldo alto o bastante para que os débitos nunca falhem durante a medição
+	private static final long SALDO_INICIAL = Dinheiro.unidades(1000000000L);
+
+	private static final long VALOR = Dinheiro.unidades(1);
+
+	private static final int LOTE = 10000;
+
+	@Param({"ARRAY", "FORA_HEAP"})
+	public String repositorio;
+
+	@Param({"1000"})
+	public int quantidade;
+
+	private CadastroContas cadastro;
+
+	private String[] numeros;
+
+	private List<OrdemTransferencia> lote;
+
+	@Setup(Level.Trial)
+	public void preparar() throws Exception {
+		RepositorioContas contas = "ARRAY".equals(repositorio)
+			? new RepositorioContasArray(quantidade) : new RepositorioContasForaHeap(quantidade);
+		cadastro = new CadastroContas(contas, new TravasContas());
+		numeros = new String[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			numeros[i] = String.valueOf(i);
+			cadastro.cadastrar(new Conta(numeros[i], SALDO_INICIAL, null));
+		}
+		Random r = new Random(42);
+		lote = new ArrayList<OrdemTransferencia>(LOTE);
+		for (int i = 0; i < LOTE; i++) {
+			int origem = r.nextInt(quantidade);
+			int destino = (origem + 1 + r.nextInt(quantidade - 1)) % quantidade;
+			lote.add(new OrdemTransferencia(numeros[origem], numeros[destino], VALOR));
+		}
+	}
+
+	@Benchmark
+	public void creditar() throws Exception {
+		cadastro.creditar(numeros[sortear()], VALOR);
+	}
+
+	@Benchmark
+	public void debitar() throws Exception {
+		cadastro.debitar(numeros[sortear()], VALOR);
+	}
+
+	@Benchmark
+	public void transferir() throws Exception {
+		int origem = sortear();
+		//uma conta diferente da origem
+		int destino = (origem + 1 + ThreadLocalRandom.current().nextInt(quantidade - 1)) % quantidade;
+		cadastro.transferir(numeros[origem], numeros[destino], VALOR);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOTE)
+	public Object transferirLote() throws Exception {
+		return cadastro.transferirLote(lote);
+	}
+
+	private int sortear() {
+		return ThreadLocalRandom.current().nextInt(quantidade);
+	}
+}
@@ -1,112 +1,169 @@
-package qualiti.banco.clientes;
-
-import java.util.Vector;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-/**
- * Classe que realiza validaes referentes s operaes de atualizao de dados
- * no mecanismo de armazenamento de dados de clientes e usa o repositrio de clientes
- * para aualizar e buscar os dados dos mesmos.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.cliente.Cliente
- * @see qualiti.banco.cliente.ReposiorioClientes
- */
-public class CadastroClientes {
-
-	/**
-	 * Referncia para a implementao do repositrio de clientes.
-	 */
-	private RepositorioClientes clientes;
-
-	/**
-	 * O construtor da classe. Inicializa a referncia para o repositrio
-	 * de clientes com o valor passado como parmetro.
-	 *
-	 * @param l a referncia para o repositrio de clientes.
-	 */
-	public CadastroClientes(RepositorioClientes l) {
-
-		this.clientes = l;
-	}
-
-	/**
-	 * Atualiza os dados de um cliente no repositrio de clientes.
-	 *
-	 * @param c o cliente com os dados a serem atualizados.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            atualizados no existe no repositrio de clientes.Esta exceo vem da
-	 *            chamada ao repositrio de clientes e  repassada diretamente por este
-	 *            mtodo ao seu mtodo chamador.
-	 */
-	public void atualizar(Cliente c)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		clientes.atualizar(c);
-	}
-
-	/**
-	 * Cadastra os dados de um cliente no repositrio de clientes. Antes disso,
-	 * checa se o CPF do cliente a ser cadastrado j existe no repositrio de clientes.
-	 *
-	 * @param c o cliente com os dados a serem cadastrados.
-	 *
-	 * @exception ClienteExistenteException se o CPF do cliente a ser cadastrado j
-	 *            existir no repositrio de clientes. Esta exceo  instanciada e
-	 *            lanada por este mtodo, caso a consulta ao CPF feita no repositrio
-	 *            retorne true.
-	 */
-	public void cadastrar(Cliente c)
-		throws ClienteExistenteException, ErroAcessoRepositorioException {
-
-		String cpf = c.getCpf();
-		if (!clientes.existe(cpf)) {
-			clientes.inserir(c);
-		} else {
-			throw new ClienteExistenteException(c.getCpf());
-		}
-	}
-
-	/**
-	 * Exclui um cliente armazenado no repositrio de clientes.
-	 *
-	 * @param cpf o CPF do cliente que ser excludo do repositrio de clientes.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo
-	 *            no existe no repositrio de clientes. Esta exceo vem da chamada ao
-	 *            repositrio de clientes e  repassada diretamente por este mtodo
-	 *            ao seu mtodo chamador.
-	 */
-	public void descadastrar(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		clientes.remover(cpf);
-	}
-
-	/**
-	 * Retorna um cliente armazenado no repositrio de clientes.
-	 *
-	 * @param cpf o CPF do cliente que ser procurado no repositrio de clientes.
-	 *
-	 * @return Cliente o cliente com seus dados lidos a partir do repositrio
-	 *         de clientes.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            lidos no existe no repositrio de clientes. Esta exceo vem da chamada
-	 *            ao repositrio de clientes e  repassada diretamente por este mtodo ao
-	 *            seu mtodo chamador.
-	 */
-	public Cliente procurar(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		return clientes.procurar(cpf);
-	}
-
-	public Vector<Cliente> listar()throws ErroAcessoRepositorioException {
-		return clientes.listar();
-	}
-}
+package qualiti.banco.clientes;
+
+import java.util.Vector;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+/**
+ * Classe que realiza validações referentes às operações de atualização de dados
+ * no mecanismo de armazenamento de dados de clientes e usa o repositório de clientes
+ * para aualizar e buscar os dados dos mesmos.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.cliente.Cliente
+ * @see qualiti.banco.cliente.ReposiorioClientes
+ */
+public class CadastroClientes implements OperacoesClientes {
+
+	/**
+	 * Referência para a implementação do repositório de clientes.
+	 */
+	private RepositorioClientes clientes;
+
+	/**
+	 * O construtor da classe. Inicializa a referência para o repositório
+	 * de clientes com o valor passado como parâmetro.
+	 *
+	 * @param l a referência para o repositório de clientes.
+	 */
+	public CadastroClientes(RepositorioClientes l) {
+
+		this.clientes = l;
+	}
+
+	/**
+	 * Atualiza os dados de um cliente no repositório de clientes.
+	 *
+	 * @param c o cliente com os dados a serem atualizados.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            atualizados não existe no repositório de clientes.Esta exceção vem da
+	 *            chamada ao repositório de clientes e é repassada diretamente por este
+	 *            método ao seu método chamador.
+	 */
+	public void atualizar(Cliente c)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		clientes.atualizar(c);
+	}
+
+	/**
+	 * Cadastra os dados de um cliente no repositório de clientes, se o CPF do cliente
+	 * ainda não existir nele. A verificação e a inclusão são feitas pelo repositório
+	 * em uma única operação, que não pode ser intercalada com outro cadastro.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @exception ClienteExistenteException se o CPF do cliente a ser cadastrado já
+	 *            existir no repositório de clientes. Esta exceção é instanciada e
+	 *            lançada por este método, caso o repositório não tenha inserido o
+	 *            cliente.
+	 */
+	public void cadastrar(Cliente c)
+		throws ClienteExistenteException, ErroAcessoRepositorioException {
+
+		if (!clientes.inserirSeAusente(c)) {
+			throw new ClienteExistenteException(c.getCpf());
+		}
+	}
+
+	/**
+	 * Exclui um cliente armazenado no repositório de clientes.
+	 *
+	 * @param cpf o CPF do cliente que será excluído do repositório de clientes.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído
+	 *            não existe no repositório de clientes. Esta exceção vem da chamada ao
+	 *            repositório de clientes e é repassada diretamente por este método
+	 *            ao seu método chamador.
+	 */
+	public void descadastrar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		clientes.remover(cpf);
+	}
+
+	/**
+	 * Retorna um cliente armazenado no repositório de clientes.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no repositório de clientes.
+	 *
+	 * @return Cliente o cliente com seus dados lidos a partir do repositório
+	 *         de clientes.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            lidos não existe no repositório de clientes. Esta exceção vem da chamada
+	 *            ao repositório de clientes e é repassada diretamente por este método ao
+	 *            seu método chamador.
+	 */
+	public Cliente procurar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		return clientes.procurar(cpf);
+	}
+
+	/**
+	 * Retorna um cliente armazenado no repositório de clientes, carregando as suas
+	 * associações conforme o perfil de carga.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no repositório de clientes.
+	 * @param perfil o perfil de carga.
+	 *
+	 * @return Cliente o cliente.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente não existe no
+	 *            repositório de clientes.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		return clientes.procurar(cpf, perfil);
+	}
+
+	public Vector<Cliente> listar()throws ErroAcessoRepositorioException {
+
+		return clientes.listar();
+	}
+
+	/**
+	 * Retorna todos os clientes do repositório de clientes, carregando as associações
+	 * de cada um conforme o perfil de carga.
+	 *
+	 * @param perfil o perfil de carga.
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil)throws ErroAcessoRepositorioException {
+
+		return clientes.listar(perfil);
+	}
+
+	/**
+	 * Entrega ao consumidor, um a um, todos os clientes do repositório de clientes,
+	 * ordenados pelo nome.
+	 *
+	 * @param consumidor quem recebe os clientes. Se retornar false, a listagem é
+	 *        encerrada.
+	 */
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException {
+
+		clientes.listar(consumidor);
+	}
+
+	/**
+	 * Retorna a página de clientes do repositório de clientes que vem logo depois do
+	 * cliente passado, na ordem escolhida.
+	 *
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página. Uma página vazia indica o fim da listagem.
+	 */
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+		throws ErroAcessoRepositorioException {
+
+		return clientes.listarPagina(ordem, ultimo, tamanho);
+	}
+}
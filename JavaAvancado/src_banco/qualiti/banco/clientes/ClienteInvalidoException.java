@@ -1,14 +1,14 @@
-package qualiti.banco.clientes;
-
-/**
- * Exceo lanada quando um cliente  nulo em uma operao de cadastro de contas.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.fachada.Fachada
- */
-@SuppressWarnings("serial")
-public class ClienteInvalidoException extends Exception {
-}
+package qualiti.banco.clientes;
+
+/**
+ * Exceção lançada quando um cliente é nulo em uma operação de cadastro de contas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.fachada.Fachada
+ */
+@SuppressWarnings("serial")
+public class ClienteInvalidoException extends Exception {
+}
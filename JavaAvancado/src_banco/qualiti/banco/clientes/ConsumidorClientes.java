@@ -0,0 +1,25 @@
+package qualiti.banco.clientes;
+
+/**
+ * Interface de quem recebe, um a um, os clientes de uma listagem feita de forma
+ * incremental. Com ela o repositório entrega cada cliente assim que ele é lido, sem
+ * montar uma coleção com todos os clientes em memória.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.clientes.Cliente
+ * @see qualiti.banco.clientes.RepositorioClientesBDR
+ */
+public interface ConsumidorClientes {
+	/**
+	 * Processa um cliente da listagem.
+	 *
+	 * @param c o cliente lido.
+	 *
+	 * @return boolean true para continuar a listagem e false para encerrá-la sem
+	 *         ler os clientes restantes.
+	 */
+	public boolean processar(Cliente c);
+}
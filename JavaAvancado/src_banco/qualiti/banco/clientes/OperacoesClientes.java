@@ -0,0 +1,88 @@
+package qualiti.banco.clientes;
+
+import java.util.Vector;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+
+/**
+ * Interface que define as operações do cadastro de clientes. Existe para que o
+ * cadastro possa ser envolvido por proxies, como o das métricas (ver
+ * qualiti.banco.metricas.Metricas.instrumentar()).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.clientes.CadastroClientes
+ */
+public interface OperacoesClientes {
+	/**
+	 * Atualiza os dados de um cliente no repositório de clientes.
+	 *
+	 * @param c o cliente com os dados a serem atualizados.
+	 */
+	public void atualizar(Cliente c)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Cadastra um cliente, se o CPF ainda não existir no repositório.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 */
+	public void cadastrar(Cliente c)
+		throws ClienteExistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Exclui um cliente.
+	 *
+	 * @param cpf o CPF do cliente.
+	 */
+	public void descadastrar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna um cliente.
+	 *
+	 * @param cpf o CPF do cliente.
+	 *
+	 * @return Cliente o cliente.
+	 */
+	public Cliente procurar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna um cliente, carregando as suas associações conforme o perfil de carga.
+	 *
+	 * @param cpf o CPF do cliente.
+	 * @param perfil o perfil de carga.
+	 *
+	 * @return Cliente o cliente.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna todos os clientes, ordenados pelo nome.
+	 */
+	public Vector<Cliente> listar() throws ErroAcessoRepositorioException;
+	/**
+	 * Retorna todos os clientes, carregando as associações de cada um conforme o
+	 * perfil de carga.
+	 *
+	 * @param perfil o perfil de carga.
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException;
+	/**
+	 * Entrega ao consumidor, um a um, todos os clientes, ordenados pelo nome.
+	 *
+	 * @param consumidor quem recebe os clientes.
+	 */
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException;
+	/**
+	 * Retorna uma página de clientes, na ordem escolhida.
+	 *
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página.
+	 */
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+		throws ErroAcessoRepositorioException;
+}
@@ -0,0 +1,77 @@
+package qualiti.banco.clientes;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Vector;
+
+/**
+ * Ordens possíveis para a listagem paginada de clientes. A paginação é feita por
+ * chave (keyset): cada página começa logo depois do último cliente da página
+ * anterior, na ordem escolhida, em vez de pular uma quantidade de registros.
+ *
+ * Na ordem por nome, clientes com o mesmo nome são ordenados pelo CPF, de forma que
+ * a ordem é total e nenhum cliente é repetido ou pulado entre páginas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.clientes.RepositorioClientes#listarPagina(OrdemClientes, Cliente, int)
+ */
+public enum OrdemClientes implements Comparator<Cliente> {
+
+	/**
+	 * Ordem crescente de CPF.
+	 */
+	CPF {
+		public int compare(Cliente a, Cliente b) {
+			return a.getCpf().compareTo(b.getCpf());
+		}
+	},
+
+	/**
+	 * Ordem crescente de nome e, para nomes iguais, de CPF.
+	 */
+	NOME {
+		public int compare(Cliente a, Cliente b) {
+			int r = a.getNome().compareTo(b.getNome());
+			return r != 0 ? r : a.getCpf().compareTo(b.getCpf());
+		}
+	};
+
+	/**
+	 * Seleciona, entre clientes em memória sem ordem definida, a página que vem logo
+	 * depois do cliente passado. Usa uma fila de prioridade limitada ao tamanho da
+	 * página, sem ordenar todos os clientes.
+	 *
+	 * @param clientes os clientes, em qualquer ordem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página, nesta ordem.
+	 */
+	Vector<Cliente> selecionarPagina(Iterable<Cliente> clientes, Cliente ultimo, int tamanho) {
+
+		if (tamanho <= 0) {
+			throw new IllegalArgumentException("Tamanho de pagina invalido: " + tamanho);
+		}
+		// o topo da fila é o maior cliente selecionado até agora
+		PriorityQueue<Cliente> selecionados =
+			new PriorityQueue<Cliente>(Math.min(tamanho, 1024), Collections.reverseOrder(this));
+		for (Cliente c : clientes) {
+			if (ultimo != null && compare(c, ultimo) <= 0) {
+				continue;
+			}
+			if (selecionados.size() < tamanho) {
+				selecionados.add(c);
+			} else if (compare(c, selecionados.peek()) < 0) {
+				selecionados.poll();
+				selecionados.add(c);
+			}
+		}
+		Vector<Cliente> pagina = new Vector<Cliente>(selecionados);
+		Collections.sort(pagina, this);
+		return pagina;
+	}
+}
@@ -1,91 +1,172 @@
-package qualiti.banco.clientes;
-
-import java.util.Vector;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-/**
- * Interface que define os mtodos de acesso aos dados de cliente em um
- * mecanismo de armazenamento de dados. 
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.cliente.Cliente 
- */
-public interface RepositorioClientes {
-	/**
-	 * Atualiza os dados de um cliente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param c o cliente com os dados a serem atualizados. 
-	 * 
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados 
-	 *            atualizados no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public void atualizar(Cliente c)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException;
-	/**
-	 * Verifica se um cliente existe armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param cpf o CPF do cliente cuja existncia EM UM MECANISMO DE ARMAZENAMENTO DE DADOS 
-	 *        ser verificada.
-	 * 
-	 * @return boolean true se o cliente existir EM UM MECANISMO DE ARMAZENAMENTO DE DADOS e
-	 *         false caso contrrio.
-	 * 
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public boolean existe(String cpf) throws ErroAcessoRepositorioException;
-	/**
-	 * Cadastra os dados de um cliente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param c o cliente com os dados a serem cadastrados. 
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de cliente j existente ??
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public void inserir(Cliente c) throws ErroAcessoRepositorioException;
-	
-	/**
-	 * lista todos os clientes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public Vector<Cliente> listar() throws ErroAcessoRepositorioException;
-	
-	/**
-	 * Retorna um cliente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param cpf o CPF do cliente que ser procurado EM UM MECANISMO DE ARMAZENAMENTO 
-	 *        DE DADOS.
-	 *        
-	 * @return Cliente o cliente com seus dados lidos a partir DE UM MECANISMO DE 
-	 *         ARMAZENAMENTO DE DADOS.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados 
-	 *            lidos no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public Cliente procurar(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException;
-	/**
-	 * Exclui um cliente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param cpf o CPF do cliente que ser excludo EM UM MECANISMO DE ARMAZENAMENTO 
-	 *        DE DADOS.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo 
-	 *            no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
-	 */
-	public void remover(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException;
-}
+package qualiti.banco.clientes;
+
+import java.util.Vector;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+/**
+ * Interface que define os métodos de acesso aos dados de cliente em um
+ * mecanismo de armazenamento de dados. 
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.cliente.Cliente 
+ */
+public interface RepositorioClientes {
+	/**
+	 * Atualiza os dados de um cliente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param c o cliente com os dados a serem atualizados. 
+	 * 
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados 
+	 *            atualizados não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void atualizar(Cliente c)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Verifica se um cliente existe armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param cpf o CPF do cliente cuja existência EM UM MECANISMO DE ARMAZENAMENTO DE DADOS 
+	 *        será verificada.
+	 * 
+	 * @return boolean true se o cliente existir EM UM MECANISMO DE ARMAZENAMENTO DE DADOS e
+	 *         false caso contrário.
+	 * 
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public boolean existe(String cpf) throws ErroAcessoRepositorioException;
+	/**
+	 * Cadastra os dados de um cliente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param c o cliente com os dados a serem cadastrados. 
+	 *
+	 * @see Q1 Por que este método não lança a exceção de cliente já existente ??
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void inserir(Cliente c) throws ErroAcessoRepositorioException;
+	/**
+	 * Cadastra os dados de um cliente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, se não
+	 * existir outro com o mesmo CPF. A verificação e a inclusão são uma única operação
+	 * atômica do mecanismo, de forma que, entre cadastros simultâneos do mesmo CPF,
+	 * apenas um consegue.
+	 * 
+	 * @param c o cliente com os dados a serem cadastrados. 
+	 *
+	 * @return boolean true se o cliente foi cadastrado e false se já existia um
+	 *         cliente com o mesmo CPF, que não é alterado.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public boolean inserirSeAusente(Cliente c) throws ErroAcessoRepositorioException;
+	
+	/**
+	 * lista todos os clientes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public Vector<Cliente> listar() throws ErroAcessoRepositorioException;
+
+	/**
+	 * lista todos os clientes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, carregando as
+	 * associações de cada cliente conforme o perfil de carga. listar() equivale a
+	 * listar(PerfilCarga.RESUMO).
+	 * 
+	 * @param perfil RESUMO para ler só os clientes e seus endereços, DETALHE para ler
+	 *        também as contas e os gerentes de cada cliente.
+	 * 
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException;
+
+	/**
+	 * Lista todos os clientes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, ordenados pelo
+	 * nome, entregando cada um ao consumidor passado assim que é lido. A implementação
+	 * não deve montar uma coleção com todos os clientes.
+	 * 
+	 * @param consumidor quem recebe os clientes. Se retornar false, a listagem é
+	 *        encerrada.
+	 * 
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException;
+
+	/**
+	 * Retorna uma página de clientes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. A página
+	 * contém os clientes que vêm logo depois do cliente passado, na ordem escolhida.
+	 * Para percorrer todos os clientes, passe null na primeira chamada e, nas
+	 * seguintes, o último cliente da página anterior, até receber uma página vazia.
+	 * 
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 *        Na ordem por nome são usados o nome e o CPF dele; na ordem por CPF, só o CPF.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 * 
+	 * @return Vector os clientes da página, na ordem escolhida.
+	 * 
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+		throws ErroAcessoRepositorioException;
+	
+	/**
+	 * Retorna um cliente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param cpf o CPF do cliente que será procurado EM UM MECANISMO DE ARMAZENAMENTO 
+	 *        DE DADOS.
+	 *        
+	 * @return Cliente o cliente com seus dados lidos a partir DE UM MECANISMO DE 
+	 *         ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados 
+	 *            lidos não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public Cliente procurar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna um cliente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, carregando
+	 * as suas associações conforme o perfil de carga. procurar(cpf) equivale a
+	 * procurar(cpf, PerfilCarga.RESUMO).
+	 * 
+	 * @param cpf o CPF do cliente que será procurado EM UM MECANISMO DE ARMAZENAMENTO 
+	 *        DE DADOS.
+	 * @param perfil RESUMO para ler só o cliente e seu endereço, DETALHE para ler
+	 *        também as suas contas e os seus gerentes.
+	 *        
+	 * @return Cliente o cliente com seus dados lidos a partir DE UM MECANISMO DE 
+	 *         ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados 
+	 *            lidos não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Exclui um cliente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param cpf o CPF do cliente que será excluído EM UM MECANISMO DE ARMAZENAMENTO 
+	 *        DE DADOS.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído 
+	 *            não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void remover(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException;
+}
@@ -1,175 +1,333 @@
-package qualiti.banco.clientes;
-
-import java.util.Vector;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-
-/**
- * Implementao da interface que define os mtodos de acesso aos dados de cliente
- * em um mecanismo de armazenamento de dados. Esta implementao  realizada atravs
- * do armazenamento de objetos do tipo cliente em um array interno de clientes existente
- * em memria e inicializado com 100 posies fixas.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.cliente.Cliente
- * @see qualiti.banco.cliente.RepositorioClientes
- */
-public class RepositorioClientesArray implements RepositorioClientes {
-
-	/**
-	 * Array interno de clientes.
-	 */
-	private Cliente[] clientes;
-	/**
-	 * Atributo auxiliar que representa a posio do "prximo novo objeto".
-	 */
-	private int indice;
-	/**
-	 * Tamanho do array a ser criado.
-	 */
-	private final static int tamCache = 100;
-
-	/**
-	 * O construtor da classe. Inicializa o ndice com zero e instancia
-	 * o array de clientes com 100 ocorrncias, onde 100  o tamanho da cache.
-	 */
-	public RepositorioClientesArray() {
-
-		indice = 0;
-		clientes = new Cliente[tamCache];
-	}
-
-	/**
-	 * Atualiza os dados de um cliente no array em memria, trocando
-	 * o objeto atual do array pelo objeto passado como parmetro.
-	 *
-	 * @param c o cliente com os dados a serem atualizados.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            atualizados no existe no array. A procura  feita pelo CPF.
-	 */
-	public void atualizar(Cliente c) throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		int i = procurarIndice(c.getCpf());
-		if (i != -1) {
-			clientes[i] = c;
-		} else {
-			throw new ClienteInexistenteException(c.getCpf());
-		}
-	}
-
-	/**
-	 * Verifica se um cliente existe armazenado no array.
-	 *
-	 * @param cpf o CPF do cliente cuja existncia no array
-	 *        ser verificada.
-	 *
-	 * @return boolean true se o cliente existir no array e
-	 *         false caso contrrio.
-	 */
-	public boolean existe(String cpf) {
-
-		boolean resp = false;
-		int i = this.procurarIndice(cpf);
-		if (i != -1) {
-			resp = true;
-		}
-		return resp;
-	}
-
-	/**
-	 * Cadastra os dados de um cliente no array, inserindo o objeto recebido
-	 * como parmetro na primeira ocorrncia vaga daquele.
-	 *
-	 * @param c o cliente com os dados a serem cadastrados.
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de cliente j existente ??
-	 *
-	 * @see Q2 Por que este mtodo no testa a existncia de um cliente com mesmo
-	 *         CPF do cliente passado no array ??
-	 */
-	public void inserir(Cliente c) {
-
-		clientes[indice] = c;
-		indice = indice + 1;
-	}
-
-	/**
-	 * Retorna um cliente armazenado no array.
-	 *
-	 * @param cpf o CPF do cliente que ser procurado no array.
-	 *
-	 * @return Cliente o cliente com seus dados lidos a partir do array.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            lidos no existe no array. A procura  feita pelo CPF.
-	 */
-	public Cliente procurar(String cpf) throws ClienteInexistenteException {
-
-		Cliente c = null;
-		if (existe(cpf)) {
-			int i = this.procurarIndice(cpf);
-			c = clientes[i];
-		} else {
-			throw new ClienteInexistenteException(cpf);
-		}
-
-		return c;
-	}
-
-	/**
-	 * Mtodo auxiliar que retorna o ndice da ocorrncia do array que
-	 * contm um objeto Cliente cujo CPF  igual ao CPF passado como parmetro.
-	 *
-	 * @param cpf o CPF a ser procurado nos clientes do array.
-	 *
-	 * @return int o ndice da ocorrncia do array que contm um objeto Cliente
-	 *         cujo CPF  igual ao CPF passado como parmetro. Se este objeto
-	 *         no for encontrado, o retorno  -1.
-	 */
-	private int procurarIndice(String cpf) {
-
-		int i = 0;
-		int ind = -1;
-		boolean achou = false;
-
-		while ((i < indice) && !achou) {
-			if ((clientes[i].getCpf()).equals(cpf)) {
-				ind = i;
-				achou = true;
-			}
-			i = i + 1;
-		}
-		return ind;
-	}
-
-	/**
-	 * Exclui um cliente armazenado no array. A excluso  feita colocando-se
-	 * a ltima ocorrncia na ocorrncia a ser excluda e se decrementando 1 do
-	 * ndice.
-	 *
-	 * @param cpf o CPF do cliente que ser excludo do array.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo
-	 *            no existe no array. A procura  feita por CPF.
-	 */
-	public void remover(String cpf) throws ClienteInexistenteException {
-
-		if (existe(cpf)) {
-			int i = this.procurarIndice(cpf);
-			clientes[i] = clientes[indice - 1];
-			clientes[indice - 1] = null;
-			indice = indice - 1;
-		} else {
-			throw new ClienteInexistenteException(cpf);
-		}
-	}
-
-	public Vector<Cliente> listar() throws ErroAcessoRepositorioException {
-		
-		return null;
-	}
+package qualiti.banco.clientes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de cliente
+ * em um mecanismo de armazenamento de dados. Esta implementação é realizada através
+ * do armazenamento de objetos do tipo cliente em um array interno de clientes existente
+ * em memória, inicializado com 100 posições e dobrado de tamanho quando fica cheio.
+ *
+ * A posição de cada cliente no array é encontrada pelo CPF em um índice de
+ * endereçamento aberto (IndiceCpf), sem percorrer o array e sem criar objetos. CPFs
+ * que não têm exatamente 11 dígitos ficam em um índice à parte, um HashMap.
+ *
+ * Pode ser usado por várias threads: os métodos que leem ou alteram o array são
+ * sincronizados, de forma que a verificação e a inclusão de inserirSeAusente() são
+ * uma única operação atômica.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.cliente.Cliente
+ * @see qualiti.banco.cliente.RepositorioClientes
+ */
+public class RepositorioClientesArray implements RepositorioClientes {
+
+	/**
+	 * Array interno de clientes.
+	 */
+	private Cliente[] clientes;
+	/**
+	 * Atributo auxiliar que representa a posição do "próximo novo objeto".
+	 */
+	private int indice;
+	/**
+	 * Posição de cada cliente no array, pelo CPF.
+	 */
+	private IndiceCpf posicoes;
+	/**
+	 * Posição dos clientes cujo CPF não tem exatamente 11 dígitos.
+	 */
+	private Map<String, Integer> outrasPosicoes;
+	/**
+	 * Tamanho inicial do array a ser criado.
+	 */
+	private final static int tamCache = 100;
+
+	/**
+	 * O construtor da classe. Inicializa o índice com zero e instancia
+	 * o array de clientes com 100 ocorrências, onde 100 é o tamanho inicial da cache.
+	 */
+	public RepositorioClientesArray() {
+
+		this(tamCache);
+	}
+
+	/**
+	 * O construtor da classe, com o tamanho inicial do array. Quando a quantidade de
+	 * clientes é conhecida, evita as cópias do array e do índice no crescimento.
+	 *
+	 * @param capacidade a quantidade de clientes esperada.
+	 */
+	public RepositorioClientesArray(int capacidade) {
+
+		indice = 0;
+		clientes = new Cliente[Math.max(capacidade, 1)];
+		posicoes = new IndiceCpf(capacidade);
+		outrasPosicoes = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Atualiza os dados de um cliente no array em memória, trocando
+	 * o objeto atual do array pelo objeto passado como parâmetro.
+	 *
+	 * @param c o cliente com os dados a serem atualizados.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            atualizados não existe no array. A procura é feita pelo CPF.
+	 */
+	public synchronized void atualizar(Cliente c) throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		int i = procurarIndice(c.getCpf());
+		if (i != -1) {
+			clientes[i] = c;
+		} else {
+			throw new ClienteInexistenteException(c.getCpf());
+		}
+	}
+
+	/**
+	 * Verifica se um cliente existe armazenado no array.
+	 *
+	 * @param cpf o CPF do cliente cuja existência no array
+	 *        será verificada.
+	 *
+	 * @return boolean true se o cliente existir no array e
+	 *         false caso contrário.
+	 */
+	public synchronized boolean existe(String cpf) {
+
+		boolean resp = false;
+		int i = this.procurarIndice(cpf);
+		if (i != -1) {
+			resp = true;
+		}
+		return resp;
+	}
+
+	/**
+	 * Cadastra os dados de um cliente no array, inserindo o objeto recebido
+	 * como parâmetro na primeira ocorrência vaga daquele. Se o array estiver cheio,
+	 * ele é copiado para um array com o dobro do tamanho. Um cliente com o CPF de um
+	 * cliente já cadastrado toma o lugar deste, para que o índice continue apontando
+	 * para um único cliente por CPF.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @see Q1 Por que este método não lança a exceção de cliente já existente ??
+	 *
+	 * @see Q2 Por que este método não testa a existência de um cliente com mesmo
+	 *         CPF do cliente passado no array ??
+	 */
+	public synchronized void inserir(Cliente c) {
+
+		int i = procurarIndice(c.getCpf());
+		if (i != -1) {
+			clientes[i] = c;
+			return;
+		}
+		acrescentar(c);
+	}
+
+	/**
+	 * Cadastra um cliente no array se não houver outro com o mesmo CPF, com uma única
+	 * procura no índice.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se o cliente foi cadastrado e false se já existia um
+	 *         cliente com o mesmo CPF.
+	 */
+	public synchronized boolean inserirSeAusente(Cliente c) {
+
+		if (procurarIndice(c.getCpf()) != -1) {
+			return false;
+		}
+		acrescentar(c);
+		return true;
+	}
+
+	/**
+	 * Coloca um cliente na primeira ocorrência vaga do array, dobrando o tamanho deste
+	 * se estiver cheio.
+	 */
+	private void acrescentar(Cliente c) {
+
+		if (indice == clientes.length) {
+			clientes = Arrays.copyOf(clientes, clientes.length * 2);
+		}
+		clientes[indice] = c;
+		indexar(c.getCpf(), indice);
+		indice = indice + 1;
+	}
+
+	/**
+	 * Retorna um cliente armazenado no array.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no array.
+	 *
+	 * @return Cliente o cliente com seus dados lidos a partir do array.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            lidos não existe no array. A procura é feita pelo CPF.
+	 */
+	public synchronized Cliente procurar(String cpf) throws ClienteInexistenteException {
+
+		int i = this.procurarIndice(cpf);
+		if (i == -1) {
+			throw new ClienteInexistenteException(cpf);
+		}
+		return clientes[i];
+	}
+
+	/**
+	 * Método auxiliar que retorna o índice da ocorrência do array que
+	 * contém um objeto Cliente cujo CPF é igual ao CPF passado como parâmetro.
+	 * O índice é lido do IndiceCpf, sem percorrer o array.
+	 *
+	 * @param cpf o CPF a ser procurado nos clientes do array.
+	 *
+	 * @return int o índice da ocorrência do array que contém um objeto Cliente
+	 *         cujo CPF é igual ao CPF passado como parâmetro. Se este objeto
+	 *         não for encontrado, o retorno é -1.
+	 */
+	private int procurarIndice(String cpf) {
+
+		long chave = IndiceCpf.chave(cpf);
+		if (chave != IndiceCpf.AUSENTE) {
+			return posicoes.get(chave);
+		}
+		Integer i = outrasPosicoes.get(cpf);
+		return i == null ? -1 : i.intValue();
+	}
+
+	/**
+	 * Associa um CPF a um índice do array.
+	 */
+	private void indexar(String cpf, int i) {
+
+		long chave = IndiceCpf.chave(cpf);
+		if (chave != IndiceCpf.AUSENTE) {
+			posicoes.put(chave, i);
+		} else {
+			outrasPosicoes.put(cpf, Integer.valueOf(i));
+		}
+	}
+
+	/**
+	 * Retira um CPF do índice.
+	 */
+	private void desindexar(String cpf) {
+
+		long chave = IndiceCpf.chave(cpf);
+		if (chave != IndiceCpf.AUSENTE) {
+			posicoes.remove(chave);
+		} else {
+			outrasPosicoes.remove(cpf);
+		}
+	}
+
+	/**
+	 * Exclui um cliente armazenado no array. A exclusão é feita colocando-se
+	 * a última ocorrência na ocorrência a ser excluída e se decrementando 1 do
+	 * índice.
+	 *
+	 * @param cpf o CPF do cliente que será excluído do array.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído
+	 *            não existe no array. A procura é feita por CPF.
+	 */
+	public synchronized void remover(String cpf) throws ClienteInexistenteException {
+
+		int i = this.procurarIndice(cpf);
+		if (i == -1) {
+			throw new ClienteInexistenteException(cpf);
+		}
+		desindexar(cpf);
+		if (i != indice - 1) {
+			clientes[i] = clientes[indice - 1];
+			indexar(clientes[i].getCpf(), i);
+		}
+		clientes[indice - 1] = null;
+		indice = indice - 1;
+	}
+
+	/**
+	 * Retorna todos os clientes do array, ordenados pelo nome.
+	 *
+	 * @return Vector os clientes.
+	 */
+	public synchronized Vector<Cliente> listar() {
+		
+		Vector<Cliente> retorno = new Vector<Cliente>(Arrays.asList(clientes).subList(0, indice));
+		Collections.sort(retorno, OrdemClientes.NOME);
+		return retorno;
+	}
+
+	/**
+	 * Entrega ao consumidor todos os clientes do array, ordenados pelo nome. A ordenação
+	 * é feita em uma cópia das referências do array.
+	 *
+	 * @param consumidor quem recebe os clientes.
+	 */
+	public void listar(ConsumidorClientes consumidor) {
+
+		for (Cliente c : listar()) {
+			if (!consumidor.processar(c)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Retorna uma página de clientes do array, na ordem escolhida.
+	 *
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página.
+	 */
+	public synchronized Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho) {
+
+		return ordem.selecionarPagina(Arrays.asList(clientes).subList(0, indice), ultimo, tamanho);
+	}
+
+	/**
+	 * Retorna todos os clientes do array, ordenados pelo nome. Os clientes em memória
+	 * já estão completos, por isso o perfil de carga não faz diferença.
+	 *
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Vector os clientes.
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil) {
+
+		return listar();
+	}
+
+	/**
+	 * Retorna um cliente armazenado no array. Os clientes em memória já estão
+	 * completos, por isso o perfil de carga não faz diferença.
+	 *
+	 * @param cpf o CPF do cliente.
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Cliente o cliente.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente não existe no array.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil) throws ClienteInexistenteException {
+
+		return procurar(cpf);
+	}
 }
\ No newline at end of file
@@ -1,432 +1,667 @@
-package qualiti.banco.clientes;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.Vector;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-import qualiti.banco.jdbcutil.JDBCConnectionUtil;
-/**
- * Implementao da interface que define os mtodos de acesso aos dados de cliente
- * em um mecanismo de armazenamento de dados. Esta implementao  realizada atravs
- * do armazenamento de objetos do tipo cliente em uma tabela de um banco de dados
- * relacional. Neste exemplo, est sendo utilizado o banco de dados Access. O driver
- * de acesso a este banco  a bridge da Sun.  importante notar que esta classe tem
- * diversos atributos referentes ao driver e a conexo com o banco a serem utilizados.
- * Estes atributos so inicializados no construtor da classe e podem ser lidos de um
- * arquivo de parmetros por quem instancia esta classe. Assim,  possvel parametrizar
- * o tipo de banco de dados a ser utilizado sem alterar a implementao deste repositrio,
- * desde que o banco suporte a sintaxe dos comandos SQL utilizados nesta implementao.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.cliente.Cliente
- * @see qualiti.banco.cliente.RepositorioClientes
- * @see java.sql.PreparedStatement
- * @see java.sql.ResultSet
- */
-public class RepositorioClientesBDR implements RepositorioClientes {
-
-	/**
-	 * Template de comando SQL para insert de cliente.
-	 */
-	private static final String INSERT_CLI =
-		"INSERT INTO tb_cliente (cpf,nome) VALUES (?,?)";
-
-	/**
-	 * Template de comando SQL para update de cliente.
-	 */
-	private static final String UPDATE_CLI =
-		"UPDATE tb_cliente SET nome = ? WHERE cpf = ?";
-	/**
-	 * Template de comando SQL para insert de endereco.
-	 */
-	private static final String INSERT_END =
-		"INSERT INTO tb_endereco (cep,numero,complemento,tb_cliente_cpf) VALUES (?,?,?,?)";
-
-	/**
-	 * Template de comando SQL para update de endereco.
-	 */
-	private static final String UPDATE_END =
-		"UPDATE tb_endereco SET cep = ?, numero=?, complemento=?  WHERE tb_cliente_cpf = ?";
-	/**
-	 * Template de comando SQL para delete de cliente.
-	 */
-	private static final String DELETE_CLI =
-		"DELETE FROM tb_cliente WHERE cpf = ?";
-	/**
-	 * Template de comando SQL para consulta de endereco.
-	 */
-	private static final String CONSULTA_END =
-		"SELECT COUNT(*) FROM tb_endereco WHERE tb_cliente_cpf = ?";
-	/**
-	 * Template de comando SQL para consulta de cliente.
-	 */
-	private static final String CONSULTA_CLI =
-		"SELECT COUNT(*) FROM tb_cliente WHERE cpf = ?";
-	
-	/**
-	 * Template de comando SQL para listagem de cliente.
-	 */
-	private static final String LISTA_CLI =
-		"SELECT * FROM tb_cliente order by nome";
-
-	/**
-	 * Template de comando SQL para procura de cliente.
-	 */
-	private static final String PROCURA_CLI =
-		"SELECT cpf,nome FROM tb_cliente WHERE cpf = ?";
-	/**
-	 * Template de comando SQL para procura de cliente.
-	 */
-	private static final String PROCURA_END =
-		"SELECT CEP,numero,complemento FROM tb_endereco WHERE tb_cliente_cpf = ?";
-	
-	/**
-	 * Mensagem que indica erro de acesso ao banco de dados.
-	 */
-	private static final String MSG_ERRO_ACESSO_BD =
-		"Erro de acesso ao banco de dados";
-
-
-	/**
-	 * Atualiza os dados de um cliente no banco de dados relacional.
-	 *
-	 * @param c o cliente com os dados a serem atualizados.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            atualizados no existe no banco de dados relacional.
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            ao banco de dados relacional.
-	 */
-	public void atualizar(Cliente c)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		if (c != null) {
-			Connection con = null;
-			PreparedStatement ps = null;
-			try {
-				con = getConexao();
-				JDBCConnectionUtil.createTransaction();
-				ps = con.prepareStatement(UPDATE_CLI);
-				ps.setString(1, c.getNome());
-				ps.setString(2, c.getCpf());
-				int rows = ps.executeUpdate();
-				if (rows <= 0) {
-					JDBCConnectionUtil.rollbackTransaction();
-					throw new ClienteInexistenteException(c.getCpf());
-				}
-
-				salvaEndereco(c);
-				
-				JDBCConnectionUtil.commitTransaction();
-			} catch (SQLException e) {
-				try {
-					JDBCConnectionUtil.rollbackTransaction();
-				} catch (SQLException e1) {
-					e1.printStackTrace();
-				}
-				throw new ErroAcessoRepositorioException(
-					MSG_ERRO_ACESSO_BD,
-					e,
-					e.getErrorCode());
-			} finally {
-				fechaRecursos(con, ps, null);
-			}
-		} else {
-			throw new ClienteInexistenteException("");
-		}
-	}
-	
-	private void salvaEndereco(Cliente c) throws SQLException {
-		if (c != null) {
-			if(c.getEndereco()!=null){
-				Connection con = getConexao();
-				PreparedStatement ps = null;
-					ps = con.prepareStatement(CONSULTA_END);
-					ps.setString(1, c.getCpf());
-					ResultSet rs = ps.executeQuery();
-					
-					//Se j existe um endereco atualiza
-					if (rs.next() && rs.getInt(1)>0){
-						ps = con.prepareStatement(UPDATE_END);
-					}else { //Caso contrrio inclue
-						ps = con.prepareStatement(INSERT_END);
-					}
-					
-					ps.setString(1, c.getEndereco().getCEP());
-					ps.setString(2, c.getEndereco().getNumero());
-					ps.setString(3, c.getEndereco().getComplemento());
-					ps.setString(4, c.getCpf());
-					ps.executeUpdate();
-			}
-		} else {
-			throw new IllegalArgumentException("");
-		}
-	}
-	/**
-	 * Verifica se um cliente existe armazenado no banco de dados relacional.
-	 *
-	 * @param cpf o CPF do cliente cuja existncia no banco de dados relacional
-	 *        ser verificada.
-	 *
-	 * @return boolean true se o cliente existir no banco de dados relacional e
-	 *         false caso contrrio.
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            ao banco de dados relacional.
-	 */
-	public boolean existe(String cpf) throws ErroAcessoRepositorioException {
-
-		if (cpf != null) {
-			Connection con = null;
-			PreparedStatement ps = null;
-			ResultSet rs = null;
-			try {
-				con = getConexao();
-				ps = con.prepareStatement(CONSULTA_CLI);
-				ps.setString(1, cpf);
-				rs = ps.executeQuery();
-				if (rs.next()) {
-					int qtdLinhas = rs.getInt(1);
-					return (qtdLinhas > 0);
-				} else {
-					return false;
-				}
-			} catch (SQLException e) {
-				throw new ErroAcessoRepositorioException(
-					MSG_ERRO_ACESSO_BD,
-					e,
-					e.getErrorCode());
-			} finally {
-				fechaRecursos(con, ps, rs);
-			}
-		} else {
-			return false;
-		}
-	}
-	
-	public Vector<Cliente> listar() throws ErroAcessoRepositorioException{
-		
-		Connection con = null;
-		Statement stmt = null;
-		ResultSet rs = null;
-		Vector<Cliente>  clientes = new Vector<Cliente>();
-		try {
-			con = getConexao();
-			stmt = con.createStatement();
-			PreparedStatement ps = con.prepareStatement(PROCURA_END);
-			
-			rs = stmt.executeQuery(LISTA_CLI);
-			while(rs.next()){
-				Cliente c = new Cliente(rs.getString("cpf").trim(),rs.getString("nome").trim());
-				clientes.add(c);
-				
-				//Procura o endereco do cliente
-				ps.setString(1,c.getCpf());
-				ResultSet rsEndereco =  ps.executeQuery();
-				//Se existir seta non cliente consultado
-				if (rsEndereco.next()){
-					Endereco end = new Endereco(rsEndereco.getString("CEP"),rsEndereco.getString("numero"),rsEndereco.getString("Complemento"));
-					c.setEndereco(end);
-				}
-				
-			}
-			return clientes;
-		} catch (SQLException e) {
-			System.out.println(e);
-			throw new ErroAcessoRepositorioException(
-				MSG_ERRO_ACESSO_BD,
-				e,
-				e.getErrorCode());
-		} finally {
-			try {
-				if (rs != null)
-					rs.close();
-			} catch (Exception e) {
-			}
-			try {
-				if (stmt != null)
-					stmt.close();
-			} catch (Exception e) {
-			}
-			try {
-				if (con != null)
-					con.close();
-			} catch (Exception e) {
-			}
-		}
-		
-	}
-	
-	/**
-	 * Inicializa o driver do banco, caso este no esteja inicializado e
-	 * retorna uma conexo do banco de dados, obtida a partir do driver manager.
-	 *
-	 * @return Connection a conexo do banco de dados
-	 *
-	 */
-	private Connection getConexao() throws SQLException {
-
-		Connection con = null; 
-		
-		con = JDBCConnectionUtil.getConnection();
-		
-		return con;
-	}
-	/**
-	 * Cadastra os dados de um cliente no banco de dados relacional.
-	 *
-	 * @param c o cliente com os dados a serem cadastrados.
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            ao banco de dados relacional.
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de cliente j existente ??
-	 */
-	public void inserir(Cliente c) throws ErroAcessoRepositorioException {
-
-		if (c != null) {
-			Connection con = null;
-			PreparedStatement ps = null;
-			try {
-				con = getConexao();
-				JDBCConnectionUtil.createTransaction();
-				ps = con.prepareStatement(INSERT_CLI);
-				ps.setString(1, c.getCpf());
-				ps.setString(2, c.getNome());
-				ps.executeUpdate();
-				salvaEndereco(c);
-				JDBCConnectionUtil.commitTransaction();
-			} catch (SQLException e) {
-				try {
-					JDBCConnectionUtil.rollbackTransaction();
-				} catch (SQLException e1) {
-					e1.printStackTrace();
-				}
-				throw new ErroAcessoRepositorioException(
-					MSG_ERRO_ACESSO_BD,
-					e,
-					e.getErrorCode());
-			} finally {
-				fechaRecursos(con, ps, null);
-			}
-		}
-	}
-	/**
-	 * Retorna um cliente armazenado no banco de dados relacional.
-	 *
-	 * @param cpf o CPF do cliente que ser procurado no banco de dados relacional.
-	 *
-	 * @return Cliente o cliente com seus dados lidos a partir no banco de dados relacional.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            lidos no existe no no banco de dados relacional.
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            ao banco de dados relacional.
-	 */
-	public Cliente procurar(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		if (cpf != null) {
-			Connection con = null;
-			PreparedStatement ps = null;
-			ResultSet rs = null;
-			try {
-				con = getConexao();
-				ps = con.prepareStatement(PROCURA_CLI);
-				ps.setString(1, cpf);
-				rs = ps.executeQuery();
-				if (rs.next()) {
-					String bdCpf = rs.getString(1);
-					String bdNome = rs.getString(2);
-					Cliente cli = new Cliente(bdCpf.trim(), bdNome.trim());
-					return cli;
-				} else {
-					throw new ClienteInexistenteException(cpf);
-				}
-			} catch (SQLException e) {
-				throw new ErroAcessoRepositorioException(
-					MSG_ERRO_ACESSO_BD,
-					e,
-					e.getErrorCode());
-			} finally {
-				fechaRecursos(con, ps, rs);
-			}
-		} else {
-			throw new ClienteInexistenteException("");
-		}
-	}
-	/**
-	 * Exclui um cliente armazenado no banco de dados relacional.
-	 *
-	 * @param cpf o CPF do cliente que ser excludo no banco de dados relacional.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo
-	 *            no existe no no banco de dados relacional.
-	 *
-	 * @exception ErroAcessoRepositorioException lanada quando ocorrer erro de acesso
-	 *            ao banco de dados relacional.
-	 */
-	public void remover(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-		if (cpf != null) {
-			Connection con = null;
-			PreparedStatement ps = null;
-			try {
-				con = getConexao();
-				ps = con.prepareStatement(DELETE_CLI);
-				ps.setString(1, cpf);
-				int rows = ps.executeUpdate();
-				if (rows <= 0) {
-					throw new ClienteInexistenteException(cpf);
-				}
-			} catch (SQLException e) {
-				e.printStackTrace();
-				throw new ErroAcessoRepositorioException(
-					MSG_ERRO_ACESSO_BD,
-					e,
-					e.getErrorCode());
-			} finally {
-				fechaRecursos(con, ps, null);
-			}
-		} else {
-			throw new ClienteInexistenteException("");
-		}
-	}
-	/**
-	 * Fecha os recursos passados como parmetros.
-	 *
-	 * @param con a conexo a ser fechada.
-	 * @param ps o prepared statement a ser fechado.
-	 * @param rs o result set a ser fechado.
-	 */
-	private void fechaRecursos(
-		Connection con,
-		PreparedStatement ps,
-		ResultSet rs) {
-
-		try {
-			if (rs != null)
-				rs.close();
-		} catch (Exception e) {
-		}
-		try {
-			if (ps != null)
-				ps.close();
-		} catch (Exception e) {
-		}
-		try {
-			if (con != null)
-				con.close();
-		} catch (Exception e) {
-		}
-	}
-}
+package qualiti.banco.clientes;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Vector;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+import qualiti.banco.jdbcutil.JDBCConnectionUtil;
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de cliente
+ * em um mecanismo de armazenamento de dados. Esta implementação é realizada através
+ * do armazenamento de objetos do tipo cliente em uma tabela de um banco de dados
+ * relacional. Neste exemplo, está sendo utilizado o banco de dados Access. O driver
+ * de acesso a este banco é a bridge da Sun. É importante notar que esta classe tem
+ * diversos atributos referentes ao driver e a conexão com o banco a serem utilizados.
+ * Estes atributos são inicializados no construtor da classe e podem ser lidos de um
+ * arquivo de parâmetros por quem instancia esta classe. Assim, é possível parametrizar
+ * o tipo de banco de dados a ser utilizado sem alterar a implementação deste repositório,
+ * desde que o banco suporte a sintaxe dos comandos SQL utilizados nesta implementação.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.cliente.Cliente
+ * @see qualiti.banco.cliente.RepositorioClientes
+ * @see java.sql.PreparedStatement
+ * @see java.sql.ResultSet
+ */
+public class RepositorioClientesBDR implements RepositorioClientes {
+
+	private static final Logger LOG = Logger.getLogger(RepositorioClientesBDR.class);
+
+	/**
+	 * Template de comando SQL para insert de cliente.
+	 */
+	private static final String INSERT_CLI =
+		"INSERT INTO tb_cliente (cpf,nome) VALUES (?,?)";
+
+	/**
+	 * Template de comando SQL para update de cliente.
+	 */
+	private static final String UPDATE_CLI =
+		"UPDATE tb_cliente SET nome = ? WHERE cpf = ?";
+	/**
+	 * Template de comando SQL para insert de endereco.
+	 */
+	private static final String INSERT_END =
+		"INSERT INTO tb_endereco (cep,numero,complemento,tb_cliente_cpf) VALUES (?,?,?,?)";
+
+	/**
+	 * Template de comando SQL para update de endereco.
+	 */
+	private static final String UPDATE_END =
+		"UPDATE tb_endereco SET cep = ?, numero=?, complemento=?  WHERE tb_cliente_cpf = ?";
+	/**
+	 * Template de comando SQL para delete de cliente.
+	 */
+	private static final String DELETE_CLI =
+		"DELETE FROM tb_cliente WHERE cpf = ?";
+	/**
+	 * Template de comando SQL para consulta de cliente.
+	 */
+	private static final String CONSULTA_CLI =
+		"SELECT COUNT(*) FROM tb_cliente WHERE cpf = ?";
+	
+	/**
+	 * Template de comando SQL para listagem de cliente junto com o seu endereço, em
+	 * uma única consulta.
+	 */
+	private static final String LISTA_CLI_END =
+		"SELECT c.cpf, c.nome, e.tb_cliente_cpf, e.CEP, e.numero, e.Complemento "
+			+ "FROM tb_cliente c LEFT JOIN tb_endereco e ON e.tb_cliente_cpf = c.cpf ";
+
+	/**
+	 * Templates de comando SQL para as páginas da listagem de cliente, por CPF e por
+	 * nome. A primeira página não tem o filtro de chave.
+	 */
+	private static final String PAGINA_CPF_INICIO =
+		LISTA_CLI_END + "ORDER BY c.cpf";
+	private static final String PAGINA_CPF =
+		LISTA_CLI_END + "WHERE c.cpf > ? ORDER BY c.cpf";
+	private static final String PAGINA_NOME_INICIO =
+		LISTA_CLI_END + "ORDER BY c.nome, c.cpf";
+	private static final String PAGINA_NOME =
+		LISTA_CLI_END + "WHERE c.nome > ? OR (c.nome = ? AND c.cpf > ?) ORDER BY c.nome, c.cpf";
+
+	/**
+	 * Quantidade de linhas que o driver deve trazer do banco a cada ida ao servidor
+	 * nas listagens.
+	 */
+	private static final int TAMANHO_BUSCA = 500;
+
+	/**
+	 * Template de comando SQL para procura de cliente.
+	 */
+	private static final String PROCURA_CLI =
+		"SELECT cpf,nome FROM tb_cliente WHERE cpf = ?";
+	
+	/**
+	 * Mensagem que indica erro de acesso ao banco de dados.
+	 */
+	private static final String MSG_ERRO_ACESSO_BD =
+		"Erro de acesso ao banco de dados";
+
+	/**
+	 * Código de erro do HSQLDB para violação de chave primária ou única.
+	 */
+	private static final int ERRO_CHAVE_DUPLICADA = -104;
+
+
+	/**
+	 * Atualiza os dados de um cliente no banco de dados relacional. O cliente e o seu
+	 * endereço são gravados com um comando para cada tabela, na mesma transação; o
+	 * endereço só é inserido se o cliente ainda não tiver um.
+	 *
+	 * @param c o cliente com os dados a serem atualizados.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            atualizados não existe no banco de dados relacional.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void atualizar(Cliente c)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		if (c != null) {
+			Connection con = null;
+			PreparedStatement ps = null;
+			// sem endereço, o comando único dispensa a transação
+			boolean transacao = c.getEndereco() != null;
+			try {
+				if (transacao) {
+					JDBCConnectionUtil.createTransaction();
+				}
+				con = getConexao();
+				ps = con.prepareStatement(UPDATE_CLI);
+				ps.setString(1, c.getNome());
+				ps.setString(2, c.getCpf());
+				int rows = ps.executeUpdate();
+				if (rows <= 0) {
+					if (transacao) {
+						JDBCConnectionUtil.rollbackTransaction();
+					}
+					throw new ClienteInexistenteException(c.getCpf());
+				}
+
+				salvaEndereco(con, c, false);
+
+				if (transacao) {
+					JDBCConnectionUtil.commitTransaction();
+				}
+			} catch (SQLException e) {
+				if (transacao) {
+					try {
+						JDBCConnectionUtil.rollbackTransaction();
+					} catch (SQLException e1) {
+						LOG.warn("Erro ao desfazer a transacao", e1);
+					}
+				}
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, null);
+			}
+		} else {
+			throw new ClienteInexistenteException("");
+		}
+	}
+
+	/**
+	 * Grava o endereço do cliente, se houver, usando a conexão passada. O endereço de
+	 * um cliente recém inserido é inserido diretamente. Nos demais casos o endereço é
+	 * atualizado e, se o cliente ainda não tiver endereço, inserido; se outra transação
+	 * inserir o mesmo endereço nesse meio tempo, a atualização é repetida. O HSQLDB 1.8
+	 * não tem o comando MERGE, que faria isso em um único comando.
+	 *
+	 * @param con a conexão da transação corrente.
+	 * @param c o cliente.
+	 * @param novo true se o cliente acabou de ser inserido.
+	 */
+	private void salvaEndereco(Connection con, Cliente c, boolean novo) throws SQLException {
+
+		if (c.getEndereco() == null) {
+			return;
+		}
+		if (!novo && gravaEndereco(con, UPDATE_END, c) > 0) {
+			return;
+		}
+		try {
+			gravaEndereco(con, INSERT_END, c);
+		} catch (SQLException e) {
+			if (novo || e.getErrorCode() != ERRO_CHAVE_DUPLICADA) {
+				throw e;
+			}
+			gravaEndereco(con, UPDATE_END, c);
+		}
+	}
+
+	/**
+	 * Executa um dos comandos de gravação de endereço, que têm os mesmos parâmetros.
+	 *
+	 * @return int a quantidade de linhas gravadas.
+	 */
+	private int gravaEndereco(Connection con, String sql, Cliente c) throws SQLException {
+
+		PreparedStatement ps = con.prepareStatement(sql);
+		try {
+			ps.setString(1, c.getEndereco().getCEP());
+			ps.setString(2, c.getEndereco().getNumero());
+			ps.setString(3, c.getEndereco().getComplemento());
+			ps.setString(4, c.getCpf());
+			return ps.executeUpdate();
+		} finally {
+			ps.close();
+		}
+	}
+	/**
+	 * Verifica se um cliente existe armazenado no banco de dados relacional.
+	 *
+	 * @param cpf o CPF do cliente cuja existência no banco de dados relacional
+	 *        será verificada.
+	 *
+	 * @return boolean true se o cliente existir no banco de dados relacional e
+	 *         false caso contrário.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public boolean existe(String cpf) throws ErroAcessoRepositorioException {
+
+		if (cpf != null) {
+			Connection con = null;
+			PreparedStatement ps = null;
+			ResultSet rs = null;
+			try {
+				con = getConexao();
+				ps = con.prepareStatement(CONSULTA_CLI);
+				ps.setString(1, cpf);
+				rs = ps.executeQuery();
+				if (rs.next()) {
+					int qtdLinhas = rs.getInt(1);
+					return (qtdLinhas > 0);
+				} else {
+					return false;
+				}
+			} catch (SQLException e) {
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, rs);
+			}
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * Retorna todos os clientes armazenados no banco de dados relacional, com seus
+	 * endereços, ordenados pelo nome. Para listagens grandes prefira
+	 * listar(ConsumidorClientes), que não mantém todos os clientes em memória.
+	 *
+	 * @return Vector os clientes.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Vector<Cliente> listar() throws ErroAcessoRepositorioException{
+		
+		final Vector<Cliente> clientes = new Vector<Cliente>();
+		listar(new ConsumidorClientes() {
+			public boolean processar(Cliente c) {
+				clientes.add(c);
+				return true;
+			}
+		});
+		return clientes;
+	}
+
+	/**
+	 * Retorna todos os clientes armazenados no banco de dados relacional. Este
+	 * repositório não lê as contas e os gerentes dos clientes, por isso o perfil de
+	 * carga não faz diferença.
+	 *
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Vector os clientes.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException{
+		
+		return listar();
+	}
+
+	/**
+	 * Lista os clientes armazenados no banco de dados relacional, com seus endereços,
+	 * ordenados pelo nome. Clientes e endereços são lidos em uma única consulta e
+	 * cada cliente é entregue ao consumidor assim que sua linha é lida, de forma que
+	 * o consumo de memória não depende da quantidade de clientes.
+	 *
+	 * @param consumidor quem recebe os clientes. Se retornar false, a listagem
+	 *        é encerrada.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException{
+		
+		Connection con = null;
+		Statement stmt = null;
+		ResultSet rs = null;
+		try {
+			con = getConexao();
+			stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			stmt.setFetchSize(TAMANHO_BUSCA);
+			rs = stmt.executeQuery(PAGINA_NOME_INICIO);
+			rs.setFetchSize(TAMANHO_BUSCA);
+			boolean continuar = true;
+			while(continuar && rs.next()){
+				continuar = consumidor.processar(lerCliente(rs));
+			}
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			try {
+				if (rs != null)
+					rs.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (stmt != null)
+					stmt.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (con != null)
+					con.close();
+			} catch (Exception e) {
+			}
+		}
+		
+	}
+	
+	/**
+	 * Retorna uma página de clientes do banco de dados relacional, com seus endereços,
+	 * na ordem escolhida. A página é localizada pela chave do último cliente da página
+	 * anterior, usando o índice da ordem, e o driver traz no máximo o tamanho da página.
+	 *
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+		throws ErroAcessoRepositorioException {
+
+		if (tamanho <= 0) {
+			throw new IllegalArgumentException("Tamanho de pagina invalido: " + tamanho);
+		}
+		Connection con = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		Vector<Cliente> pagina = new Vector<Cliente>(Math.min(tamanho, 1024));
+		try {
+			con = getConexao();
+			if (ordem == OrdemClientes.CPF) {
+				if (ultimo == null) {
+					ps = con.prepareStatement(PAGINA_CPF_INICIO);
+				} else {
+					ps = con.prepareStatement(PAGINA_CPF);
+					ps.setString(1, ultimo.getCpf());
+				}
+			} else {
+				if (ultimo == null) {
+					ps = con.prepareStatement(PAGINA_NOME_INICIO);
+				} else {
+					ps = con.prepareStatement(PAGINA_NOME);
+					ps.setString(1, ultimo.getNome());
+					ps.setString(2, ultimo.getNome());
+					ps.setString(3, ultimo.getCpf());
+				}
+			}
+			ps.setMaxRows(tamanho);
+			ps.setFetchSize(Math.min(tamanho, TAMANHO_BUSCA));
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				pagina.add(lerCliente(rs));
+			}
+			return pagina;
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, rs);
+		}
+	}
+
+	/**
+	 * Monta um cliente, com o seu endereço se houver, a partir da linha corrente de
+	 * uma consulta feita com LISTA_CLI_END.
+	 */
+	private Cliente lerCliente(ResultSet rs) throws SQLException {
+
+		Cliente c = new Cliente(rs.getString(1).trim(),rs.getString(2).trim());
+		//Se existir endereço seta no cliente consultado
+		if (rs.getString(3) != null){
+			Endereco end = new Endereco(rs.getString(4),rs.getString(5),rs.getString(6));
+			c.setEndereco(end);
+		}
+		return c;
+	}
+
+	/**
+	 * Inicializa o driver do banco, caso este não esteja inicializado e
+	 * retorna uma conexão do banco de dados, obtida a partir do driver manager.
+	 *
+	 * @return Connection a conexão do banco de dados
+	 *
+	 */
+	private Connection getConexao() throws SQLException {
+
+		Connection con = null; 
+		
+		con = JDBCConnectionUtil.getConnection();
+		
+		return con;
+	}
+	/**
+	 * Cadastra os dados de um cliente no banco de dados relacional. O cliente e o seu
+	 * endereço são inseridos com um comando para cada tabela, na mesma transação.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 *
+	 * @see Q1 Por que este método não lança a exceção de cliente já existente ??
+	 */
+	public void inserir(Cliente c) throws ErroAcessoRepositorioException {
+
+		if (c != null) {
+			insere(c, false);
+		}
+	}
+
+	/**
+	 * Cadastra os dados de um cliente no banco de dados relacional, se não existir
+	 * outro com o mesmo CPF. Não há consulta prévia: a chave primária de tb_cliente
+	 * rejeita o cliente já existente, e o cadastro é uma única ida ao banco.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se o cliente foi cadastrado e false se já existia um
+	 *         cliente com o mesmo CPF.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public boolean inserirSeAusente(Cliente c) throws ErroAcessoRepositorioException {
+
+		return c != null && insere(c, true);
+	}
+
+	/**
+	 * Insere o cliente e o seu endereço, com um comando para cada tabela, na mesma
+	 * transação.
+	 *
+	 * @param seAusente true para retornar false, em vez de lançar a exceção, quando
+	 *        já existir um cliente com o mesmo CPF.
+	 *
+	 * @return boolean true se o cliente foi inserido.
+	 */
+	private boolean insere(Cliente c, boolean seAusente) throws ErroAcessoRepositorioException {
+
+		Connection con = null;
+		PreparedStatement ps = null;
+		// sem endereço, o comando único dispensa a transação
+		boolean transacao = c.getEndereco() != null;
+		boolean clienteInserido = false;
+		try {
+			if (transacao) {
+				JDBCConnectionUtil.createTransaction();
+			}
+			con = getConexao();
+			ps = con.prepareStatement(INSERT_CLI);
+			ps.setString(1, c.getCpf());
+			ps.setString(2, c.getNome());
+			ps.executeUpdate();
+			clienteInserido = true;
+			salvaEndereco(con, c, true);
+			if (transacao) {
+				JDBCConnectionUtil.commitTransaction();
+			}
+			return true;
+		} catch (SQLException e) {
+			if (transacao) {
+				try {
+					JDBCConnectionUtil.rollbackTransaction();
+				} catch (SQLException e1) {
+					LOG.warn("Erro ao desfazer a transacao", e1);
+				}
+			}
+			// só a violação da chave de tb_cliente indica o cliente já existente
+			if (seAusente && !clienteInserido && e.getErrorCode() == ERRO_CHAVE_DUPLICADA) {
+				return false;
+			}
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, null);
+		}
+	}
+	/**
+	 * Retorna um cliente armazenado no banco de dados relacional.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no banco de dados relacional.
+	 *
+	 * @return Cliente o cliente com seus dados lidos a partir no banco de dados relacional.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            lidos não existe no no banco de dados relacional.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Cliente procurar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		if (cpf != null) {
+			Connection con = null;
+			PreparedStatement ps = null;
+			ResultSet rs = null;
+			try {
+				con = getConexao();
+				ps = con.prepareStatement(PROCURA_CLI);
+				ps.setString(1, cpf);
+				rs = ps.executeQuery();
+				if (rs.next()) {
+					String bdCpf = rs.getString(1);
+					String bdNome = rs.getString(2);
+					Cliente cli = new Cliente(bdCpf.trim(), bdNome.trim());
+					return cli;
+				} else {
+					throw new ClienteInexistenteException(cpf);
+				}
+			} catch (SQLException e) {
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, rs);
+			}
+		} else {
+			throw new ClienteInexistenteException("");
+		}
+	}
+	/**
+	 * Retorna um cliente armazenado no banco de dados relacional. Este repositório não
+	 * lê as contas e os gerentes do cliente, por isso o perfil de carga não faz
+	 * diferença.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no banco de dados relacional.
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Cliente o cliente com seus dados lidos a partir no banco de dados relacional.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            lidos não existe no no banco de dados relacional.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		return procurar(cpf);
+	}
+	/**
+	 * Exclui um cliente armazenado no banco de dados relacional.
+	 *
+	 * @param cpf o CPF do cliente que será excluído no banco de dados relacional.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído
+	 *            não existe no no banco de dados relacional.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void remover(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+		if (cpf != null) {
+			Connection con = null;
+			PreparedStatement ps = null;
+			try {
+				con = getConexao();
+				ps = con.prepareStatement(DELETE_CLI);
+				ps.setString(1, cpf);
+				int rows = ps.executeUpdate();
+				if (rows <= 0) {
+					throw new ClienteInexistenteException(cpf);
+				}
+			} catch (SQLException e) {
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, null);
+			}
+		} else {
+			throw new ClienteInexistenteException("");
+		}
+	}
+	/**
+	 * Fecha os recursos passados como parâmetros.
+	 *
+	 * @param con a conexão a ser fechada.
+	 * @param ps o prepared statement a ser fechado.
+	 * @param rs o result set a ser fechado.
+	 */
+	private void fechaRecursos(
+		Connection con,
+		PreparedStatement ps,
+		ResultSet rs) {
+
+		try {
+			if (rs != null)
+				rs.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (ps != null)
+				ps.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (con != null)
+				con.close();
+		} catch (Exception e) {
+		}
+	}
+}
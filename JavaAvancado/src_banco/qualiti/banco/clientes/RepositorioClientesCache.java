@@ -0,0 +1,375 @@
+package qualiti.banco.clientes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+import qualiti.banco.metricas.Metricas;
+
+/**
+ * Cache de clientes por CPF colocado na frente de qualquer implementação do
+ * repositório de clientes. As consultas por CPF são respondidas pelo cache quando o
+ * cliente já foi lido; caso contrário o cliente é lido do repositório decorado e
+ * guardado no cache (read-through). As listagens são sempre repassadas ao repositório
+ * decorado, assim como as consultas no perfil de carga DETALHE: as contas e os
+ * gerentes de um cliente mudam com frequência e não são guardados no cache.
+ *
+ * O cache é limitado: quando está cheio, o cliente usado há mais tempo é descartado
+ * (LRU). Cada cliente também expira depois de um tempo de vida, para que alterações
+ * feitas fora desta aplicação acabem sendo vistas. Inclusões, atualizações e exclusões
+ * feitas através do cache invalidam a entrada do cliente.
+ *
+ * Para permitir acesso concorrente, o cache é dividido em segmentos, cada um com sua
+ * própria trava; o CPF determina o segmento.
+ *
+ * O cliente guardado no cache é o mesmo objeto devolvido a todas as threads que o
+ * consultam, por isso os clientes retornados por procurar() devem ser tratados como
+ * somente leitura. Para alterar um cliente, crie um novo objeto Cliente com os dados
+ * alterados e passe-o a atualizar(), que invalida a entrada.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.clientes.RepositorioClientes
+ */
+public class RepositorioClientesCache implements RepositorioClientes {
+
+	/**
+	 * Capacidade padrão do cache, em clientes.
+	 */
+	public static final int CAPACIDADE_PADRAO = 10000;
+	/**
+	 * Tempo de vida padrão de uma entrada, em milissegundos.
+	 */
+	public static final long TEMPO_VIDA_PADRAO = 5 * 60 * 1000;
+	/**
+	 * Quantidade de segmentos. Potência de 2.
+	 */
+	private static final int SEGMENTOS = 16;
+
+	/**
+	 * O repositório decorado.
+	 */
+	private RepositorioClientes repositorio;
+	private Segmento[] segmentos;
+	private long tempoVidaNanos;
+
+	private AtomicLong acertos = new AtomicLong();
+	private AtomicLong faltas = new AtomicLong();
+	private AtomicLong descartes = new AtomicLong();
+	private AtomicLong expiracoes = new AtomicLong();
+
+	/**
+	 * O construtor da classe. Usa a capacidade e o tempo de vida padrão.
+	 *
+	 * @param repositorio o repositório de clientes decorado.
+	 */
+	public RepositorioClientesCache(RepositorioClientes repositorio) {
+
+		this(repositorio, CAPACIDADE_PADRAO, TEMPO_VIDA_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param repositorio o repositório de clientes decorado.
+	 * @param capacidade a quantidade máxima de clientes no cache.
+	 * @param tempoVida o tempo de vida de cada entrada, em milissegundos.
+	 */
+	public RepositorioClientesCache(RepositorioClientes repositorio, int capacidade, long tempoVida) {
+
+		if (capacidade < SEGMENTOS) {
+			throw new IllegalArgumentException("Capacidade invalida: " + capacidade);
+		}
+		if (tempoVida <= 0) {
+			throw new IllegalArgumentException("Tempo de vida invalido: " + tempoVida);
+		}
+		this.repositorio = repositorio;
+		this.tempoVidaNanos = tempoVida * 1000000L;
+		this.segmentos = new Segmento[SEGMENTOS];
+		for (int i = 0; i < SEGMENTOS; i++) {
+			segmentos[i] = new Segmento(capacidade / SEGMENTOS);
+		}
+	}
+
+	/**
+	 * Retorna um cliente, lendo-o do cache ou, se ele não estiver lá ou tiver expirado,
+	 * do repositório decorado.
+	 *
+	 * @param cpf o CPF do cliente.
+	 *
+	 * @return Cliente o cliente, compartilhado com as outras consultas ao mesmo CPF:
+	 *         não deve ser alterado.
+	 *
+	 * @exception ClienteInexistenteException lançada pelo repositório decorado quando o
+	 *            cliente não existe. A inexistência não é guardada no cache.
+	 * @exception ErroAcessoRepositorioException lançada pelo repositório decorado.
+	 */
+	public Cliente procurar(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		if (cpf == null) {
+			return repositorio.procurar(cpf);
+		}
+		Segmento s = segmento(cpf);
+		long geracao;
+		synchronized (s) {
+			Entrada e = s.entradas.get(cpf);
+			if (e != null) {
+				if (System.nanoTime() - e.criacao < tempoVidaNanos) {
+					acertos.incrementAndGet();
+					Metricas.contar("RepositorioClientesCache.acertos");
+					return e.cliente;
+				}
+				s.entradas.remove(cpf);
+				expiracoes.incrementAndGet();
+			}
+			geracao = s.geracao;
+		}
+		faltas.incrementAndGet();
+		Metricas.contar("RepositorioClientesCache.faltas");
+		// a leitura é feita fora da trava, para não bloquear o segmento
+		Cliente c = repositorio.procurar(cpf);
+		synchronized (s) {
+			// se houve invalidação no segmento durante a leitura, o cliente lido
+			// pode estar desatualizado e não é guardado
+			if (s.geracao == geracao) {
+				s.entradas.put(cpf, new Entrada(c, System.nanoTime()));
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Retorna um cliente. No perfil RESUMO a consulta passa pelo cache, como em
+	 * procurar(cpf); no perfil DETALHE ela é repassada ao repositório decorado.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		if (perfil == PerfilCarga.DETALHE) {
+			return repositorio.procurar(cpf, perfil);
+		}
+		return procurar(cpf);
+	}
+
+	/**
+	 * Verifica se um cliente existe. Um cliente presente no cache existe; caso
+	 * contrário a verificação é feita no repositório decorado.
+	 */
+	public boolean existe(String cpf) throws ErroAcessoRepositorioException {
+
+		if (cpf != null) {
+			Segmento s = segmento(cpf);
+			synchronized (s) {
+				Entrada e = s.entradas.get(cpf);
+				if (e != null && System.nanoTime() - e.criacao < tempoVidaNanos) {
+					acertos.incrementAndGet();
+					Metricas.contar("RepositorioClientesCache.acertos");
+					return true;
+				}
+			}
+		}
+		return repositorio.existe(cpf);
+	}
+
+	public void inserir(Cliente c) throws ErroAcessoRepositorioException {
+
+		try {
+			repositorio.inserir(c);
+		} finally {
+			invalidar(c);
+		}
+	}
+
+	public boolean inserirSeAusente(Cliente c) throws ErroAcessoRepositorioException {
+
+		try {
+			return repositorio.inserirSeAusente(c);
+		} finally {
+			invalidar(c);
+		}
+	}
+
+	public void atualizar(Cliente c)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		try {
+			repositorio.atualizar(c);
+		} finally {
+			invalidar(c);
+		}
+	}
+
+	public void remover(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		try {
+			repositorio.remover(cpf);
+		} finally {
+			invalidar(cpf);
+		}
+	}
+
+	public Vector<Cliente> listar() throws ErroAcessoRepositorioException {
+
+		return repositorio.listar();
+	}
+
+	public Vector<Cliente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException {
+
+		return repositorio.listar(perfil);
+	}
+
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException {
+
+		repositorio.listar(consumidor);
+	}
+
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+		throws ErroAcessoRepositorioException {
+
+		return repositorio.listarPagina(ordem, ultimo, tamanho);
+	}
+
+	/**
+	 * Retira um cliente do cache.
+	 *
+	 * @param cpf o CPF do cliente.
+	 */
+	public void invalidar(String cpf) {
+
+		if (cpf != null) {
+			Segmento s = segmento(cpf);
+			synchronized (s) {
+				s.entradas.remove(cpf);
+				s.geracao++;
+			}
+		}
+	}
+
+	private void invalidar(Cliente c) {
+
+		if (c != null) {
+			invalidar(c.getCpf());
+		}
+	}
+
+	/**
+	 * Retira todos os clientes do cache.
+	 */
+	public void limpar() {
+
+		for (Segmento s : segmentos) {
+			synchronized (s) {
+				s.entradas.clear();
+				s.geracao++;
+			}
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de consultas respondidas pelo cache.
+	 */
+	public long getAcertos() {
+		return acertos.get();
+	}
+
+	/**
+	 * Retorna a quantidade de consultas por CPF que precisaram ir ao repositório
+	 * decorado.
+	 */
+	public long getFaltas() {
+		return faltas.get();
+	}
+
+	/**
+	 * Retorna a quantidade de clientes descartados por falta de espaço no cache.
+	 */
+	public long getDescartes() {
+		return descartes.get();
+	}
+
+	/**
+	 * Retorna a quantidade de clientes retirados do cache por terem expirado.
+	 */
+	public long getExpiracoes() {
+		return expiracoes.get();
+	}
+
+	/**
+	 * Retorna a quantidade de clientes no cache.
+	 */
+	public int getTamanho() {
+
+		int tamanho = 0;
+		for (Segmento s : segmentos) {
+			synchronized (s) {
+				tamanho += s.entradas.size();
+			}
+		}
+		return tamanho;
+	}
+
+	public String toString() {
+		return "RepositorioClientesCache[tamanho=" + getTamanho()
+			+ ", acertos=" + getAcertos()
+			+ ", faltas=" + getFaltas()
+			+ ", descartes=" + getDescartes()
+			+ ", expiracoes=" + getExpiracoes() + "]";
+	}
+
+	private Segmento segmento(String cpf) {
+
+		int h = cpf.hashCode();
+		h ^= (h >>> 16);
+		return segmentos[h & (SEGMENTOS - 1)];
+	}
+
+	/**
+	 * Um cliente guardado no cache e o instante (System.nanoTime()) em que foi lido.
+	 */
+	private static class Entrada {
+
+		private Cliente cliente;
+		private long criacao;
+
+		private Entrada(Cliente cliente, long criacao) {
+			this.cliente = cliente;
+			this.criacao = criacao;
+		}
+	}
+
+	/**
+	 * Um segmento do cache: um LinkedHashMap em ordem de acesso, que descarta a
+	 * entrada usada há mais tempo quando passa da capacidade. Protegido pelo monitor
+	 * do próprio segmento.
+	 */
+	private class Segmento {
+
+		private LinkedHashMap<String, Entrada> entradas;
+		/**
+		 * Incrementada a cada invalidação, para detectar leituras concorrentes que
+		 * ficaram desatualizadas.
+		 */
+		private long geracao;
+
+		@SuppressWarnings("serial")
+		private Segmento(final int capacidade) {
+
+			entradas = new LinkedHashMap<String, Entrada>(capacidade * 4 / 3 + 1, 0.75f, true) {
+				protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+					if (size() > capacidade) {
+						descartes.incrementAndGet();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+	}
+}
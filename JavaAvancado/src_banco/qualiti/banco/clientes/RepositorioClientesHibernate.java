@@ -1,96 +1,351 @@
-package qualiti.banco.clientes;
-
-import java.util.List;
-import java.util.Vector;
-
-import org.hibernate.Query;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-import qualiti.banco.hibernateutil.HibernateConnectionUtil;
-
-public class RepositorioClientesHibernate implements RepositorioClientes{
-
-	private Session session; 
-	
-	private Session getSession(){
-		if(session==null || !session.isOpen()){
-			session = HibernateConnectionUtil.getSession();
-		}		
-		return session;
-	}
-	
-	@Override
-	public void atualizar(Cliente c) throws ClienteInexistenteException,
-			ErroAcessoRepositorioException {
-		Transaction t =session.beginTransaction();
-		
-		session.saveOrUpdate(c);
-		
-		t.commit();
-		session.flush();
-	}
-
-	@Override
-	public boolean existe(String cpf) throws ErroAcessoRepositorioException {
-		boolean existe = true;
-		try {
-			procurar(cpf);
-		} catch (Exception e) {
-			existe = false;
-		}
-		return existe;
-	}
-
-	@Override
-	public void inserir(Cliente c) throws ErroAcessoRepositorioException {
-		Session session = getSession();
-		
-		Transaction t =session.beginTransaction();
-		
-		session.save(c);
-		
-		t.commit();
-		session.flush();
-	}
-
-	@Override
-	public Vector<Cliente> listar() throws ErroAcessoRepositorioException {
-		//Listar todos os clientes
-		Session session = getSession();
-		
-		Query q =  session.getNamedQuery("cliente.listar");
-		
-		@SuppressWarnings("unchecked")
-		List<Cliente> clientes = q.list();
-
-		Vector<Cliente> retorno = new Vector<Cliente>(clientes.size(),1);
-		
-		for(Cliente c : clientes){
-			retorno.add(c);
-		}
-		
-		return retorno;
-	}
-
-	@Override
-	public Cliente procurar(String cpf) throws ClienteInexistenteException,
-			ErroAcessoRepositorioException {
-		Session session = getSession();
-		Cliente retorno = (Cliente) session.get(Cliente.class,cpf);
-		if(retorno == null){
-			throw new ClienteInexistenteException(cpf);
-		}
-		return retorno;
-	}
-
-	@Override
-	public void remover(String cpf) throws ClienteInexistenteException,
-			ErroAcessoRepositorioException {
-		Session session = getSession();
-		Cliente cliente = procurar(cpf);
-		session.delete(cliente);
-	}
-
-}
+package qualiti.banco.clientes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Vector;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.JDBCException;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+import qualiti.banco.hibernateutil.HibernateConnectionUtil;
+
+/**
+ * Implementação do repositório de clientes com Hibernate. Cada operação é uma unidade
+ * de trabalho: abre a sua própria sessão e transação e fecha a sessão no final, de
+ * forma que o cache de primeiro nível não cresce entre operações e o repositório pode
+ * ser usado por várias threads. Os clientes retornados ficam desligados (detached)
+ * da sessão, e as contas e os gerentes de cada cliente só são carregados no perfil
+ * de carga DETALHE.
+ */
+public class RepositorioClientesHibernate implements RepositorioClientes{
+
+	private static final Logger LOG = Logger.getLogger(RepositorioClientesHibernate.class);
+
+	//Quantidade de linhas trazidas do banco a cada ida ao servidor nas listagens
+	private static final int TAMANHO_BUSCA = 500;
+
+	//Quantidade de clientes gravados antes de esvaziar a sessão em inserirLote.
+	//Deve ser igual a hibernate.jdbc.batch_size no hibernate.cfg.xml
+	private static final int TAMANHO_LOTE = 50;
+
+	private static final String MSG_ERRO_ACESSO_BD =
+		"Erro de acesso ao banco de dados";
+
+	//Abre a sessão de uma unidade de trabalho
+	private Session abrirSessao(){
+		return HibernateConnectionUtil.getSession();
+	}
+
+	//Desfaz a transação, se ela tiver sido iniciada, e fecha a sessão
+	private void encerrar(Session session, Transaction t){
+		try {
+			if (t != null && t.isActive()) {
+				t.rollback();
+			}
+		} catch (HibernateException e) {
+			LOG.warn("Erro ao desfazer a transacao", e);
+		} finally {
+			session.close();
+		}
+	}
+
+	private ErroAcessoRepositorioException erroAcesso(HibernateException e){
+		return new ErroAcessoRepositorioException(MSG_ERRO_ACESSO_BD, e, 0);
+	}
+
+	@Override
+	public void atualizar(Cliente c) throws ClienteInexistenteException,
+			ErroAcessoRepositorioException {
+		if (c == null) {
+			throw new ClienteInexistenteException("");
+		}
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			if (!existe(session, c.getCpf())) {
+				throw new ClienteInexistenteException(c.getCpf());
+			}
+			session.saveOrUpdate(c);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	@Override
+	public boolean existe(String cpf) throws ErroAcessoRepositorioException {
+		if (cpf == null) {
+			return false;
+		}
+		Session session = abrirSessao();
+		try {
+			return existe(session, cpf);
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	//Conta as linhas com o CPF, sem carregar o cliente nem suas associações
+	private boolean existe(Session session, String cpf){
+		Query q = session.getNamedQuery("cliente.existe");
+		q.setString("cpf", cpf);
+		return ((Number) q.uniqueResult()).intValue() > 0;
+	}
+
+	@Override
+	public void inserir(Cliente c) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			session.save(c);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	/**
+	 * Insere o cliente se não existir outro com o mesmo CPF, sem consulta prévia: o
+	 * INSERT é rejeitado pela chave primária de tb_cliente. Com os lotes JDBC, o HSQLDB
+	 * não informa o motivo da falha, que também pode vir de uma entidade gravada em
+	 * cascata; por isso, só quando o INSERT falha, a existência do CPF é conferida.
+	 */
+	@Override
+	public boolean inserirSeAusente(Cliente c) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		JDBCException falha;
+		try {
+			t = session.beginTransaction();
+			session.save(c);
+			t.commit();
+			return true;
+		} catch (JDBCException e) {
+			falha = e;
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+		//A transação já foi desfeita: confere se a falha foi a do CPF
+		if (existe(c.getCpf())) {
+			return false;
+		}
+		throw erroAcesso(falha);
+	}
+
+	/**
+	 * Insere vários clientes em uma única transação. Os comandos INSERT são enviados em
+	 * lotes JDBC e, a cada lote, a sessão é descarregada e esvaziada, de forma que a
+	 * memória usada não depende da quantidade de clientes.
+	 *
+	 * @param clientes os clientes a serem inseridos.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados. Nesse caso nenhum cliente é inserido.
+	 */
+	public void inserirLote(Collection<Cliente> clientes) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			int i = 0;
+			for (Cliente c : clientes) {
+				session.save(c);
+				i++;
+				if (i % TAMANHO_LOTE == 0) {
+					session.flush();
+					session.clear();
+				}
+			}
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	@Override
+	public Vector<Cliente> listar() throws ErroAcessoRepositorioException {
+		return listar(PerfilCarga.RESUMO);
+	}
+
+	/**
+	 * Lista todos os clientes ordenados pelo nome. No perfil DETALHE as contas e os
+	 * gerentes são carregados antes de a sessão ser fechada; com @BatchSize em Cliente,
+	 * isso custa duas consultas a cada 50 clientes, e não duas por cliente.
+	 */
+	@Override
+	public Vector<Cliente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException {
+		//Listar todos os clientes
+		Session session = abrirSessao();
+		try {
+			Query q =  session.getNamedQuery("cliente.listar");
+
+			@SuppressWarnings("unchecked")
+			List<Cliente> clientes = q.list();
+
+			Vector<Cliente> retorno = new Vector<Cliente>(clientes.size(),1);
+
+			for(Cliente c : clientes){
+				if (perfil == PerfilCarga.DETALHE) {
+					inicializarAssociacoes(c);
+				}
+				retorno.add(c);
+			}
+
+			return retorno;
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	/**
+	 * Percorre os clientes ordenados pelo nome com um cursor (ScrollableResults), sem
+	 * montar a lista completa. Cada cliente é retirado da sessão depois de processado,
+	 * para que a sessão não cresça com a listagem; por isso o consumidor não deve
+	 * depender de coleções lazy do cliente.
+	 */
+	@Override
+	public void listar(ConsumidorClientes consumidor) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		try {
+			Query q = session.getNamedQuery("cliente.listarPorNome");
+			q.setFetchSize(TAMANHO_BUSCA);
+			q.setReadOnly(true);
+
+			ScrollableResults rs = q.scroll(ScrollMode.FORWARD_ONLY);
+			try {
+				boolean continuar = true;
+				while (continuar && rs.next()) {
+					Cliente c = (Cliente) rs.get(0);
+					continuar = consumidor.processar(c);
+					session.evict(c);
+				}
+			} finally {
+				rs.close();
+			}
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	@Override
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho)
+			throws ErroAcessoRepositorioException {
+		if (tamanho <= 0) {
+			throw new IllegalArgumentException("Tamanho de pagina invalido: " + tamanho);
+		}
+		Session session = abrirSessao();
+		try {
+			Query q;
+			if (ordem == OrdemClientes.CPF) {
+				if (ultimo == null) {
+					q = session.getNamedQuery("cliente.listarPorCpf");
+				} else {
+					q = session.getNamedQuery("cliente.paginaPorCpf");
+					q.setString("cpf", ultimo.getCpf());
+				}
+			} else {
+				if (ultimo == null) {
+					q = session.getNamedQuery("cliente.listarPorNome");
+				} else {
+					q = session.getNamedQuery("cliente.paginaPorNome");
+					q.setString("nome", ultimo.getNome());
+					q.setString("cpf", ultimo.getCpf());
+				}
+			}
+			q.setMaxResults(tamanho);
+
+			@SuppressWarnings("unchecked")
+			List<Cliente> clientes = q.list();
+
+			return new Vector<Cliente>(clientes);
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	@Override
+	public Cliente procurar(String cpf) throws ClienteInexistenteException,
+			ErroAcessoRepositorioException {
+		return procurar(cpf, PerfilCarga.RESUMO);
+	}
+
+	@Override
+	public Cliente procurar(String cpf, PerfilCarga perfil) throws ClienteInexistenteException,
+			ErroAcessoRepositorioException {
+		if (cpf == null) {
+			throw new ClienteInexistenteException("");
+		}
+		Session session = abrirSessao();
+		try {
+			Cliente retorno = (Cliente) session.get(Cliente.class,cpf);
+			if(retorno == null){
+				throw new ClienteInexistenteException(cpf);
+			}
+			if (perfil == PerfilCarga.DETALHE) {
+				inicializarAssociacoes(retorno);
+			}
+			return retorno;
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	@Override
+	public void remover(String cpf) throws ClienteInexistenteException,
+			ErroAcessoRepositorioException {
+		if (cpf == null) {
+			throw new ClienteInexistenteException("");
+		}
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			Cliente cliente = (Cliente) session.get(Cliente.class,cpf);
+			if(cliente == null){
+				throw new ClienteInexistenteException(cpf);
+			}
+			session.delete(cliente);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	//Carrega as coleções lazy do cliente enquanto a sessão está aberta
+	private void inicializarAssociacoes(Cliente c){
+		Hibernate.initialize(c.getContas());
+		Hibernate.initialize(c.getGerentes());
+	}
+
+}
@@ -1,120 +1,210 @@
-package qualiti.banco.clientes;
-
-import java.util.HashMap;
-import java.util.Vector;
-
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-
-/**
- * Implementao da interface que define os mtodos de acesso aos dados de cliente
- * em um mecanismo de armazenamento de dados. Esta implementao  realizada atravs
- * do armazenamento de objetos do tipo cliente em um HashMap interno de clientes existente
- * em memria.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.cliente.Cliente
- * @see qualiti.banco.cliente.RepositorioClientes
- */
-public class RepositorioClientesMap implements RepositorioClientes {
-
-	/**
-	 * Map interno de clientes.
-	 * A chave de indice do map  o CPF do cliente.
-	 */
-	private HashMap<String,Cliente> clientes;
-	 
-	/**
-	 * O construtor da classe. IInicializa o HashMap.
-	 */
-	public RepositorioClientesMap() {
-		clientes = new HashMap<String,Cliente>();
-	}
-
-	/**
-	 * Atualiza os dados de um cliente no Hasmap.
-	 *
-	 * @param c o cliente com os dados a serem atualizados.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            atualizados no existe no Map. A procura  feita pelo CPF.
-	 */
-	public void atualizar(Cliente c) throws ClienteInexistenteException {
-		if (existe(c.getCpf())) {
-			clientes.put(c.getCpf(), c);
-		} else {
-			throw new ClienteInexistenteException(c.getCpf());
-		}
-	}
-
-	/**
-	 * Verifica se um cliente existe armazenado no Map.
-	 *
-	 * @param cpf o CPF do cliente cuja existncia no Map
-	 *        ser verificada.
-	 *
-	 * @return boolean true se o cliente existir no Map e
-	 *         false caso contrrio.
-	 */
-	public boolean existe(String cpf) {
-		return clientes.containsKey(cpf);
-	}
-
-	/**
-	 * Cadastra os dados de um cliente no Map, inserindo o objeto recebido
-	 * como parmetro.
-	 *
-	 * @param c o cliente com os dados a serem cadastrados.
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de cliente j existente ??
-	 *
-	 * @see Q2 Por que este mtodo no testa a existncia de um cliente com mesmo
-	 *         CPF do cliente passado no Map ??
-	 */
-	public void inserir(Cliente c) {
-		clientes.put(c.getCpf(),c);
-	}
-
-	/**
-	 * Retorna um cliente armazenado no Map.
-	 *
-	 * @param cpf o CPF do cliente que ser procurado no Map.
-	 *
-	 * @return Cliente o cliente com seus dados lidos a partir do Map.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados
-	 *            lidos no existe no Map. A procura  feita pelo CPF.
-	 */
-	public Cliente procurar(String cpf) throws ClienteInexistenteException {
-		if (existe(cpf)) {
-			return  clientes.get(cpf);
-		} else {
-			throw new ClienteInexistenteException(cpf);
-		}
-
-	}
-
-
-	/**
-	 * Exclui um cliente armazenado no Map. 
-	 *
-	 * @param cpf o CPF do cliente que ser excludo do Map.
-	 *
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo
-	 *            no existe no Map. A procura  feita por CPF.
-	 */
-	public void remover(String cpf) throws ClienteInexistenteException {
-		if (existe(cpf)) {
-			clientes.remove(cpf);
-		} else {
-			throw new ClienteInexistenteException(cpf);
-		}
-	}
-
-	public Vector<Cliente> listar() throws ErroAcessoRepositorioException {
-		// TODO Auto-generated method stub
-		return null;
-	}
-}
+package qualiti.banco.clientes;
+
+import java.util.Collections;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import qualiti.banco.geral.PerfilCarga;
+
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de cliente
+ * em um mecanismo de armazenamento de dados. Esta implementação é realizada através
+ * do armazenamento de objetos do tipo cliente em um ConcurrentHashMap interno de clientes
+ * existente em memória.
+ *
+ * Pode ser usado por várias threads ao mesmo tempo. Cada operação é uma única operação
+ * atômica do mapa: a verificação do CPF e a alteração não podem ser intercaladas com
+ * as de outra thread. As listagens percorrem o mapa sem bloqueá-lo e sem falhar com
+ * alterações concorrentes; elas veem cada cliente como estava em algum momento da
+ * listagem, mas alterações feitas durante a listagem podem ou não aparecer.
+ *
+ * O ConcurrentHashMap não aceita chave null: um CPF null não existe no Map, como
+ * nos repositórios em banco de dados.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.cliente.Cliente
+ * @see qualiti.banco.cliente.RepositorioClientes
+ */
+public class RepositorioClientesMap implements RepositorioClientes {
+
+	/**
+	 * Map interno de clientes.
+	 * A chave de indice do map é o CPF do cliente.
+	 */
+	private ConcurrentMap<String,Cliente> clientes;
+	 
+	/**
+	 * O construtor da classe. IInicializa o ConcurrentHashMap.
+	 */
+	public RepositorioClientesMap() {
+		clientes = new ConcurrentHashMap<String,Cliente>();
+	}
+
+	/**
+	 * Atualiza os dados de um cliente no Hasmap.
+	 *
+	 * @param c o cliente com os dados a serem atualizados.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            atualizados não existe no Map. A procura é feita pelo CPF.
+	 */
+	public void atualizar(Cliente c) throws ClienteInexistenteException {
+		if (c.getCpf() == null) {
+			throw new ClienteInexistenteException("");
+		}
+		if (clientes.replace(c.getCpf(), c) == null) {
+			throw new ClienteInexistenteException(c.getCpf());
+		}
+	}
+
+	/**
+	 * Verifica se um cliente existe armazenado no Map.
+	 *
+	 * @param cpf o CPF do cliente cuja existência no Map
+	 *        será verificada.
+	 *
+	 * @return boolean true se o cliente existir no Map e
+	 *         false caso contrário.
+	 */
+	public boolean existe(String cpf) {
+		return cpf != null && clientes.containsKey(cpf);
+	}
+
+	/**
+	 * Cadastra os dados de um cliente no Map, inserindo o objeto recebido
+	 * como parâmetro.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @see Q1 Por que este método não lança a exceção de cliente já existente ??
+	 *
+	 * @see Q2 Por que este método não testa a existência de um cliente com mesmo
+	 *         CPF do cliente passado no Map ??
+	 */
+	public void inserir(Cliente c) {
+		clientes.put(c.getCpf(),c);
+	}
+
+	/**
+	 * Cadastra um cliente no Map se não houver outro com o mesmo CPF. A verificação e
+	 * a inclusão são uma única operação atômica (putIfAbsent), de forma que, entre
+	 * várias threads que cadastram o mesmo CPF ao mesmo tempo, apenas uma consegue.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se o cliente foi cadastrado e false se já existia um
+	 *         cliente com o mesmo CPF, que é mantido.
+	 */
+	public boolean inserirSeAusente(Cliente c) {
+		return clientes.putIfAbsent(c.getCpf(), c) == null;
+	}
+
+	/**
+	 * Retorna um cliente armazenado no Map.
+	 *
+	 * @param cpf o CPF do cliente que será procurado no Map.
+	 *
+	 * @return Cliente o cliente com seus dados lidos a partir do Map.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados
+	 *            lidos não existe no Map. A procura é feita pelo CPF.
+	 */
+	public Cliente procurar(String cpf) throws ClienteInexistenteException {
+		if (cpf == null) {
+			throw new ClienteInexistenteException("");
+		}
+		Cliente c = clientes.get(cpf);
+		if (c == null) {
+			throw new ClienteInexistenteException(cpf);
+		}
+		return c;
+	}
+
+
+	/**
+	 * Exclui um cliente armazenado no Map. 
+	 *
+	 * @param cpf o CPF do cliente que será excluído do Map.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído
+	 *            não existe no Map. A procura é feita por CPF.
+	 */
+	public void remover(String cpf) throws ClienteInexistenteException {
+		if (cpf == null) {
+			throw new ClienteInexistenteException("");
+		}
+		if (clientes.remove(cpf) == null) {
+			throw new ClienteInexistenteException(cpf);
+		}
+	}
+
+	/**
+	 * Retorna todos os clientes do Map, ordenados pelo nome. Os clientes são copiados
+	 * para o Vector antes da ordenação, que não bloqueia as outras threads.
+	 *
+	 * @return Vector os clientes.
+	 */
+	public Vector<Cliente> listar() {
+		Vector<Cliente> retorno = new Vector<Cliente>(clientes.values());
+		Collections.sort(retorno, OrdemClientes.NOME);
+		return retorno;
+	}
+
+	/**
+	 * Entrega ao consumidor todos os clientes do Map, ordenados pelo nome. A ordenação
+	 * é feita em uma cópia das referências do Map.
+	 *
+	 * @param consumidor quem recebe os clientes.
+	 */
+	public void listar(ConsumidorClientes consumidor) {
+		for (Cliente c : listar()) {
+			if (!consumidor.processar(c)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Retorna uma página de clientes do Map, na ordem escolhida.
+	 *
+	 * @param ordem a ordem da listagem.
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 *
+	 * @return Vector os clientes da página.
+	 */
+	public Vector<Cliente> listarPagina(OrdemClientes ordem, Cliente ultimo, int tamanho) {
+		return ordem.selecionarPagina(clientes.values(), ultimo, tamanho);
+	}
+
+	/**
+	 * Retorna todos os clientes do Map, ordenados pelo nome. Os clientes em memória
+	 * já estão completos, por isso o perfil de carga não faz diferença.
+	 *
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Vector os clientes.
+	 */
+	public Vector<Cliente> listar(PerfilCarga perfil) {
+		return listar();
+	}
+
+	/**
+	 * Retorna um cliente armazenado no Map. Os clientes em memória já estão
+	 * completos, por isso o perfil de carga não faz diferença.
+	 *
+	 * @param cpf o CPF do cliente.
+	 * @param perfil o perfil de carga (ignorado).
+	 *
+	 * @return Cliente o cliente.
+	 *
+	 * @exception ClienteInexistenteException lançada quando o cliente não existe no Map.
+	 */
+	public Cliente procurar(String cpf, PerfilCarga perfil) throws ClienteInexistenteException {
+		return procurar(cpf);
+	}
+}
@@ -1,10 +1,17 @@
 package qualiti.banco.clientes.gui;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import qualiti.banco.fachada.Fachada;
+import qualiti.banco.gui.CacheConsultas;
+import qualiti.banco.gui.ExecutorTela;
+import qualiti.banco.gui.TarefaTela;
 import qualiti.banco.clientes.Cliente;
+import qualiti.banco.clientes.ClienteInexistenteException;
+import qualiti.banco.clientes.Endereco;
 import javax.swing.JOptionPane;
 
 
@@ -35,9 +42,34 @@ public class TelaCadastroClientes extends JFrame {
   JTextField txNome = new JTextField();
   JButton btNovo = new JButton();
   JButton btAcesso = new JButton();
+  JLabel laSituacao = new JLabel();
   private Fachada fac = Fachada.obterInstancia();
   private Cliente clienteAcessado;
 
+  /**
+   * Canais das tarefas da tela: a consulta feita durante a digitação do CPF, o acesso
+   * pelo botão e as gravações.
+   */
+  private static final String CONSULTA_CPF = "consultaCpf";
+  private static final String ACESSO = "acesso";
+  private static final String GRAVACAO = "gravacao";
+  /**
+   * Espera, em milissegundos, depois da última tecla antes de consultar o CPF.
+   */
+  private static final int ATRASO_CONSULTA = 300;
+  private static final int TAMANHO_CPF = 11;
+
+  /**
+   * Os acessos à Fachada rodam fora da thread de eventos, para a tela não travar
+   * enquanto o banco de dados responde.
+   */
+  private ExecutorTela executor = new ExecutorTela(this);
+  /**
+   * Clientes já consultados, por CPF. Guarda por pouco tempo só os clientes
+   * encontrados; inclusões, alterações e exclusões removem a entrada do CPF.
+   */
+  private CacheConsultas<String, Cliente> cache = new CacheConsultas<String, Cliente>(100, 30000);
+
   public TelaCadastroClientes() {
     try {
       jbInit();
@@ -83,6 +115,18 @@ public class TelaCadastroClientes extends JFrame {
         txCpf_actionPerformed(e);
       }
     });
+    txCpf.getDocument().addDocumentListener(new DocumentListener() {
+      public void insertUpdate(DocumentEvent e) {
+        txCpf_textoAlterado();
+      }
+      public void removeUpdate(DocumentEvent e) {
+        txCpf_textoAlterado();
+      }
+      public void changedUpdate(DocumentEvent e) {
+        txCpf_textoAlterado();
+      }
+    });
+    laSituacao.setBounds(new Rectangle(105, 60, 254, 17));
     laNome.setEnabled(false);
     laNome.setText("Nome:");
     laNome.setBounds(new Rectangle(51, 80, 41, 17));
@@ -95,6 +139,11 @@ public class TelaCadastroClientes extends JFrame {
       public void windowOpened(WindowEvent e) {
         this_windowOpened(e);
       }
+      public void windowClosing(WindowEvent e) {
+        // só as consultas são canceladas: uma gravação em andamento termina
+        executor.cancelar(CONSULTA_CPF);
+        executor.cancelar(ACESSO);
+      }
     });
     btNovo.setBounds(new Rectangle(231, 34, 44, 27));
     btNovo.setText("N");
@@ -127,6 +176,7 @@ public class TelaCadastroClientes extends JFrame {
     pnPrinc.add(txNome, null);
     pnPrinc.add(btNovo, null);
     pnPrinc.add(btAcesso, null);
+    pnPrinc.add(laSituacao, null);
     pack();
   }
 
@@ -134,6 +184,43 @@ public class TelaCadastroClientes extends JFrame {
 
   }
 
+  /**
+   * Consulta o CPF enquanto ele é digitado, para avisar se o cliente já está
+   * cadastrado. A consulta só é feita quando o CPF está completo e a digitação para
+   * por um instante; uma consulta anterior ainda sem resposta é descartada.
+   */
+  void txCpf_textoAlterado() {
+    final String cpf = txCpf.getText().trim();
+    if (!txCpf.isEnabled() || cpf.length() != TAMANHO_CPF) {
+      executor.cancelar(CONSULTA_CPF);
+      laSituacao.setText("");
+      return;
+    }
+    Cliente cli = cache.get(cpf);
+    if (cli != null) {
+      executor.cancelar(CONSULTA_CPF);
+      laSituacao.setText("Cliente cadastrado: " + cli.getNome());
+      return;
+    }
+    laSituacao.setText("Consultando...");
+    executor.executarAdiado(CONSULTA_CPF, ATRASO_CONSULTA, new TarefaTela<Cliente>() {
+      protected Cliente executar() throws Exception {
+        return fac.procurarCliente(cpf);
+      }
+      protected void concluir(Cliente cli) {
+        cache.put(cpf, cli);
+        laSituacao.setText("Cliente cadastrado: " + cli.getNome());
+      }
+      protected void falhar(Component tela, Throwable erro) {
+        if (erro instanceof ClienteInexistenteException) {
+          laSituacao.setText("CPF não cadastrado");
+        } else {
+          laSituacao.setText("Consulta indisponível");
+        }
+      }
+    });
+  }
+
   void btNovo_actionPerformed(ActionEvent e) {
     if (txCpf.getText().trim().equals("")) {
       JOptionPane.showMessageDialog(this,"Digite um CPF","Mensagem de erro",JOptionPane.ERROR_MESSAGE);
@@ -143,6 +230,7 @@ public class TelaCadastroClientes extends JFrame {
     }
   }
   private void mudaEstadoParaInclusao() {
+      executor.cancelar(CONSULTA_CPF);
       laCpf.setEnabled(false);
       txCpf.setEnabled(false);
       btNovo.setEnabled(false);
@@ -179,28 +267,59 @@ public class TelaCadastroClientes extends JFrame {
       btIncluir.setEnabled(false);
       btAlterar.setEnabled(false);
       btExcluir.setEnabled(false);
+      btCancelar.setEnabled(true);
       clienteAcessado = null;
+      laSituacao.setText("");
       txCpf.requestFocus();
   }
+  private void mudaEstadoParaAcesso(boolean acessando) {
+      laCpf.setEnabled(!acessando);
+      txCpf.setEnabled(!acessando);
+      btNovo.setEnabled(!acessando);
+      btAcesso.setEnabled(!acessando);
+  }
+  private void mostraClienteAcessado(Cliente cli) {
+      executor.cancelar(CONSULTA_CPF);
+      clienteAcessado = cli;
+      txNome.setText(cli.getNome());
+      mudaEstadoParaAltExc();
+  }
   void btAcesso_actionPerformed(ActionEvent e) {
     if (txCpf.getText().trim().equals("")) {
       JOptionPane.showMessageDialog(this,"Digite um CPF","Mensagem de erro",JOptionPane.ERROR_MESSAGE);
       txCpf.requestFocus();
     } else {
-      try {
-        Cliente cli = fac.procurarCliente(txCpf.getText().trim());
-        clienteAcessado = cli;
-        txNome.setText(cli.getNome());
-        mudaEstadoParaAltExc();
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(this,ex.getMessage(),"Mensagem de erro",JOptionPane.ERROR_MESSAGE);
-        txCpf.requestFocus();
+      final String cpf = txCpf.getText().trim();
+      Cliente cli = cache.get(cpf);
+      if (cli != null) {
+        mostraClienteAcessado(cli);
+        return;
       }
+      mudaEstadoParaAcesso(true);
+      executor.executar(ACESSO, new TarefaTela<Cliente>() {
+        protected Cliente executar() throws Exception {
+          return fac.procurarCliente(cpf);
+        }
+        protected void concluir(Cliente cli) {
+          cache.put(cpf, cli);
+          mostraClienteAcessado(cli);
+        }
+        protected void falhar(Component tela, Throwable erro) {
+          mudaEstadoParaAcesso(false);
+          super.falhar(tela, erro);
+          txCpf.requestFocus();
+        }
+      });
     }
   }
 
   void btCancelar_actionPerformed(ActionEvent e) {
-    if (txNome.isEnabled()) {
+    if (executor.isExecutando(ACESSO)) {
+      // desiste de esperar pelo acesso; a resposta, quando chegar, é descartada
+      executor.cancelar(ACESSO);
+      mudaEstadoParaAcesso(false);
+      txCpf.requestFocus();
+    } else if (txNome.isEnabled()) {
       limpaCamposChave();
       limpaCamposDados();
       mudaEstadoParaInicial();
@@ -210,40 +329,87 @@ public class TelaCadastroClientes extends JFrame {
     }
   }
 
-  void btIncluir_actionPerformed(ActionEvent e) {
-    try {
-      Cliente cli = new Cliente(txCpf.getText(),txNome.getText());
-      fac.cadastrar(cli);
-      JOptionPane.showMessageDialog(this,"Incluso realizada com sucesso","Mensagem de confirmao",JOptionPane.PLAIN_MESSAGE);
-      btCancelar_actionPerformed(null);
-    } catch (Exception ex) {
-      JOptionPane.showMessageDialog(this,ex.getMessage(),"Mensagem de erro",JOptionPane.ERROR_MESSAGE);
+  /**
+   * Gravação de um cliente. Enquanto ela roda, os botões ficam desabilitados para que
+   * a mesma gravação não seja pedida duas vezes; a gravação não pode ser cancelada,
+   * já que o resultado no banco de dados ficaria incerto.
+   */
+  private abstract class Gravacao extends TarefaTela<Object> {
+    private String mensagem;
+
+    Gravacao(String mensagem) {
+      this.mensagem = mensagem;
+    }
+
+    protected void concluir(Object resultado) {
+      JOptionPane.showMessageDialog(TelaCadastroClientes.this,mensagem,"Mensagem de confirmação",JOptionPane.PLAIN_MESSAGE);
+      limpaCamposChave();
+      limpaCamposDados();
+      mudaEstadoParaInicial();
+    }
+
+    protected void falhar(Component tela, Throwable erro) {
+      btCancelar.setEnabled(true);
+      if (clienteAcessado == null) {
+        mudaEstadoParaInclusao();
+      } else {
+        mudaEstadoParaAltExc();
+      }
+      super.falhar(tela, erro);
       txNome.requestFocus();
     }
   }
 
+  private void grava(String cpf, Gravacao gravacao) {
+    cache.remover(cpf.trim());
+    txNome.setEnabled(false);
+    btIncluir.setEnabled(false);
+    btAlterar.setEnabled(false);
+    btExcluir.setEnabled(false);
+    btCancelar.setEnabled(false);
+    executor.executar(GRAVACAO, gravacao);
+  }
+
+  void btIncluir_actionPerformed(ActionEvent e) {
+    final String cpf = txCpf.getText();
+    final String nome = txNome.getText();
+    grava(cpf, new Gravacao("Inclusão realizada com sucesso") {
+      protected Object executar() throws Exception {
+        fac.cadastrar(new Cliente(cpf,nome));
+        return null;
+      }
+    });
+  }
+
   void btAlterar_actionPerformed(ActionEvent e) {
-    try {
-      clienteAcessado.setCpf(txCpf.getText());
-      clienteAcessado.setNome(txNome.getText());
-      fac.atualizar(clienteAcessado);
-      JOptionPane.showMessageDialog(this,"Alterao realizada com sucesso","Mensagem de confirmao",JOptionPane.PLAIN_MESSAGE);
-      btCancelar_actionPerformed(null);
-    } catch (Exception ex) {
-      JOptionPane.showMessageDialog(this,ex.getMessage(),"Mensagem de erro",JOptionPane.ERROR_MESSAGE);
-      txNome.requestFocus();
+    Cliente cli = clienteAcessado;
+    final String cpf = txCpf.getText();
+    // o cliente acessado pode ser o objeto guardado no cache de clientes, compartilhado
+    // com outras threads: a alteração é feita em um novo objeto
+    final Cliente alterado = new Cliente(cpf, txNome.getText());
+    Endereco end = cli.getEndereco();
+    if (end != null) {
+      alterado.setEndereco(new Endereco(end.getCEP(), end.getNumero(), end.getComplemento()));
     }
+    alterado.setContas(cli.getContas());
+    alterado.setGerentes(cli.getGerentes());
+    cache.remover(cli.getCpf());
+    grava(cpf, new Gravacao("Alteração realizada com sucesso") {
+      protected Object executar() throws Exception {
+        fac.atualizar(alterado);
+        return null;
+      }
+    });
   }
 
   void btExcluir_actionPerformed(ActionEvent e) {
-    try {
-      fac.descadastrarCliente(txCpf.getText());
-      JOptionPane.showMessageDialog(this,"Excluso realizada com sucesso","Mensagem de confirmao",JOptionPane.PLAIN_MESSAGE);
-      btCancelar_actionPerformed(null);
-    } catch (Exception ex) {
-      JOptionPane.showMessageDialog(this,ex.getMessage(),"Mensagem de erro",JOptionPane.ERROR_MESSAGE);
-      txNome.requestFocus();
-    }
+    final String cpf = txCpf.getText();
+    grava(cpf, new Gravacao("Exclusão realizada com sucesso") {
+      protected Object executar() throws Exception {
+        fac.descadastrarCliente(cpf);
+        return null;
+      }
+    });
   }
 
   void this_windowOpened(WindowEvent e) {
@@ -0,0 +1,519 @@
+package qualiti.banco.contas;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Armazém dos dados de contas usados nas operações de crédito e de débito (número,
+ * tipo, saldo, bônus e CPF do cliente) fora do heap da JVM, em registros de tamanho
+ * fixo dentro de ByteBuffers diretos. Nenhum objeto Java é criado por conta guardada:
+ * com milhões de contas, o heap, e com ele as pausas do coletor de lixo, não crescem.
+ *
+ * Cada conta ocupa um registro de 64 bytes, identificado pela sua posição. Os registros
+ * ficam em blocos de REGISTROS_POR_BLOCO registros, alocados à medida que são
+ * necessários; os registros excluídos são reaproveitados. O número da conta é
+ * encontrado por um índice de endereçamento aberto (sondagem linear), também fora do
+ * heap, que guarda apenas a posição do registro; o número é comparado com o do próprio
+ * registro. Layout do registro:
+ *
+ * <pre>
+ *  0  saldo (long)          8  bônus (long)         16  hash do número (int)
+ * 20  tipo (byte, 0 livre) 21  tamanho do número   22  tamanho do CPF (-1 sem cliente)
+ * 23  número (até 24 bytes)                        47  CPF (até 17 bytes)
+ * </pre>
+ *
+ * O número e o CPF são gravados em ISO-8859-1. A memória fora do heap é limitada por
+ * -XX:MaxDirectMemorySize; 50 milhões de contas ocupam cerca de 3,2 GB de registros e
+ * 512 MB de índice.
+ *
+ * Pode ser usado por várias threads. A inclusão e a exclusão de contas bloqueiam o
+ * índice para as outras threads; as procuras só são bloqueadas por elas. As alterações
+ * de saldo de um registro são atômicas, protegidas por um conjunto fixo de travas
+ * associadas às posições, e compararETrocarSaldo() permite atualizações otimistas sem
+ * manter trava nenhuma entre a leitura e a gravação. As leituras não obtêm trava: o
+ * saldo e o bônus lidos juntos só são consistentes se o chamador serializar as
+ * operações na conta, como o CadastroContas faz com as TravasContas.
+ *
+ * A posição de uma conta vale até ela ser excluída; depois disso o registro pode ser
+ * reaproveitado por outra conta.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.RepositorioContasForaHeap
+ */
+public class ArmazemSaldosForaHeap {
+
+	/**
+	 * Posição retornada quando a conta não está no armazém.
+	 */
+	public static final int AUSENTE = -1;
+
+	/**
+	 * Tamanho máximo do número da conta, em caracteres.
+	 */
+	public static final int TAMANHO_MAXIMO_NUMERO = 24;
+
+	/**
+	 * Tamanho máximo do CPF do cliente, em caracteres.
+	 */
+	public static final int TAMANHO_MAXIMO_CPF = 17;
+
+	private static final int TAMANHO_REGISTRO = 64;
+
+	private static final int SALDO = 0;
+	private static final int BONUS = 8;
+	private static final int HASH = 16;
+	private static final int TIPO = 20;
+	private static final int TAMANHO_NUMERO = 21;
+	private static final int TAMANHO_CPF = 22;
+	private static final int NUMERO = 23;
+	private static final int CPF = NUMERO + TAMANHO_MAXIMO_NUMERO;
+
+	/**
+	 * Tipo gravado nos registros livres. Nos registros livres, o campo do saldo guarda
+	 * a posição do próximo registro livre.
+	 */
+	private static final byte LIVRE = 0;
+
+	private static final int BITS_BLOCO = 16;
+	private static final int REGISTROS_POR_BLOCO = 1 << BITS_BLOCO;
+
+	/**
+	 * Maior tamanho do índice: 2^29 entradas de 4 bytes cabem em um ByteBuffer.
+	 */
+	private static final int CAPACIDADE_MAXIMA_INDICE = 1 << 29;
+	private static final int CAPACIDADE_MINIMA_INDICE = 16;
+
+	private static final int QUANTIDADE_TRAVAS = 256;
+
+	/**
+	 * Os blocos de registros. O array só é trocado, por um maior, com a trava de
+	 * escrita; os blocos já alocados nunca mudam de lugar.
+	 */
+	private volatile ByteBuffer[] blocos;
+	/**
+	 * Quantidade de registros já usados alguma vez (livres ou não).
+	 */
+	private int usados;
+	/**
+	 * Primeiro registro da lista de registros livres, ou AUSENTE.
+	 */
+	private int primeiroLivre;
+
+	/**
+	 * O índice: em cada entrada de 4 bytes, a posição do registro mais 1, ou 0 se a
+	 * entrada estiver livre.
+	 */
+	private ByteBuffer indice;
+	private int mascara;
+	private int deslocamento;
+	private int limite;
+	private int tamanho;
+
+	private Lock leitura;
+	private Lock escrita;
+	private Object[] travas;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param esperadas a quantidade de contas esperada, para que o índice seja criado
+	 *        já com o tamanho necessário.
+	 */
+	public ArmazemSaldosForaHeap(int esperadas) {
+
+		int capacidade = CAPACIDADE_MINIMA_INDICE;
+		while (capacidade * 3L / 4 < esperadas && capacidade < CAPACIDADE_MAXIMA_INDICE) {
+			capacidade <<= 1;
+		}
+		alocarIndice(capacidade);
+		blocos = new ByteBuffer[0];
+		primeiroLivre = AUSENTE;
+		ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+		leitura = rw.readLock();
+		escrita = rw.writeLock();
+		travas = new Object[QUANTIDADE_TRAVAS];
+		for (int i = 0; i < travas.length; i++) {
+			travas[i] = new Object();
+		}
+	}
+
+	/**
+	 * Inclui uma conta, se não houver outra com o mesmo número.
+	 *
+	 * @param numero o número da conta.
+	 * @param tipo o tipo da conta (maior que zero).
+	 * @param saldo o saldo.
+	 * @param bonus o bônus.
+	 * @param cpf o CPF do cliente, ou null.
+	 *
+	 * @return int a posição da conta incluída, ou AUSENTE se já havia uma conta com o
+	 *         mesmo número, que não é alterada.
+	 *
+	 * @exception IllegalArgumentException se o número ou o CPF não couberem no registro.
+	 */
+	public int inserir(String numero, int tipo, long saldo, long bonus, String cpf) {
+
+		validar(numero, TAMANHO_MAXIMO_NUMERO, "Numero de conta");
+		if (cpf != null) {
+			validar(cpf, TAMANHO_MAXIMO_CPF, "CPF");
+		}
+		if (tipo <= LIVRE || tipo > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("Tipo de conta invalido: " + tipo);
+		}
+		int h = numero.hashCode();
+		escrita.lock();
+		try {
+			int i = entrada(numero, h);
+			if (indice.getInt(i << 2) != 0) {
+				return AUSENTE;
+			}
+			if (tamanho == limite) {
+				redimensionarIndice();
+				i = entrada(numero, h);
+			}
+			int posicao = alocarRegistro();
+			ByteBuffer b = bloco(posicao);
+			int base = base(posicao);
+			synchronized (trava(posicao)) {
+				b.putInt(base + HASH, h);
+				b.put(base + TAMANHO_NUMERO, (byte) numero.length());
+				for (int k = 0; k < numero.length(); k++) {
+					b.put(base + NUMERO + k, (byte) numero.charAt(k));
+				}
+				gravar(b, base, tipo, saldo, bonus, cpf);
+			}
+			indice.putInt(i << 2, posicao + 1);
+			tamanho++;
+			return posicao;
+		} finally {
+			escrita.unlock();
+		}
+	}
+
+	/**
+	 * Retorna a posição de uma conta.
+	 *
+	 * @param numero o número da conta.
+	 *
+	 * @return int a posição, ou AUSENTE se a conta não estiver no armazém.
+	 */
+	public int procurar(String numero) {
+
+		int h = numero.hashCode();
+		leitura.lock();
+		try {
+			return indice.getInt(entrada(numero, h) << 2) - 1;
+		} finally {
+			leitura.unlock();
+		}
+	}
+
+	/**
+	 * Exclui uma conta.
+	 *
+	 * @param numero o número da conta.
+	 *
+	 * @return boolean true se a conta foi excluída e false se ela não estava no armazém.
+	 */
+	public boolean remover(String numero) {
+
+		int h = numero.hashCode();
+		escrita.lock();
+		try {
+			int i = entrada(numero, h);
+			int posicao = indice.getInt(i << 2) - 1;
+			if (posicao == AUSENTE) {
+				return false;
+			}
+			removerEntrada(i);
+			synchronized (trava(posicao)) {
+				ByteBuffer b = bloco(posicao);
+				int base = base(posicao);
+				b.put(base + TIPO, LIVRE);
+				b.putLong(base + SALDO, primeiroLivre);
+			}
+			primeiroLivre = posicao;
+			tamanho--;
+			return true;
+		} finally {
+			escrita.unlock();
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de contas no armazém.
+	 */
+	public int getTamanho() {
+
+		leitura.lock();
+		try {
+			return tamanho;
+		} finally {
+			leitura.unlock();
+		}
+	}
+
+	public int getTipo(int posicao) {
+
+		return bloco(posicao).get(base(posicao) + TIPO);
+	}
+
+	public long getSaldo(int posicao) {
+
+		return bloco(posicao).getLong(base(posicao) + SALDO);
+	}
+
+	public long getBonus(int posicao) {
+
+		return bloco(posicao).getLong(base(posicao) + BONUS);
+	}
+
+	public String getNumero(int posicao) {
+
+		ByteBuffer b = bloco(posicao);
+		int base = base(posicao);
+		return texto(b, base + NUMERO, b.get(base + TAMANHO_NUMERO));
+	}
+
+	/**
+	 * Retorna o CPF do cliente da conta, ou null se a conta não tiver cliente.
+	 */
+	public String getCpf(int posicao) {
+
+		ByteBuffer b = bloco(posicao);
+		int base = base(posicao);
+		int n = b.get(base + TAMANHO_CPF);
+		return n < 0 ? null : texto(b, base + CPF, n);
+	}
+
+	/**
+	 * Grava de uma vez o tipo, o saldo, o bônus e o CPF do cliente de uma conta.
+	 *
+	 * @exception IllegalArgumentException se o CPF não couber no registro.
+	 */
+	public void alterar(int posicao, int tipo, long saldo, long bonus, String cpf) {
+
+		if (cpf != null) {
+			validar(cpf, TAMANHO_MAXIMO_CPF, "CPF");
+		}
+		if (tipo <= LIVRE || tipo > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("Tipo de conta invalido: " + tipo);
+		}
+		synchronized (trava(posicao)) {
+			gravar(bloco(posicao), base(posicao), tipo, saldo, bonus, cpf);
+		}
+	}
+
+	/**
+	 * Troca o saldo de uma conta, se ele ainda for o esperado.
+	 *
+	 * @return boolean true se o saldo foi trocado e false se ele era outro.
+	 */
+	public boolean compararETrocarSaldo(int posicao, long esperado, long novo) {
+
+		ByteBuffer b = bloco(posicao);
+		int base = base(posicao);
+		synchronized (trava(posicao)) {
+			if (b.getLong(base + SALDO) != esperado) {
+				return false;
+			}
+			b.putLong(base + SALDO, novo);
+			return true;
+		}
+	}
+
+	/**
+	 * Soma um valor (negativo para subtrair) ao saldo de uma conta.
+	 *
+	 * @return long o novo saldo.
+	 *
+	 * @exception ArithmeticException se o novo saldo não couber em um long. O saldo não
+	 *            é alterado.
+	 */
+	public long somarSaldo(int posicao, long valor) {
+
+		ByteBuffer b = bloco(posicao);
+		int base = base(posicao);
+		synchronized (trava(posicao)) {
+			long saldo = Dinheiro.somar(b.getLong(base + SALDO), valor);
+			b.putLong(base + SALDO, saldo);
+			return saldo;
+		}
+	}
+
+	private void gravar(ByteBuffer b, int base, int tipo, long saldo, long bonus, String cpf) {
+
+		b.putLong(base + SALDO, saldo);
+		b.putLong(base + BONUS, bonus);
+		if (cpf == null) {
+			b.put(base + TAMANHO_CPF, (byte) -1);
+		} else {
+			b.put(base + TAMANHO_CPF, (byte) cpf.length());
+			for (int k = 0; k < cpf.length(); k++) {
+				b.put(base + CPF + k, (byte) cpf.charAt(k));
+			}
+		}
+		b.put(base + TIPO, (byte) tipo);
+	}
+
+	private static void validar(String s, int tamanhoMaximo, String campo) {
+
+		if (s.length() > tamanhoMaximo) {
+			throw new IllegalArgumentException(campo + " com mais de " + tamanhoMaximo
+				+ " caracteres: " + s);
+		}
+		for (int k = 0; k < s.length(); k++) {
+			if (s.charAt(k) > 0xFF) {
+				throw new IllegalArgumentException(campo + " com caractere fora de ISO-8859-1: " + s);
+			}
+		}
+	}
+
+	private static String texto(ByteBuffer b, int inicio, int n) {
+
+		char[] cs = new char[n];
+		for (int k = 0; k < n; k++) {
+			cs[k] = (char) (b.get(inicio + k) & 0xFF);
+		}
+		return new String(cs);
+	}
+
+	private ByteBuffer bloco(int posicao) {
+
+		return blocos[posicao >>> BITS_BLOCO];
+	}
+
+	private static int base(int posicao) {
+
+		return (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+	}
+
+	private Object trava(int posicao) {
+
+		return travas[posicao & (QUANTIDADE_TRAVAS - 1)];
+	}
+
+	/**
+	 * Retorna um registro livre, reaproveitando os excluídos. Chamado com a trava de
+	 * escrita.
+	 */
+	private int alocarRegistro() {
+
+		if (primeiroLivre != AUSENTE) {
+			int posicao = primeiroLivre;
+			primeiroLivre = (int) bloco(posicao).getLong(base(posicao) + SALDO);
+			return posicao;
+		}
+		if (usados == Integer.MAX_VALUE) {
+			throw new IllegalStateException("Armazem de saldos cheio");
+		}
+		int posicao = usados;
+		if ((posicao >>> BITS_BLOCO) == blocos.length) {
+			ByteBuffer[] novos = new ByteBuffer[blocos.length + 1];
+			System.arraycopy(blocos, 0, novos, 0, blocos.length);
+			novos[blocos.length] = ByteBuffer.allocateDirect(REGISTROS_POR_BLOCO * TAMANHO_REGISTRO)
+				.order(ByteOrder.nativeOrder());
+			blocos = novos;
+		}
+		usados++;
+		return posicao;
+	}
+
+	/**
+	 * Retorna a entrada do índice que aponta para a conta, ou, se ela não estiver no
+	 * índice, a entrada livre onde ela seria incluída.
+	 */
+	private int entrada(String numero, int h) {
+
+		int i = inicio(h);
+		while (true) {
+			int p = indice.getInt(i << 2) - 1;
+			if (p == AUSENTE || mesmoNumero(p, numero, h)) {
+				return i;
+			}
+			i = (i + 1) & mascara;
+		}
+	}
+
+	private boolean mesmoNumero(int posicao, String numero, int h) {
+
+		ByteBuffer b = bloco(posicao);
+		int base = base(posicao);
+		if (b.getInt(base + HASH) != h || b.get(base + TAMANHO_NUMERO) != numero.length()) {
+			return false;
+		}
+		for (int k = 0; k < numero.length(); k++) {
+			if ((b.get(base + NUMERO + k) & 0xFF) != numero.charAt(k)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Libera uma entrada do índice, deslocando para trás as entradas seguintes que
+	 * não estão no seu lugar ideal, como em IndiceCpf.
+	 */
+	private void removerEntrada(int i) {
+
+		int livre = i;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mascara;
+			int v = indice.getInt(j << 2);
+			if (v == 0) {
+				break;
+			}
+			int ideal = inicio(bloco(v - 1).getInt(base(v - 1) + HASH));
+			if (((j - ideal) & mascara) >= ((j - livre) & mascara)) {
+				indice.putInt(livre << 2, v);
+				livre = j;
+			}
+		}
+		indice.putInt(livre << 2, 0);
+	}
+
+	private int inicio(int h) {
+
+		return (h * 0x9E3779B9) >>> deslocamento;
+	}
+
+	private void alocarIndice(int capacidade) {
+
+		// allocateDirect já zera a memória, marcando todas as entradas como livres
+		indice = ByteBuffer.allocateDirect(capacidade * 4).order(ByteOrder.nativeOrder());
+		mascara = capacidade - 1;
+		deslocamento = 32 - Integer.numberOfTrailingZeros(capacidade);
+		limite = (int) (capacidade * 3L / 4);
+	}
+
+	/**
+	 * Dobra o tamanho do índice. Chamado com a trava de escrita.
+	 */
+	private void redimensionarIndice() {
+
+		int capacidade = mascara + 1;
+		if (capacidade == CAPACIDADE_MAXIMA_INDICE) {
+			throw new IllegalStateException("Indice do armazem de saldos cheio");
+		}
+		ByteBuffer antigo = indice;
+		alocarIndice(capacidade << 1);
+		for (int i = 0; i < capacidade; i++) {
+			int v = antigo.getInt(i << 2);
+			if (v != 0) {
+				int j = inicio(bloco(v - 1).getInt(base(v - 1) + HASH));
+				while (indice.getInt(j << 2) != 0) {
+					j = (j + 1) & mascara;
+				}
+				indice.putInt(j << 2, v);
+			}
+		}
+	}
+}
@@ -1,190 +1,579 @@
-package qualiti.banco.contas;
-
-/**
- * Classe que realiza validaes referentes s operaes de atualizao de dados
- * no mecanismo de armazenamento de dados de contas e usa o repositrio de contas
- * para aualizar e buscar os dados das mesmas. Realiza tambm operaes de crdito,
- * de dbito e de transferncia entre contas.
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.cliente.Cliente
- * @see qualiti.banco.cliente.ReposiorioClientes
- */
-public class CadastroContas {
-
-	/**
-	 * Referncia para a implementao do repositrio de contas.
-	 */
-	private RepositorioContas contas;
-
-	/**
-	 * O construtor da classe. Inicializa a referncia para o repositrio
-	 * de contas com o valor passado como parmetro. 
-	 * 
-	 * @param r a referncia para o repositrio de contas.
-	 */
-	public CadastroContas(RepositorioContas r) {
-
-		this.contas = r;
-	}
-
-	/**
-	 * Atualiza os dados de uma conta no repositrio de contas.
-	 * 
-	 * @param c a conta com os dados a serem atualizados. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            atualizados no existe no repositrio de contas.Esta exceo vem da 
-	 *            chamada ao repositrio de contas e  repassada diretamente por este 
-	 *            mtodo ao seu mtodo chamador. 
-	 */
-	public void atualizar(ContaAbstrata c) throws ContaInexistenteException {
-
-		contas.atualizar(c);
-	}
-
-	/**
-	 * Cadastra os dados de uma conta no repositrio de contas. Antes disso, 
-	 * checa se o nmero da conta a ser cadastrada j existe no repositrio  
-	 * de contas.
-	 * 
-	 * @param c a conta com os dados a serem cadastrados.
-	 *
-	 * @exception ContaExistenteException se o nmero da conta a ser cadastrada j 
-	 *            existir no repositrio de contas. Esta exceo  instanciada e
-	 *            lanada por este mtodo, caso a consulta ao nmero feita no 
-	 *            repositrio retorne true. 
-	 */
-	public void cadastrar(ContaAbstrata c) throws ContaExistenteException {
-
-		if (!contas.existe(c.getNumero())) {
-			contas.inserir(c);
-		} else {
-			throw new ContaExistenteException(c.getNumero());
-		}
-	}
-
-	/**
-	 * Realiza uma operao de crdito de um dado valor em uma conta no repositrio de contas. 
-	 * 
-	 * @param n o nmero da conta a ser creditada.
-	 * @param v o valor a ser creditado.
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ser creditada
-	 *            no existe no repositrio de contas.Esta exceo vem da chamada 
-	 *            ao repositrio de contas e  repassada diretamente por este 
-	 *            mtodo ao seu mtodo chamador.
-	 *
-	 * @see Q1 Por que este mtodo, aps realizar a operao de creditar na
-	 *         conta, no atualiza os dados da mesma usando o repositrio ??
-	 *         Ser que esta forma de implementao ir funcionar quando a 
-	 *         implementao do repositrio for trocada por uma classe que 
-	 *         acessa um banco SQL ??   
-	 */
-	public void creditar(String n, double v) throws ContaInexistenteException {
-
-		// lana ContaInexistenteException  
-		ContaAbstrata c = contas.procurar(n);
-		c.creditar(v);
-	}
-
-	/**
-	 * Realiza uma operao de dbito de um dado valor em uma conta no repositrio de contas. 
-	 * 
-	 * @param n o nmero da conta a ser debitada.
-	 * @param v o valor a ser debitado.
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ser debitada
-	 *            no existe no repositrio de contas.Esta exceo vem da chamada 
-	 *            ao repositrio de contas e  repassada diretamente por este 
-	 *            mtodo ao seu mtodo chamador.
-	 * @exception SaldoInsuficienteException lanada quando o saldo da conta a
-	 *            ser debitada  menor que o valor a ser debitado. Esta exceo 
-	 *            vem da chamada ao mtodo debitar() de contas e  repassada 
-	 *            diretamente por este mtodo em questo ao seu mtodo chamador.
-	 *
-	 * @see Q1 Por que este mtodo, aps realizar a operao de debitar na
-	 *         conta, no atualiza os dados da mesma usando o repositrio ??
-	 *         Ser que esta forma de implementao ir funcionar quando a 
-	 *         implementao do repositrio for trocada por uma classe que 
-	 *         acessa um banco SQL ??   
-	 */
-	public void debitar(String n, double v)
-		throws ContaInexistenteException, SaldoInsuficienteException {
-
-		// lana ContaInexistenteException  
-		ContaAbstrata c = contas.procurar(n);
-		// lana SaldoInsuficienteException
-		c.debitar(v);
-	}
-
-	/**
-	 * Exclui uma conta armazenada no repositrio de contas.
-	 * 
-	 * @param n o nmero da conta que ser excluda do repositrio de contas.
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ser excluda 
-	 *            no existe no repositrio de contas. Esta exceo vem da chamada ao 
-	 *            repositrio de contas e  repassada diretamente por este mtodo 
-	 *            ao seu mtodo chamador.  
-	 */
-	public void remover(String n) throws ContaInexistenteException {
-
-		contas.remover(n);
-	}
-
-	/**
-	 * Retorna uma conta armazenada no repositrio de contas.
-	 * 
-	 * @param n o nmero da conta que ser procurada no repositrio de contas.
-	 *        
-	 * @return ContaAbstrata a conta com seus dados lidos a partir do repositrio
-	 *         de contas. Pode ser qualquer sub-tipo de conta abstrata. 
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            lidos no existe no repositrio de contas. Esta exceo vem da chamada 
-	 *            ao repositrio de contas e  repassada diretamente por este mtodo ao 
-	 *            seu mtodo chamador. 
-	 */
-	public ContaAbstrata procurar(String n) throws ContaInexistenteException {
-
-		return contas.procurar(n);
-	}
-
-	/**
-	 * Realiza uma operao de transferncia de um dado valor de uma conta 
-	 * para outra conta.
-	 * 
-	 * @param origem o nmero da conta a ser debitada.
-	 * @param destino o nmero da conta a ser creditada.
-	 * @param val o valor a ser transferido.
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ser debitada ou 
-	 *            a conta a ser creditada no existe no repositrio de contas.Esta 
-	 *            exceo vem da chamada  ao repositrio de contas e  repassada 
-	 *            diretamente por este mtodo ao seu mtodo chamador.
-	 * @exception SaldoInsuficienteException lanada quando o saldo da conta a
-	 *            ser debitada  menor que o valor a ser transferido. Esta exceo 
-	 *            vem da chamada ao mtodo debitar() de contas e  repassada 
-	 *            diretamente por este mtodo em questo ao seu mtodo chamador.
-	 *
-	 * @see Q1 Por que este mtodo, aps realizar a operao de transferir na
-	 *         conta, no atualiza os dados da mesma usando o repositrio ??
-	 *         Ser que esta forma de implementao ir funcionar quando a 
-	 *         implementao do repositrio for trocada por uma classe que 
-	 *         acessa um banco SQL ??   
-	 */
-	public void transferir(String origem, String destino, double val)
-		throws ContaInexistenteException, SaldoInsuficienteException {
-
-		// lana ContaInexistenteException  
-		ContaAbstrata o = contas.procurar(origem);
-		// lana ContaInexistenteException  
-		ContaAbstrata d = contas.procurar(destino);
-		// lana SaldoInsuficienteException 
-		o.transferir(d, val);
-	}
+package qualiti.banco.contas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+
+/**
+ * Classe que realiza validações referentes às operações de atualização de dados
+ * no mecanismo de armazenamento de dados de contas e usa o repositório de contas
+ * para aualizar e buscar os dados das mesmas. Realiza também operações de crédito,
+ * de débito e de transferência entre contas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.cliente.Cliente
+ * @see qualiti.banco.cliente.ReposiorioClientes
+ */
+public class CadastroContas implements OperacoesContas {
+
+	/**
+	 * Referência para a implementação do repositório de contas.
+	 */
+	private RepositorioContas contas;
+
+	/**
+	 * O mesmo repositório de contas, se ele guardar as contas fora do heap; null caso
+	 * contrário. O crédito e o débito das contas sem regras de bônus ou de imposto são
+	 * feitos diretamente nele, sem criar o objeto da conta.
+	 */
+	private RepositorioContasForaHeap foraHeap;
+
+	/**
+	 * Travas usadas no modo de execução concorrente. Se for null, as operações de
+	 * crédito, de débito e de transferência não são sincronizadas.
+	 */
+	private TravasContas travas;
+
+	/**
+	 * Diário em que são registradas as operações que alteram saldos. Se for null, as
+	 * operações só ficam no repositório de contas.
+	 */
+	private DiarioTransacoes diario;
+
+	/**
+	 * Threads que executam em paralelo os componentes dos lotes de transferências. O
+	 * pool é criado no primeiro lote e usado por todos os lotes seguintes deste cadastro;
+	 * as threads são daemon e não impedem o término do programa. Fica null enquanto não
+	 * houver lote, e também quando houver um único processador.
+	 */
+	private volatile ExecutorService execucaoLotes;
+	private final Object travaExecucaoLotes = new Object();
+
+	/**
+	 * Mensagem que indica erro de gravação no diário de transações.
+	 */
+	private static final String MSG_ERRO_DIARIO =
+		"Erro de gravacao no diario de transacoes";
+
+	/**
+	 * Quantidade de contas procuradas e atualizadas de uma só vez na recuperação.
+	 */
+	private static final int LOTE_RECUPERACAO = 1000;
+
+	/**
+	 * O construtor da classe. Inicializa a referência para o repositório
+	 * de contas com o valor passado como parâmetro. 
+	 * 
+	 * @param r a referência para o repositório de contas.
+	 */
+	public CadastroContas(RepositorioContas r) {
+
+		this(r, null);
+	}
+
+	/**
+	 * O construtor da classe para o modo de execução concorrente. As operações de
+	 * crédito, de débito e de transferência obtêm as travas das contas envolvidas,
+	 * de forma que várias threads podem usar este cadastro ao mesmo tempo sem perder
+	 * atualizações de saldo. O repositório passado também precisa suportar acesso
+	 * concorrente.
+	 * 
+	 * @param r a referência para o repositório de contas.
+	 * @param t as travas das contas, ou null para não sincronizar as operações.
+	 */
+	public CadastroContas(RepositorioContas r, TravasContas t) {
+
+		this(r, t, null);
+	}
+
+	/**
+	 * O construtor da classe com diário de transações. Cada abertura, crédito, débito,
+	 * transferência e exclusão de conta é registrada no diário, e o método só retorna
+	 * depois de o registro estar gravado em disco. Para que a ordem do diário seja a
+	 * ordem das operações, o diário deve ser usado com travas.
+	 *
+	 * @param r a referência para o repositório de contas.
+	 * @param t as travas das contas, ou null para não sincronizar as operações.
+	 * @param d o diário de transações, ou null para não registrar as operações.
+	 */
+	public CadastroContas(RepositorioContas r, TravasContas t, DiarioTransacoes d) {
+
+		this.contas = r;
+		if (r instanceof RepositorioContasForaHeap) {
+			this.foraHeap = (RepositorioContasForaHeap) r;
+		}
+		this.travas = t;
+		this.diario = d;
+	}
+
+	/**
+	 * Aplica ao repositório de contas o estado recuperado do diário de transações,
+	 * corrigindo as contas cujo último saldo (ou bônus) não chegou a ser gravado no
+	 * repositório e recriando as contas que não estão nele, como as de um repositório
+	 * em memória depois de reiniciar. Só as contas cuja abertura está no diário podem
+	 * ser recriadas. As contas são procuradas e atualizadas no repositório em lotes, e
+	 * não uma a uma. Deve ser chamado logo após a criação do cadastro, antes de
+	 * qualquer operação.
+	 *
+	 * @return int a quantidade de contas corrigidas ou recriadas.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao repositório de contas.
+	 */
+	public int recuperar() throws ErroAcessoRepositorioException {
+
+		if (diario == null) {
+			return 0;
+		}
+		Map<String, DiarioTransacoes.EstadoConta> estados = diario.getContas();
+		int corrigidas = 0;
+		Iterator<String> numeros = estados.keySet().iterator();
+		while (numeros.hasNext()) {
+			List<String> lote = new ArrayList<String>(LOTE_RECUPERACAO);
+			while (numeros.hasNext() && lote.size() < LOTE_RECUPERACAO) {
+				lote.add(numeros.next());
+			}
+			Map<String, ContaAbstrata> encontradas = contas.procurar(lote);
+			List<ContaAbstrata> alteradas = new ArrayList<ContaAbstrata>();
+			for (String n : lote) {
+				DiarioTransacoes.EstadoConta estado = estados.get(n);
+				ContaAbstrata c = encontradas.get(n);
+				if (c == null) {
+					// a conta não chegou ao repositório, ou o repositório não guarda
+					// as contas entre execuções: recria a conta com o estado do diário
+					c = estado.criarConta(n);
+					if (c != null) {
+						contas.inserir(c);
+						corrigidas++;
+					}
+				} else if (estado.corrigir(c)) {
+					alteradas.add(c);
+				}
+			}
+			if (!alteradas.isEmpty()) {
+				try {
+					contas.atualizar(alteradas);
+				} catch (ContaInexistenteException e) {
+					throw new IllegalStateException(
+						"Conta excluida durante a recuperacao: " + e.getMessage(), e);
+				}
+				corrigidas += alteradas.size();
+			}
+		}
+		return corrigidas;
+	}
+
+	/**
+	 * Atualiza os dados de uma conta no repositório de contas.
+	 * 
+	 * @param c a conta com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            atualizados não existe no repositório de contas.Esta exceção vem da 
+	 *            chamada ao repositório de contas e é repassada diretamente por este 
+	 *            método ao seu método chamador. 
+	 */
+	public void atualizar(ContaAbstrata c)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		contas.atualizar(c);
+	}
+
+	/**
+	 * Cadastra os dados de uma conta no repositório de contas, se o número da conta
+	 * ainda não existir nele. A verificação e a inclusão são feitas pelo repositório
+	 * em uma única operação, que não pode ser intercalada com outro cadastro.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @exception ContaExistenteException se o número da conta a ser cadastrada já 
+	 *            existir no repositório de contas. Esta exceção é instanciada e
+	 *            lançada por este método, caso o repositório não tenha inserido
+	 *            a conta. 
+	 */
+	public void cadastrar(ContaAbstrata c)
+		throws ContaExistenteException, ErroAcessoRepositorioException {
+
+		if (!contas.inserirSeAusente(c)) {
+			throw new ContaExistenteException(c.getNumero());
+		}
+		if (diario != null) {
+			long seq;
+			travar(c.getNumero());
+			try {
+				seq = registrar(DiarioTransacoes.Operacao.ABERTURA, c, c.getSaldo(), c.copiarEstado());
+			} finally {
+				destravar(c.getNumero());
+			}
+			aguardarGravacao(seq);
+		}
+	}
+
+	/**
+	 * Realiza uma operação de crédito de um dado valor em uma conta no repositório de contas. 
+	 * 
+	 * @param n o número da conta a ser creditada.
+	 * @param v o valor a ser creditado.
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ser creditada
+	 *            não existe no repositório de contas.Esta exceção vem da chamada 
+	 *            ao repositório de contas e é repassada diretamente por este 
+	 *            método ao seu método chamador.
+	 */
+	public void creditar(String n, long v)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		long seq;
+		travar(n);
+		try {
+			// lança ContaInexistenteException  
+			if (foraHeap != null && foraHeap.creditarDireto(n, v)) {
+				seq = registrarDireto(DiarioTransacoes.Operacao.CREDITO, n, v, -v);
+			} else {
+				ContaAbstrata c = contas.procurar(n);
+				long[] anterior = c.copiarEstado();
+				c.creditar(v);
+				seq = registrar(DiarioTransacoes.Operacao.CREDITO, c, v, anterior);
+				contas.atualizar(c);
+			}
+		} finally {
+			destravar(n);
+		}
+		aguardarGravacao(seq);
+	}
+
+	/**
+	 * Realiza uma operação de débito de um dado valor em uma conta no repositório de contas. 
+	 * 
+	 * @param n o número da conta a ser debitada.
+	 * @param v o valor a ser debitado.
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ser debitada
+	 *            não existe no repositório de contas.Esta exceção vem da chamada 
+	 *            ao repositório de contas e é repassada diretamente por este 
+	 *            método ao seu método chamador.
+	 * @exception SaldoInsuficienteException lançada quando o saldo da conta a
+	 *            ser debitada é menor que o valor a ser debitado. Esta exceção 
+	 *            vem da chamada ao método debitar() de contas e é repassada 
+	 *            diretamente por este método em questão ao seu método chamador.
+	 */
+	public void debitar(String n, long v)
+		throws
+			ContaInexistenteException,
+			SaldoInsuficienteException,
+			ErroAcessoRepositorioException {
+
+		long seq;
+		travar(n);
+		try {
+			// lança ContaInexistenteException e SaldoInsuficienteException
+			if (foraHeap != null && foraHeap.debitarDireto(n, v)) {
+				seq = registrarDireto(DiarioTransacoes.Operacao.DEBITO, n, v, v);
+			} else {
+				ContaAbstrata c = contas.procurar(n);
+				long[] anterior = c.copiarEstado();
+				// lança SaldoInsuficienteException
+				c.debitar(v);
+				seq = registrar(DiarioTransacoes.Operacao.DEBITO, c, v, anterior);
+				contas.atualizar(c);
+			}
+		} finally {
+			destravar(n);
+		}
+		aguardarGravacao(seq);
+	}
+
+	/**
+	 * Exclui uma conta armazenada no repositório de contas.
+	 * 
+	 * @param n o número da conta que será excluída do repositório de contas.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ser excluída 
+	 *            não existe no repositório de contas. Esta exceção vem da chamada ao 
+	 *            repositório de contas e é repassada diretamente por este método 
+	 *            ao seu método chamador.  
+	 */
+	public void remover(String n)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		if (diario == null) {
+			contas.remover(n);
+			return;
+		}
+		long seq;
+		travar(n);
+		try {
+			contas.remover(n);
+			try {
+				seq = diario.registrarEncerramento(n);
+			} catch (IOException e) {
+				throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+			}
+		} finally {
+			destravar(n);
+		}
+		aguardarGravacao(seq);
+	}
+
+	/**
+	 * Retorna uma conta armazenada no repositório de contas.
+	 * 
+	 * @param n o número da conta que será procurada no repositório de contas.
+	 *        
+	 * @return ContaAbstrata a conta com seus dados lidos a partir do repositório
+	 *         de contas. Pode ser qualquer sub-tipo de conta abstrata. 
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            lidos não existe no repositório de contas. Esta exceção vem da chamada 
+	 *            ao repositório de contas e é repassada diretamente por este método ao 
+	 *            seu método chamador. 
+	 */
+	public ContaAbstrata procurar(String n)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		return contas.procurar(n);
+	}
+
+	/**
+	 * Realiza uma operação de transferência de um dado valor de uma conta 
+	 * para outra conta.
+	 * 
+	 * @param origem o número da conta a ser debitada.
+	 * @param destino o número da conta a ser creditada.
+	 * @param val o valor a ser transferido.
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ser debitada ou 
+	 *            a conta a ser creditada não existe no repositório de contas.Esta 
+	 *            exceção vem da chamada  ao repositório de contas e é repassada 
+	 *            diretamente por este método ao seu método chamador.
+	 * @exception SaldoInsuficienteException lançada quando o saldo da conta a
+	 *            ser debitada é menor que o valor a ser transferido. Esta exceção 
+	 *            vem da chamada ao método debitar() de contas e é repassada 
+	 *            diretamente por este método em questão ao seu método chamador.
+	 */
+	public void transferir(String origem, String destino, long val)
+		throws
+			ContaInexistenteException,
+			SaldoInsuficienteException,
+			ErroAcessoRepositorioException {
+
+		long seq = 0;
+		if (travas != null) {
+			// as duas travas são obtidas sempre na mesma ordem, evitando deadlock
+			travas.travar(origem, destino);
+		}
+		try {
+			// lança ContaInexistenteException  
+			ContaAbstrata o = contas.procurar(origem);
+			// lança ContaInexistenteException  
+			ContaAbstrata d = contas.procurar(destino);
+			long[] anteriorOrigem = o.copiarEstado();
+			long[] anteriorDestino = d.copiarEstado();
+			try {
+				// lança SaldoInsuficienteException
+				o.transferir(d, val);
+			} catch (RuntimeException e) {
+				// o crédito estourou o saldo do destino depois do débito na origem:
+				// desfaz o débito, como em LoteTransferencias
+				o.restaurarEstado(anteriorOrigem);
+				d.restaurarEstado(anteriorDestino);
+				throw e;
+			}
+			if (diario != null) {
+				try {
+					seq = diario.registrarTransferencia(o, d, val);
+				} catch (IOException e) {
+					// a transferência não foi registrada: desfaz a alteração das contas,
+					// inclusive do bônus creditado no destino
+					o.restaurarEstado(anteriorOrigem);
+					d.restaurarEstado(anteriorDestino);
+					throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+				}
+			}
+			contas.atualizar(o);
+			contas.atualizar(d);
+		} finally {
+			if (travas != null) {
+				travas.destravar(origem, destino);
+			}
+		}
+		aguardarGravacao(seq);
+	}
+
+	/**
+	 * Realiza um lote de transferências, como as de um arquivo de liquidação. As contas
+	 * do lote são procuradas de uma só vez, as transferências que não têm contas em
+	 * comum são executadas em paralelo e as contas alteradas são atualizadas no
+	 * repositório em lote. O resultado é o mesmo de chamar transferir() para cada
+	 * ordem, na ordem da lista; porém, em vez de lançar exceções, cada ordem recebe
+	 * o seu resultado.
+	 *
+	 * @param ordens as ordens de transferência.
+	 *
+	 * @return ResultadoTransferencia[] o resultado de cada ordem, na mesma posição
+	 *         da ordem na lista.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao repositório de contas ou ao diário de transações. As ordens já
+	 *            executadas não são desfeitas.
+	 *
+	 * @see qualiti.banco.contas.LoteTransferencias
+	 */
+	public ResultadoTransferencia[] transferirLote(List<OrdemTransferencia> ordens)
+		throws ErroAcessoRepositorioException {
+
+		return new LoteTransferencias(contas, travas, diario, getExecucaoLotes()).executar(ordens);
+	}
+
+	/**
+	 * Fecha o cadastro: encerra o pool de threads dos lotes de transferências, grava no
+	 * repositório as alterações que ainda estão só em memória e fecha o diário de
+	 * transações, se houver. Depois de fechado, o cadastro não deve mais ser usado.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao repositório de contas ou ao diário de transações. O diário é
+	 *            fechado mesmo que a gravação no repositório falhe.
+	 */
+	public void fechar() throws ErroAcessoRepositorioException {
+
+		ExecutorService e = execucaoLotes;
+		if (e != null) {
+			e.shutdown();
+		}
+		try {
+			contas.fechar();
+		} finally {
+			if (diario != null) {
+				try {
+					diario.fechar();
+				} catch (IOException ex) {
+					throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, ex, 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Retorna o pool de threads dos lotes de transferências, criando-o no primeiro lote.
+	 *
+	 * @return ExecutorService o pool, ou null se houver um único processador.
+	 */
+	private ExecutorService getExecucaoLotes() {
+
+		ExecutorService e = execucaoLotes;
+		int processadores = Runtime.getRuntime().availableProcessors();
+		if (e == null && processadores > 1) {
+			synchronized (travaExecucaoLotes) {
+				e = execucaoLotes;
+				if (e == null) {
+					final AtomicInteger contador = new AtomicInteger();
+					e = Executors.newFixedThreadPool(processadores, new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "lote-transferencias-" + contador.incrementAndGet());
+							t.setDaemon(true);
+							return t;
+						}
+					});
+					execucaoLotes = e;
+				}
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * Registra uma operação sobre uma conta no diário, se houver diário. Se o registro
+	 * falhar, a conta volta ao estado anterior à operação (o saldo e, nas contas
+	 * bonificadas, o bônus).
+	 *
+	 * @return long o número de sequência do registro, ou 0 se não houver diário.
+	 */
+	private long registrar(
+		DiarioTransacoes.Operacao op,
+		ContaAbstrata c,
+		long v,
+		long[] anterior)
+		throws ErroAcessoRepositorioException {
+
+		if (diario == null) {
+			return 0;
+		}
+		try {
+			return diario.registrar(op, c, v);
+		} catch (IOException e) {
+			c.restaurarEstado(anterior);
+			throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+		}
+	}
+
+	/**
+	 * Registra no diário, se houver, um crédito ou um débito já feito diretamente no
+	 * repositório fora do heap. Se o registro falhar, a operação é desfeita somando
+	 * ao saldo o valor passado em desfazer.
+	 */
+	private long registrarDireto(
+		DiarioTransacoes.Operacao op,
+		String n,
+		long v,
+		long desfazer)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		if (diario == null) {
+			return 0;
+		}
+		long[] estado = foraHeap.getEstado(n);
+		try {
+			return diario.registrar(op, n, estado[0], estado[1], v);
+		} catch (IOException e) {
+			foraHeap.somarSaldo(n, desfazer);
+			throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+		}
+	}
+
+	/**
+	 * Espera o registro da operação ser gravado em disco, se houver diário. É chamado
+	 * depois de liberadas as travas, para que várias operações dividam a mesma
+	 * gravação.
+	 */
+	private void aguardarGravacao(long seq) throws ErroAcessoRepositorioException {
+
+		if (diario != null) {
+			try {
+				diario.aguardarGravacao(seq);
+			} catch (IOException e) {
+				throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+			}
+		}
+	}
+
+	/**
+	 * Obtém a trava de uma conta, se o cadastro estiver no modo concorrente.
+	 */
+	private void travar(String n) {
+
+		if (travas != null) {
+			travas.travar(n);
+		}
+	}
+
+	/**
+	 * Libera a trava de uma conta, se o cadastro estiver no modo concorrente.
+	 */
+	private void destravar(String n) {
+
+		if (travas != null) {
+			travas.destravar(n);
+		}
+	}
 }
\ No newline at end of file
@@ -1,208 +1,235 @@
-package qualiti.banco.contas;
-
-import javax.persistence.Column;
-import javax.persistence.DiscriminatorColumn;
-import javax.persistence.DiscriminatorType;
-import javax.persistence.DiscriminatorValue;
-import javax.persistence.Entity;
-import javax.persistence.FetchType;
-import javax.persistence.Id;
-import javax.persistence.Inheritance;
-import javax.persistence.InheritanceType;
-import javax.persistence.JoinColumn;
-import javax.persistence.ManyToOne;
-import javax.persistence.Table;
-
-import org.hibernate.annotations.Cascade;
-import org.hibernate.annotations.CascadeType;
-import org.hibernate.annotations.Fetch;
-import org.hibernate.annotations.FetchMode;
-
-import qualiti.banco.clientes.Cliente;
-
-/**
- * Classe abstrata bsica que representa uma entidade geral conta, com seus dados, validaes
- * dos mesmos e suas operaes relacionadas. Esta  a super-classe da hierarquia dos
- * diversos tipos de contas existentes, agregando elementos e operaes comuns a 
- * todos os sub-tipos de conta existentes.
- * 
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- */
-@Entity
-@Table( name="tb_conta" )
-@Inheritance(strategy=InheritanceType.SINGLE_TABLE)
-@DiscriminatorColumn( name="tipo", discriminatorType=DiscriminatorType.INTEGER)
-@DiscriminatorValue("0")
-public abstract class ContaAbstrata {
-
-	@Id
-	@Column ( name="id" )
-	private int id;
-	/**
-	 * O nmero da conta.
-	 */
-	@Column ( name="numero" )
-	private String numero;
-	/**
-	 * O saldo da conta.
-	 */
-	@Column ( name="saldo" )
-	private double saldo;
-	/**
-	 * O cliente associado  conta.
-	 */
-	@ManyToOne(fetch = FetchType.EAGER)
-	@JoinColumn(name="tb_cliente_cpf")
-	@Fetch(FetchMode.JOIN)
-	@Cascade(CascadeType.SAVE_UPDATE)
-	private Cliente cliente;
-
-	public ContaAbstrata() {
-
-	}
-	
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando os mtodos sets dos mesmos.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param c o cliente da conta.  
-	 */
-	public ContaAbstrata(String num, Cliente c) {
-		// Chama o construtor sobrecarregado desta classe que recebe um nmero,
-		// um saldo e um cliente. Neste caso, passa zero para o saldo.
-		this(num, 0, c);
-	}
-
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando os mtodos sets dos mesmos.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param s o saldo inicial da conta. 
-	 * @param c o cliente da conta.  
-	 */
-	public ContaAbstrata(String num, double s, Cliente c) {
-
-		setNumero(num);
-		setSaldo(s);
-		setCliente(c);
-
-	}
-
-	/**
-	 * Credita um dado valor no saldo atual da conta.
-	 * 
-	 * @param valor o valor a ser creditado.
-	 */
-	public void creditar(double valor) {
-
-		saldo = saldo + valor;
-	}
-
-	/**
-	 * Mtodo abstrato com semntica de dbito a ser implementado pelos sub-tipos de
-	 * conta abstrata. Define uma operao de dbito com possibilidade de checagem 
-	 * de saldo antes da efetivao da operao.
-	 * 
-	 * @param valor o valor a ser debitado.
-	 *
-	 * @exception SaldoInsuficienteException lanada quando o valor passado como
-	 *            parmetro  maior que o saldo da conta. 
-	 */
-	public abstract void debitar(double valor)
-		throws SaldoInsuficienteException;
-
-	/**
-	 * Retorna o cliente associado  conta.
-	 * 
-	 * @return Cliente o cliente associado  conta.
-	 */
-	public Cliente getCliente() {
-
-		return cliente;
-	}
-
-	/**
-	 * Retorna o nmero da conta.
-	 * 
-	 * @return String o nmero da conta.
-	 */
-	public String getNumero() {
-		return numero;
-	}
-
-	/**
-	 * Retorna o saldo da conta.
-	 * 
-	 * @return double o saldo da conta.
-	 */
-	public double getSaldo() {
-		return saldo;
-	}
-
-	/**
-	 * Atualiza o cliente associado  conta.
-	 * 
-	 * @param cliente o novo valor.
-	 *
-	 * @see Q1 O cliente da conta pode ser nulo ?? 
-	 */
-	public void setCliente(Cliente cliente) {
-
-		this.cliente = cliente;
-	}
-
-	/**
-	 * Atualiza o nmero da conta.
-	 * 
-	 * @param num o novo valor.
-	 *
-	 * @see Q1 O nmero da conta pode ser nulo ou branco ?? 
-	 * 
-	 * @see Q2 Uma vez definido para uma dada conta, o nmero da mesma pode 
-	 *         mudar, j que, por definio, nmero  a chave de uma conta ??
-	 *         Como se pode definir bem no JAVA a questo de no alterar 
-	 *         atributos que definem a chave de uma entidade ??  
-	 */
-	public void setNumero(String num) {
-		this.numero = num;
-	}
-
-	/**
-	 * Atualiza o saldo da conta.
-	 * 
-	 * @param valor o novo valor do saldo.
-	 *
-	 * @see Q1 O saldo pode ser menor que zero ??
-	 */
-	public void setSaldo(double valor) {
-		saldo = valor;
-	}
-
-	/**
-	 * Transfere um dado valor da conta para uma conta destino passada como parmetro.
-	 * 
-	 * @param c a conta destino.
-	 * @param v o valor a ser transferido.
-	 *
-	 * @exception SaldoInsuficienteException se o saldo da conta for menor que o valor
-	 *            a ser transferido.
-	 */
-	public void transferir(ContaAbstrata c, double v)
-		throws SaldoInsuficienteException {
-
-		this.debitar(v);
-		c.creditar(v);
-	}
-
-	public int getId() {
-		return id;
-	}
-
-	public void setId(int id) {
-		this.id = id;
-	}
-}
+package qualiti.banco.contas;
+
+import javax.persistence.Column;
+import javax.persistence.DiscriminatorColumn;
+import javax.persistence.DiscriminatorType;
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Cascade;
+import org.hibernate.annotations.CascadeType;
+import org.hibernate.annotations.Type;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Classe abstrata básica que representa uma entidade geral conta, com seus dados, validações
+ * dos mesmos e suas operações relacionadas. Esta é a super-classe da hierarquia dos
+ * diversos tipos de contas existentes, agregando elementos e operações comuns a 
+ * todos os sub-tipos de conta existentes.
+ * 
+ * Os valores monetários (saldo e valores das operações) são representados em ponto
+ * fixo, como long em décimos de milésimo da unidade. Ver Dinheiro.
+ * 
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ */
+@Entity
+@Table( name="tb_conta" )
+@Inheritance(strategy=InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn( name="tipo", discriminatorType=DiscriminatorType.INTEGER)
+@DiscriminatorValue("0")
+public abstract class ContaAbstrata {
+
+	@Id
+	@Column ( name="id" )
+	private int id;
+	/**
+	 * O número da conta.
+	 */
+	@Column ( name="numero" )
+	private String numero;
+	/**
+	 * O saldo da conta, em décimos de milésimo da unidade.
+	 */
+	@Column ( name="saldo" )
+	@Type ( type="qualiti.banco.geral.TipoDinheiro" )
+	private long saldo;
+	/**
+	 * O cliente associado à conta. É lido do banco só quando for usado.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name="tb_cliente_cpf")
+	@Cascade(CascadeType.SAVE_UPDATE)
+	private Cliente cliente;
+
+	public ContaAbstrata() {
+
+	}
+	
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando os métodos sets dos mesmos.
+	 * 
+	 * @param num o número da conta.
+	 * @param c o cliente da conta.  
+	 */
+	public ContaAbstrata(String num, Cliente c) {
+		// Chama o construtor sobrecarregado desta classe que recebe um número,
+		// um saldo e um cliente. Neste caso, passa zero para o saldo.
+		this(num, 0, c);
+	}
+
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando os métodos sets dos mesmos.
+	 * 
+	 * @param num o número da conta.
+	 * @param s o saldo inicial da conta. 
+	 * @param c o cliente da conta.  
+	 */
+	public ContaAbstrata(String num, long s, Cliente c) {
+
+		setNumero(num);
+		setSaldo(s);
+		setCliente(c);
+
+	}
+
+	/**
+	 * Credita um dado valor no saldo atual da conta.
+	 * 
+	 * @param valor o valor a ser creditado.
+	 */
+	public void creditar(long valor) {
+
+		saldo = Dinheiro.somar(saldo, valor);
+	}
+
+	/**
+	 * Método abstrato com semântica de débito a ser implementado pelos sub-tipos de
+	 * conta abstrata. Define uma operação de débito com possibilidade de checagem 
+	 * de saldo antes da efetivação da operação.
+	 * 
+	 * @param valor o valor a ser debitado.
+	 *
+	 * @exception SaldoInsuficienteException lançada quando o valor passado como
+	 *            parâmetro é maior que o saldo da conta. 
+	 */
+	public abstract void debitar(long valor)
+		throws SaldoInsuficienteException;
+
+	/**
+	 * Retorna o cliente associado à conta.
+	 * 
+	 * @return Cliente o cliente associado à conta.
+	 */
+	public Cliente getCliente() {
+
+		return cliente;
+	}
+
+	/**
+	 * Retorna o número da conta.
+	 * 
+	 * @return String o número da conta.
+	 */
+	public String getNumero() {
+		return numero;
+	}
+
+	/**
+	 * Retorna o saldo da conta.
+	 * 
+	 * @return long o saldo da conta, em décimos de milésimo da unidade.
+	 */
+	public long getSaldo() {
+		return saldo;
+	}
+
+	/**
+	 * Atualiza o cliente associado à conta.
+	 * 
+	 * @param cliente o novo valor.
+	 *
+	 * @see Q1 O cliente da conta pode ser nulo ?? 
+	 */
+	public void setCliente(Cliente cliente) {
+
+		this.cliente = cliente;
+	}
+
+	/**
+	 * Atualiza o número da conta.
+	 * 
+	 * @param num o novo valor.
+	 *
+	 * @see Q1 O número da conta pode ser nulo ou branco ?? 
+	 * 
+	 * @see Q2 Uma vez definido para uma dada conta, o número da mesma pode 
+	 *         mudar, já que, por definição, número é a chave de uma conta ??
+	 *         Como se pode definir bem no JAVA a questão de não alterar 
+	 *         atributos que definem a chave de uma entidade ??  
+	 */
+	public void setNumero(String num) {
+		this.numero = num;
+	}
+
+	/**
+	 * Atualiza o saldo da conta.
+	 * 
+	 * @param valor o novo valor do saldo.
+	 *
+	 * @see Q1 O saldo pode ser menor que zero ??
+	 */
+	public void setSaldo(long valor) {
+		saldo = valor;
+	}
+
+	/**
+	 * Transfere um dado valor da conta para uma conta destino passada como parâmetro.
+	 * 
+	 * @param c a conta destino.
+	 * @param v o valor a ser transferido.
+	 *
+	 * @exception SaldoInsuficienteException se o saldo da conta for menor que o valor
+	 *            a ser transferido.
+	 */
+	public void transferir(ContaAbstrata c, long v)
+		throws SaldoInsuficienteException {
+
+		this.debitar(v);
+		c.creditar(v);
+	}
+
+	/**
+	 * Retorna uma cópia dos valores da conta que as operações de crédito e de débito
+	 * alteram, para que uma operação já aplicada possa ser desfeita com
+	 * restaurarEstado() (por exemplo, quando o diário de transações não consegue
+	 * registrá-la). As sub-classes que guardam outros valores alterados por essas
+	 * operações devem incluí-los.
+	 *
+	 * @return long[] os valores, na ordem esperada por restaurarEstado().
+	 */
+	long[] copiarEstado() {
+
+		return new long[] {saldo};
+	}
+
+	/**
+	 * Volta a conta aos valores copiados por copiarEstado().
+	 *
+	 * @param estado os valores retornados por copiarEstado().
+	 */
+	void restaurarEstado(long[] estado) {
+
+		saldo = estado[0];
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+}
@@ -1,76 +1,128 @@
-package qualiti.banco.contas;
-
-import qualiti.banco.clientes.Cliente;
-
-/**
- * Classe bsica que representa uma entidade conta bonificada, com seus dados, validaes
- * dos mesmos e suas operaes relacionadas. A super-classe contm muitos dos atributos
- * e operaes de uma conta. A conta bonificada se caracteriza por ter um bnus
- * a ela associado, calculado em funo dos valores creditados. Atravs de uma operao
- * especfica,  possvel incorporar o bnus acumulado ao saldo atual da conta. 
- * 
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.conta.Conta
- */
-public class ContaBonificada extends Conta {
-
-	/**
-	 * O valor do bnus.
-	 */
-	private double bonus;
-
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando o construtor da super-classe.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param cli o cliente da conta.  
-	 */
-	public ContaBonificada(String numeroConta, Cliente c) {
-		super(numeroConta, c);
-	}
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando o construtor da super-classe.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param sld o saldo inicial da conta. 
-	 * @param cli o cliente da conta.  
-	 */
-	public ContaBonificada(String numeroConta, double saldo, Cliente c) {
-		super(numeroConta, saldo, c);
-	}
-
-	/**
-	 * Sobrescrita do mtodo creditar() da super-classe. Credita 1% do valor
-	 * a ser creditado ao bnus e chama o mtodo creditar() da super-classe.
-	 * 
-	 * @param valor o valor a ser creditado.
-	 */
-	@Override
-	public void creditar(double valor) {
-
-		bonus = bonus + valor * 0.01;
-		super.creditar(valor);
-	}
-	/**
-	 * Incorpora o valor atual do bnus ao saldo da conta. Usa o mtodo creditar()
-	 * da super-classe para realizar o crdito do bnus e zera o valor do bnus.
-	 */
-	public void renderBonus() {
-		super.creditar(bonus);
-		bonus = 0;
-	}
-	/**
-	 * Retorna o valor do bnus.
-	 * 
-	 * @return double o valor do bnus.
-	 */
-	public double getBonus() {
-
-		return bonus;
-	}
+package qualiti.banco.contas;
+
+import javax.persistence.Column;
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+import org.hibernate.annotations.Type;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Classe básica que representa uma entidade conta bonificada, com seus dados, validações
+ * dos mesmos e suas operações relacionadas. A super-classe contém muitos dos atributos
+ * e operações de uma conta. A conta bonificada se caracteriza por ter um bônus
+ * a ela associado, calculado em função dos valores creditados. Através de uma operação
+ * específica, é possível incorporar o bônus acumulado ao saldo atual da conta. 
+ * 
+ * O bônus é gravado na coluna bonus de tb_conta (ver MigracaoEsquema).
+ * 
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.conta.Conta
+ */
+@Entity
+@DiscriminatorValue("3")
+public class ContaBonificada extends Conta {
+
+	/**
+	 * Taxa do bônus sobre os valores creditados, em décimos de milésimo (100 = 1%).
+	 */
+	public final static long TAXA_BONUS = 100;
+
+	/**
+	 * O valor do bônus, em décimos de milésimo da unidade.
+	 */
+	@Column ( name="bonus" )
+	@Type ( type="qualiti.banco.geral.TipoDinheiro" )
+	private long bonus;
+
+	public ContaBonificada() {
+
+	}
+
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando o construtor da super-classe.
+	 * 
+	 * @param num o número da conta.
+	 * @param cli o cliente da conta.  
+	 */
+	public ContaBonificada(String numeroConta, Cliente c) {
+		super(numeroConta, c);
+	}
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando o construtor da super-classe.
+	 * 
+	 * @param num o número da conta.
+	 * @param sld o saldo inicial da conta. 
+	 * @param cli o cliente da conta.  
+	 */
+	public ContaBonificada(String numeroConta, long saldo, Cliente c) {
+		super(numeroConta, saldo, c);
+	}
+
+	/**
+	 * Sobrescrita do método creditar() da super-classe. Credita 1% do valor
+	 * a ser creditado ao bônus e chama o método creditar() da super-classe. O bônus
+	 * só é alterado depois do crédito no saldo, de forma que um crédito que estoura
+	 * o saldo não altera a conta.
+	 * 
+	 * @param valor o valor a ser creditado.
+	 */
+	@Override
+	public void creditar(long valor) {
+
+		long novoBonus = Dinheiro.somar(bonus, Dinheiro.aplicarTaxa(valor, TAXA_BONUS));
+		super.creditar(valor);
+		bonus = novoBonus;
+	}
+	/**
+	 * Incorpora o valor atual do bônus ao saldo da conta. Usa o método creditar()
+	 * da super-classe para realizar o crédito do bônus e zera o valor do bônus.
+	 */
+	public void renderBonus() {
+		super.creditar(bonus);
+		bonus = 0;
+	}
+	/**
+	 * Retorna o valor do bônus.
+	 * 
+	 * @return long o valor do bônus, em décimos de milésimo da unidade.
+	 */
+	public long getBonus() {
+
+		return bonus;
+	}
+
+	/**
+	 * Atualiza o valor do bônus. Usado pelos repositórios que guardam o bônus
+	 * separado do objeto da conta.
+	 * 
+	 * @param bonus o novo valor, em décimos de milésimo da unidade.
+	 */
+	void setBonus(long bonus) {
+
+		this.bonus = bonus;
+	}
+
+	/**
+	 * Inclui o bônus nos valores copiados pela super-classe.
+	 */
+	@Override
+	long[] copiarEstado() {
+
+		return new long[] {getSaldo(), bonus};
+	}
+
+	@Override
+	void restaurarEstado(long[] estado) {
+
+		setSaldo(estado[0]);
+		bonus = estado[1];
+	}
 }
\ No newline at end of file
@@ -0,0 +1,1117 @@
+package qualiti.banco.contas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.clientes.Cliente;
+
+/**
+ * Diário (write-ahead log) das operações que alteram o saldo das contas. Cada operação
+ * é acrescentada ao final do diário, antes de ser confirmada a quem a pediu, com um
+ * número de sequência, o tipo de operação, as contas envolvidas, o valor e o saldo e o
+ * bônus de cada conta depois da operação. Como o registro traz o estado final, reaplicar
+ * o diário dá sempre o mesmo resultado, qualquer que seja o estado do repositório. O
+ * registro de abertura traz também o tipo da conta e o CPF do cliente, para que uma conta
+ * que não esteja no repositório (um repositório em memória, depois de reiniciar) possa
+ * ser recriada.
+ *
+ * O diário é dividido em segmentos de tamanho fixo, mapeados em memória; acrescentar
+ * um registro é só copiar bytes para o segmento. A gravação em disco é feita em grupo:
+ * quem espera pela gravação (aguardarGravacao) força o segmento uma vez por todos os
+ * registros acumulados até ali, de forma que várias threads dividem o custo de cada
+ * fsync. A cada troca de segmento, e a cada tantos registros (registrosPorInstantaneo),
+ * é gravado um instantâneo com o estado de todas as contas do diário, e os segmentos já
+ * cobertos pelo instantâneo são apagados. O intervalo em registros limita a quantidade
+ * de registros a reaplicar na abertura, qualquer que seja o tamanho do segmento.
+ *
+ * Os instantâneos são gravados por uma thread do próprio diário, e as contas são
+ * copiadas sem bloquear os registros. Por isso a cópia pode já trazer o estado de
+ * registros posteriores ao número de sequência do instantâneo; como cada registro traz
+ * o estado final das contas, reaplicar esses registros na abertura dá o mesmo
+ * resultado. Antes de o instantâneo ser gravado, os registros copiados são gravados em
+ * disco.
+ *
+ * Na abertura, o diário lê o instantâneo mais recente e reaplica os registros
+ * posteriores a ele; getContas() e getSaldos() devolvem o resultado. Um registro
+ * incompleto no final de um segmento (queda no meio de uma gravação) é reconhecido pelo
+ * CRC e ignorado.
+ *
+ * Esta classe pode ser usada por várias threads ao mesmo tempo.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas
+ */
+public class DiarioTransacoes {
+
+	private static final Logger LOG = Logger.getLogger(DiarioTransacoes.class);
+
+	/**
+	 * Tipos de operação registrados no diário.
+	 */
+	public enum Operacao {
+		ABERTURA, CREDITO, DEBITO, TRANSFERENCIA, ENCERRAMENTO
+	}
+
+	/**
+	 * Tamanho padrão de cada segmento do diário (64 MB).
+	 */
+	public static final int TAMANHO_SEGMENTO_PADRAO = 64 * 1024 * 1024;
+
+	/**
+	 * Quantidade padrão de registros entre dois instantâneos.
+	 */
+	public static final int REGISTROS_POR_INSTANTANEO_PADRAO = 100000;
+
+	private static final int MAGICO_SEGMENTO = 0x51494244;
+	private static final int MAGICO_INSTANTANEO = 0x51494254;
+	private static final int VERSAO = 2;
+	private static final int CABECALHO = 8;
+
+	/*
+	 * Tipos de conta guardados no registro de abertura, os mesmos dos repositórios.
+	 */
+	private static final int TIPO_DESCONHECIDO = 0;
+	private static final int TIPO_CONTA = 1;
+	private static final int TIPO_POUPANCA = 2;
+	private static final int TIPO_BONIFICADA = 3;
+	private static final int TIPO_IMPOSTO = 4;
+
+	private static final String PREFIXO_SEGMENTO = "diario-";
+	private static final String PREFIXO_INSTANTANEO = "instantaneo-";
+	private static final String EXTENSAO = ".dat";
+	private static final String CODIFICACAO = "UTF-8";
+
+	/**
+	 * Diretório dos arquivos do diário.
+	 */
+	private File diretorio;
+	/**
+	 * Tamanho de cada segmento, em bytes.
+	 */
+	private int tamanhoSegmento;
+	/**
+	 * Quantidade de registros que provoca um instantâneo.
+	 */
+	private int registrosPorInstantaneo;
+
+	/*
+	 * Estado do segmento corrente, protegido pelo monitor deste objeto. O estado das
+	 * contas só é alterado com o monitor, mas pode ser lido sem ele: os valores de
+	 * EstadoConta não mudam, cada registro troca o da conta.
+	 */
+	private RandomAccessFile arquivo;
+	private MappedByteBuffer segmento;
+	private long proximaSequencia;
+	private ConcurrentHashMap<String, EstadoConta> contas;
+	private int registrosSemInstantaneo;
+	private ByteBuffer registro = ByteBuffer.allocate(256);
+	private CRC32 crc = new CRC32();
+	private IOException falha;
+	private boolean fechado;
+
+	/*
+	 * Estado da gravação em grupo, protegido por 'gravacao'.
+	 */
+	private Object gravacao = new Object();
+	private long sequenciaGravada;
+	private boolean gravando;
+
+	/**
+	 * Serializa a gravação dos instantâneos.
+	 */
+	private Object instantaneo = new Object();
+	/**
+	 * Thread que grava os instantâneos devidos, fora das operações.
+	 */
+	private ExecutorService gravacaoInstantaneos;
+	/**
+	 * Indica que já há uma gravação de instantâneo a ser executada pela thread.
+	 */
+	private AtomicBoolean instantaneoAgendado = new AtomicBoolean();
+	/**
+	 * Indica que houve troca de segmento, ou que foram acrescentados
+	 * registrosPorInstantaneo registros, desde o último instantâneo.
+	 */
+	private volatile boolean instantaneoPendente;
+	/**
+	 * Quantidade de registros reaplicados na abertura.
+	 */
+	private int registrosRecuperados;
+
+	/**
+	 * O construtor da classe. Usa o tamanho de segmento padrão.
+	 *
+	 * @param diretorio o diretório dos arquivos do diário. É criado se não existir.
+	 *
+	 * @exception IOException lançada quando o diário não pode ser lido ou criado.
+	 */
+	public DiarioTransacoes(File diretorio) throws IOException {
+
+		this(diretorio, TAMANHO_SEGMENTO_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. Usa o intervalo padrão entre instantâneos.
+	 *
+	 * @param diretorio o diretório dos arquivos do diário. É criado se não existir.
+	 * @param tamanhoSegmento o tamanho de cada segmento, em bytes.
+	 *
+	 * @exception IOException lançada quando o diário não pode ser lido ou criado.
+	 */
+	public DiarioTransacoes(File diretorio, int tamanhoSegmento) throws IOException {
+
+		this(diretorio, tamanhoSegmento, REGISTROS_POR_INSTANTANEO_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. Lê o instantâneo mais recente e os segmentos do diário
+	 * e abre um novo segmento para as próximas operações.
+	 *
+	 * @param diretorio o diretório dos arquivos do diário. É criado se não existir.
+	 * @param tamanhoSegmento o tamanho de cada segmento, em bytes.
+	 * @param registrosPorInstantaneo a quantidade de registros depois da qual é gravado
+	 *        um novo instantâneo, mesmo sem troca de segmento.
+	 *
+	 * @exception IOException lançada quando o diário não pode ser lido ou criado.
+	 */
+	public DiarioTransacoes(File diretorio, int tamanhoSegmento, int registrosPorInstantaneo)
+		throws IOException {
+
+		if (tamanhoSegmento < 4096) {
+			throw new IllegalArgumentException("Tamanho de segmento invalido: " + tamanhoSegmento);
+		}
+		if (registrosPorInstantaneo < 1) {
+			throw new IllegalArgumentException(
+				"Quantidade de registros por instantaneo invalida: " + registrosPorInstantaneo);
+		}
+		if (!diretorio.isDirectory() && !diretorio.mkdirs()) {
+			throw new IOException("Nao foi possivel criar o diretorio do diario: " + diretorio);
+		}
+		this.diretorio = diretorio;
+		this.tamanhoSegmento = tamanhoSegmento;
+		this.registrosPorInstantaneo = registrosPorInstantaneo;
+		this.contas = new ConcurrentHashMap<String, EstadoConta>();
+
+		long seqInstantaneo = lerInstantaneo();
+		long ultima = reaplicarSegmentos(seqInstantaneo);
+		proximaSequencia = ultima + 1;
+		sequenciaGravada = ultima;
+		abrirSegmento();
+		apagarObsoletos(seqInstantaneo);
+		gravacaoInstantaneos = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "instantaneo-diario");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Registra a abertura, o crédito ou o débito de uma conta. Deve ser chamado depois
+	 * de a operação ter sido aplicada à conta e antes de a trava da conta ser liberada,
+	 * para que a ordem do diário seja a mesma das operações.
+	 *
+	 * @param op o tipo de operação.
+	 * @param c a conta, já com o saldo resultante da operação. Na abertura, o tipo da
+	 *        conta e o CPF do cliente também são registrados.
+	 * @param valor o valor da operação.
+	 *
+	 * @return long o número de sequência do registro, a ser passado para
+	 *         aguardarGravacao().
+	 *
+	 * @exception IOException lançada quando o registro não pode ser acrescentado.
+	 */
+	public long registrar(Operacao op, ContaAbstrata c, long valor) throws IOException {
+
+		int tipo = TIPO_DESCONHECIDO;
+		String cpf = null;
+		if (op == Operacao.ABERTURA) {
+			tipo = tipoConta(c);
+			cpf = c.getCliente() == null ? null : c.getCliente().getCpf();
+		}
+		return registrar(op, c.getNumero(), c.getSaldo(), bonus(c), null, 0, 0, tipo, cpf, valor);
+	}
+
+	/**
+	 * Registra o crédito ou o débito de uma conta alterada diretamente no repositório,
+	 * sem objeto de conta, como nas operações diretas do RepositorioContasForaHeap. As
+	 * mesmas regras de registrar(Operacao, ContaAbstrata, long) se aplicam.
+	 *
+	 * @param op CREDITO ou DEBITO.
+	 * @param numero o número da conta.
+	 * @param saldo o saldo resultante da operação.
+	 * @param bonus o bônus da conta depois da operação.
+	 * @param valor o valor da operação.
+	 *
+	 * @return long o número de sequência do registro.
+	 *
+	 * @exception IOException lançada quando o registro não pode ser acrescentado.
+	 */
+	public long registrar(Operacao op, String numero, long saldo, long bonus, long valor)
+		throws IOException {
+
+		if (op != Operacao.CREDITO && op != Operacao.DEBITO) {
+			throw new IllegalArgumentException("Operacao sem objeto de conta: " + op);
+		}
+		return registrar(op, numero, saldo, bonus, null, 0, 0, TIPO_DESCONHECIDO, null, valor);
+	}
+
+	/**
+	 * Registra uma transferência entre duas contas.
+	 *
+	 * @param origem a conta debitada, já com o saldo resultante.
+	 * @param destino a conta creditada, já com o saldo resultante.
+	 * @param valor o valor transferido.
+	 *
+	 * @return long o número de sequência do registro.
+	 *
+	 * @exception IOException lançada quando o registro não pode ser acrescentado.
+	 */
+	public long registrarTransferencia(ContaAbstrata origem, ContaAbstrata destino, long valor)
+		throws IOException {
+
+		return registrar(Operacao.TRANSFERENCIA, origem.getNumero(), origem.getSaldo(),
+			bonus(origem), destino.getNumero(), destino.getSaldo(), bonus(destino),
+			TIPO_DESCONHECIDO, null, valor);
+	}
+
+	/**
+	 * Registra a exclusão de uma conta.
+	 *
+	 * @param numero o número da conta excluída.
+	 *
+	 * @return long o número de sequência do registro.
+	 *
+	 * @exception IOException lançada quando o registro não pode ser acrescentado.
+	 */
+	public long registrarEncerramento(String numero) throws IOException {
+
+		return registrar(Operacao.ENCERRAMENTO, numero, 0, 0, null, 0, 0, TIPO_DESCONHECIDO,
+			null, 0);
+	}
+
+	/**
+	 * Espera até que o registro com o número de sequência passado, e todos os
+	 * anteriores, estejam gravados em disco. Se nenhuma outra thread estiver gravando,
+	 * esta thread força o segmento corrente, levando junto os registros de todas as
+	 * threads que estiverem esperando.
+	 *
+	 * @param seq o número de sequência devolvido por um dos métodos registrar.
+	 *
+	 * @exception IOException lançada quando a gravação falhar. Nesse caso o diário
+	 *            deixa de aceitar registros.
+	 */
+	public void aguardarGravacao(long seq) throws IOException {
+
+		while (true) {
+			synchronized (gravacao) {
+				while (gravando && sequenciaGravada < seq) {
+					try {
+						gravacao.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Espera pela gravacao do diario interrompida");
+					}
+				}
+				if (sequenciaGravada >= seq) {
+					break;
+				}
+				gravando = true;
+			}
+			long alvo = -1;
+			try {
+				MappedByteBuffer buffer;
+				synchronized (this) {
+					verificarEstado();
+					alvo = proximaSequencia - 1;
+					buffer = segmento;
+				}
+				buffer.force();
+			} catch (RuntimeException e) {
+				alvo = -1;
+				throw registrarFalha(e);
+			} finally {
+				marcarGravado(alvo);
+			}
+		}
+	}
+
+	/**
+	 * Grava um instantâneo com o estado de todas as contas do diário e apaga os
+	 * segmentos e os instantâneos que ele torna desnecessários. É chamado
+	 * automaticamente, pela thread de instantâneos, a cada troca de segmento e a cada
+	 * registrosPorInstantaneo registros. As contas são copiadas sem impedir novos
+	 * registros.
+	 *
+	 * @exception IOException lançada quando o instantâneo não pode ser gravado.
+	 */
+	public void gravarInstantaneo() throws IOException {
+
+		synchronized (instantaneo) {
+			long seq;
+			synchronized (this) {
+				verificarEstado();
+				instantaneoPendente = false;
+				registrosSemInstantaneo = 0;
+				seq = proximaSequencia - 1;
+			}
+			// a cópia pode trazer registros posteriores a seq, que são reaplicados na
+			// abertura; eles precisam estar em disco antes do instantâneo
+			Map<String, EstadoConta> copia = copiarContas();
+			aguardarGravacao(getUltimaSequencia());
+			escreverInstantaneo(copia, seq);
+			apagarObsoletos(seq);
+		}
+	}
+
+	/**
+	 * Entrega à thread de instantâneos a gravação do instantâneo devido, se ela ainda
+	 * não tiver uma gravação a executar. Depois de iniciado o fechamento, nada é
+	 * entregue: fechar() grava o último instantâneo.
+	 */
+	private void agendarInstantaneo() {
+
+		if (instantaneoAgendado.compareAndSet(false, true)) {
+			try {
+				gravacaoInstantaneos.execute(new Runnable() {
+					public void run() {
+						instantaneoAgendado.set(false);
+						gravarInstantaneoPendente();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				instantaneoAgendado.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Espera a thread de instantâneos terminar as gravações já entregues a ela. Usado
+	 * pelos testes, que simulam uma queda sem fechar o diário.
+	 */
+	void aguardarInstantaneos() throws InterruptedException {
+
+		try {
+			gravacaoInstantaneos.submit(new Runnable() {
+				public void run() {
+				}
+			}).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} catch (RejectedExecutionException e) {
+			// diário fechado: não há gravações pendentes
+		}
+	}
+
+	/**
+	 * Grava o instantâneo devido, se nenhuma outra thread já o tiver gravado. Executado
+	 * pela thread de instantâneos; as operações que o provocaram já foram confirmadas,
+	 * por isso uma falha aqui só é registrada no log, e o instantâneo é tentado de novo
+	 * depois do próximo registro.
+	 */
+	private void gravarInstantaneoPendente() {
+
+		synchronized (instantaneo) {
+			if (!instantaneoPendente) {
+				return;
+			}
+			try {
+				gravarInstantaneo();
+			} catch (IOException e) {
+				instantaneoPendente = true;
+				LOG.error("Erro ao gravar o instantaneo do diario de transacoes", e);
+			}
+		}
+	}
+
+	/**
+	 * Retorna o saldo de cada conta presente no diário, segundo o último registro de
+	 * cada uma. Logo após a abertura, é o estado recuperado do disco.
+	 *
+	 * @return Map os saldos, indexados pelo número da conta.
+	 */
+	public Map<String, Long> getSaldos() {
+
+		Map<String, Long> saldos = new HashMap<String, Long>(contas.size() * 2);
+		for (Map.Entry<String, EstadoConta> e : contas.entrySet()) {
+			saldos.put(e.getKey(), e.getValue().saldo);
+		}
+		return saldos;
+	}
+
+	/**
+	 * Retorna o estado de cada conta presente no diário, segundo o último registro de
+	 * cada uma. Logo após a abertura, é o estado recuperado do disco.
+	 *
+	 * @return Map o estado das contas, indexado pelo número da conta.
+	 */
+	public Map<String, EstadoConta> getContas() {
+
+		return copiarContas();
+	}
+
+	/**
+	 * Retorna o número de sequência do último registro acrescentado.
+	 *
+	 * @return long o número de sequência.
+	 */
+	public synchronized long getUltimaSequencia() {
+
+		return proximaSequencia - 1;
+	}
+
+	/**
+	 * Retorna a quantidade de registros reaplicados na abertura, além do instantâneo.
+	 *
+	 * @return int a quantidade de registros.
+	 */
+	public int getRegistrosRecuperados() {
+
+		return registrosRecuperados;
+	}
+
+	/**
+	 * Grava os registros pendentes e um instantâneo e fecha o diário.
+	 *
+	 * @exception IOException lançada quando a gravação falhar.
+	 */
+	public void fechar() throws IOException {
+
+		gravacaoInstantaneos.shutdown();
+		aguardarGravacao(getUltimaSequencia());
+		gravarInstantaneo();
+		synchronized (this) {
+			fechado = true;
+			arquivo.close();
+		}
+	}
+
+	/**
+	 * Acrescenta um registro ao segmento corrente, trocando de segmento se ele não
+	 * couber, e atualiza o estado das contas em memória. No encerramento, só o número
+	 * da conta é registrado.
+	 */
+	private long registrar(
+		Operacao op,
+		String origem,
+		long saldoOrigem,
+		long bonusOrigem,
+		String destino,
+		long saldoDestino,
+		long bonusDestino,
+		int tipo,
+		String cpf,
+		long valor)
+		throws IOException {
+
+		byte[] o = origem.getBytes(CODIFICACAO);
+		byte[] d = destino == null ? new byte[0] : destino.getBytes(CODIFICACAO);
+		byte[] c = cpf == null ? null : cpf.getBytes(CODIFICACAO);
+		int tamanho = 8 + 1 + 8 + 2 + o.length + 8 + 8 + 2 + d.length + 8 + 8;
+		if (op == Operacao.ABERTURA) {
+			tamanho = tamanho + 1 + 2 + (c == null ? 0 : c.length);
+		}
+		if (CABECALHO + 8 + tamanho > tamanhoSegmento) {
+			throw new IllegalArgumentException("Registro maior que o segmento do diario");
+		}
+		long seq;
+		synchronized (this) {
+			verificarEstado();
+			seq = proximaSequencia;
+			if (registro.capacity() < tamanho) {
+				registro = ByteBuffer.allocate(tamanho);
+			}
+			registro.clear();
+			registro.putLong(seq);
+			registro.put((byte) op.ordinal());
+			registro.putLong(valor);
+			registro.putShort((short) o.length);
+			registro.put(o);
+			registro.putLong(saldoOrigem);
+			registro.putLong(bonusOrigem);
+			registro.putShort((short) d.length);
+			registro.put(d);
+			registro.putLong(saldoDestino);
+			registro.putLong(bonusDestino);
+			if (op == Operacao.ABERTURA) {
+				registro.put((byte) tipo);
+				escreverTexto(registro, c);
+			}
+			crc.reset();
+			crc.update(registro.array(), 0, tamanho);
+
+			try {
+				if (segmento.remaining() < 8 + tamanho) {
+					trocarSegmento();
+				}
+				segmento.putInt(tamanho);
+				segmento.putInt((int) crc.getValue());
+				segmento.put(registro.array(), 0, tamanho);
+			} catch (IOException e) {
+				throw registrarFalha(e);
+			} catch (RuntimeException e) {
+				throw registrarFalha(e);
+			}
+			proximaSequencia++;
+			aplicar(op, origem, saldoOrigem, bonusOrigem, destino, saldoDestino, bonusDestino,
+				tipo, cpf);
+			if (++registrosSemInstantaneo >= registrosPorInstantaneo) {
+				instantaneoPendente = true;
+			}
+		}
+		if (instantaneoPendente) {
+			agendarInstantaneo();
+		}
+		return seq;
+	}
+
+	/**
+	 * Atualiza o estado das contas em memória com um registro. O tipo e o CPF só vêm no
+	 * registro de abertura; as outras operações mantêm os da conta.
+	 */
+	private void aplicar(
+		Operacao op,
+		String origem,
+		long saldoOrigem,
+		long bonusOrigem,
+		String destino,
+		long saldoDestino,
+		long bonusDestino,
+		int tipo,
+		String cpf) {
+
+		if (op == Operacao.ENCERRAMENTO) {
+			contas.remove(origem);
+		} else if (op == Operacao.ABERTURA) {
+			contas.put(origem, new EstadoConta(tipo, cpf, saldoOrigem, bonusOrigem));
+		} else {
+			atualizar(origem, saldoOrigem, bonusOrigem);
+			if (op == Operacao.TRANSFERENCIA) {
+				atualizar(destino, saldoDestino, bonusDestino);
+			}
+		}
+	}
+
+	private void atualizar(String numero, long saldo, long bonus) {
+
+		EstadoConta e = contas.get(numero);
+		if (e == null) {
+			// conta aberta antes do diário: o tipo e o CPF não são conhecidos
+			contas.put(numero, new EstadoConta(TIPO_DESCONHECIDO, null, saldo, bonus));
+		} else {
+			contas.put(numero, new EstadoConta(e.tipo, e.cpf, saldo, bonus));
+		}
+	}
+
+	/**
+	 * Copia o estado das contas em memória, sem o monitor deste objeto. Os registros
+	 * acrescentados durante a cópia podem ou não estar nela, mas cada conta tem o
+	 * estado de algum registro completo.
+	 */
+	private Map<String, EstadoConta> copiarContas() {
+
+		return new HashMap<String, EstadoConta>(contas);
+	}
+
+	/**
+	 * Força o segmento corrente, que fica completo, e abre o próximo. Chamado com o
+	 * monitor deste objeto.
+	 */
+	private void trocarSegmento() throws IOException {
+
+		segmento.force();
+		marcarGravado(proximaSequencia - 1);
+		arquivo.close();
+		abrirSegmento();
+		instantaneoPendente = true;
+	}
+
+	/**
+	 * Cria e mapeia o segmento que começa no próximo número de sequência. Um arquivo
+	 * anterior com o mesmo nome só pode ter registros inválidos e é zerado.
+	 */
+	private void abrirSegmento() throws IOException {
+
+		File f = new File(diretorio, PREFIXO_SEGMENTO + formatar(proximaSequencia) + EXTENSAO);
+		RandomAccessFile raf = new RandomAccessFile(f, "rw");
+		try {
+			raf.setLength(0);
+			raf.setLength(tamanhoSegmento);
+			MappedByteBuffer buffer =
+				raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+			buffer.putInt(MAGICO_SEGMENTO);
+			buffer.putInt(VERSAO);
+			buffer.force();
+			raf.getChannel().force(true);
+			arquivo = raf;
+			segmento = buffer;
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Marca como gravados os registros até o número de sequência passado e acorda
+	 * quem estiver esperando. Com -1, apenas libera a gravação em grupo.
+	 */
+	private void marcarGravado(long seq) {
+
+		synchronized (gravacao) {
+			if (seq > sequenciaGravada) {
+				sequenciaGravada = seq;
+			}
+			gravando = false;
+			gravacao.notifyAll();
+		}
+	}
+
+	/**
+	 * Lança a falha anterior, se houver, ou uma exceção caso o diário esteja fechado.
+	 */
+	private void verificarEstado() throws IOException {
+
+		if (falha != null) {
+			throw new IOException("Diario de transacoes desativado por falha anterior", falha);
+		}
+		if (fechado) {
+			throw new IOException("Diario de transacoes fechado");
+		}
+	}
+
+	/**
+	 * Guarda a primeira falha de gravação. Depois dela, o diário não aceita registros,
+	 * pois não é possível saber o que chegou ao disco.
+	 */
+	private IOException registrarFalha(Exception e) {
+
+		synchronized (this) {
+			if (falha == null) {
+				falha = e instanceof IOException
+					? (IOException) e
+					: new IOException("Erro de gravacao no diario de transacoes", e);
+			}
+			return falha;
+		}
+	}
+
+	/**
+	 * Lê o instantâneo válido mais recente para o estado das contas em memória.
+	 *
+	 * @return long o número de sequência do último registro coberto pelo instantâneo,
+	 *         ou 0 se não houver instantâneo.
+	 */
+	private long lerInstantaneo() throws IOException {
+
+		File[] instantaneos = listar(PREFIXO_INSTANTANEO);
+		for (int i = instantaneos.length - 1; i >= 0; i--) {
+			ConcurrentHashMap<String, EstadoConta> lidos = new ConcurrentHashMap<String, EstadoConta>();
+			long seq = lerInstantaneo(instantaneos[i], lidos);
+			if (seq >= 0) {
+				contas = lidos;
+				return seq;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Lê um arquivo de instantâneo.
+	 *
+	 * @return long o número de sequência do instantâneo, ou -1 se o arquivo estiver
+	 *         incompleto ou corrompido.
+	 */
+	private long lerInstantaneo(File f, Map<String, EstadoConta> lidos) throws IOException {
+
+		byte[] conteudo = new byte[(int) f.length()];
+		DataInputStream in = new DataInputStream(new FileInputStream(f));
+		try {
+			in.readFully(conteudo);
+		} finally {
+			in.close();
+		}
+		if (conteudo.length < 24) {
+			return -1;
+		}
+		ByteBuffer b = ByteBuffer.wrap(conteudo);
+		CRC32 soma = new CRC32();
+		soma.update(conteudo, 0, conteudo.length - 8);
+		if (b.getLong(conteudo.length - 8) != soma.getValue()) {
+			return -1;
+		}
+		if (b.getInt() != MAGICO_INSTANTANEO || b.getInt() != VERSAO) {
+			return -1;
+		}
+		long seq = b.getLong();
+		int quantidade = b.getInt();
+		for (int i = 0; i < quantidade; i++) {
+			String numero = lerTexto(b);
+			int tipo = b.get();
+			String cpf = lerTexto(b);
+			long saldo = b.getLong();
+			lidos.put(numero, new EstadoConta(tipo, cpf, saldo, b.getLong()));
+		}
+		return seq;
+	}
+
+	/**
+	 * Grava um instantâneo em um arquivo novo, que só é considerado na leitura se
+	 * estiver completo.
+	 */
+	private void escreverInstantaneo(Map<String, EstadoConta> copia, long seq)
+		throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(48 * copia.size() + 28);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGICO_INSTANTANEO);
+		out.writeInt(VERSAO);
+		out.writeLong(seq);
+		out.writeInt(copia.size());
+		for (Map.Entry<String, EstadoConta> e : copia.entrySet()) {
+			EstadoConta c = e.getValue();
+			byte[] numero = e.getKey().getBytes(CODIFICACAO);
+			out.writeShort(numero.length);
+			out.write(numero);
+			out.writeByte(c.tipo);
+			byte[] cpf = c.cpf == null ? null : c.cpf.getBytes(CODIFICACAO);
+			out.writeShort(cpf == null ? -1 : cpf.length);
+			if (cpf != null) {
+				out.write(cpf);
+			}
+			out.writeLong(c.saldo);
+			out.writeLong(c.bonus);
+		}
+		out.flush();
+		byte[] conteudo = bytes.toByteArray();
+		CRC32 soma = new CRC32();
+		soma.update(conteudo, 0, conteudo.length);
+
+		File f = new File(diretorio, PREFIXO_INSTANTANEO + formatar(seq) + EXTENSAO);
+		FileOutputStream fos = new FileOutputStream(f);
+		try {
+			DataOutputStream arquivoInstantaneo = new DataOutputStream(new BufferedOutputStream(fos));
+			arquivoInstantaneo.write(conteudo);
+			arquivoInstantaneo.writeLong(soma.getValue());
+			arquivoInstantaneo.flush();
+			fos.getFD().sync();
+		} finally {
+			fos.close();
+		}
+	}
+
+	/**
+	 * Apaga os instantâneos anteriores ao passado e os segmentos cujos registros estão
+	 * todos cobertos por ele. O segmento corrente nunca é apagado, pois é o último.
+	 */
+	private void apagarObsoletos(long seq) {
+
+		File[] instantaneos = listar(PREFIXO_INSTANTANEO);
+		for (File f : instantaneos) {
+			if (sequencia(f, PREFIXO_INSTANTANEO) < seq) {
+				f.delete();
+			}
+		}
+		File[] segmentos = listar(PREFIXO_SEGMENTO);
+		for (int i = 0; i < segmentos.length - 1; i++) {
+			long ultimaDoSegmento = sequencia(segmentos[i + 1], PREFIXO_SEGMENTO) - 1;
+			if (ultimaDoSegmento <= seq) {
+				// no Windows, um segmento ainda mapeado não pode ser apagado; ele será
+				// apagado em um próximo instantâneo
+				segmentos[i].delete();
+			}
+		}
+	}
+
+	/**
+	 * Reaplica ao estado das contas em memória os registros posteriores ao instantâneo.
+	 * A leitura de um segmento para no primeiro registro incompleto; a leitura do diário
+	 * para no primeiro número de sequência fora de ordem.
+	 *
+	 * @param ultima o número de sequência do último registro coberto pelo instantâneo.
+	 *
+	 * @return long o número de sequência do último registro reaplicado.
+	 */
+	private long reaplicarSegmentos(long ultima) throws IOException {
+
+		byte[] corpo = new byte[256];
+		CRC32 soma = new CRC32();
+		for (File f : listar(PREFIXO_SEGMENTO)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+			try {
+				if (in.readInt() != MAGICO_SEGMENTO) {
+					continue;
+				}
+				if (in.readInt() != VERSAO) {
+					continue;
+				}
+				while (true) {
+					int tamanho = in.readInt();
+					if (tamanho <= 0 || tamanho > tamanhoSegmento) {
+						break;
+					}
+					int crcLido = in.readInt();
+					if (corpo.length < tamanho) {
+						corpo = new byte[tamanho];
+					}
+					in.readFully(corpo, 0, tamanho);
+					soma.reset();
+					soma.update(corpo, 0, tamanho);
+					if ((int) soma.getValue() != crcLido) {
+						break;
+					}
+					ByteBuffer b = ByteBuffer.wrap(corpo, 0, tamanho);
+					long seq = b.getLong();
+					if (seq <= ultima) {
+						continue;
+					}
+					if (seq != ultima + 1) {
+						descartarSegmentos(ultima);
+						return ultima;
+					}
+					Operacao op = Operacao.values()[b.get()];
+					b.getLong();
+					String origem = lerTexto(b);
+					long saldoOrigem = b.getLong();
+					long bonusOrigem = b.getLong();
+					String destino = lerTexto(b);
+					long saldoDestino = b.getLong();
+					long bonusDestino = b.getLong();
+					int tipo = TIPO_DESCONHECIDO;
+					String cpf = null;
+					if (op == Operacao.ABERTURA) {
+						tipo = b.get();
+						cpf = lerTexto(b);
+					}
+					aplicar(op, origem, saldoOrigem, bonusOrigem, destino, saldoDestino,
+						bonusDestino, tipo, cpf);
+					ultima = seq;
+					registrosRecuperados++;
+				}
+			} catch (EOFException e) {
+				// fim do arquivo no meio de um registro
+			} finally {
+				in.close();
+			}
+		}
+		descartarSegmentos(ultima);
+		return ultima;
+	}
+
+	/**
+	 * Apaga os segmentos que começam depois do registro seguinte ao último reaplicado.
+	 * Os registros deles não podem ser alcançados sem uma falha na sequência, e o novo
+	 * segmento, que começa no registro seguinte, não pode ser seguido por eles.
+	 */
+	private void descartarSegmentos(long ultima) throws IOException {
+
+		for (File f : listar(PREFIXO_SEGMENTO)) {
+			if (sequencia(f, PREFIXO_SEGMENTO) > ultima + 1 && !f.delete()) {
+				throw new IOException("Nao foi possivel descartar o segmento " + f);
+			}
+		}
+	}
+
+	/**
+	 * Lê um texto gravado com o tamanho na frente. O tamanho -1 indica null.
+	 */
+	private String lerTexto(ByteBuffer b) throws IOException {
+
+		int tamanho = b.getShort();
+		if (tamanho < 0) {
+			return null;
+		}
+		byte[] texto = new byte[tamanho];
+		b.get(texto);
+		return new String(texto, CODIFICACAO);
+	}
+
+	private static void escreverTexto(ByteBuffer b, byte[] texto) {
+
+		if (texto == null) {
+			b.putShort((short) -1);
+		} else {
+			b.putShort((short) texto.length);
+			b.put(texto);
+		}
+	}
+
+	private static int tipoConta(ContaAbstrata c) {
+
+		if (c instanceof ContaBonificada) {
+			return TIPO_BONIFICADA;
+		} else if (c instanceof Poupanca) {
+			return TIPO_POUPANCA;
+		} else if (c instanceof ContaImposto) {
+			return TIPO_IMPOSTO;
+		}
+		return TIPO_CONTA;
+	}
+
+	private static long bonus(ContaAbstrata c) {
+
+		return c instanceof ContaBonificada ? ((ContaBonificada) c).getBonus() : 0;
+	}
+
+	/**
+	 * Lista os arquivos com o prefixo passado, em ordem crescente de número de
+	 * sequência.
+	 */
+	private File[] listar(String prefixo) {
+
+		File[] todos = diretorio.listFiles();
+		if (todos == null) {
+			return new File[0];
+		}
+		int n = 0;
+		File[] arquivos = new File[todos.length];
+		for (File f : todos) {
+			String nome = f.getName();
+			if (nome.startsWith(prefixo) && nome.endsWith(EXTENSAO)) {
+				arquivos[n++] = f;
+			}
+		}
+		arquivos = Arrays.copyOf(arquivos, n);
+		// os números têm tamanho fixo, então a ordem dos nomes é a ordem numérica
+		Arrays.sort(arquivos);
+		return arquivos;
+	}
+
+	private long sequencia(File f, String prefixo) {
+
+		String nome = f.getName();
+		return Long.parseLong(nome.substring(prefixo.length(), nome.length() - EXTENSAO.length()));
+	}
+
+	private static String formatar(long seq) {
+
+		return String.format("%019d", seq);
+	}
+
+	/**
+	 * O estado de uma conta segundo o diário: o saldo e o bônus do último registro da
+	 * conta e, se a abertura dela estiver no diário, o tipo da conta e o CPF do cliente.
+	 * Os valores não mudam; cada registro cria um novo estado para a conta.
+	 */
+	public static class EstadoConta {
+
+		private final int tipo;
+		private final String cpf;
+		private final long saldo;
+		private final long bonus;
+
+		EstadoConta(int tipo, String cpf, long saldo, long bonus) {
+			this.tipo = tipo;
+			this.cpf = cpf;
+			this.saldo = saldo;
+			this.bonus = bonus;
+		}
+
+		public long getSaldo() {
+
+			return saldo;
+		}
+
+		public long getBonus() {
+
+			return bonus;
+		}
+
+		public String getCpf() {
+
+			return cpf;
+		}
+
+		/**
+		 * Verifica se a abertura da conta está no diário, isto é, se a conta pode ser
+		 * recriada.
+		 *
+		 * @return boolean true se o tipo da conta for conhecido.
+		 */
+		public boolean isCompleto() {
+
+			return tipo != TIPO_DESCONHECIDO;
+		}
+
+		/**
+		 * Cria uma conta com este estado, para uma conta que não está no repositório.
+		 * O cliente tem só o CPF, como nos repositórios que guardam a conta sem o
+		 * cliente.
+		 *
+		 * @param numero o número da conta.
+		 *
+		 * @return ContaAbstrata a conta, ou null se o tipo da conta não for conhecido.
+		 */
+		ContaAbstrata criarConta(String numero) {
+
+			Cliente cli = cpf == null ? null : new Cliente(cpf, null);
+			switch (tipo) {
+				case TIPO_CONTA :
+					return new Conta(numero, saldo, cli);
+				case TIPO_POUPANCA :
+					return new Poupanca(numero, saldo, cli);
+				case TIPO_BONIFICADA :
+					ContaBonificada cb = new ContaBonificada(numero, saldo, cli);
+					cb.setBonus(bonus);
+					return cb;
+				case TIPO_IMPOSTO :
+					return new ContaImposto(numero, saldo, cli);
+				default :
+					return null;
+			}
+		}
+
+		/**
+		 * Corrige uma conta do repositório que não tenha o estado registrado no diário.
+		 * O bônus só é corrigido se a abertura da conta estiver no diário, pois antes
+		 * dela o diário não conhece o bônus.
+		 *
+		 * @param c a conta do repositório.
+		 *
+		 * @return boolean true se a conta foi alterada.
+		 */
+		boolean corrigir(ContaAbstrata c) {
+
+			boolean alterada = false;
+			if (c.getSaldo() != saldo) {
+				c.setSaldo(saldo);
+				alterada = true;
+			}
+			if (isCompleto() && c instanceof ContaBonificada
+				&& ((ContaBonificada) c).getBonus() != bonus) {
+				((ContaBonificada) c).setBonus(bonus);
+				alterada = true;
+			}
+			return alterada;
+		}
+	}
+}
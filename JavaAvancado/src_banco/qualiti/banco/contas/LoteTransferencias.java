@@ -0,0 +1,448 @@
+package qualiti.banco.contas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+
+/**
+ * Execução de um lote de transferências para CadastroContas.transferirLote(). As ordens
+ * são processadas em blocos de TAMANHO_BLOCO, e cada bloco passa por três etapas:
+ *
+ *   procura    as travas de todas as contas do bloco são obtidas (TravasContas) e as
+ *              contas são lidas de uma só vez do repositório (procurar(Collection)).
+ *   execução   as ordens são separadas em componentes: duas ordens ficam no mesmo
+ *              componente quando têm alguma conta em comum, direta ou indiretamente
+ *              (union-find). Componentes diferentes não têm contas em comum e são
+ *              executados em paralelo, pelas threads do pool do cadastro e pela
+ *              thread que chamou executar(); dentro de um componente as ordens são
+ *              executadas na ordem do lote. O resultado é o mesmo de executar todas
+ *              as ordens em sequência.
+ *   gravação   as contas alteradas no bloco são atualizadas no repositório de uma só
+ *              vez (atualizar(Collection)), depois de o diário de transações, se
+ *              houver, ter gravado em disco os registros do bloco. Só então as
+ *              travas das contas do bloco são liberadas.
+ *
+ * Como as travas ficam com o bloco da procura até a gravação, um crédito, débito ou
+ * transferência feito por outra thread numa conta do bloco espera a gravação e não é
+ * sobrescrito por ela. As contas são lidas de novo em cada bloco, e não guardadas entre
+ * um bloco e outro: repositórios como o RepositorioContasForaHeap retornam cópias das
+ * contas, que deixam de valer assim que as travas são liberadas.
+ *
+ * Um objeto desta classe executa um único lote e não deve ser reutilizado.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas#transferirLote(List)
+ */
+class LoteTransferencias {
+
+	/**
+	 * Quantidade de ordens de cada bloco.
+	 */
+	static final int TAMANHO_BLOCO = 10000;
+
+	/**
+	 * Mensagem que indica erro de gravação no diário de transações.
+	 */
+	private static final String MSG_ERRO_DIARIO =
+		"Erro de gravacao no diario de transacoes";
+	/**
+	 * Mensagem que indica que uma conta do lote foi excluída durante a execução.
+	 */
+	private static final String MSG_CONTA_EXCLUIDA =
+		"Conta excluida durante o lote de transferencias";
+	/**
+	 * Mensagem que indica que a execução do lote foi interrompida.
+	 */
+	private static final String MSG_INTERROMPIDO =
+		"Lote de transferencias interrompido";
+
+	private RepositorioContas contas;
+	private TravasContas travas;
+	private DiarioTransacoes diario;
+	/**
+	 * O pool de threads do cadastro que executa os componentes dos blocos, ou null para
+	 * executar os blocos só na thread que chamou executar().
+	 */
+	private ExecutorService execucao;
+	/**
+	 * Quantidade de threads que executam os componentes de um bloco, incluindo a thread
+	 * que chamou executar().
+	 */
+	private int paralelismo;
+	/**
+	 * As ordens do lote e os seus resultados, nas mesmas posições.
+	 */
+	private OrdemTransferencia[] ordens;
+	private ResultadoTransferencia[] resultados;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param r o repositório de contas.
+	 * @param t as travas das contas, ou null para não sincronizar os blocos.
+	 * @param d o diário de transações, ou null para não registrar as transferências.
+	 * @param e o pool de threads que executa os componentes dos blocos, ou null para
+	 *        não executar os componentes em paralelo. O pool não é encerrado pelo lote.
+	 */
+	LoteTransferencias(RepositorioContas r, TravasContas t, DiarioTransacoes d, ExecutorService e) {
+
+		this.contas = r;
+		this.travas = t;
+		this.diario = d;
+		this.execucao = e;
+		this.paralelismo = e == null ? 1 : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Executa o lote.
+	 *
+	 * @param lista as ordens de transferência.
+	 *
+	 * @return ResultadoTransferencia[] o resultado de cada ordem, na mesma posição
+	 *         da ordem na lista.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando a procura ou a gravação
+	 *            de um bloco falhar. Os blocos anteriores ficam gravados.
+	 */
+	ResultadoTransferencia[] executar(List<OrdemTransferencia> lista)
+		throws ErroAcessoRepositorioException {
+
+		ordens = lista.toArray(new OrdemTransferencia[lista.size()]);
+		resultados = new ResultadoTransferencia[ordens.length];
+		if (ordens.length == 0) {
+			return resultados;
+		}
+		for (int inicio = 0; inicio < ordens.length; inicio += TAMANHO_BLOCO) {
+			processarBloco(inicio, Math.min(inicio + TAMANHO_BLOCO, ordens.length));
+		}
+		return resultados;
+	}
+
+	/**
+	 * Procura, executa e grava as ordens [inicio, fim), com as travas das contas do
+	 * bloco.
+	 */
+	private void processarBloco(int inicio, int fim)
+		throws ErroAcessoRepositorioException {
+
+		Set<String> numeros = new LinkedHashSet<String>();
+		for (int i = inicio; i < fim; i++) {
+			numeros.add(ordens[i].getOrigem());
+			numeros.add(ordens[i].getDestino());
+		}
+		if (travas != null) {
+			travas.travar(numeros);
+		}
+		try {
+			Map<String, ContaAbstrata> carregadas = procurar(numeros);
+			long seq = executarBloco(new Bloco(inicio, fim, carregadas));
+			gravarBloco(inicio, fim, carregadas, seq);
+		} finally {
+			if (travas != null) {
+				travas.destravar(numeros);
+			}
+		}
+	}
+
+	/**
+	 * Procura de uma só vez as contas de um bloco. As contas inexistentes ficam no
+	 * mapa retornado com o valor null.
+	 */
+	private Map<String, ContaAbstrata> procurar(Set<String> numeros)
+		throws ErroAcessoRepositorioException {
+
+		Map<String, ContaAbstrata> resp = new HashMap<String, ContaAbstrata>(contas.procurar(numeros));
+		for (String num : numeros) {
+			if (!resp.containsKey(num)) {
+				resp.put(num, null);
+			}
+		}
+		return resp;
+	}
+
+	/**
+	 * Executa as ordens de um bloco, distribuindo os componentes entre as threads do
+	 * pool e a thread que chamou executar(), que também executa componentes.
+	 *
+	 * @return long o maior número de sequência registrado no diário, ou 0.
+	 */
+	private long executarBloco(Bloco bloco)
+		throws ErroAcessoRepositorioException {
+
+		if (execucao == null || bloco.quantidadeComponentes() < 2) {
+			return bloco.call().longValue();
+		}
+		int threads = Math.min(paralelismo, bloco.quantidadeComponentes());
+		List<Future<Long>> futuros = new ArrayList<Future<Long>>(threads - 1);
+		for (int i = 1; i < threads; i++) {
+			futuros.add(execucao.submit(bloco));
+		}
+		long seq = 0;
+		try {
+			seq = bloco.call().longValue();
+		} finally {
+			// as travas do bloco só são liberadas depois que todas as threads terminarem
+			for (Future<Long> f : futuros) {
+				seq = Math.max(seq, aguardar(f).longValue());
+			}
+		}
+		return seq;
+	}
+
+	/**
+	 * Espera o diário gravar os registros do bloco e atualiza no repositório as contas
+	 * alteradas pelas ordens efetuadas.
+	 */
+	private void gravarBloco(int inicio, int fim, Map<String, ContaAbstrata> carregadas, long seq)
+		throws ErroAcessoRepositorioException {
+
+		if (diario != null && seq > 0) {
+			try {
+				diario.aguardarGravacao(seq);
+			} catch (IOException e) {
+				throw new ErroAcessoRepositorioException(MSG_ERRO_DIARIO, e, 0);
+			}
+		}
+		Map<String, ContaAbstrata> alteradas = new HashMap<String, ContaAbstrata>();
+		for (int i = inicio; i < fim; i++) {
+			if (resultados[i] == ResultadoTransferencia.EFETUADA) {
+				alteradas.put(ordens[i].getOrigem(), carregadas.get(ordens[i].getOrigem()));
+				alteradas.put(ordens[i].getDestino(), carregadas.get(ordens[i].getDestino()));
+			}
+		}
+		if (!alteradas.isEmpty()) {
+			try {
+				contas.atualizar(alteradas.values());
+			} catch (ContaInexistenteException e) {
+				throw new ErroAcessoRepositorioException(MSG_CONTA_EXCLUIDA, e, 0);
+			}
+		}
+	}
+
+	/**
+	 * Executa uma ordem e registra o seu resultado. As travas das duas contas já foram
+	 * obtidas para o bloco inteiro.
+	 *
+	 * @return long o número de sequência do registro no diário, ou 0.
+	 */
+	private long transferir(int i, ContaAbstrata o, ContaAbstrata d) {
+
+		long valor = ordens[i].getValor();
+		long seq = 0;
+		long[] anteriorOrigem = o.copiarEstado();
+		long[] anteriorDestino = d.copiarEstado();
+		try {
+			o.transferir(d, valor);
+		} catch (SaldoInsuficienteException e) {
+			resultados[i] = ResultadoTransferencia.SALDO_INSUFICIENTE;
+			return 0;
+		} catch (ArithmeticException e) {
+			// o crédito estouraria o saldo do destino: desfaz o débito
+			o.restaurarEstado(anteriorOrigem);
+			d.restaurarEstado(anteriorDestino);
+			resultados[i] = ResultadoTransferencia.VALOR_INVALIDO;
+			return 0;
+		}
+		if (diario != null) {
+			try {
+				seq = diario.registrarTransferencia(o, d, valor);
+			} catch (IOException e) {
+				// desfaz a alteração das contas, inclusive do bônus creditado no destino
+				o.restaurarEstado(anteriorOrigem);
+				d.restaurarEstado(anteriorDestino);
+				resultados[i] = ResultadoTransferencia.ERRO;
+				return 0;
+			}
+		}
+		resultados[i] = ResultadoTransferencia.EFETUADA;
+		return seq;
+	}
+
+	/**
+	 * Espera o resultado de uma tarefa, repassando a exceção que ela lançou.
+	 */
+	private static <T> T aguardar(Future<T> f) throws ErroAcessoRepositorioException {
+
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ErroAcessoRepositorioException(MSG_INTERROMPIDO, e, 0);
+		} catch (ExecutionException e) {
+			Throwable causa = e.getCause();
+			if (causa instanceof ErroAcessoRepositorioException) {
+				throw (ErroAcessoRepositorioException) causa;
+			} else if (causa instanceof RuntimeException) {
+				throw (RuntimeException) causa;
+			} else if (causa instanceof Error) {
+				throw (Error) causa;
+			}
+			throw new IllegalStateException(causa);
+		}
+	}
+
+	/**
+	 * Um bloco de ordens, já validado e separado em componentes. Cada thread de
+	 * execução chama call(), que executa componentes até não restar nenhum.
+	 */
+	private class Bloco implements Callable<Long> {
+
+		/**
+		 * A posição da primeira ordem do bloco no lote.
+		 */
+		private int inicio;
+		/**
+		 * As contas do bloco, numeradas na ordem em que aparecem.
+		 */
+		private ContaAbstrata[] contasBloco;
+		/**
+		 * O número da conta de origem e da conta de destino de cada ordem do bloco
+		 * (-1 nas ordens recusadas na validação).
+		 */
+		private int[] origem;
+		private int[] destino;
+		/**
+		 * As ordens de cada componente, em posições relativas ao início do bloco. As
+		 * ordens do componente c ficam em ordensComponentes[inicioComponente[c]] até
+		 * ordensComponentes[inicioComponente[c + 1] - 1], na ordem do lote.
+		 */
+		private int[] ordensComponentes;
+		private int[] inicioComponente;
+		/**
+		 * O próximo componente a ser executado.
+		 */
+		private AtomicInteger proximo = new AtomicInteger();
+
+		/**
+		 * Valida as ordens [inicio, fim) e separa as válidas em componentes.
+		 */
+		Bloco(int inicio, int fim, Map<String, ContaAbstrata> carregadas) {
+
+			this.inicio = inicio;
+			int n = fim - inicio;
+			origem = new int[n];
+			destino = new int[n];
+			contasBloco = new ContaAbstrata[2 * n];
+			int[] pai = new int[2 * n];
+			Map<String, Integer> numeracao = new HashMap<String, Integer>();
+			int validas = 0;
+			for (int i = 0; i < n; i++) {
+				OrdemTransferencia ordem = ordens[inicio + i];
+				ContaAbstrata o = carregadas.get(ordem.getOrigem());
+				ContaAbstrata d = carregadas.get(ordem.getDestino());
+				origem[i] = -1;
+				destino[i] = -1;
+				if (o == null || d == null) {
+					resultados[inicio + i] = ResultadoTransferencia.CONTA_INEXISTENTE;
+				} else if (ordem.getValor() <= 0) {
+					resultados[inicio + i] = ResultadoTransferencia.VALOR_INVALIDO;
+				} else {
+					origem[i] = numerar(numeracao, pai, o);
+					destino[i] = numerar(numeracao, pai, d);
+					unir(pai, origem[i], destino[i]);
+					validas++;
+				}
+			}
+			// numera os componentes pela raiz e conta as ordens de cada um
+			int[] componente = new int[numeracao.size()];
+			Arrays.fill(componente, -1);
+			int[] componenteOrdem = new int[n];
+			int[] tamanho = new int[numeracao.size() + 1];
+			int componentes = 0;
+			for (int i = 0; i < n; i++) {
+				if (origem[i] != -1) {
+					int r = raiz(pai, origem[i]);
+					if (componente[r] == -1) {
+						componente[r] = componentes++;
+					}
+					componenteOrdem[i] = componente[r];
+					tamanho[componente[r]]++;
+				}
+			}
+			inicioComponente = new int[componentes + 1];
+			for (int c = 0; c < componentes; c++) {
+				inicioComponente[c + 1] = inicioComponente[c] + tamanho[c];
+			}
+			ordensComponentes = new int[validas];
+			int[] posicao = Arrays.copyOf(inicioComponente, componentes);
+			for (int i = 0; i < n; i++) {
+				if (origem[i] != -1) {
+					ordensComponentes[posicao[componenteOrdem[i]]++] = i;
+				}
+			}
+		}
+
+		int quantidadeComponentes() {
+
+			return inicioComponente.length - 1;
+		}
+
+		public Long call() {
+
+			long seq = 0;
+			int c;
+			while ((c = proximo.getAndIncrement()) < quantidadeComponentes()) {
+				for (int k = inicioComponente[c]; k < inicioComponente[c + 1]; k++) {
+					int i = ordensComponentes[k];
+					long s = transferir(inicio + i, contasBloco[origem[i]], contasBloco[destino[i]]);
+					seq = Math.max(seq, s);
+				}
+			}
+			return Long.valueOf(seq);
+		}
+
+		/**
+		 * Retorna o número da conta no bloco, numerando-a se ainda não tiver número.
+		 */
+		private int numerar(Map<String, Integer> numeracao, int[] pai, ContaAbstrata c) {
+
+			Integer id = numeracao.get(c.getNumero());
+			if (id == null) {
+				id = Integer.valueOf(numeracao.size());
+				numeracao.put(c.getNumero(), id);
+				contasBloco[id.intValue()] = c;
+				pai[id.intValue()] = id.intValue();
+			}
+			return id.intValue();
+		}
+	}
+
+	/**
+	 * Retorna a raiz do conjunto de i no union-find, encurtando o caminho percorrido.
+	 */
+	private static int raiz(int[] pai, int i) {
+
+		while (pai[i] != i) {
+			pai[i] = pai[pai[i]];
+			i = pai[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Une os conjuntos de i e de j no union-find.
+	 */
+	private static void unir(int[] pai, int i, int j) {
+
+		int ri = raiz(pai, i);
+		int rj = raiz(pai, j);
+		if (ri != rj) {
+			pai[ri] = rj;
+		}
+	}
+}
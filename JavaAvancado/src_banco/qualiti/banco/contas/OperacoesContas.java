@@ -0,0 +1,100 @@
+package qualiti.banco.contas;
+
+import java.util.List;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+
+/**
+ * Interface que define as operações do cadastro de contas. Existe para que o cadastro
+ * possa ser envolvido por proxies, como o das métricas (ver
+ * qualiti.banco.metricas.Metricas.instrumentar()), que medem cada operação sem que a
+ * medição tenha de ser repetida em cada método do cadastro.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas
+ */
+public interface OperacoesContas {
+	/**
+	 * Aplica ao repositório de contas o estado recuperado do diário de transações.
+	 *
+	 * @return int a quantidade de contas corrigidas ou recriadas.
+	 */
+	public int recuperar() throws ErroAcessoRepositorioException;
+	/**
+	 * Atualiza os dados de uma conta no repositório de contas.
+	 *
+	 * @param c a conta com os dados a serem atualizados.
+	 */
+	public void atualizar(ContaAbstrata c)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Cadastra uma conta, se o número da conta ainda não existir no repositório.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 */
+	public void cadastrar(ContaAbstrata c)
+		throws ContaExistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Credita um valor em uma conta.
+	 *
+	 * @param n o número da conta.
+	 * @param v o valor a ser creditado.
+	 */
+	public void creditar(String n, long v)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Debita um valor de uma conta.
+	 *
+	 * @param n o número da conta.
+	 * @param v o valor a ser debitado.
+	 */
+	public void debitar(String n, long v)
+		throws
+			ContaInexistenteException,
+			SaldoInsuficienteException,
+			ErroAcessoRepositorioException;
+	/**
+	 * Exclui uma conta.
+	 *
+	 * @param n o número da conta.
+	 */
+	public void remover(String n)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna uma conta.
+	 *
+	 * @param n o número da conta.
+	 *
+	 * @return ContaAbstrata a conta.
+	 */
+	public ContaAbstrata procurar(String n)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Transfere um valor de uma conta para outra.
+	 *
+	 * @param origem o número da conta a ser debitada.
+	 * @param destino o número da conta a ser creditada.
+	 * @param val o valor a ser transferido.
+	 */
+	public void transferir(String origem, String destino, long val)
+		throws
+			ContaInexistenteException,
+			SaldoInsuficienteException,
+			ErroAcessoRepositorioException;
+	/**
+	 * Realiza um lote de transferências.
+	 *
+	 * @param ordens as ordens de transferência.
+	 *
+	 * @return ResultadoTransferencia[] o resultado de cada ordem.
+	 */
+	public ResultadoTransferencia[] transferirLote(List<OrdemTransferencia> ordens)
+		throws ErroAcessoRepositorioException;
+	/**
+	 * Fecha o cadastro, gravando o que ainda estiver só em memória.
+	 */
+	public void fechar() throws ErroAcessoRepositorioException;
+}
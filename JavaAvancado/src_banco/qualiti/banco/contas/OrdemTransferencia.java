@@ -0,0 +1,78 @@
+package qualiti.banco.contas;
+
+/**
+ * Classe que representa uma ordem de transferência de um lote de transferências
+ * (por exemplo, um item do arquivo de liquidação). A ordem é imutável.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas#transferirLote(java.util.List)
+ * @see qualiti.banco.contas.ResultadoTransferencia
+ */
+public class OrdemTransferencia {
+
+	/**
+	 * O número da conta a ser debitada.
+	 */
+	private final String origem;
+	/**
+	 * O número da conta a ser creditada.
+	 */
+	private final String destino;
+	/**
+	 * O valor a ser transferido, em décimos de milésimo da unidade (ver Dinheiro).
+	 */
+	private final long valor;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param origem o número da conta a ser debitada.
+	 * @param destino o número da conta a ser creditada.
+	 * @param valor o valor a ser transferido, em décimos de milésimo da unidade
+	 *        (ver Dinheiro).
+	 */
+	public OrdemTransferencia(String origem, String destino, long valor) {
+
+		this.origem = origem;
+		this.destino = destino;
+		this.valor = valor;
+	}
+
+	/**
+	 * Retorna o número da conta a ser debitada.
+	 *
+	 * @return String o número da conta de origem.
+	 */
+	public String getOrigem() {
+
+		return origem;
+	}
+
+	/**
+	 * Retorna o número da conta a ser creditada.
+	 *
+	 * @return String o número da conta de destino.
+	 */
+	public String getDestino() {
+
+		return destino;
+	}
+
+	/**
+	 * Retorna o valor a ser transferido.
+	 *
+	 * @return long o valor, em décimos de milésimo da unidade.
+	 */
+	public long getValor() {
+
+		return valor;
+	}
+
+	public String toString() {
+
+		return origem + " -> " + destino + ": " + valor;
+	}
+}
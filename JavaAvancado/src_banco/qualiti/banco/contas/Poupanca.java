@@ -1,62 +1,64 @@
-package qualiti.banco.contas;
-
-import javax.persistence.DiscriminatorValue;
-import javax.persistence.Entity;
-
-import qualiti.banco.clientes.Cliente;
-
-/**
- * Classe bsica que representa uma entidade poupana, com seus dados, validaes
- * dos mesmos e suas operaes relacionadas. A super-classe contm muitos dos atributos
- * e operaes de uma conta. A poupana se caracteriza por ter uma operao de render
- * juros, calculados em cima de uma dada taxa informada no ato desta operao.
- * 
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0
- *
- * @see qualiti.banco.conta.Conta
- */
-@Entity
-@DiscriminatorValue("2")
-public class Poupanca extends Conta {
-
-	public Poupanca() {
-		
-	}
-	
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando o construtor da super-classe.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param cli o cliente da conta.  
-	 */
-	public Poupanca(String num, Cliente cli) {
-
-		super(num, cli);
-	}
-	/**
-	 * O construtor da classe. Inicializa os atributos com os valores passados como
-	 * parmetro chamando o construtor da super-classe.
-	 * 
-	 * @param num o nmero da conta.
-	 * @param sld o saldo inicial da conta. 
-	 * @param cli o cliente da conta.  
-	 */
-	public Poupanca(String num, double s, Cliente c) {
-		super(num, s, c);
-	}
-
-	/**
-	 * Credita ao saldo da conta os juros, rendidos a partir da taxa passada como
-	 * parmetro. 
-	 * 
-	 * @param taxa a taxa sobre a qual os juros sero rendidos.
-	 */
-	public void renderJuros(double taxa) {
-
-		double saldo = this.getSaldo();
-		this.creditar(saldo * taxa);
-	}
-}
+package qualiti.banco.contas;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Classe básica que representa uma entidade poupança, com seus dados, validações
+ * dos mesmos e suas operações relacionadas. A super-classe contém muitos dos atributos
+ * e operações de uma conta. A poupança se caracteriza por ter uma operação de render
+ * juros, calculados em cima de uma dada taxa informada no ato desta operação.
+ * 
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.conta.Conta
+ */
+@Entity
+@DiscriminatorValue("2")
+public class Poupanca extends Conta {
+
+	public Poupanca() {
+		
+	}
+	
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando o construtor da super-classe.
+	 * 
+	 * @param num o número da conta.
+	 * @param cli o cliente da conta.  
+	 */
+	public Poupanca(String num, Cliente cli) {
+
+		super(num, cli);
+	}
+	/**
+	 * O construtor da classe. Inicializa os atributos com os valores passados como
+	 * parâmetro chamando o construtor da super-classe.
+	 * 
+	 * @param num o número da conta.
+	 * @param sld o saldo inicial da conta. 
+	 * @param cli o cliente da conta.  
+	 */
+	public Poupanca(String num, long s, Cliente c) {
+		super(num, s, c);
+	}
+
+	/**
+	 * Credita ao saldo da conta os juros, rendidos a partir da taxa passada como
+	 * parâmetro. 
+	 * 
+	 * @param taxa a taxa sobre a qual os juros serão rendidos, em décimos de milésimo
+	 *        (100 = 1%). Os juros são arredondados para a escala do saldo.
+	 */
+	public void renderJuros(long taxa) {
+
+		long saldo = this.getSaldo();
+		this.creditar(Dinheiro.aplicarTaxa(saldo, taxa));
+	}
+}
@@ -1,79 +1,141 @@
-package qualiti.banco.contas;
-
-/**
- * Interface que define os mtodos de acesso aos dados de conta em um
- * mecanismo de armazenamento de dados. 
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.conta.ContaAbstrata
- */
-public interface RepositorioContas {
-	/**
-	 * Cadastra os dados de uma conta EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param c a conta com os dados a serem cadastrados. 
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de conta j existente ??
-	 *
-	 * @see Q2 Alm das excees definidas, os mtodos do repositrio no deveriam
-	 *         lanar outra exceo para indicar problemas no mecanismo de acesso ??  
-	 */
-	public void inserir(ContaAbstrata c);
-	/**
-	 * Verifica se uma conta existe armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param num o nmero da conta cuja existncia EM UM MECANISMO DE ARMAZENAMENTO DE DADOS 
-	 *        ser verificada.
-	 * 
-	 * @return boolean true se a conta existir EM UM MECANISMO DE ARMAZENAMENTO DE DADOS e
-	 *         false caso contrrio.
-	 *
-	 * @see Q1 Alm das excees definidas, os mtodos do repositrio no deveriam
-	 *         lanar outra exceo para indicar problemas no mecanismo de acesso ??  
-	 */
-	public boolean existe(String num);
-	/**
-	 * Atualiza os dados de uma conta EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param c a conta com os dados a serem atualizados. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            atualizados no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 *
-	 * @see Q1 Alm das excees definidas, os mtodos do repositrio no deveriam
-	 *         lanar outra exceo para indicar problemas no mecanismo de acesso ??  
-	 */
-	public void atualizar(ContaAbstrata c) throws ContaInexistenteException;
-	/**
-	 * Retorna uma conta armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param num o nmero da conta que ser procurado EM UM MECANISMO DE ARMAZENAMENTO 
-	 *        DE DADOS.
-	 *        
-	 * @return ContaAbstrata a conta com seus dados lidos a partir DE UM MECANISMO DE 
-	 *         ARMAZENAMENTO DE DADOS.
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            lidos no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @see Q1 Alm das excees definidas, os mtodos do repositrio no deveriam
-	 *         lanar outra exceo para indicar problemas no mecanismo de acesso ??   
-	 */
-	public ContaAbstrata procurar(String num) throws ContaInexistenteException;
-	/**
-	 * Exclui uma conta armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 * 
-	 * @param num o nmero da conta que ser excluda EM UM MECANISMO DE ARMAZENAMENTO 
-	 *        DE DADOS.
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ser excluda 
-	 *            no existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
-	 *
-	 * @see Q1 Alm das excees definidas, os mtodos do repositrio no deveriam
-	 *         lanar outra exceo para indicar problemas no mecanismo de acesso ??  
-	 */
-	public void remover(String num) throws ContaInexistenteException;
-}
+package qualiti.banco.contas;
+
+import java.util.Collection;
+import java.util.Map;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+
+/**
+ * Interface que define os métodos de acesso aos dados de conta em um
+ * mecanismo de armazenamento de dados. 
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.conta.ContaAbstrata
+ */
+public interface RepositorioContas {
+	/**
+	 * Cadastra os dados de uma conta EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados. 
+	 *
+	 * @see Q1 Por que este método não lança a exceção de conta já existente ??
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void inserir(ContaAbstrata c) throws ErroAcessoRepositorioException;
+	/**
+	 * Cadastra os dados de uma conta EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, se não
+	 * existir outra com o mesmo número. A verificação e a inclusão são uma única
+	 * operação atômica do mecanismo, de forma que, entre cadastros simultâneos do mesmo
+	 * número, apenas um consegue.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados. 
+	 *
+	 * @return boolean true se a conta foi cadastrada e false se já existia uma conta
+	 *         com o mesmo número, que não é alterada.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public boolean inserirSeAusente(ContaAbstrata c) throws ErroAcessoRepositorioException;
+	/**
+	 * Verifica se uma conta existe armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param num o número da conta cuja existência EM UM MECANISMO DE ARMAZENAMENTO DE DADOS 
+	 *        será verificada.
+	 * 
+	 * @return boolean true se a conta existir EM UM MECANISMO DE ARMAZENAMENTO DE DADOS e
+	 *         false caso contrário.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public boolean existe(String num) throws ErroAcessoRepositorioException;
+	/**
+	 * Atualiza os dados de uma conta EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param c a conta com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            atualizados não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void atualizar(ContaAbstrata c)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna uma conta armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param num o número da conta que será procurado EM UM MECANISMO DE ARMAZENAMENTO 
+	 *        DE DADOS.
+	 *        
+	 * @return ContaAbstrata a conta com seus dados lidos a partir DE UM MECANISMO DE 
+	 *         ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            lidos não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public ContaAbstrata procurar(String num)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna, de uma só vez, várias contas armazenadas EM UM MECANISMO DE ARMAZENAMENTO
+	 * DE DADOS. Usado pelos lotes de transferências, no lugar de uma procura por conta.
+	 * 
+	 * @param numeros os números das contas que serão procuradas.
+	 *        
+	 * @return Map as contas encontradas, indexadas pelo número. Os números das contas
+	 *         que não existem ficam de fora do mapa.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public Map<String, ContaAbstrata> procurar(Collection<String> numeros)
+		throws ErroAcessoRepositorioException;
+	/**
+	 * Atualiza os dados de várias contas EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, de
+	 * uma só vez. Se alguma das contas não existir, nenhuma é atualizada.
+	 * 
+	 * @param contas as contas com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando alguma das contas não existe
+	 *            no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void atualizar(Collection<ContaAbstrata> contas)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Exclui uma conta armazenada EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * 
+	 * @param num o número da conta que será excluída EM UM MECANISMO DE ARMAZENAMENTO 
+	 *        DE DADOS.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ser excluída 
+	 *            não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void remover(String num)
+		throws ContaInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Grava NO MECANISMO DE ARMAZENAMENTO DE DADOS as alterações que ainda estão
+	 * apenas em memória e libera os recursos do repositório. É chamado no fechamento
+	 * do cadastro de contas; nos repositórios que gravam cada alteração imediatamente,
+	 * não faz nada.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. 
+	 */
+	public void fechar()
+		throws ErroAcessoRepositorioException;
+}
@@ -0,0 +1,282 @@
+package qualiti.banco.contas;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de conta 
+ * em um mecanismo de armazenamento de dados. Esta implementação é realizada através
+ * do armazenamento de objetos do tipo conta abstrata em um array interno de contas
+ * abstratas existente em memória, inicializado com 100 posições e dobrado de tamanho
+ * quando fica cheio. Este array suporta armazenamento de objetos de qualquer sub-tipo
+ * de conta abstrata. A posição de cada conta no array é encontrada pelo número em um
+ * HashMap, sem percorrer o array.
+ *
+ * Pode ser usado por várias threads: os métodos que leem ou alteram o array são
+ * sincronizados, de forma que a verificação e a inclusão de inserirSeAusente() são
+ * uma única operação atômica.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.contas.ContaAbstrata
+ * @see qualiti.banco.clientes.RepositorioContas
+ */
+public class RepositorioContasArray implements RepositorioContas {
+
+	/**
+	 * Array interno de contas abstratas.
+	 */
+	private ContaAbstrata[] contas;
+	/**
+	 * Atributo auxiliar que representa a posição do "próximo novo objeto".
+	 */
+	private int indice;
+	/**
+	 * Posição de cada conta no array, pelo número.
+	 */
+	private Map<String, Integer> posicoes;
+	/**
+	 * Tamanho inicial do array a ser criado.
+	 */
+	private final static int tamCache = 100;
+
+	/**
+	 * O construtor da classe. Inicializa o índice com zero e instancia
+	 * o array de contas com 100 ocorrências, onde 100 é o tamanho inicial da cache.
+	 */
+	public RepositorioContasArray() {
+
+		this(tamCache);
+	}
+
+	/**
+	 * O construtor da classe. Inicializa o índice com zero e instancia
+	 * o array de contas com o tamanho passado como parâmetro.
+	 * 
+	 * @param tamanho a quantidade inicial de posições do array de contas.
+	 */
+	public RepositorioContasArray(int tamanho) {
+
+		indice = 0;
+		contas = new ContaAbstrata[Math.max(tamanho, 1)];
+		posicoes = new HashMap<String, Integer>(Math.max(tamanho, 16) * 4 / 3);
+	}
+
+	/**
+	 * Cadastra os dados de uma conta no array, inserindo o objeto recebido
+	 * como parâmetro na primeira ocorrência vaga daquele. Se o array estiver cheio,
+	 * ele é copiado para um array com o dobro do tamanho. Uma conta com o número de uma
+	 * conta já cadastrada toma o lugar desta, para que o índice continue apontando para
+	 * uma única conta por número.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @see Q1 Por que este método não lança a exceção de conta já existente ??
+	 * 
+	 * @see Q2 Por que este método não testa a existência de uma conta com mesmo
+	 *         número da conta passada no array ??
+	 */
+	public synchronized void inserir(ContaAbstrata c) {
+
+		int i = procurarIndice(c.getNumero());
+		if (i != -1) {
+			contas[i] = c;
+			return;
+		}
+		acrescentar(c);
+	}
+
+	/**
+	 * Cadastra uma conta no array se não houver outra com o mesmo número, com uma única
+	 * procura no índice.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se a conta foi cadastrada e false se já existia uma conta
+	 *         com o mesmo número.
+	 */
+	public synchronized boolean inserirSeAusente(ContaAbstrata c) {
+
+		if (procurarIndice(c.getNumero()) != -1) {
+			return false;
+		}
+		acrescentar(c);
+		return true;
+	}
+
+	/**
+	 * Coloca uma conta na primeira ocorrência vaga do array, dobrando o tamanho deste
+	 * se estiver cheio.
+	 */
+	private void acrescentar(ContaAbstrata c) {
+
+		if (indice == contas.length) {
+			contas = Arrays.copyOf(contas, contas.length * 2);
+		}
+		contas[indice] = c;
+		posicoes.put(c.getNumero(), Integer.valueOf(indice));
+		indice = indice + 1;
+	}
+
+	/**
+	 * Método auxiliar que retorna o índice da ocorrência do array que 
+	 * contém um objeto ContaAbstrata cujo número é igual ao número passado 
+	 * como parâmetro. O índice é lido do mapa de posições, sem percorrer o array.
+	 * 
+	 * @param num o número a ser procurado nas contas do array.
+	 *        
+	 * @return int o índice da ocorrência do array que contém um objeto ContaAbstrata
+	 *         cujo número é igual ao número passado como parâmetro. Se este objeto 
+	 *         não for encontrado, o retorno é -1.  
+	 */
+	private int procurarIndice(String num) {
+
+		Integer i = posicoes.get(num);
+		return i == null ? -1 : i.intValue();
+	}
+
+	/**
+	 * Verifica se uma conta existe armazenado no array.
+	 * 
+	 * @param num o número da conta cuja existência no array 
+	 *        será verificada.
+	 * 
+	 * @return boolean true se a conta existir no array e
+	 *         false caso contrário.
+	 */
+	public synchronized boolean existe(String num) {
+
+		boolean resp = false;
+		int i = this.procurarIndice(num);
+		if (i != -1) {
+			resp = true;
+		}
+
+		return resp;
+	}
+
+	/**
+	 * Atualiza os dados de uma conta no array em memória, trocando
+	 * o objeto atual do array pelo objeto passado como parâmetro.
+	 * 
+	 * @param c a conta com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            atualizados não existe no array. A procura é feita pelo número.
+	 */
+	public synchronized void atualizar(ContaAbstrata c) throws ContaInexistenteException {
+
+		int i = procurarIndice(c.getNumero());
+		if (i != -1) {
+			contas[i] = c;
+		} else {
+			throw new ContaInexistenteException(c.getNumero());
+		}
+	}
+
+	/**
+	 * Retorna uma conta armazenada no array.
+	 * 
+	 * @param num o número da conta que será procurada no array.
+	 *        
+	 * @return ContaAbstrata a conta com seus dados lidos a partir do array. Pode ser
+	 *         qualquer sub-tipo de conta abstrata. 
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            lidos não existe no array. A procura é feita pelo número.
+	 */
+	public synchronized ContaAbstrata procurar(String num)
+		throws ContaInexistenteException {
+
+		ContaAbstrata c = null;
+		if (existe(num)) {
+			int i = this.procurarIndice(num);
+			c = contas[i];
+		} else {
+			throw new ContaInexistenteException(num);
+		}
+
+		return c;
+	}
+
+	/**
+	 * Retorna várias contas armazenadas no array, com uma procura no índice por conta.
+	 * 
+	 * @param numeros os números das contas que serão procuradas no array.
+	 *        
+	 * @return Map as contas encontradas, indexadas pelo número. Os números das contas
+	 *         que não existem no array ficam de fora do mapa.
+	 */
+	public synchronized Map<String, ContaAbstrata> procurar(Collection<String> numeros) {
+
+		Map<String, ContaAbstrata> resp = new HashMap<String, ContaAbstrata>();
+		for (String num : numeros) {
+			int i = procurarIndice(num);
+			if (i != -1) {
+				resp.put(num, contas[i]);
+			}
+		}
+		return resp;
+	}
+
+	/**
+	 * Atualiza os dados de várias contas no array em memória. Só depois de verificar que
+	 * todas as contas existem no array os objetos são trocados.
+	 * 
+	 * @param cs as contas com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando alguma das contas não existe
+	 *            no array. A procura é feita pelo número.
+	 */
+	public synchronized void atualizar(Collection<ContaAbstrata> cs) throws ContaInexistenteException {
+
+		int[] ind = new int[cs.size()];
+		int n = 0;
+		for (ContaAbstrata c : cs) {
+			ind[n] = procurarIndice(c.getNumero());
+			if (ind[n] == -1) {
+				throw new ContaInexistenteException(c.getNumero());
+			}
+			n++;
+		}
+		n = 0;
+		for (ContaAbstrata c : cs) {
+			contas[ind[n++]] = c;
+		}
+	}
+
+	/**
+	 * Exclui uma conta armazenada no array. A exclusão é feita colocando-se
+	 * a última ocorrência na ocorrência a ser excluída e se decrementando 1 do
+	 * índice. 
+	 * 
+	 * @param num o número da conta que será excluída do array.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ser excluída
+	 *            não existe no array. A procura é feita por número.
+	 */
+	public synchronized void remover(String num) throws ContaInexistenteException {
+
+		int i = this.procurarIndice(num);
+		if (i == -1) {
+			throw new ContaInexistenteException(num);
+		}
+		posicoes.remove(num);
+		if (i != indice - 1) {
+			contas[i] = contas[indice - 1];
+			posicoes.put(contas[i].getNumero(), Integer.valueOf(i));
+		}
+		contas[indice - 1] = null;
+		indice = indice - 1;
+	}
+
+	/**
+	 * Não faz nada: as contas ficam apenas no array.
+	 */
+	public void fechar() {
+	}
+}
\ No newline at end of file
@@ -1,171 +1,921 @@
-package qualiti.banco.contas;
-
-/**
- * Implementao da interface que define os mtodos de acesso aos dados de conta 
- * em um mecanismo de armazenamento de dados. Esta implementao  realizada atravs
- * do armazenamento de objetos do tipo conta abstrata em um array interno de contas
- * abstratas existente em memria e inicializado com 100 posies fixas. Este array
- * suporta armazenamento de objetos de qualquer sub-tipo de conta abstrata. 
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.contas.ContaAbstrata
- * @see qualiti.banco.clientes.RepositorioContas
- */
-public class RepositorioContasBDR implements RepositorioContas {
-
-	/**
-	 * Array interno de contas abstratas.
-	 */
-	private ContaAbstrata[] contas;
-	/**
-	 * Atributo auxiliar que representa a posio do "prximo novo objeto".
-	 */
-	private int indice;
-	/**
-	 * Tamanho do array a ser criado.
-	 */
-	private final static int tamCache = 100;
-
-	/**
-	 * O construtor da classe. Inicializa o ndice com zero e instancia
-	 * o array de contas com 100 ocorrncias, onde 100  o tamanho da cache.
-	 */
-	public RepositorioContasBDR() {
-
-		indice = 0;
-		contas = new ContaAbstrata[tamCache];
-	}
-
-	/**
-	 * Cadastra os dados de uma conta no array, inserindo o objeto recebido
-	 * como parmetro na primeira ocorrncia vaga daquele.
-	 * 
-	 * @param c a conta com os dados a serem cadastrados.
-	 *
-	 * @see Q1 Por que este mtodo no lana a exceo de conta j existente ??
-	 * 
-	 * @see Q2 Por que este mtodo no testa a existncia de uma conta com mesmo
-	 *         nmero da conta passada no array ??
-	 */
-	public void inserir(ContaAbstrata c) {
-
-		contas[indice] = c;
-		indice = indice + 1;
-	}
-
-	/**
-	 * Mtodo auxiliar que retorna o ndice da ocorrncia do array que 
-	 * contm um objeto ContaAbstrata cujo nmero  igual ao nmero passado 
-	 * como parmetro. 
-	 * 
-	 * @param num o nmero a ser procurado nas contas do array.
-	 *        
-	 * @return int o ndice da ocorrncia do array que contm um objeto ContaAbstrata
-	 *         cujo nmero  igual ao nmero passado como parmetro. Se este objeto 
-	 *         no for encontrado, o retorno  -1.  
-	 */
-	private int procurarIndice(String num) {
-
-		int i = 0;
-		int ind = -1;
-		boolean achou = false;
-
-		while ((i < indice) && !achou) {
-			if ((contas[i].getNumero()).equals(num)) {
-				ind = i;
-				achou = true;
-			}
-			i = i + 1;
-		}
-		return ind;
-	}
-
-	/**
-	 * Verifica se uma conta existe armazenado no array.
-	 * 
-	 * @param num o nmero da conta cuja existncia no array 
-	 *        ser verificada.
-	 * 
-	 * @return boolean true se a conta existir no array e
-	 *         false caso contrrio.
-	 */
-	public boolean existe(String num) {
-
-		boolean resp = false;
-		int i = this.procurarIndice(num);
-		if (i != -1) {
-			resp = true;
-		}
-
-		return resp;
-	}
-
-	/**
-	 * Atualiza os dados de uma conta no array em memria, trocando
-	 * o objeto atual do array pelo objeto passado como parmetro.
-	 * 
-	 * @param c a conta com os dados a serem atualizados. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            atualizados no existe no array. A procura  feita pelo nmero.
-	 */
-	public void atualizar(ContaAbstrata c) throws ContaInexistenteException {
-
-		int i = procurarIndice(c.getNumero());
-		if (i != -1) {
-			contas[i] = c;
-		} else {
-			throw new ContaInexistenteException(c.getNumero());
-		}
-	}
-
-	/**
-	 * Retorna uma conta armazenada no array.
-	 * 
-	 * @param num o nmero da conta que ser procurada no array.
-	 *        
-	 * @return ContaAbstrata a conta com seus dados lidos a partir do array. Pode ser
-	 *         qualquer sub-tipo de conta abstrata. 
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            lidos no existe no array. A procura  feita pelo nmero.
-	 */
-	public ContaAbstrata procurar(String num)
-		throws ContaInexistenteException {
-
-		ContaAbstrata c = null;
-		if (existe(num)) {
-			int i = this.procurarIndice(num);
-			c = contas[i];
-		} else {
-			throw new ContaInexistenteException(num);
-		}
-
-		return c;
-	}
-
-	/**
-	 * Exclui uma conta armazenada no array. A excluso  feita colocando-se
-	 * a ltima ocorrncia na ocorrncia a ser excluda e se decrementando 1 do
-	 * ndice. 
-	 * 
-	 * @param num o nmero da conta que ser excluda do array.
-	 *
-	 * @exception ContaInexistenteException lanada quando a conta a ser excluda
-	 *            no existe no array. A procura  feita por nmero.
-	 */
-	public void remover(String num) throws ContaInexistenteException {
-
-		if (existe(num)) {
-			int i = this.procurarIndice(num);
-			contas[i] = contas[indice - 1];
-			contas[indice - 1] = null;
-			indice = indice - 1;
-		} else {
-			throw new ContaInexistenteException(num);
-		}
-	}
-}
\ No newline at end of file
+package qualiti.banco.contas;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.jdbcutil.JDBCConnectionUtil;
+
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de conta
+ * em um mecanismo de armazenamento de dados. Esta implementação é realizada através
+ * do armazenamento das contas na tabela tb_conta de um banco de dados relacional.
+ * As contas lidas ou cadastradas ficam guardadas em um índice em memória (uma tabela
+ * hash indexada pelo número da conta), de forma que procuras repetidas pela mesma
+ * conta não voltam ao banco de dados. As inserções e as atualizações de saldo não são
+ * enviadas uma a uma: elas são acumuladas e gravadas em lote (JDBC batch) quando a
+ * quantidade de operações pendentes atinge o tamanho do lote, a cada intervalo de
+ * descarga (por padrão, um segundo) e quando os métodos descarregar() ou fechar() são
+ * chamados. Se o lote for recusado pelo banco de dados, as operações são gravadas uma
+ * a uma, e as que forem recusadas são registradas no log e descartadas; só uma falha
+ * de conexão faz as operações voltarem a ficar pendentes.
+ *
+ * Esta implementação pode ser usada por várias threads ao mesmo tempo. Cada número de
+ * conta corresponde a um único objeto conta no índice, mas a sincronização das
+ * alterações de saldo feitas nesse objeto é responsabilidade de quem o altera
+ * (ver CadastroContas no modo concorrente).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.ContaAbstrata
+ * @see qualiti.banco.contas.RepositorioContas
+ * @see java.sql.PreparedStatement#addBatch()
+ */
+public class RepositorioContasBDR implements RepositorioContas {
+
+	private static final Logger LOG = Logger.getLogger(RepositorioContasBDR.class);
+
+	/**
+	 * Template de comando SQL para insert de conta.
+	 */
+	private static final String INSERT_CTA =
+		"INSERT INTO tb_conta (tb_cliente_cpf,numero,saldo,tipo,bonus) VALUES (?,?,?,?,?)";
+	/**
+	 * Template de comando SQL para update do saldo (e do bônus, nas contas bonificadas)
+	 * de uma conta.
+	 */
+	private static final String UPDATE_SALDO =
+		"UPDATE tb_conta SET saldo = ?, bonus = ? WHERE numero = ?";
+	/**
+	 * Template de comando SQL para delete de conta.
+	 */
+	private static final String DELETE_CTA =
+		"DELETE FROM tb_conta WHERE numero = ?";
+	/**
+	 * Template de comando SQL para consulta de conta.
+	 */
+	private static final String CONSULTA_CTA =
+		"SELECT COUNT(*) FROM tb_conta WHERE numero = ?";
+	/**
+	 * Template de comando SQL para procura de conta, já trazendo o nome do cliente.
+	 */
+	private static final String PROCURA_CTA =
+		"SELECT c.numero, c.saldo, c.tipo, c.tb_cliente_cpf, cli.nome, c.bonus "
+			+ "FROM tb_conta c INNER JOIN tb_cliente cli ON cli.cpf = c.tb_cliente_cpf "
+			+ "WHERE c.numero = ?";
+	/**
+	 * Quantidade de números de conta por consulta na procura de várias contas. O
+	 * comando sempre tem esta quantidade de parâmetros (a última consulta repete o
+	 * último número), para que o texto SQL seja um só.
+	 */
+	private static final int TAMANHO_PROCURA_LOTE = 100;
+	/**
+	 * Template de comando SQL para procura de várias contas, já trazendo o nome do
+	 * cliente.
+	 */
+	private static final String PROCURA_CTAS = procuraContas(TAMANHO_PROCURA_LOTE);
+
+	/**
+	 * Valores da coluna tipo de tb_conta. São os mesmos usados como discriminador no
+	 * mapeamento do hibernate. O valor 0 (conta abstrata) é lido como uma conta simples.
+	 */
+	private static final int TIPO_CONTA = 1;
+	private static final int TIPO_POUPANCA = 2;
+	private static final int TIPO_BONIFICADA = 3;
+	private static final int TIPO_IMPOSTO = 4;
+
+	/**
+	 * Quantidade padrão de operações pendentes que dispara a gravação do lote.
+	 */
+	private static final int TAMANHO_LOTE_PADRAO = 500;
+	/**
+	 * Intervalo padrão, em milissegundos, entre as gravações periódicas do lote.
+	 */
+	private static final long INTERVALO_DESCARGA_PADRAO = 1000;
+
+	/**
+	 * Mensagem que indica erro de acesso ao banco de dados.
+	 */
+	private static final String MSG_ERRO_ACESSO_BD =
+		"Erro de acesso ao banco de dados";
+
+	/**
+	 * Código de erro do HSQLDB para violação de chave primária ou única.
+	 */
+	private static final int ERRO_CHAVE_DUPLICADA = -104;
+	/**
+	 * Início do SQLState das falhas de conexão.
+	 */
+	private static final String ESTADO_FALHA_CONEXAO = "08";
+
+	/**
+	 * Índice em memória das contas já lidas ou cadastradas. A chave é o número da conta.
+	 */
+	private ConcurrentHashMap<String, ContaAbstrata> indice;
+	/**
+	 * Contas cadastradas que ainda não foram gravadas no banco de dados. Protegido
+	 * pelo monitor deste objeto.
+	 */
+	private Map<String, ContaAbstrata> insercoesPendentes;
+	/**
+	 * Contas com saldo alterado que ainda não foi gravado no banco de dados. Protegido
+	 * pelo monitor deste objeto.
+	 */
+	private Map<String, ContaAbstrata> atualizacoesPendentes;
+	/**
+	 * Serializa as gravações de lote e as exclusões, para que uma exclusão não corra
+	 * em paralelo com a inserção ainda não confirmada da mesma conta.
+	 */
+	private Object gravacao = new Object();
+	/**
+	 * Quantidade de operações pendentes que dispara a gravação do lote.
+	 */
+	private int tamanhoLote;
+	/**
+	 * Agendamento da gravação periódica do lote, ou null se não houver.
+	 */
+	private ScheduledFuture<?> descargaPeriodica;
+
+	/**
+	 * O construtor da classe. Usa o tamanho de lote padrão.
+	 */
+	public RepositorioContasBDR() {
+
+		this(TAMANHO_LOTE_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. Usa o intervalo de descarga padrão.
+	 *
+	 * @param tamanhoLote a quantidade de operações pendentes que dispara a gravação
+	 *        do lote. Com o valor 1, cada operação é gravada imediatamente.
+	 */
+	public RepositorioContasBDR(int tamanhoLote) {
+
+		this(tamanhoLote, INTERVALO_DESCARGA_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. Inicializa o índice e as listas de operações pendentes e
+	 * agenda a gravação periódica do lote.
+	 *
+	 * @param tamanhoLote a quantidade de operações pendentes que dispara a gravação
+	 *        do lote. Com o valor 1, cada operação é gravada imediatamente.
+	 * @param intervaloDescarga o intervalo, em milissegundos, entre as gravações
+	 *        periódicas do lote, ou 0 para gravar só quando o lote enche.
+	 */
+	public RepositorioContasBDR(int tamanhoLote, long intervaloDescarga) {
+
+		if (tamanhoLote < 1) {
+			throw new IllegalArgumentException("Tamanho de lote invalido: " + tamanhoLote);
+		}
+		if (intervaloDescarga < 0) {
+			throw new IllegalArgumentException("Intervalo de descarga invalido: " + intervaloDescarga);
+		}
+		this.tamanhoLote = tamanhoLote;
+		this.indice = new ConcurrentHashMap<String, ContaAbstrata>();
+		this.insercoesPendentes = new LinkedHashMap<String, ContaAbstrata>();
+		this.atualizacoesPendentes = new LinkedHashMap<String, ContaAbstrata>();
+		if (intervaloDescarga > 0) {
+			Descarga d = new Descarga(this);
+			descargaPeriodica = Agendador.DESCARGAS.scheduleWithFixedDelay(
+				d, intervaloDescarga, intervaloDescarga, TimeUnit.MILLISECONDS);
+			d.agendamento = descargaPeriodica;
+		}
+	}
+
+	/**
+	 * Cadastra uma conta. A conta é colocada no índice em memória e na lista de
+	 * inserções pendentes, sendo gravada no banco de dados junto com o próximo lote.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando a gravação do lote,
+	 *            disparada por esta inserção, falhar.
+	 */
+	public void inserir(ContaAbstrata c) throws ErroAcessoRepositorioException {
+
+		if (c != null) {
+			synchronized (this) {
+				indice.put(c.getNumero(), c);
+				insercoesPendentes.put(c.getNumero(), c);
+			}
+			descarregarSeLoteCheio();
+		}
+	}
+
+	/**
+	 * Cadastra uma conta, se não existir outra com o mesmo número. Uma conta do índice
+	 * em memória é recusada sem ida ao banco; as demais são inseridas imediatamente, fora
+	 * do lote, e a chave única de tb_conta.numero recusa a conta já gravada. O cadastro
+	 * é uma única ida ao banco, e entre cadastros simultâneos do mesmo número, mesmo em
+	 * outras JVMs, apenas um consegue.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se a conta foi cadastrada e false se já existia uma conta
+	 *         com o mesmo número.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public boolean inserirSeAusente(ContaAbstrata c) throws ErroAcessoRepositorioException {
+
+		if (c == null || indice.containsKey(c.getNumero())) {
+			return false;
+		}
+		Connection con = null;
+		PreparedStatement ps = null;
+		try {
+			con = getConexao();
+			ps = con.prepareStatement(INSERT_CTA);
+			prepararInsercao(ps, c);
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			if (e.getErrorCode() == ERRO_CHAVE_DUPLICADA) {
+				return false;
+			}
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, null);
+		}
+		// uma atualização feita logo depois da inserção já pode ter posto a conta no índice
+		indice.putIfAbsent(c.getNumero(), c);
+		return true;
+	}
+
+	/**
+	 * Verifica se uma conta existe. Consulta primeiro o índice em memória e só vai
+	 * ao banco de dados quando a conta não estiver nele.
+	 *
+	 * @param num o número da conta cuja existência será verificada.
+	 *
+	 * @return boolean true se a conta existir e false caso contrário.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public boolean existe(String num) throws ErroAcessoRepositorioException {
+
+		if (num == null) {
+			return false;
+		}
+		if (indice.containsKey(num)) {
+			return true;
+		}
+		Connection con = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			con = getConexao();
+			ps = con.prepareStatement(CONSULTA_CTA);
+			ps.setString(1, num);
+			rs = ps.executeQuery();
+			return rs.next() && rs.getInt(1) > 0;
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, rs);
+		}
+	}
+
+	/**
+	 * Atualiza os dados de uma conta. O objeto passado substitui o do índice em memória
+	 * e o novo saldo é gravado no banco de dados junto com o próximo lote.
+	 *
+	 * @param c a conta com os dados a serem atualizados.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados
+	 *            atualizados não existe. A procura é feita pelo número.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void atualizar(ContaAbstrata c)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		if (c == null || !existe(c.getNumero())) {
+			throw new ContaInexistenteException(c == null ? "" : c.getNumero());
+		}
+		String num = c.getNumero();
+		synchronized (this) {
+			indice.put(num, c);
+			if (insercoesPendentes.containsKey(num)) {
+				// ainda não foi gravada: a inserção já levará o saldo atual
+				insercoesPendentes.put(num, c);
+				return;
+			}
+			atualizacoesPendentes.put(num, c);
+		}
+		descarregarSeLoteCheio();
+	}
+
+	/**
+	 * Retorna uma conta. Se a conta não estiver no índice em memória, ela é lida do
+	 * banco de dados e passa a fazer parte do índice.
+	 *
+	 * @param num o número da conta que será procurada.
+	 *
+	 * @return ContaAbstrata a conta procurada. Pode ser qualquer sub-tipo de conta abstrata.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public ContaAbstrata procurar(String num)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		if (num == null) {
+			throw new ContaInexistenteException("");
+		}
+		ContaAbstrata c = indice.get(num);
+		if (c != null) {
+			return c;
+		}
+		Connection con = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			con = getConexao();
+			ps = con.prepareStatement(PROCURA_CTA);
+			ps.setString(1, num);
+			rs = ps.executeQuery();
+			if (!rs.next()) {
+				throw new ContaInexistenteException(num);
+			}
+			Cliente cli = new Cliente(rs.getString(4).trim(), rs.getString(5).trim());
+			long saldo = Dinheiro.deDecimal(rs.getBigDecimal(2));
+			long bonus = Dinheiro.deDecimal(rs.getBigDecimal(6));
+			c = novaConta(rs.getInt(3), rs.getString(1).trim(), saldo, bonus, cli);
+			// outra thread pode ter lido a mesma conta: fica valendo o primeiro objeto
+			ContaAbstrata anterior = indice.putIfAbsent(num, c);
+			return anterior != null ? anterior : c;
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, rs);
+		}
+	}
+
+	/**
+	 * Retorna várias contas. As contas que não estão no índice em memória são lidas do
+	 * banco de dados com poucas consultas (uma para cada TAMANHO_PROCURA_LOTE números)
+	 * e passam a fazer parte do índice.
+	 *
+	 * @param numeros os números das contas que serão procuradas.
+	 *
+	 * @return Map as contas encontradas, indexadas pelo número. Os números das contas
+	 *         que não existem ficam de fora do mapa.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public Map<String, ContaAbstrata> procurar(Collection<String> numeros)
+		throws ErroAcessoRepositorioException {
+
+		Map<String, ContaAbstrata> resp = new HashMap<String, ContaAbstrata>();
+		Set<String> naoIndexadas = new LinkedHashSet<String>();
+		for (String num : numeros) {
+			if (num != null && !resp.containsKey(num)) {
+				ContaAbstrata c = indice.get(num);
+				if (c != null) {
+					resp.put(num, c);
+				} else {
+					naoIndexadas.add(num);
+				}
+			}
+		}
+		if (naoIndexadas.isEmpty()) {
+			return resp;
+		}
+		List<String> faltantes = new ArrayList<String>(naoIndexadas);
+		Connection con = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			con = getConexao();
+			ps = con.prepareStatement(PROCURA_CTAS);
+			for (int i = 0; i < faltantes.size(); i += TAMANHO_PROCURA_LOTE) {
+				for (int j = 0; j < TAMANHO_PROCURA_LOTE; j++) {
+					int k = Math.min(i + j, faltantes.size() - 1);
+					ps.setString(j + 1, faltantes.get(k));
+				}
+				rs = ps.executeQuery();
+				while (rs.next()) {
+					Cliente cli = new Cliente(rs.getString(4).trim(), rs.getString(5).trim());
+					long saldo = Dinheiro.deDecimal(rs.getBigDecimal(2));
+					String num = rs.getString(1).trim();
+					long bonus = Dinheiro.deDecimal(rs.getBigDecimal(6));
+					ContaAbstrata c = novaConta(rs.getInt(3), num, saldo, bonus, cli);
+					// outra thread pode ter lido a mesma conta: fica valendo o primeiro objeto
+					ContaAbstrata anterior = indice.putIfAbsent(num, c);
+					resp.put(num, anterior != null ? anterior : c);
+				}
+				rs.close();
+				rs = null;
+			}
+			return resp;
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, rs);
+		}
+	}
+
+	/**
+	 * Atualiza os dados de várias contas. Os novos saldos são gravados no banco de
+	 * dados imediatamente, junto com as demais operações pendentes, em uma única
+	 * transação.
+	 *
+	 * @param cs as contas com os dados a serem atualizados.
+	 *
+	 * @exception ContaInexistenteException lançada quando alguma das contas não existe.
+	 *            Nesse caso nenhuma conta é atualizada.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void atualizar(Collection<ContaAbstrata> cs)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		for (ContaAbstrata c : cs) {
+			if (c == null || !existe(c.getNumero())) {
+				throw new ContaInexistenteException(c == null ? "" : c.getNumero());
+			}
+		}
+		synchronized (this) {
+			for (ContaAbstrata c : cs) {
+				String num = c.getNumero();
+				indice.put(num, c);
+				if (insercoesPendentes.containsKey(num)) {
+					insercoesPendentes.put(num, c);
+				} else {
+					atualizacoesPendentes.put(num, c);
+				}
+			}
+		}
+		descarregar();
+	}
+
+	/**
+	 * Exclui uma conta. Uma conta ainda não gravada é apenas descartada; as demais são
+	 * excluídas imediatamente do banco de dados.
+	 *
+	 * @param num o número da conta que será excluída.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta a ser excluída
+	 *            não existe.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional.
+	 */
+	public void remover(String num)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		if (num == null) {
+			throw new ContaInexistenteException("");
+		}
+		synchronized (gravacao) {
+			synchronized (this) {
+				if (insercoesPendentes.remove(num) != null) {
+					indice.remove(num);
+					return;
+				}
+				indice.remove(num);
+				atualizacoesPendentes.remove(num);
+			}
+			Connection con = null;
+			PreparedStatement ps = null;
+			try {
+				con = getConexao();
+				ps = con.prepareStatement(DELETE_CTA);
+				ps.setString(1, num);
+				int rows = ps.executeUpdate();
+				if (rows <= 0) {
+					throw new ContaInexistenteException(num);
+				}
+			} catch (SQLException e) {
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, null);
+			}
+		}
+	}
+
+	/**
+	 * Grava no banco de dados, em uma única transação, todas as inserções e
+	 * atualizações de saldo pendentes. Cada tipo de comando é enviado em um lote JDBC.
+	 * As operações pendentes são retiradas das listas antes da gravação, de forma que
+	 * outras threads podem continuar registrando operações enquanto o lote é gravado.
+	 * Se o banco de dados recusar o lote, as operações são gravadas uma a uma e as
+	 * recusadas são registradas no log e descartadas, para que uma linha inválida não
+	 * impeça a gravação das demais. Só quando a conexão falha as operações não gravadas
+	 * voltam a ficar pendentes.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando a conexão com o banco de
+	 *            dados falhar.
+	 */
+	public void descarregar() throws ErroAcessoRepositorioException {
+
+		synchronized (gravacao) {
+			Map<String, ContaAbstrata> insercoes;
+			Map<String, ContaAbstrata> atualizacoes;
+			synchronized (this) {
+				if (insercoesPendentes.isEmpty() && atualizacoesPendentes.isEmpty()) {
+					return;
+				}
+				insercoes = insercoesPendentes;
+				atualizacoes = atualizacoesPendentes;
+				insercoesPendentes = new LinkedHashMap<String, ContaAbstrata>();
+				atualizacoesPendentes = new LinkedHashMap<String, ContaAbstrata>();
+			}
+			try {
+				try {
+					gravarLote(insercoes, atualizacoes);
+				} catch (SQLException e) {
+					if (falhaConexao(e)) {
+						throw e;
+					}
+					LOG.warn("Lote de contas recusado pelo banco de dados; "
+						+ "as operacoes serao gravadas uma a uma", e);
+					gravarUmaAUma(insercoes, atualizacoes);
+				}
+			} catch (SQLException e) {
+				devolver(insercoes, atualizacoes);
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			}
+		}
+	}
+
+	/**
+	 * Grava as operações pendentes e cancela a gravação periódica do lote. Deve ser
+	 * chamado quando o repositório deixa de ser usado, por exemplo no fechamento da
+	 * fachada.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando a conexão com o banco de
+	 *            dados falhar.
+	 */
+	public void fechar() throws ErroAcessoRepositorioException {
+
+		synchronized (this) {
+			if (descargaPeriodica != null) {
+				descargaPeriodica.cancel(false);
+				descargaPeriodica = null;
+			}
+		}
+		descarregar();
+	}
+
+	/**
+	 * Devolve às listas de operações pendentes as operações não gravadas. O que foi
+	 * registrado durante a gravação é mais recente e prevalece.
+	 */
+	private void devolver(
+		Map<String, ContaAbstrata> insercoes,
+		Map<String, ContaAbstrata> atualizacoes) {
+
+		synchronized (this) {
+			insercoes.putAll(insercoesPendentes);
+			atualizacoes.putAll(atualizacoesPendentes);
+			insercoesPendentes = insercoes;
+			atualizacoesPendentes = atualizacoes;
+		}
+	}
+
+	/**
+	 * Grava um lote de inserções e um lote de atualizações de saldo em uma única
+	 * transação. Se a gravação falhar, a transação é desfeita.
+	 */
+	private void gravarLote(
+		Map<String, ContaAbstrata> insercoes,
+		Map<String, ContaAbstrata> atualizacoes)
+		throws SQLException {
+
+		Connection con = null;
+		PreparedStatement psInsert = null;
+		PreparedStatement psUpdate = null;
+		try {
+			JDBCConnectionUtil.createTransaction();
+			con = getConexao();
+			if (!insercoes.isEmpty()) {
+				psInsert = con.prepareStatement(INSERT_CTA);
+				for (ContaAbstrata c : insercoes.values()) {
+					prepararInsercao(psInsert, c);
+					psInsert.addBatch();
+				}
+				psInsert.executeBatch();
+			}
+			if (!atualizacoes.isEmpty()) {
+				psUpdate = con.prepareStatement(UPDATE_SALDO);
+				for (ContaAbstrata c : atualizacoes.values()) {
+					prepararAtualizacao(psUpdate, c);
+					psUpdate.addBatch();
+				}
+				psUpdate.executeBatch();
+			}
+			JDBCConnectionUtil.commitTransaction();
+		} catch (SQLException e) {
+			try {
+				JDBCConnectionUtil.rollbackTransaction();
+			} catch (SQLException e1) {
+				LOG.warn("Erro ao desfazer a transacao", e1);
+			}
+			throw e;
+		} finally {
+			fechaRecursos(null, psInsert, null);
+			fechaRecursos(con, psUpdate, null);
+		}
+	}
+
+	/**
+	 * Grava as inserções e as atualizações de saldo uma a uma, cada uma na sua própria
+	 * transação. As operações recusadas pelo banco de dados são registradas no log e
+	 * descartadas; a conta cuja inserção foi recusada sai também do índice. Cada operação tentada é retirada do mapa, de forma que, se a conexão
+	 * falhar, os mapas ficam só com as operações ainda não tentadas.
+	 */
+	private void gravarUmaAUma(
+		Map<String, ContaAbstrata> insercoes,
+		Map<String, ContaAbstrata> atualizacoes)
+		throws SQLException {
+
+		Connection con = null;
+		PreparedStatement psInsert = null;
+		PreparedStatement psUpdate = null;
+		try {
+			con = getConexao();
+			psInsert = con.prepareStatement(INSERT_CTA);
+			for (Iterator<ContaAbstrata> i = insercoes.values().iterator(); i.hasNext();) {
+				ContaAbstrata c = i.next();
+				try {
+					prepararInsercao(psInsert, c);
+					psInsert.executeUpdate();
+				} catch (SQLException e) {
+					if (falhaConexao(e)) {
+						throw e;
+					}
+					LOG.error("Insercao da conta " + c.getNumero()
+						+ " recusada pelo banco de dados e descartada", e);
+					indice.remove(c.getNumero(), c);
+				}
+				i.remove();
+			}
+			psUpdate = con.prepareStatement(UPDATE_SALDO);
+			for (Iterator<ContaAbstrata> i = atualizacoes.values().iterator(); i.hasNext();) {
+				ContaAbstrata c = i.next();
+				try {
+					prepararAtualizacao(psUpdate, c);
+					psUpdate.executeUpdate();
+				} catch (SQLException e) {
+					if (falhaConexao(e)) {
+						throw e;
+					}
+					LOG.error("Atualizacao do saldo da conta " + c.getNumero()
+						+ " recusada pelo banco de dados e descartada", e);
+				}
+				i.remove();
+			}
+		} finally {
+			fechaRecursos(null, psInsert, null);
+			fechaRecursos(con, psUpdate, null);
+		}
+	}
+
+	private void prepararInsercao(PreparedStatement ps, ContaAbstrata c) throws SQLException {
+
+		ps.setString(1, c.getCliente().getCpf());
+		ps.setString(2, c.getNumero());
+		ps.setBigDecimal(3, Dinheiro.paraDecimal(c.getSaldo()));
+		ps.setInt(4, tipoConta(c));
+		ps.setBigDecimal(5, Dinheiro.paraDecimal(bonus(c)));
+	}
+
+	private void prepararAtualizacao(PreparedStatement ps, ContaAbstrata c) throws SQLException {
+
+		ps.setBigDecimal(1, Dinheiro.paraDecimal(c.getSaldo()));
+		ps.setBigDecimal(2, Dinheiro.paraDecimal(bonus(c)));
+		ps.setString(3, c.getNumero());
+	}
+
+	/**
+	 * Retorna o bônus de uma conta bonificada, ou zero para os demais tipos de conta.
+	 */
+	private static long bonus(ContaAbstrata c) {
+
+		return c instanceof ContaBonificada ? ((ContaBonificada) c).getBonus() : 0;
+	}
+
+	/**
+	 * Verifica se uma exceção indica falha da conexão com o banco de dados, e não a
+	 * recusa de um comando.
+	 */
+	private static boolean falhaConexao(SQLException e) {
+
+		return e.getSQLState() != null && e.getSQLState().startsWith(ESTADO_FALHA_CONEXAO);
+	}
+
+	/**
+	 * Grava as operações pendentes caso a quantidade delas tenha atingido o tamanho
+	 * do lote.
+	 */
+	private void descarregarSeLoteCheio() throws ErroAcessoRepositorioException {
+
+		boolean cheio;
+		synchronized (this) {
+			cheio = insercoesPendentes.size() + atualizacoesPendentes.size() >= tamanhoLote;
+		}
+		if (cheio) {
+			descarregar();
+		}
+	}
+
+	/**
+	 * Retorna o valor da coluna tipo correspondente ao sub-tipo da conta.
+	 *
+	 * @param c a conta.
+	 *
+	 * @return int o valor da coluna tipo.
+	 */
+	private int tipoConta(ContaAbstrata c) {
+
+		if (c instanceof ContaBonificada) {
+			return TIPO_BONIFICADA;
+		} else if (c instanceof Poupanca) {
+			return TIPO_POUPANCA;
+		} else if (c instanceof ContaImposto) {
+			return TIPO_IMPOSTO;
+		}
+		return TIPO_CONTA;
+	}
+
+	/**
+	 * Cria o objeto do sub-tipo de conta correspondente ao valor da coluna tipo.
+	 *
+	 * @param tipo o valor da coluna tipo.
+	 * @param num o número da conta.
+	 * @param saldo o saldo da conta.
+	 * @param bonus o bônus da conta, usado só nas contas bonificadas.
+	 * @param cli o cliente da conta.
+	 *
+	 * @return ContaAbstrata a conta criada.
+	 */
+	private ContaAbstrata novaConta(int tipo, String num, long saldo, long bonus, Cliente cli) {
+
+		switch (tipo) {
+			case TIPO_POUPANCA :
+				return new Poupanca(num, saldo, cli);
+			case TIPO_BONIFICADA :
+				ContaBonificada cb = new ContaBonificada(num, saldo, cli);
+				cb.setBonus(bonus);
+				return cb;
+			case TIPO_IMPOSTO :
+				return new ContaImposto(num, saldo, cli);
+			default :
+				return new Conta(num, saldo, cli);
+		}
+	}
+
+	/**
+	 * Monta o comando de procura de várias contas, com a quantidade de parâmetros
+	 * passada.
+	 */
+	private static String procuraContas(int quantidade) {
+
+		StringBuilder sql = new StringBuilder(
+			"SELECT c.numero, c.saldo, c.tipo, c.tb_cliente_cpf, cli.nome, c.bonus "
+				+ "FROM tb_conta c INNER JOIN tb_cliente cli ON cli.cpf = c.tb_cliente_cpf "
+				+ "WHERE c.numero IN (");
+		for (int i = 0; i < quantidade; i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+		return sql.append(")").toString();
+	}
+
+	/**
+	 * Retorna uma conexão do banco de dados.
+	 *
+	 * @return Connection a conexão do banco de dados
+	 */
+	private Connection getConexao() throws SQLException {
+
+		return JDBCConnectionUtil.getConnection();
+	}
+
+	/**
+	 * Fecha os recursos passados como parâmetros.
+	 *
+	 * @param con a conexão a ser fechada.
+	 * @param ps o prepared statement a ser fechado.
+	 * @param rs o result set a ser fechado.
+	 */
+	private void fechaRecursos(
+		Connection con,
+		PreparedStatement ps,
+		ResultSet rs) {
+
+		try {
+			if (rs != null)
+				rs.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (ps != null)
+				ps.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (con != null)
+				con.close();
+		} catch (Exception e) {
+		}
+	}
+
+	/**
+	 * Thread que executa as gravações periódicas dos lotes de todos os repositórios. É
+	 * daemon, para não impedir o término do programa; o que estiver pendente no término
+	 * é gravado por fechar(). Só é criada quando o primeiro repositório é criado.
+	 */
+	private static class Agendador {
+
+		private static final ScheduledExecutorService DESCARGAS =
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "descarga-contas-bdr");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+	}
+
+	/**
+	 * A gravação periódica do lote de um repositório. Guarda o repositório por uma
+	 * referência fraca, para que um repositório abandonado sem fechar() possa ser
+	 * coletado; nesse caso o agendamento é cancelado.
+	 */
+	private static class Descarga implements Runnable {
+
+		private WeakReference<RepositorioContasBDR> repositorio;
+		private volatile ScheduledFuture<?> agendamento;
+
+		Descarga(RepositorioContasBDR repositorio) {
+			this.repositorio = new WeakReference<RepositorioContasBDR>(repositorio);
+		}
+
+		public void run() {
+
+			RepositorioContasBDR r = repositorio.get();
+			if (r == null) {
+				if (agendamento != null) {
+					agendamento.cancel(false);
+				}
+				return;
+			}
+			try {
+				r.descarregar();
+			} catch (ErroAcessoRepositorioException e) {
+				LOG.error("Erro na gravacao periodica do lote de contas", e);
+			} catch (RuntimeException e) {
+				// uma exceção não tratada cancelaria as próximas gravações
+				LOG.error("Erro na gravacao periodica do lote de contas", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package qualiti.banco.contas;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Implementação da interface que define os métodos de acesso aos dados de conta
+ * em um mecanismo de armazenamento de dados. Esta implementação guarda as contas em
+ * memória, mas fora do heap da JVM, em um ArmazemSaldosForaHeap: de cada conta são
+ * guardados apenas o número, o tipo, o saldo, o bônus e o CPF do cliente.
+ *
+ * Cada procura cria um novo objeto de conta, do sub-tipo correspondente ao tipo
+ * guardado, com um cliente que tem apenas o CPF; alterações no objeto só chegam ao
+ * armazém com atualizar(). Os objetos são descartados logo depois de cada operação,
+ * de forma que o heap não cresce com a quantidade de contas.
+ *
+ * O crédito e o débito que só alteram o saldo, sem as regras de bônus e de imposto,
+ * são feitos diretamente no armazém por creditarDireto() e debitarDireto(), sem
+ * objeto de conta e sem trava entre a leitura e a gravação do saldo. O CadastroContas
+ * usa essas operações sempre que o tipo da conta permite.
+ *
+ * Pode ser usado por várias threads; as operações do CadastroContas que passam por
+ * procurar() e atualizar() devem ser serializadas por conta com as TravasContas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.ArmazemSaldosForaHeap
+ * @see qualiti.banco.contas.RepositorioContas
+ */
+public class RepositorioContasForaHeap implements RepositorioContas {
+
+	/**
+	 * Tipos gravados no armazém, os mesmos da coluna tipo de tb_conta.
+	 */
+	private static final int TIPO_CONTA = 1;
+	private static final int TIPO_POUPANCA = 2;
+	private static final int TIPO_BONIFICADA = 3;
+	private static final int TIPO_IMPOSTO = 4;
+
+	/**
+	 * Quantidade inicial padrão de contas.
+	 */
+	private static final int CAPACIDADE_PADRAO = 1024;
+
+	private ArmazemSaldosForaHeap armazem;
+
+	/**
+	 * O construtor da classe, com a capacidade inicial padrão.
+	 */
+	public RepositorioContasForaHeap() {
+
+		this(CAPACIDADE_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param capacidade a quantidade de contas esperada.
+	 */
+	public RepositorioContasForaHeap(int capacidade) {
+
+		armazem = new ArmazemSaldosForaHeap(capacidade);
+	}
+
+	/**
+	 * Retorna o armazém usado pelo repositório, para as operações que alteram o saldo
+	 * diretamente, sem criar objetos de conta.
+	 */
+	public ArmazemSaldosForaHeap getArmazem() {
+
+		return armazem;
+	}
+
+	/**
+	 * Cadastra os dados de uma conta no armazém. Uma conta com o número de uma conta
+	 * já cadastrada toma o lugar desta.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @exception IllegalArgumentException se o número da conta ou o CPF do cliente
+	 *            forem maiores que o armazém comporta.
+	 */
+	public void inserir(ContaAbstrata c) {
+
+		String cpf = cpf(c);
+		if (armazem.inserir(c.getNumero(), tipoConta(c), c.getSaldo(), bonus(c), cpf)
+				== ArmazemSaldosForaHeap.AUSENTE) {
+			int p = armazem.procurar(c.getNumero());
+			if (p != ArmazemSaldosForaHeap.AUSENTE) {
+				armazem.alterar(p, tipoConta(c), c.getSaldo(), bonus(c), cpf);
+			} else {
+				// a conta foi excluída entre as duas chamadas
+				inserir(c);
+			}
+		}
+	}
+
+	/**
+	 * Cadastra uma conta no armazém se não houver outra com o mesmo número. A
+	 * verificação e a inclusão são feitas pelo armazém com a trava de escrita do índice.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @return boolean true se a conta foi cadastrada e false se já existia uma conta
+	 *         com o mesmo número.
+	 *
+	 * @exception IllegalArgumentException se o número da conta ou o CPF do cliente
+	 *            forem maiores que o armazém comporta.
+	 */
+	public boolean inserirSeAusente(ContaAbstrata c) {
+
+		return armazem.inserir(c.getNumero(), tipoConta(c), c.getSaldo(), bonus(c), cpf(c))
+			!= ArmazemSaldosForaHeap.AUSENTE;
+	}
+
+	/**
+	 * Verifica se uma conta existe no armazém.
+	 *
+	 * @param num o número da conta.
+	 *
+	 * @return boolean true se a conta existir e false caso contrário.
+	 */
+	public boolean existe(String num) {
+
+		return armazem.procurar(num) != ArmazemSaldosForaHeap.AUSENTE;
+	}
+
+	/**
+	 * Atualiza os dados de uma conta no armazém.
+	 *
+	 * @param c a conta com os dados a serem atualizados.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 */
+	public void atualizar(ContaAbstrata c) throws ContaInexistenteException {
+
+		int p = armazem.procurar(c.getNumero());
+		if (p == ArmazemSaldosForaHeap.AUSENTE) {
+			throw new ContaInexistenteException(c.getNumero());
+		}
+		armazem.alterar(p, tipoConta(c), c.getSaldo(), bonus(c), cpf(c));
+	}
+
+	/**
+	 * Retorna uma conta do armazém.
+	 *
+	 * @param num o número da conta.
+	 *
+	 * @return ContaAbstrata um novo objeto com os dados da conta.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 */
+	public ContaAbstrata procurar(String num) throws ContaInexistenteException {
+
+		int p = armazem.procurar(num);
+		if (p == ArmazemSaldosForaHeap.AUSENTE) {
+			throw new ContaInexistenteException(num);
+		}
+		return novaConta(p, num);
+	}
+
+	/**
+	 * Retorna várias contas do armazém.
+	 *
+	 * @param numeros os números das contas.
+	 *
+	 * @return Map as contas encontradas, indexadas pelo número. Os números das contas
+	 *         que não existem no armazém ficam de fora do mapa.
+	 */
+	public Map<String, ContaAbstrata> procurar(Collection<String> numeros) {
+
+		Map<String, ContaAbstrata> resp = new HashMap<String, ContaAbstrata>();
+		for (String num : numeros) {
+			int p = armazem.procurar(num);
+			if (p != ArmazemSaldosForaHeap.AUSENTE) {
+				resp.put(num, novaConta(p, num));
+			}
+		}
+		return resp;
+	}
+
+	/**
+	 * Atualiza os dados de várias contas no armazém. Só depois de verificar que todas
+	 * as contas existem os dados são gravados.
+	 *
+	 * @param cs as contas com os dados a serem atualizados.
+	 *
+	 * @exception ContaInexistenteException lançada quando alguma das contas não existe
+	 *            no armazém.
+	 */
+	public void atualizar(Collection<ContaAbstrata> cs) throws ContaInexistenteException {
+
+		int[] posicoes = new int[cs.size()];
+		int i = 0;
+		for (ContaAbstrata c : cs) {
+			posicoes[i] = armazem.procurar(c.getNumero());
+			if (posicoes[i] == ArmazemSaldosForaHeap.AUSENTE) {
+				throw new ContaInexistenteException(c.getNumero());
+			}
+			i++;
+		}
+		i = 0;
+		for (ContaAbstrata c : cs) {
+			armazem.alterar(posicoes[i++], tipoConta(c), c.getSaldo(), bonus(c), cpf(c));
+		}
+	}
+
+	/**
+	 * Credita um valor diretamente no saldo de uma conta do armazém, se o crédito do
+	 * tipo da conta só somar o valor ao saldo. O crédito da ContaBonificada também
+	 * altera o bônus e não é feito aqui.
+	 *
+	 * @param num o número da conta.
+	 * @param valor o valor a ser creditado.
+	 *
+	 * @return boolean true se o valor foi creditado e false se o tipo da conta exige
+	 *         o crédito pelo objeto da conta, com procurar() e atualizar().
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 * @exception ArithmeticException se o novo saldo não couber em um long. O saldo não
+	 *            é alterado.
+	 */
+	public boolean creditarDireto(String num, long valor) throws ContaInexistenteException {
+
+		int p = posicao(num);
+		if (armazem.getTipo(p) == TIPO_BONIFICADA) {
+			return false;
+		}
+		armazem.somarSaldo(p, valor);
+		return true;
+	}
+
+	/**
+	 * Debita um valor diretamente do saldo de uma conta do armazém, se o débito do tipo
+	 * da conta só subtrair o valor do saldo. O débito da ContaImposto também cobra o
+	 * imposto e não é feito aqui. O saldo é verificado e trocado com
+	 * compararETrocarSaldo(), repetindo a operação se outra thread o alterar no meio.
+	 *
+	 * @param num o número da conta.
+	 * @param valor o valor a ser debitado.
+	 *
+	 * @return boolean true se o valor foi debitado e false se o tipo da conta exige
+	 *         o débito pelo objeto da conta, com procurar() e atualizar().
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 * @exception SaldoInsuficienteException lançada quando o saldo da conta é menor que
+	 *            o valor a ser debitado. O saldo não é alterado.
+	 */
+	public boolean debitarDireto(String num, long valor)
+		throws ContaInexistenteException, SaldoInsuficienteException {
+
+		int p = posicao(num);
+		if (armazem.getTipo(p) == TIPO_IMPOSTO) {
+			return false;
+		}
+		while (true) {
+			long saldo = armazem.getSaldo(p);
+			if (valor > saldo) {
+				throw new SaldoInsuficienteException(num, saldo);
+			}
+			if (armazem.compararETrocarSaldo(p, saldo, Dinheiro.subtrair(saldo, valor))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Soma um valor (negativo para subtrair) ao saldo de uma conta do armazém, sem
+	 * regra nenhuma do tipo da conta. Usado para desfazer uma operação direta que não
+	 * pôde ser registrada.
+	 *
+	 * @param num o número da conta.
+	 * @param valor o valor a ser somado.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 */
+	void somarSaldo(String num, long valor) throws ContaInexistenteException {
+
+		armazem.somarSaldo(posicao(num), valor);
+	}
+
+	/**
+	 * Retorna o saldo e o bônus de uma conta do armazém, na ordem de
+	 * ContaAbstrata.copiarEstado().
+	 *
+	 * @param num o número da conta.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 */
+	long[] getEstado(String num) throws ContaInexistenteException {
+
+		int p = posicao(num);
+		return new long[] {armazem.getSaldo(p), armazem.getBonus(p)};
+	}
+
+	/**
+	 * Exclui uma conta do armazém.
+	 *
+	 * @param num o número da conta.
+	 *
+	 * @exception ContaInexistenteException lançada quando a conta não existe no armazém.
+	 */
+	public void remover(String num) throws ContaInexistenteException {
+
+		if (!armazem.remover(num)) {
+			throw new ContaInexistenteException(num);
+		}
+	}
+
+	/**
+	 * Não faz nada: cada alteração é gravada imediatamente no armazém.
+	 */
+	public void fechar() {
+	}
+
+	/**
+	 * Retorna a quantidade de contas no armazém.
+	 */
+	public int getTamanho() {
+
+		return armazem.getTamanho();
+	}
+
+	private int posicao(String num) throws ContaInexistenteException {
+
+		int p = armazem.procurar(num);
+		if (p == ArmazemSaldosForaHeap.AUSENTE) {
+			throw new ContaInexistenteException(num);
+		}
+		return p;
+	}
+
+	/**
+	 * Cria o objeto do sub-tipo de conta correspondente ao tipo guardado no armazém.
+	 */
+	private ContaAbstrata novaConta(int p, String num) {
+
+		long saldo = armazem.getSaldo(p);
+		String cpf = armazem.getCpf(p);
+		Cliente cli = cpf == null ? null : new Cliente(cpf, null);
+		switch (armazem.getTipo(p)) {
+			case TIPO_POUPANCA :
+				return new Poupanca(num, saldo, cli);
+			case TIPO_BONIFICADA :
+				ContaBonificada cb = new ContaBonificada(num, saldo, cli);
+				cb.setBonus(armazem.getBonus(p));
+				return cb;
+			case TIPO_IMPOSTO :
+				return new ContaImposto(num, saldo, cli);
+			default :
+				return new Conta(num, saldo, cli);
+		}
+	}
+
+	private static int tipoConta(ContaAbstrata c) {
+
+		if (c instanceof ContaBonificada) {
+			return TIPO_BONIFICADA;
+		} else if (c instanceof Poupanca) {
+			return TIPO_POUPANCA;
+		} else if (c instanceof ContaImposto) {
+			return TIPO_IMPOSTO;
+		}
+		return TIPO_CONTA;
+	}
+
+	private static long bonus(ContaAbstrata c) {
+
+		return c instanceof ContaBonificada ? ((ContaBonificada) c).getBonus() : 0;
+	}
+
+	private static String cpf(ContaAbstrata c) {
+
+		return c.getCliente() == null ? null : c.getCliente().getCpf();
+	}
+}
@@ -0,0 +1,37 @@
+package qualiti.banco.contas;
+
+/**
+ * Resultado de cada ordem de um lote de transferências. No lote, os erros de uma
+ * ordem não interrompem as demais: em vez de exceções, cada ordem recebe um destes
+ * resultados.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas#transferirLote(java.util.List)
+ */
+public enum ResultadoTransferencia {
+
+	/**
+	 * A transferência foi efetuada.
+	 */
+	EFETUADA,
+	/**
+	 * A conta de origem ou a conta de destino não existe.
+	 */
+	CONTA_INEXISTENTE,
+	/**
+	 * O saldo da conta de origem era menor que o valor, no momento em que a ordem
+	 * foi executada.
+	 */
+	SALDO_INSUFICIENTE,
+	/**
+	 * O valor não é positivo, ou estouraria o saldo da conta de destino.
+	 */
+	VALOR_INVALIDO,
+	/**
+	 * A transferência não pôde ser registrada no diário de transações e foi desfeita.
+	 */
+	ERRO
+}
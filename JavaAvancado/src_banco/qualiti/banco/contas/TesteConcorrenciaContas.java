@@ -0,0 +1,171 @@
+package qualiti.banco.contas;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Teste de carga do modo concorrente de CadastroContas. Várias threads fazem
+ * transferências aleatórias entre as contas ao mesmo tempo e, no final, o teste
+ * verifica se o total de dinheiro foi conservado e se nenhuma conta ficou com saldo
+ * negativo. Em seguida mede a vazão com 1, 2, 4... threads transferindo entre
+ * contas disjuntas (cada thread usa o seu próprio grupo de contas).
+ *
+ * Uso: java qualiti.banco.contas.TesteConcorrenciaContas [threads] [operacoes]
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas
+ * @see qualiti.banco.contas.TravasContas
+ */
+public class TesteConcorrenciaContas {
+
+	private static final int CONTAS = 100;
+	private static final long SALDO_INICIAL = Dinheiro.unidades(1000);
+
+	public static void main(String[] args) throws Exception {
+
+		int threads = args.length > 0
+			? Integer.parseInt(args[0])
+			: Runtime.getRuntime().availableProcessors() * 2;
+		int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+		boolean ok = testarConservacao(threads, operacoes);
+		System.out.println();
+		int max = Runtime.getRuntime().availableProcessors();
+		for (int n = 1; n <= max; n = n * 2) {
+			medirVazao(n, operacoes);
+		}
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Cria um repositório em memória com as contas 0..quantidade-1, todas com o
+	 * saldo inicial.
+	 */
+	private static RepositorioContas criarRepositorio(int quantidade) {
+
+		RepositorioContas rep = new RepositorioContasArray(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			Cliente cli = new Cliente(String.valueOf(i), "Cliente " + i);
+			try {
+				rep.inserir(new Conta(String.valueOf(i), SALDO_INICIAL, cli));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return rep;
+	}
+
+	/**
+	 * Dispara as threads de transferência entre contas escolhidas ao acaso e confere
+	 * os saldos no final.
+	 */
+	private static boolean testarConservacao(int threads, final int operacoes)
+		throws Exception {
+
+		RepositorioContas rep = criarRepositorio(CONTAS);
+		final CadastroContas cadastro = new CadastroContas(rep, new TravasContas());
+		final AtomicLong recusadas = new AtomicLong();
+		final CountDownLatch largada = new CountDownLatch(1);
+		final CountDownLatch chegada = new CountDownLatch(threads);
+		final int porThread = operacoes / threads;
+
+		for (int t = 0; t < threads; t++) {
+			final long semente = t;
+			new Thread("transferencia-" + t) {
+				public void run() {
+					Random r = new Random(semente);
+					try {
+						largada.await();
+						for (int i = 0; i < porThread; i++) {
+							String origem = String.valueOf(r.nextInt(CONTAS));
+							String destino = String.valueOf(r.nextInt(CONTAS));
+							try {
+								cadastro.transferir(origem, destino, 1 + r.nextInt(2000000));
+							} catch (SaldoInsuficienteException e) {
+								recusadas.incrementAndGet();
+							}
+						}
+					} catch (Exception e) {
+						e.printStackTrace();
+					} finally {
+						chegada.countDown();
+					}
+				}
+			}.start();
+		}
+		long inicio = System.nanoTime();
+		largada.countDown();
+		chegada.await();
+		long tempo = System.nanoTime() - inicio;
+
+		long total = 0;
+		int negativas = 0;
+		for (int i = 0; i < CONTAS; i++) {
+			long saldo = rep.procurar(String.valueOf(i)).getSaldo();
+			total = total + saldo;
+			if (saldo < 0) {
+				negativas++;
+			}
+		}
+		long esperado = CONTAS * SALDO_INICIAL;
+		System.out.println("Threads: " + threads + "  transferencias: " + porThread * threads
+			+ "  recusadas por saldo: " + recusadas.get()
+			+ "  tempo: " + tempo / 1000000 + " ms");
+		System.out.println("Total esperado: " + Dinheiro.formatar(esperado)
+			+ "  total final: " + Dinheiro.formatar(total)
+			+ "  contas negativas: " + negativas);
+		boolean ok = total == esperado && negativas == 0;
+		System.out.println(ok ? "OK" : "FALHOU");
+		return ok;
+	}
+
+	/**
+	 * Mede a vazão de transferências com a quantidade de threads passada, cada uma
+	 * transferindo apenas entre as contas do seu próprio grupo.
+	 */
+	private static void medirVazao(final int threads, final int operacoes)
+		throws Exception {
+
+		final int grupo = 16;
+		RepositorioContas rep = criarRepositorio(threads * grupo);
+		final CadastroContas cadastro = new CadastroContas(rep, new TravasContas());
+		final CountDownLatch largada = new CountDownLatch(1);
+		final CountDownLatch chegada = new CountDownLatch(threads);
+
+		for (int t = 0; t < threads; t++) {
+			final int base = t * grupo;
+			new Thread("vazao-" + t) {
+				public void run() {
+					try {
+						largada.await();
+						for (int i = 0; i < operacoes; i++) {
+							String origem = String.valueOf(base + i % grupo);
+							String destino = String.valueOf(base + (i + 1) % grupo);
+							cadastro.transferir(origem, destino, Dinheiro.ESCALA);
+						}
+					} catch (Exception e) {
+						e.printStackTrace();
+					} finally {
+						chegada.countDown();
+					}
+				}
+			}.start();
+		}
+		long inicio = System.nanoTime();
+		largada.countDown();
+		chegada.await();
+		long tempo = System.nanoTime() - inicio;
+		long porSegundo = (long) threads * operacoes * 1000000000L / Math.max(tempo, 1);
+		System.out.println("Contas disjuntas, " + threads + " thread(s): "
+			+ porSegundo + " transferencias/s");
+	}
+}
@@ -0,0 +1,153 @@
+package qualiti.banco.contas;
+
+import java.io.File;
+import java.util.Random;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Teste da recuperação de CadastroContas pelo diário de transações. Abre contas dos
+ * quatro tipos e faz créditos, débitos e transferências aleatórias com o diário; depois,
+ * como se o programa tivesse sido reiniciado, abre o diário de novo com um repositório
+ * vazio e verifica se recuperar() recria todas as contas com o mesmo tipo, CPF, saldo e
+ * bônus. O teste é feito com o repositório em array e com o repositório fora do heap,
+ * que não guardam as contas entre execuções.
+ *
+ * O diário usa segmentos pequenos e um instantâneo a cada poucos registros, de forma que
+ * a recuperação passa por instantâneos gravados no meio de um segmento; o teste
+ * verifica também se a quantidade de registros reaplicados fica abaixo desse intervalo.
+ *
+ * Uso: java qualiti.banco.contas.TesteDiarioTransacoes [operacoes]
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.DiarioTransacoes
+ * @see qualiti.banco.contas.CadastroContas#recuperar()
+ */
+public class TesteDiarioTransacoes {
+
+	private static final int CONTAS = 200;
+	private static final long SALDO_INICIAL = Dinheiro.unidades(1000);
+	private static final int TAMANHO_SEGMENTO = 256 * 1024;
+	private static final int REGISTROS_POR_INSTANTANEO = 1000;
+
+	public static void main(String[] args) throws Exception {
+
+		int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+		boolean ok = testarRecuperacao("array", new RepositorioContasArray(CONTAS),
+			new RepositorioContasArray(CONTAS), operacoes);
+		ok = testarRecuperacao("foraheap", new RepositorioContasForaHeap(CONTAS),
+			new RepositorioContasForaHeap(CONTAS), operacoes) && ok;
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Cria a conta i, de um dos quatro tipos.
+	 */
+	private static ContaAbstrata criarConta(int i) {
+
+		String numero = String.valueOf(i);
+		Cliente cli = new Cliente("cpf" + i, "Cliente " + i);
+		switch (i % 4) {
+			case 0 :
+				return new Conta(numero, SALDO_INICIAL, cli);
+			case 1 :
+				return new Poupanca(numero, SALDO_INICIAL, cli);
+			case 2 :
+				return new ContaBonificada(numero, SALDO_INICIAL, cli);
+			default :
+				return new ContaImposto(numero, SALDO_INICIAL, cli);
+		}
+	}
+
+	/**
+	 * Faz as operações em um repositório com diário e recupera as contas em outro
+	 * repositório, vazio, com o mesmo diário.
+	 */
+	private static boolean testarRecuperacao(String nome, RepositorioContas rep,
+		RepositorioContas vazio, int operacoes) throws Exception {
+
+		File dir = File.createTempFile("diario", "");
+		dir.delete();
+		try {
+			DiarioTransacoes diario = new DiarioTransacoes(dir, TAMANHO_SEGMENTO,
+				REGISTROS_POR_INSTANTANEO);
+			CadastroContas cadastro = new CadastroContas(rep, new TravasContas(), diario);
+			for (int i = 0; i < CONTAS; i++) {
+				cadastro.cadastrar(criarConta(i));
+			}
+			Random r = new Random(3);
+			for (int i = 0; i < operacoes; i++) {
+				String n = String.valueOf(r.nextInt(CONTAS));
+				long v = 1 + r.nextInt(5000000);
+				try {
+					switch (r.nextInt(3)) {
+						case 0 :
+							cadastro.creditar(n, v);
+							break;
+						case 1 :
+							cadastro.debitar(n, v);
+							break;
+						default :
+							cadastro.transferir(n, String.valueOf(r.nextInt(CONTAS)), v);
+					}
+				} catch (SaldoInsuficienteException e) {
+					// a operação não altera a conta nem é registrada
+				}
+			}
+			// o diário não é fechado: a recuperação parte do último instantâneo gravado
+			// durante as operações. Os instantâneos são gravados por outra thread, que
+			// termina os que já foram entregues a ela antes da reabertura
+			diario.aguardarInstantaneos();
+
+			DiarioTransacoes reaberto = new DiarioTransacoes(dir, TAMANHO_SEGMENTO,
+				REGISTROS_POR_INSTANTANEO);
+			int recriadas = new CadastroContas(vazio, new TravasContas(), reaberto).recuperar();
+			int divergentes = 0;
+			for (int i = 0; i < CONTAS; i++) {
+				String n = String.valueOf(i);
+				ContaAbstrata a = rep.procurar(n);
+				ContaAbstrata b;
+				try {
+					b = vazio.procurar(n);
+				} catch (ContaInexistenteException e) {
+					divergentes++;
+					continue;
+				}
+				if (a.getClass() != b.getClass() || a.getSaldo() != b.getSaldo()
+					|| bonus(a) != bonus(b)
+					|| !a.getCliente().getCpf().equals(b.getCliente().getCpf())) {
+					divergentes++;
+				}
+			}
+			int reaplicados = reaberto.getRegistrosRecuperados();
+			System.out.println("Repositorio " + nome + ": " + operacoes + " operacoes, "
+				+ recriadas + " contas recriadas, " + reaplicados + " registros reaplicados");
+			System.out.println("Contas divergentes: " + divergentes);
+			boolean ok = divergentes == 0 && recriadas == CONTAS
+				&& reaplicados < REGISTROS_POR_INSTANTANEO;
+			System.out.println(ok ? "OK" : "FALHOU");
+			reaberto.fechar();
+			return ok;
+		} finally {
+			File[] arquivos = dir.listFiles();
+			if (arquivos != null) {
+				for (File f : arquivos) {
+					f.delete();
+				}
+			}
+			dir.delete();
+		}
+	}
+
+	private static long bonus(ContaAbstrata c) {
+
+		return c instanceof ContaBonificada ? ((ContaBonificada) c).getBonus() : 0;
+	}
+}
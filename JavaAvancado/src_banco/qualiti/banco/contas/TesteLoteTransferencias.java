@@ -0,0 +1,236 @@
+package qualiti.banco.contas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Teste do lote de transferências de CadastroContas. Primeiro executa um lote entre
+ * muitas contas, que se divide em muitos componentes executados em paralelo, e compara
+ * o resultado de cada ordem, o saldo e o bônus de cada conta com os de chamar
+ * transferir() para cada ordem, em sequência, em outro repositório com as mesmas
+ * contas. Algumas ordens usam contas inexistentes ou valores maiores que o saldo.
+ *
+ * Em seguida, enquanto um lote grande é
+ * executado, outra thread faz créditos de valor mínimo nas mesmas contas; no final, o
+ * teste verifica se o total de dinheiro é o total inicial mais os créditos, isto é, se
+ * nenhum crédito foi sobrescrito pela gravação de um bloco do lote. O teste é feito com
+ * o repositório em array, que guarda os próprios objetos de conta, e com o repositório
+ * fora do heap, que retorna cópias.
+ *
+ * Com um único processador os componentes não são executados em paralelo; para testar
+ * a execução paralela numa máquina assim, use -XX:ActiveProcessorCount=4.
+ *
+ * Uso: java qualiti.banco.contas.TesteLoteTransferencias [ordens] [creditos]
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas#transferirLote(List)
+ * @see qualiti.banco.contas.LoteTransferencias
+ */
+public class TesteLoteTransferencias {
+
+	/**
+	 * Contas do teste de créditos durante o lote: poucas, para que o lote e os créditos
+	 * disputem as mesmas contas.
+	 */
+	private static final int CONTAS = 1000;
+	/**
+	 * Contas do teste de equivalência: muitas, para que cada bloco tenha muitos
+	 * componentes.
+	 */
+	private static final int CONTAS_EQUIVALENCIA = 100000;
+	private static final long SALDO_INICIAL = Dinheiro.unidades(1000);
+
+	public static void main(String[] args) throws Exception {
+
+		int ordens = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int creditos = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+		boolean ok = testarEquivalencia(criarLote(ordens, CONTAS_EQUIVALENCIA, 2));
+		System.out.println();
+		List<OrdemTransferencia> lote = criarLote(ordens, CONTAS, 1);
+		ok = testarCreditosDuranteLote("array", new RepositorioContasArray(CONTAS),
+			lote, creditos) && ok;
+		ok = testarCreditosDuranteLote("foraheap", new RepositorioContasForaHeap(CONTAS),
+			lote, creditos) && ok;
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Coloca no repositório as contas 0..quantidade-1, todas com o saldo inicial. Uma
+	 * em cada dez contas é bonificada.
+	 */
+	private static RepositorioContas preencher(RepositorioContas rep, int quantidade)
+		throws Exception {
+
+		for (int i = 0; i < quantidade; i++) {
+			Cliente cli = new Cliente(String.valueOf(i), "Cliente " + i);
+			if (i % 10 == 0) {
+				rep.inserir(new ContaBonificada(String.valueOf(i), SALDO_INICIAL, cli));
+			} else {
+				rep.inserir(new Conta(String.valueOf(i), SALDO_INICIAL, cli));
+			}
+		}
+		return rep;
+	}
+
+	/**
+	 * Cria ordens entre contas escolhidas ao acaso, com valores que às vezes são maiores
+	 * que o saldo da origem. Cerca de uma ordem em cem tem uma conta inexistente.
+	 */
+	private static List<OrdemTransferencia> criarLote(int quantidade, int contas, long semente) {
+
+		Random r = new Random(semente);
+		List<OrdemTransferencia> lote = new ArrayList<OrdemTransferencia>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			int destino = r.nextInt(100) == 0 ? contas + r.nextInt(10) : r.nextInt(contas);
+			lote.add(new OrdemTransferencia(String.valueOf(r.nextInt(contas)),
+				String.valueOf(destino), 1 + r.nextInt(20000000)));
+		}
+		return lote;
+	}
+
+	/**
+	 * Soma os saldos das contas e conta as negativas.
+	 */
+	private static long total(RepositorioContas rep, int contas, int[] negativas)
+		throws Exception {
+
+		long total = 0;
+		for (int i = 0; i < contas; i++) {
+			long saldo = rep.procurar(String.valueOf(i)).getSaldo();
+			total = total + saldo;
+			if (saldo < 0) {
+				negativas[0]++;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Executa o lote em um repositório e as mesmas ordens, uma a uma, com transferir()
+	 * em outro, e compara os resultados, os saldos e os bônus.
+	 */
+	private static boolean testarEquivalencia(List<OrdemTransferencia> lote) throws Exception {
+
+		RepositorioContas repLote = preencher(new RepositorioContasArray(CONTAS_EQUIVALENCIA),
+			CONTAS_EQUIVALENCIA);
+		RepositorioContas repSequencial = preencher(
+			new RepositorioContasArray(CONTAS_EQUIVALENCIA), CONTAS_EQUIVALENCIA);
+		CadastroContas lotes = new CadastroContas(repLote, new TravasContas());
+		CadastroContas sequencial = new CadastroContas(repSequencial, new TravasContas());
+
+		long inicio = System.nanoTime();
+		ResultadoTransferencia[] resultados = lotes.transferirLote(lote);
+		long tempoLote = System.nanoTime() - inicio;
+
+		inicio = System.nanoTime();
+		int divergentes = 0;
+		int efetuadas = 0;
+		for (int i = 0; i < lote.size(); i++) {
+			OrdemTransferencia o = lote.get(i);
+			ResultadoTransferencia esperado;
+			try {
+				sequencial.transferir(o.getOrigem(), o.getDestino(), o.getValor());
+				esperado = ResultadoTransferencia.EFETUADA;
+				efetuadas++;
+			} catch (ContaInexistenteException e) {
+				esperado = ResultadoTransferencia.CONTA_INEXISTENTE;
+			} catch (SaldoInsuficienteException e) {
+				esperado = ResultadoTransferencia.SALDO_INSUFICIENTE;
+			}
+			if (resultados[i] != esperado) {
+				divergentes++;
+			}
+		}
+		long tempoSequencial = System.nanoTime() - inicio;
+
+		int contasDivergentes = 0;
+		for (int i = 0; i < CONTAS_EQUIVALENCIA; i++) {
+			ContaAbstrata a = repLote.procurar(String.valueOf(i));
+			ContaAbstrata b = repSequencial.procurar(String.valueOf(i));
+			if (a.getSaldo() != b.getSaldo() || bonus(a) != bonus(b)) {
+				contasDivergentes++;
+			}
+		}
+		int[] negativas = new int[1];
+		long total = total(repLote, CONTAS_EQUIVALENCIA, negativas);
+		long esperado = CONTAS_EQUIVALENCIA * SALDO_INICIAL;
+		System.out.println("Equivalencia: " + lote.size() + " ordens (" + efetuadas
+			+ " efetuadas), lote " + tempoLote / 1000000 + " ms, sequencial "
+			+ tempoSequencial / 1000000 + " ms");
+		System.out.println("Resultados divergentes: " + divergentes
+			+ "  contas divergentes: " + contasDivergentes
+			+ "  total final: " + Dinheiro.formatar(total)
+			+ " (esperado " + Dinheiro.formatar(esperado) + ")"
+			+ "  contas negativas: " + negativas[0]);
+		boolean ok = divergentes == 0 && contasDivergentes == 0 && total == esperado
+			&& negativas[0] == 0;
+		System.out.println(ok ? "OK" : "FALHOU");
+		return ok;
+	}
+
+	private static long bonus(ContaAbstrata c) {
+
+		return c instanceof ContaBonificada ? ((ContaBonificada) c).getBonus() : 0;
+	}
+
+	/**
+	 * Executa o lote enquanto outra thread credita o valor mínimo em contas escolhidas
+	 * ao acaso, e confere o total no final.
+	 */
+	private static boolean testarCreditosDuranteLote(String nome, RepositorioContas rep,
+		List<OrdemTransferencia> lote, final int creditos) throws Exception {
+
+		preencher(rep, CONTAS);
+		final CadastroContas cadastro = new CadastroContas(rep, new TravasContas());
+		final AtomicLong creditados = new AtomicLong();
+		Thread caixa = new Thread("creditos") {
+			public void run() {
+				Random r = new Random(7);
+				try {
+					for (int i = 0; i < creditos; i++) {
+						cadastro.creditar(String.valueOf(r.nextInt(CONTAS)), 1);
+						creditados.incrementAndGet();
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		};
+		long inicio = System.nanoTime();
+		caixa.start();
+		ResultadoTransferencia[] resultados = cadastro.transferirLote(lote);
+		caixa.join();
+		long tempo = System.nanoTime() - inicio;
+
+		int efetuadas = 0;
+		for (ResultadoTransferencia res : resultados) {
+			if (res == ResultadoTransferencia.EFETUADA) {
+				efetuadas++;
+			}
+		}
+		int[] negativas = new int[1];
+		long total = total(rep, CONTAS, negativas);
+		long esperado = CONTAS * SALDO_INICIAL + creditados.get();
+		System.out.println("Repositorio " + nome + ": " + lote.size() + " ordens ("
+			+ efetuadas + " efetuadas), " + creditados.get() + " creditos, "
+			+ tempo / 1000000 + " ms");
+		System.out.println("Total esperado: " + Dinheiro.formatar(esperado)
+			+ "  total final: " + Dinheiro.formatar(total)
+			+ "  creditos perdidos: " + (esperado - total)
+			+ "  contas negativas: " + negativas[0]);
+		boolean ok = total == esperado && negativas[0] == 0 && creditados.get() == creditos;
+		System.out.println(ok ? "OK" : "FALHOU");
+		return ok;
+	}
+}
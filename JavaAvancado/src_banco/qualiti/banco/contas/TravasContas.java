@@ -0,0 +1,182 @@
+package qualiti.banco.contas;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de travas (locks) para as operações concorrentes sobre contas. Cada
+ * número de conta é associado, pelo seu hash, a uma das travas do conjunto. Operações
+ * em contas associadas a travas diferentes podem ocorrer em paralelo; operações em
+ * contas associadas à mesma trava são serializadas.
+ *
+ * Para evitar deadlock nas transferências, as duas travas envolvidas são sempre
+ * obtidas na ordem crescente de seus índices, independentemente de qual conta é a
+ * origem e qual é o destino. O mesmo vale para as travas de várias contas, obtidas
+ * pelos lotes de transferências.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.contas.CadastroContas
+ */
+public class TravasContas {
+
+	/**
+	 * Quantidade padrão de travas.
+	 */
+	private static final int QUANTIDADE_PADRAO = 256;
+
+	/**
+	 * As travas. O tamanho do array é sempre uma potência de 2.
+	 */
+	private ReentrantLock[] travas;
+
+	/**
+	 * O construtor da classe. Usa a quantidade padrão de travas.
+	 */
+	public TravasContas() {
+
+		this(QUANTIDADE_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. A quantidade de travas é arredondada para a próxima
+	 * potência de 2.
+	 *
+	 * @param quantidade a quantidade mínima de travas.
+	 */
+	public TravasContas(int quantidade) {
+
+		if (quantidade < 1) {
+			throw new IllegalArgumentException("Quantidade de travas invalida: " + quantidade);
+		}
+		int tamanho = 1;
+		while (tamanho < quantidade) {
+			tamanho = tamanho << 1;
+		}
+		travas = new ReentrantLock[tamanho];
+		for (int i = 0; i < tamanho; i++) {
+			travas[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Retorna o índice da trava associada a um número de conta.
+	 *
+	 * @param numero o número da conta.
+	 *
+	 * @return int o índice da trava.
+	 */
+	int indice(String numero) {
+
+		int h = numero.hashCode();
+		// espalha os bits altos, como em java.util.HashMap
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return h & (travas.length - 1);
+	}
+
+	/**
+	 * Obtém a trava de uma conta.
+	 *
+	 * @param numero o número da conta.
+	 */
+	public void travar(String numero) {
+
+		travas[indice(numero)].lock();
+	}
+
+	/**
+	 * Libera a trava de uma conta.
+	 *
+	 * @param numero o número da conta.
+	 */
+	public void destravar(String numero) {
+
+		travas[indice(numero)].unlock();
+	}
+
+	/**
+	 * Obtém as travas de duas contas, na ordem crescente dos índices das travas.
+	 *
+	 * @param numero1 o número de uma das contas.
+	 * @param numero2 o número da outra conta.
+	 */
+	public void travar(String numero1, String numero2) {
+
+		int i = indice(numero1);
+		int j = indice(numero2);
+		if (i == j) {
+			travas[i].lock();
+		} else {
+			travas[Math.min(i, j)].lock();
+			travas[Math.max(i, j)].lock();
+		}
+	}
+
+	/**
+	 * Libera as travas de duas contas obtidas por travar(String, String).
+	 *
+	 * @param numero1 o número de uma das contas.
+	 * @param numero2 o número da outra conta.
+	 */
+	public void destravar(String numero1, String numero2) {
+
+		int i = indice(numero1);
+		int j = indice(numero2);
+		if (i == j) {
+			travas[i].unlock();
+		} else {
+			travas[Math.max(i, j)].unlock();
+			travas[Math.min(i, j)].unlock();
+		}
+	}
+
+	/**
+	 * Obtém as travas de várias contas, na ordem crescente dos índices das travas. Cada
+	 * trava é obtida uma única vez, mesmo que várias contas estejam associadas a ela.
+	 *
+	 * @param numeros os números das contas.
+	 */
+	public void travar(Collection<String> numeros) {
+
+		BitSet indices = indices(numeros);
+		for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+			travas[i].lock();
+		}
+	}
+
+	/**
+	 * Libera as travas de várias contas obtidas por travar(Collection).
+	 *
+	 * @param numeros os números das contas, os mesmos passados para travar(Collection).
+	 */
+	public void destravar(Collection<String> numeros) {
+
+		BitSet indices = indices(numeros);
+		for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+			travas[i].unlock();
+		}
+	}
+
+	private BitSet indices(Collection<String> numeros) {
+
+		BitSet indices = new BitSet(travas.length);
+		for (String n : numeros) {
+			indices.set(indice(n));
+		}
+		return indices;
+	}
+
+	/**
+	 * Retorna a quantidade de travas.
+	 *
+	 * @return int a quantidade de travas.
+	 */
+	public int getQuantidade() {
+
+		return travas.length;
+	}
+}
@@ -1,348 +1,692 @@
-package qualiti.banco.fachada;
-
-import java.util.Vector;
-
-import qualiti.banco.clientes.CadastroClientes;
-import qualiti.banco.clientes.Cliente;
-import qualiti.banco.clientes.ClienteExistenteException;
-import qualiti.banco.clientes.ClienteInexistenteException;
-import qualiti.banco.clientes.ClienteInvalidoException;
-import qualiti.banco.clientes.RepositorioClientes;
-import qualiti.banco.clientes.RepositorioClientesHibernate;
-import qualiti.banco.contas.CadastroContas;
-import qualiti.banco.contas.ContaAbstrata;
-import qualiti.banco.contas.ContaExistenteException;
-import qualiti.banco.contas.ContaInexistenteException;
-import qualiti.banco.contas.RepositorioContas;
-import qualiti.banco.contas.RepositorioContasBDR;
-import qualiti.banco.contas.SaldoInsuficienteException;
-import qualiti.banco.geral.ErroAcessoRepositorioException;
-
-/**
- * Classe que representa a fachada do sistema. Interage com o meio externo para atender ou encaminhar
- * solicitaes de processamento. Esta classe  um Singleton, padro de projeto que garante a existncia
- * de uma nica instncia desta classe em um programa JAVA. 
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- *
- * @see qualiti.banco.cliente.CadastroClientes
- * @see qualiti.banco.conta.CadastroContas
- */
-public class Fachada {
-
-	/**
-	 * Referncia esttica do Singleton. Guarda o endereo do objeto que representa a nica
-	 * instncia desta classe em um programa JAVA. 
-	 */
-	private static Fachada instancia;
-	/**
-	 * Referncia para o cadastro de contas. 
-	 */
-	private CadastroContas contas;
-	/**
-	 * Referncia para o cadastro de clientes. 
-	 */
-	private CadastroClientes clientes;
-
-	/**
-	 * Construtor privado da classe. Ele  assim definido para que o padro de implementao
-	 * do Singleton possa garantir que uma nica instncia desta classe exista em um programa
-	 * JAVA. Para que isto ocorra, uma das premissas  restringir a responsabilidade de criar
-	 * objetos do tipo desta classe a ela prpria. Isto se faz colocando o construtor com
-	 * acesso privado. Este construtor chama o mtodo que inicializa os cadastros de contas e
-	 * de clientes.
-	 */
-	private Fachada() {
-
-		initCadastros();
-	}
-
-	/**
-	 * Inicializa os cadastros de contas e de clientes, passando para estes as implementaes dos repositrios
-	 * de contas e de clientes a serem usadas pelos cadastros inicializados.  interessante notar que os
-	 * repositrios inicializados so interfaces, que recebem referncias de implementaes usando arrays em
-	 * memria. Uma sofisticao maior do sistema permitir a implementao de repositrios que utilizam acesso
-	 * a bancos de dados SQL. Para mudar a forma de implementao dos repositrios, basta alterar a 1a e a 3a 
-	 * linhas deste mtodo, inicializando os repositrios de clientes e de contas com as implementaes que usam
-	 * acesso a bancos de dados SQL. 
-	 */
-	private void initCadastros() {
-
-		RepositorioContas rep = new RepositorioContasBDR();
-		contas = new CadastroContas(rep);
-		RepositorioClientes repClientes = new RepositorioClientesHibernate();
-		clientes = new CadastroClientes(repClientes);
-	}
-
-	/**
-	 * Mtodo responsvel por retornar a referncia da nica instncia desta classe
-	 * no programa JAVA e por criar esta nica instncia, caso ela no exista. 
-	 * 
-	 * @return Fachada referncia para a nica instncia desta classe. 
-	 */
-	public static Fachada obterInstancia() {
-
-		// Na primeira vez que este mtodo for chamado, instancia == null
-		// Assim, o teste retorna true, a instncia  criada e sua referncia
-		//  atribuda ao atributo instancia. Nas prximas chamadas, o teste
-		// retorna false e a referncia criada na primeira chamada sempre 
-		// retornada.
-		if (instancia == null) {
-			instancia = new Fachada();
-		}
-		return instancia;
-	}
-
-	/**
-	 * Atualiza os dados de um cliente. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de clientes.
-	 * 
-	 * @param c o cliente com os dados a serem atualizados. 
-	 * 
-	 * @exception ClienteInexistenteException lanada quando o cliente a ter seus dados 
-	 *            atualizados no existe no cadastro. Esta exceo vem da chamada ao
-	 *            cadastro de clientes e  repassada diretamente por este mtodo ao
-	 *            seu mtodo chamador. 
-	 * @throws ErroAcessoRepositorioException 
-	 */
-	public void atualizar(Cliente c) throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		clientes.atualizar(c);
-	}
-
-	/**
-	 * Busca um cliente do cadastro de clientes. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de clientes.
-	 * 
-	 * @param cpf o CPF do cliente a ser buscado.
-	 *
-	 * @return Cliente o cliente com os dados reucperados do cadastro.
-	 * 
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser buscado no 
-	 *            existe no cadastro. Esta exceo vem da chamada ao cadastro de clientes 
-	 *            e  repassada diretamente por este mtodo ao seu mtodo chamador. 
-	 * @throws ErroAcessoRepositorioException 
-	 */
-	public Cliente procurarCliente(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		return clientes.procurar(cpf);
-	}
-
-	/**
-	 * Cadastra os dados de um cliente. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de clientes.
-	 * 
-	 * @param c o cliente com os dados a serem cadastrados. 
-	 * 
-	 * @exception ClienteExistenteException lanada quando o cliente a ter seus dados 
-	 *            cadastrados j existe no cadastro. Esta exceo vem da chamada ao
-	 *            cadastro de clientes e  repassada diretamente por este mtodo ao
-	 *            seu mtodo chamador. 
-	 * @throws ErroAcessoRepositorioException 
-	 */
-	public void cadastrar(Cliente c) throws ClienteExistenteException, ErroAcessoRepositorioException {
-
-		clientes.cadastrar(c);
-	}
-
-	/**
-	 * Exclui um cliente do cadastro de clientes. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de clientes.
-	 * 
-	 * @param cpf o CPF do cliente a ser excludo.
-	 * 
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser excludo no 
-	 *            existe no cadastro. Esta exceo vem da chamada ao cadastro de clientes 
-	 *            e  repassada diretamente por este mtodo ao seu mtodo chamador. 
-	 * @throws ErroAcessoRepositorioException 
-	 */
-	public void descadastrarCliente(String cpf)
-		throws ClienteInexistenteException, ErroAcessoRepositorioException {
-
-		clientes.descadastrar(cpf);
-	}
-
-	/**
-	 * Atualiza os dados de uma conta. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de contas.  interessante notar que este mtodo suporta atualizao dos dados
-	 * de QUALQUER TIPO DE CONTA, pois recebe como parmetro uma conta abstrata.
-	 * 
-	 * @param c a conta com os dados a serem atualizados. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ter seus dados 
-	 *            atualizados no existe no cadastro. Esta exceo vem da chamada ao
-	 *            cadastro de contas e  repassada diretamente por este mtodo ao
-	 *            seu mtodo chamador. 
-	 */
-	public void atualizar(ContaAbstrata c) throws ContaInexistenteException {
-
-		contas.atualizar(c);
-	}
-
-	/**
-	 * Busca QUALQUER TIPO DE CONTA do cadastro de contas. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de contas.  interessante notar que este mtodo suporta busca dos dados de QUALQUER TIPO DE CONTA, 
-	 * pois retorna uma conta abstrata.
-	 * 
-	 * @param n o nmero da conta a ser buscada.
-	 *
-	 * @return ContaAbstrata a conta com os dados recuperados do cadastro.
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ser buscada no 
-	 *            existe no cadastro. Esta exceo vem da chamada ao cadastro de contas 
-	 *            e  repassada diretamente por este mtodo ao seu mtodo chamador. 
-	 */
-	public ContaAbstrata procurarConta(String n)
-		throws ContaInexistenteException {
-
-		return contas.procurar(n);
-	}
-
-	/**
-	 * Cadastra os dados de uma conta. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de contas.  interessante notar que este mtodo suporta cadastramento dos dados
-	 * de QUALQUER TIPO DE CONTA, pois recebe como parmetro uma conta abstrata.
-	 * 
-	 * @param c a conta com os dados a serem cadastrados. 
-	 * 
-	 * @exception ContaExistenteException lanada quando a conta a ter seus dados 
-	 *            cadastrados j existe no cadastro. Esta exceo vem da chamada ao
-	 *            cadastro de contas e  repassada diretamente por este mtodo ao
-	 *            seu mtodo chamador.
-	 * @exception ClienteInexistenteException lanada quando o cliente a ser associado 
-	 *             conta a ser cadastrada no existe no cadastro de clientes. Esta exceo
-	 *            vem da chamada ao cadastro de clientes e  repassada diretamente por este
-	 *            mtodo ao seu mtodo chamador. 
-	 * @exception ClienteInvalidoException se o objeto cliente associado ao objeto conta for nulo. 
-	 *            Esta exceo  instanciada e lanada por este mtodo.
-	 * @throws ErroAcessoRepositorioException 
-	 *
-	 * @see Q1 Este mtodo realiza uma validao que  pr-condio para o cadastramento de uma
-	 *         conta no cadastro de contas. Conceitualmente, este tipo de processamento  de 
-	 *         responsabilidade do CADASTRO DE CONTAS. Um bom exerccio adicional  passar esta 
-	 *         implementao de consistir o cliente da conta para o cadastro de contas. O que o 
-	 *         cadastro de contas precisa usar para realizar esta validao ??  
-	 */
-	public void cadastrar(ContaAbstrata c)
-		throws
-			ContaExistenteException,
-			ClienteInexistenteException,
-			ClienteInvalidoException, ErroAcessoRepositorioException {
-
-		Cliente cli = c.getCliente();
-		if (cli != null) {
-			// "procurar()" lana ClienteInexistenteException
-			clientes.procurar(cli.getCpf());
-			// "cadastrar()" lana ContaExistenteException
-			contas.cadastrar(c);
-		} else {
-			// O prrpio mtodo lana ClienteInvalidoException se o cliente associado  conta for nulo
-			throw new ClienteInvalidoException();
-		}
-	}
-
-	/**
-	 * Exclui uma conta do cadastro de contas. A fachada, neste caso, delega esta responsabilidade ao
-	 * cadastro de contas.
-	 * 
-	 * @param n o nmero da conta a ser excluda.
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta a ser excluda no 
-	 *            existe no cadastro. Esta exceo vem da chamada ao cadastro de contas 
-	 *            e  repassada diretamente por este mtodo ao seu mtodo chamador. 
-	 */
-	public void descadastrarConta(String n) throws ContaInexistenteException {
-
-		contas.remover(n);
-	}
-
-	/**
-	 * Credita um valor em uma conta, usando o cadastro de contas. 
-	 * 
-	 * @param n o nmero da conta a ser creditada.
-	 * @param v o valor a ser creditado. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta cujo nmero passado como parmetro
-	 *            no existir no cadastro de contas. Esta exceo  lanada pelo cadastro e  repassada
-	 *            ao mtodo chamador por este mtodo. 
-	 *
-	 * @see Q1 Este mtodo repassa a responsabilidade de controlar o fluxo de processamento de uma
-	 *         operao de crdito ao cadastro de contas, quando esta responsabilidade  de uma classe
-	 *         controladora, que, em operaes simples,  tambm a classe Fachada. Um bom exerccio 
-	 *         adicional  passar este controle do fluxo de processamento de uma operao de crdito 
-	 *         para este mtodo.
-	 * 
-	 * @see Q2 Que outras validaes precisariam ser feitas em um processo de crdito ??  
-	 */
-	public void creditar(String n, double v) throws ContaInexistenteException {
-
-		contas.creditar(n, v);
-	}
-
-	/**
-	 * Debita um valor em uma conta, usando o cadastro de contas. 
-	 * 
-	 * @param n o nmero da conta a ser debitada.
-	 * @param v o valor a ser debitado. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta cujo nmero passado como parmetro
-	 *            no existir no cadastro de contas. Esta exceo  lanada pelo cadastro e  repassada
-	 *            ao mtodo chamador por este mtodo.
-	 * @exception SaldoInsuficienteException lanada quando o saldo da conta a ser debitada  menor que o
-	 *            valor passado como parmetro. Esta exceo  lanada pelo cadastro e  repassada
-	 *            ao mtodo chamador por este mtodo.
-	 *
-	 * @see Q1 Este mtodo repassa a responsabilidade de controlar o fluxo de processamento de uma
-	 *         operao de dbito ao cadastro de contas, quando esta responsabilidade  de uma classe
-	 *         controladora, que, em operaes simples,  tambm a classe Fachada. Um bom exerccio 
-	 *         adicional  passar este controle do fluxo de processamento de uma operao de dbito 
-	 *         para este mtodo.
-	 * 
-	 * @see Q2 Que outras validaes precisariam ser feitas em um processo de dbito ??  
-	 */
-	public void debitar(String n, double v)
-		throws ContaInexistenteException, SaldoInsuficienteException {
-
-		contas.debitar(n, v);
-	}
-
-	/**
-	 * Transfere um valor de uma conta para outra conta. 
-	 * 
-	 * @param origem o nmero da conta a ser debitada.
-	 * @param destino o nmero da conta a ser creditada.
-	 * @param val o valor a ser transferido. 
-	 * 
-	 * @exception ContaInexistenteException lanada quando a conta de origem cujo nmero passado como parmetro
-	 *            no existir no cadastro de contas ou quando a conta de destino cujo nmero passado como 
-	 *            parmetro no existir no cadastro de contas. Esta exceo  lanada pelo cadastro e  repassada
-	 *            ao mtodo chamador por este mtodo.
-	 * @exception SaldoInsuficienteException lanada quando o saldo da conta de origem a ser debitada 
-	 *             menor que o valor passado como parmetro. Esta exceo  lanada pelo cadastro e  
-	 *            repassada ao mtodo chamador por este mtodo.
-	 *
-	 * @see Q1 Este mtodo repassa a responsabilidade de controlar o fluxo de processamento de uma
-	 *         operao de transferncia ao cadastro de contas, quando esta responsabilidade  de uma classe
-	 *         controladora, que, em operaes simples,  tambm a classe Fachada. Um bom exerccio 
-	 *         adicional  passar este controle do fluxo de processamento de uma operao de transferncia 
-	 *         para este mtodo.
-	 * 
-	 * @see Q2 Que outras validaes precisariam ser feitas em um processo de transferncia ??  
-	 */
-	public void transferir(String origem, String destino, double val)
-		throws ContaInexistenteException, SaldoInsuficienteException {
-
-		contas.transferir(origem, destino, val);
-	}
-	
-	
-	public Vector<Cliente> listarClientes()
-	throws ErroAcessoRepositorioException {
-
-		return clientes.listar();
-	}
-	
+package qualiti.banco.fachada;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.Vector;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.clientes.CadastroClientes;
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.clientes.ClienteExistenteException;
+import qualiti.banco.clientes.ClienteInexistenteException;
+import qualiti.banco.clientes.ClienteInvalidoException;
+import qualiti.banco.clientes.ConsumidorClientes;
+import qualiti.banco.clientes.OperacoesClientes;
+import qualiti.banco.clientes.OrdemClientes;
+import qualiti.banco.clientes.RepositorioClientes;
+import qualiti.banco.clientes.RepositorioClientesArray;
+import qualiti.banco.clientes.RepositorioClientesBDR;
+import qualiti.banco.clientes.RepositorioClientesCache;
+import qualiti.banco.clientes.RepositorioClientesHibernate;
+import qualiti.banco.clientes.RepositorioClientesMap;
+import qualiti.banco.contas.CadastroContas;
+import qualiti.banco.contas.ContaAbstrata;
+import qualiti.banco.contas.ContaExistenteException;
+import qualiti.banco.contas.ContaInexistenteException;
+import qualiti.banco.contas.DiarioTransacoes;
+import qualiti.banco.contas.OperacoesContas;
+import qualiti.banco.contas.OrdemTransferencia;
+import qualiti.banco.contas.RepositorioContas;
+import qualiti.banco.contas.RepositorioContasArray;
+import qualiti.banco.contas.RepositorioContasBDR;
+import qualiti.banco.contas.RepositorioContasForaHeap;
+import qualiti.banco.contas.ResultadoTransferencia;
+import qualiti.banco.contas.SaldoInsuficienteException;
+import qualiti.banco.contas.TravasContas;
+import qualiti.banco.geral.Encerramento;
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+import qualiti.banco.metricas.Metricas;
+
+/**
+ * Classe que representa a fachada do sistema. Interage com o meio externo para atender ou encaminhar
+ * solicitações de processamento. Esta classe é um Singleton, padrão de projeto que garante a existência
+ * de uma única instância desta classe em um programa JAVA. 
+ *
+ * Os repositórios usados pelos cadastros são escolhidos no arquivo banco.properties, lido do diretório
+ * corrente (como o jdbc.properties), ou em propriedades de sistema com os mesmos nomes, que têm
+ * precedência sobre o arquivo:
+ *
+ *   banco.repositorio.contas     array, foraheap ou bdr (padrão: bdr)
+ *   banco.repositorio.clientes   array, map, bdr ou hibernate (padrão: hibernate)
+ *   banco.diario                 diretório do diário de transações de contas (padrão: sem diário)
+ *
+ * Os cadastros são usados por várias threads ao mesmo tempo (ver FachadaAssincrona); por isso todas as
+ * opções de repositório são seguras para acesso concorrente, inclusive os repositórios em memória (array,
+ * map e foraheap), que também crescem conforme a quantidade de registros.
+ *
+ * Cada cadastro só é criado na primeira operação que o usa. Assim, um programa que só trabalha com
+ * contas não chega a iniciar o Hibernate, e um que só trabalha com clientes não abre o diário.
+ *
+ * Com -Dbanco.metricas=true, os cadastros e os repositórios são envolvidos por proxies que medem cada
+ * chamada; ver qualiti.banco.metricas.Metricas. O cache de clientes não é medido: as suas chamadas são
+ * as do cadastro de clientes, e os acertos e as faltas têm contadores próprios. O repositório foraheap
+ * de contas também não, porque o cadastro de contas o usa diretamente nos créditos e débitos.
+ *
+ * O repositório bdr de contas guarda em memória as atualizações de saldo até gravá-las em lote, e o
+ * diário de transações é um arquivo aberto. Por isso o programa deve chamar fechar() antes de terminar;
+ * se não chamar, fechar() é executado no término da JVM, antes do fechamento do banco embutido (ver
+ * qualiti.banco.geral.Encerramento).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ *
+ * @see qualiti.banco.cliente.CadastroClientes
+ * @see qualiti.banco.conta.CadastroContas
+ */
+public class Fachada {
+
+	/**
+	 * Nome do arquivo de configuração dos repositórios, procurado no diretório corrente.
+	 * O arquivo é opcional.
+	 */
+	public static final String ARQUIVO_CONFIGURACAO = "banco.properties";
+
+	/**
+	 * Propriedade com a implementação do repositório de contas: array, foraheap ou bdr.
+	 */
+	public static final String PROPRIEDADE_REPOSITORIO_CONTAS = "banco.repositorio.contas";
+
+	/**
+	 * Propriedade com a implementação do repositório de clientes: array, map, bdr ou
+	 * hibernate. Qualquer que seja a implementação, ela é usada atrás do cache de clientes.
+	 */
+	public static final String PROPRIEDADE_REPOSITORIO_CLIENTES = "banco.repositorio.clientes";
+
+	/**
+	 * Propriedade com o diretório do diário de transações de contas. Se for informada
+	 * (por exemplo, -Dbanco.diario=diario), os créditos, débitos e transferências são
+	 * registrados no diário antes de serem confirmados, e os saldos registrados são
+	 * reaplicados ao repositório de contas na criação do cadastro de contas. As contas
+	 * abertas com o diário que não estiverem no repositório (como nos repositórios em
+	 * memória, array e foraheap) são recriadas.
+	 */
+	public static final String PROPRIEDADE_DIARIO = "banco.diario";
+
+	private static final Logger LOG = Logger.getLogger(Fachada.class);
+
+	/**
+	 * A configuração dos repositórios: o arquivo banco.properties, se existir, mais as
+	 * propriedades de sistema.
+	 */
+	private final Properties configuracao;
+	/**
+	 * Referência para o cadastro de contas. Criado no primeiro uso; é volatile para que
+	 * as outras threads vejam o cadastro completamente inicializado.
+	 */
+	private volatile OperacoesContas contas;
+	/**
+	 * Referência para o cadastro de clientes. Criado no primeiro uso, como o de contas.
+	 */
+	private volatile OperacoesClientes clientes;
+	/**
+	 * Travas que serializam a criação de cada cadastro. São separadas para que a criação
+	 * do cadastro de clientes (que pode iniciar o Hibernate) não atrase as operações com
+	 * contas.
+	 */
+	private final Object travaContas = new Object();
+	private final Object travaClientes = new Object();
+
+	/**
+	 * Construtor privado da classe. Ele é assim definido para que o padrão de implementação
+	 * do Singleton possa garantir que uma única instância desta classe exista em um programa
+	 * JAVA. Para que isto ocorra, uma das premissas é restringir a responsabilidade de criar
+	 * objetos do tipo desta classe a ela própria. Isto se faz colocando o construtor com
+	 * acesso privado. Este construtor só lê a configuração: os cadastros de contas e de
+	 * clientes são criados no primeiro uso.
+	 */
+	private Fachada() {
+
+		configuracao = lerConfiguracao();
+		Encerramento.registrar(Encerramento.FASE_CADASTROS, new Runnable() {
+			public void run() {
+				try {
+					fechar();
+				} catch (ErroAcessoRepositorioException e) {
+					LOG.error("Erro ao fechar o cadastro de contas no termino do programa", e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Fecha o cadastro de contas, se ele já tiver sido criado: grava no repositório as
+	 * atualizações de saldo que ainda estão só em memória e fecha o diário de transações.
+	 * É chamado também no término da JVM. Uma operação com contas depois do fechamento
+	 * cria um novo cadastro.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao repositório de contas ou ao diário de transações.
+	 */
+	public void fechar() throws ErroAcessoRepositorioException {
+
+		OperacoesContas c;
+		synchronized (travaContas) {
+			c = contas;
+			contas = null;
+		}
+		if (c != null) {
+			c.fechar();
+		}
+	}
+
+	/**
+	 * Guarda a única instância da fachada. A JVM só inicializa esta classe na primeira vez
+	 * que obterInstancia() acessa o atributo UNICA, e garante que a inicialização de uma
+	 * classe acontece uma única vez, mesmo que várias threads a disparem ao mesmo tempo.
+	 * Por isso a fachada é criada sob demanda e sem sincronização em obterInstancia().
+	 */
+	private static class Instancia {
+
+		private static final Fachada UNICA = new Fachada();
+	}
+
+	/**
+	 * Método responsável por retornar a referência da única instância desta classe
+	 * no programa JAVA. A instância é criada na primeira chamada (ver Instancia).
+	 * 
+	 * @return Fachada referência para a única instância desta classe. 
+	 */
+	public static Fachada obterInstancia() {
+
+		return Instancia.UNICA;
+	}
+
+	/**
+	 * Lê a configuração dos repositórios: o arquivo banco.properties do diretório corrente,
+	 * se existir, sobreposto pelas propriedades de sistema.
+	 */
+	private static Properties lerConfiguracao() {
+
+		Properties props = new Properties();
+		File arquivo = new File(ARQUIVO_CONFIGURACAO);
+		if (arquivo.exists()) {
+			InputStream in = null;
+			try {
+				in = new FileInputStream(arquivo);
+				props.load(in);
+			} catch (IOException e) {
+				throw new IllegalStateException("Erro ao ler " + arquivo.getAbsolutePath(), e);
+			} finally {
+				try {
+					if (in != null)
+						in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		props.putAll(System.getProperties());
+		return props;
+	}
+
+	/**
+	 * Retorna o valor de uma propriedade da configuração (banco.properties ou propriedade
+	 * de sistema), ou null se ela não estiver definida.
+	 *
+	 * @param nome o nome da propriedade.
+	 */
+	String getPropriedade(String nome) {
+
+		return configuracao.getProperty(nome);
+	}
+
+	/**
+	 * Retorna o cadastro de contas, criando-o na primeira chamada.
+	 */
+	private OperacoesContas getContas() {
+
+		OperacoesContas c = contas;
+		if (c == null) {
+			synchronized (travaContas) {
+				c = contas;
+				if (c == null) {
+					c = criarCadastroContas();
+					contas = c;
+				}
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Retorna o cadastro de clientes, criando-o na primeira chamada.
+	 */
+	private OperacoesClientes getClientes() {
+
+		OperacoesClientes c = clientes;
+		if (c == null) {
+			synchronized (travaClientes) {
+				c = clientes;
+				if (c == null) {
+					RepositorioClientes rep = Metricas.instrumentar(
+						RepositorioClientes.class, criarRepositorioClientes());
+					c = Metricas.instrumentar(OperacoesClientes.class,
+						new CadastroClientes(new RepositorioClientesCache(rep)));
+					clientes = c;
+				}
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Cria o cadastro de contas, no modo concorrente, com o repositório configurado. Se o
+	 * diário de transações estiver configurado, abre o diário e reaplica ao repositório os
+	 * saldos recuperados dele.
+	 */
+	private OperacoesContas criarCadastroContas() {
+
+		RepositorioContas rep = criarRepositorioContas();
+		if (!(rep instanceof RepositorioContasForaHeap)) {
+			rep = Metricas.instrumentar(RepositorioContas.class, rep);
+		}
+		String dirDiario = configuracao.getProperty(PROPRIEDADE_DIARIO);
+		if (dirDiario == null || dirDiario.trim().length() == 0) {
+			return Metricas.instrumentar(OperacoesContas.class,
+				new CadastroContas(rep, new TravasContas()));
+		}
+		try {
+			DiarioTransacoes diario = new DiarioTransacoes(new File(dirDiario.trim()));
+			OperacoesContas c = Metricas.instrumentar(OperacoesContas.class,
+				new CadastroContas(rep, new TravasContas(), diario));
+			c.recuperar();
+			return c;
+		} catch (IOException e) {
+			throw new IllegalStateException("Erro ao abrir o diario de transacoes em " + dirDiario, e);
+		} catch (ErroAcessoRepositorioException e) {
+			throw new IllegalStateException("Erro ao recuperar os saldos do diario de transacoes", e);
+		}
+	}
+
+	/**
+	 * Cria o repositório de contas configurado em banco.repositorio.contas.
+	 */
+	private RepositorioContas criarRepositorioContas() {
+
+		String tipo = tipoRepositorio(PROPRIEDADE_REPOSITORIO_CONTAS, "bdr");
+		if (tipo.equals("array")) {
+			return new RepositorioContasArray();
+		} else if (tipo.equals("foraheap")) {
+			return new RepositorioContasForaHeap();
+		} else if (tipo.equals("bdr")) {
+			return new RepositorioContasBDR();
+		}
+		throw new IllegalStateException(
+			"Repositorio de contas invalido: " + tipo + " (use array, foraheap ou bdr)");
+	}
+
+	/**
+	 * Cria o repositório de clientes configurado em banco.repositorio.clientes.
+	 */
+	private RepositorioClientes criarRepositorioClientes() {
+
+		String tipo = tipoRepositorio(PROPRIEDADE_REPOSITORIO_CLIENTES, "hibernate");
+		if (tipo.equals("array")) {
+			return new RepositorioClientesArray();
+		} else if (tipo.equals("map")) {
+			return new RepositorioClientesMap();
+		} else if (tipo.equals("bdr")) {
+			return new RepositorioClientesBDR();
+		} else if (tipo.equals("hibernate")) {
+			return new RepositorioClientesHibernate();
+		}
+		throw new IllegalStateException(
+			"Repositorio de clientes invalido: " + tipo + " (use array, map, bdr ou hibernate)");
+	}
+
+	/**
+	 * Retorna o valor de uma propriedade de tipo de repositório, em minúsculas.
+	 */
+	private String tipoRepositorio(String propriedade, String padrao) {
+
+		return configuracao.getProperty(propriedade, padrao).trim().toLowerCase();
+	}
+
+	/**
+	 * Atualiza os dados de um cliente. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de clientes.
+	 * 
+	 * @param c o cliente com os dados a serem atualizados. 
+	 * 
+	 * @exception ClienteInexistenteException lançada quando o cliente a ter seus dados 
+	 *            atualizados não existe no cadastro. Esta exceção vem da chamada ao
+	 *            cadastro de clientes e é repassada diretamente por este método ao
+	 *            seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void atualizar(Cliente c) throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		getClientes().atualizar(c);
+	}
+
+	/**
+	 * Busca um cliente do cadastro de clientes. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de clientes.
+	 * 
+	 * @param cpf o CPF do cliente a ser buscado.
+	 *
+	 * @return Cliente o cliente com os dados reucperados do cadastro. O cliente pode vir
+	 *         do cache de clientes, compartilhado com outras consultas: não deve ser
+	 *         alterado. Para atualizar o cliente, passe um novo objeto a atualizar().
+	 * 
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser buscado não 
+	 *            existe no cadastro. Esta exceção vem da chamada ao cadastro de clientes 
+	 *            e é repassada diretamente por este método ao seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public Cliente procurarCliente(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		return getClientes().procurar(cpf);
+	}
+
+	/**
+	 * Retorna um cliente, carregando as suas associações conforme o perfil de carga.
+	 * procurarCliente(cpf) equivale ao perfil RESUMO; use DETALHE nas telas que mostram
+	 * as contas e os gerentes do cliente.
+	 * 
+	 * @param cpf o CPF do cliente a ser procurado.
+	 * @param perfil o perfil de carga.
+	 * 
+	 * @return Cliente o cliente encontrado.
+	 * 
+	 * @exception ClienteInexistenteException lançada quando o cliente não existe.
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public Cliente procurarCliente(String cpf, PerfilCarga perfil)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		return getClientes().procurar(cpf, perfil);
+	}
+
+	/**
+	 * Cadastra os dados de um cliente. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de clientes.
+	 * 
+	 * @param c o cliente com os dados a serem cadastrados. 
+	 * 
+	 * @exception ClienteExistenteException lançada quando o cliente a ter seus dados 
+	 *            cadastrados já existe no cadastro. Esta exceção vem da chamada ao
+	 *            cadastro de clientes e é repassada diretamente por este método ao
+	 *            seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void cadastrar(Cliente c) throws ClienteExistenteException, ErroAcessoRepositorioException {
+
+		getClientes().cadastrar(c);
+	}
+
+	/**
+	 * Exclui um cliente do cadastro de clientes. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de clientes.
+	 * 
+	 * @param cpf o CPF do cliente a ser excluído.
+	 * 
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser excluído não 
+	 *            existe no cadastro. Esta exceção vem da chamada ao cadastro de clientes 
+	 *            e é repassada diretamente por este método ao seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void descadastrarCliente(String cpf)
+		throws ClienteInexistenteException, ErroAcessoRepositorioException {
+
+		getClientes().descadastrar(cpf);
+	}
+
+	/**
+	 * Atualiza os dados de uma conta. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de contas. É interessante notar que este método suporta atualização dos dados
+	 * de QUALQUER TIPO DE CONTA, pois recebe como parâmetro uma conta abstrata.
+	 * 
+	 * @param c a conta com os dados a serem atualizados. 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ter seus dados 
+	 *            atualizados não existe no cadastro. Esta exceção vem da chamada ao
+	 *            cadastro de contas e é repassada diretamente por este método ao
+	 *            seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void atualizar(ContaAbstrata c) throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		getContas().atualizar(c);
+	}
+
+	/**
+	 * Busca QUALQUER TIPO DE CONTA do cadastro de contas. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de contas. É interessante notar que este método suporta busca dos dados de QUALQUER TIPO DE CONTA, 
+	 * pois retorna uma conta abstrata.
+	 * 
+	 * @param n o número da conta a ser buscada.
+	 *
+	 * @return ContaAbstrata a conta com os dados recuperados do cadastro.
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ser buscada não 
+	 *            existe no cadastro. Esta exceção vem da chamada ao cadastro de contas 
+	 *            e é repassada diretamente por este método ao seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public ContaAbstrata procurarConta(String n)
+		throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		return getContas().procurar(n);
+	}
+
+	/**
+	 * Cadastra os dados de uma conta. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de contas. É interessante notar que este método suporta cadastramento dos dados
+	 * de QUALQUER TIPO DE CONTA, pois recebe como parâmetro uma conta abstrata.
+	 * 
+	 * @param c a conta com os dados a serem cadastrados. 
+	 * 
+	 * @exception ContaExistenteException lançada quando a conta a ter seus dados 
+	 *            cadastrados já existe no cadastro. Esta exceção vem da chamada ao
+	 *            cadastro de contas e é repassada diretamente por este método ao
+	 *            seu método chamador.
+	 * @exception ClienteInexistenteException lançada quando o cliente a ser associado 
+	 *            à conta a ser cadastrada não existe no cadastro de clientes. Esta exceção
+	 *            vem da chamada ao cadastro de clientes e é repassada diretamente por este
+	 *            método ao seu método chamador. 
+	 * @exception ClienteInvalidoException se o objeto cliente associado ao objeto conta for nulo. 
+	 *            Esta exceção é instanciada e lançada por este método.
+	 * @throws ErroAcessoRepositorioException 
+	 *
+	 * @see Q1 Este método realiza uma validação que é pré-condição para o cadastramento de uma
+	 *         conta no cadastro de contas. Conceitualmente, este tipo de processamento é de 
+	 *         responsabilidade do CADASTRO DE CONTAS. Um bom exercício adicional é passar esta 
+	 *         implementação de consistir o cliente da conta para o cadastro de contas. O que o 
+	 *         cadastro de contas precisa usar para realizar esta validação ??  
+	 */
+	public void cadastrar(ContaAbstrata c)
+		throws
+			ContaExistenteException,
+			ClienteInexistenteException,
+			ClienteInvalidoException, ErroAcessoRepositorioException {
+
+		Cliente cli = c.getCliente();
+		if (cli != null) {
+			// "procurar()" lança ClienteInexistenteException
+			getClientes().procurar(cli.getCpf());
+			// "cadastrar()" lança ContaExistenteException
+			getContas().cadastrar(c);
+		} else {
+			// O prórpio método lança ClienteInvalidoException se o cliente associado à conta for nulo
+			throw new ClienteInvalidoException();
+		}
+	}
+
+	/**
+	 * Exclui uma conta do cadastro de contas. A fachada, neste caso, delega esta responsabilidade ao
+	 * cadastro de contas.
+	 * 
+	 * @param n o número da conta a ser excluída.
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta a ser excluída não 
+	 *            existe no cadastro. Esta exceção vem da chamada ao cadastro de contas 
+	 *            e é repassada diretamente por este método ao seu método chamador. 
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void descadastrarConta(String n) throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		getContas().remover(n);
+	}
+
+	/**
+	 * Credita um valor em uma conta, usando o cadastro de contas. 
+	 * 
+	 * @param n o número da conta a ser creditada.
+	 * @param v o valor a ser creditado, em décimos de milésimo da unidade (ver Dinheiro). 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta cujo número passado como parâmetro
+	 *            não existir no cadastro de contas. Esta exceção é lançada pelo cadastro e é repassada
+	 *            ao método chamador por este método. 
+	 *
+	 * @see Q1 Este método repassa a responsabilidade de controlar o fluxo de processamento de uma
+	 *         operação de crédito ao cadastro de contas, quando esta responsabilidade é de uma classe
+	 *         controladora, que, em operações simples, é também a classe Fachada. Um bom exercício 
+	 *         adicional é passar este controle do fluxo de processamento de uma operação de crédito 
+	 *         para este método.
+	 * 
+	 * @see Q2 Que outras validações precisariam ser feitas em um processo de crédito ??  
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void creditar(String n, long v) throws ContaInexistenteException, ErroAcessoRepositorioException {
+
+		getContas().creditar(n, v);
+	}
+
+	/**
+	 * Debita um valor em uma conta, usando o cadastro de contas. 
+	 * 
+	 * @param n o número da conta a ser debitada.
+	 * @param v o valor a ser debitado, em décimos de milésimo da unidade (ver Dinheiro). 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta cujo número passado como parâmetro
+	 *            não existir no cadastro de contas. Esta exceção é lançada pelo cadastro e é repassada
+	 *            ao método chamador por este método.
+	 * @exception SaldoInsuficienteException lançada quando o saldo da conta a ser debitada é menor que o
+	 *            valor passado como parâmetro. Esta exceção é lançada pelo cadastro e é repassada
+	 *            ao método chamador por este método.
+	 *
+	 * @see Q1 Este método repassa a responsabilidade de controlar o fluxo de processamento de uma
+	 *         operação de débito ao cadastro de contas, quando esta responsabilidade é de uma classe
+	 *         controladora, que, em operações simples, é também a classe Fachada. Um bom exercício 
+	 *         adicional é passar este controle do fluxo de processamento de uma operação de débito 
+	 *         para este método.
+	 * 
+	 * @see Q2 Que outras validações precisariam ser feitas em um processo de débito ??  
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void debitar(String n, long v)
+		throws ContaInexistenteException, SaldoInsuficienteException, ErroAcessoRepositorioException {
+
+		getContas().debitar(n, v);
+	}
+
+	/**
+	 * Transfere um valor de uma conta para outra conta. 
+	 * 
+	 * @param origem o número da conta a ser debitada.
+	 * @param destino o número da conta a ser creditada.
+	 * @param val o valor a ser transferido, em décimos de milésimo da unidade (ver Dinheiro). 
+	 * 
+	 * @exception ContaInexistenteException lançada quando a conta de origem cujo número passado como parâmetro
+	 *            não existir no cadastro de contas ou quando a conta de destino cujo número passado como 
+	 *            parâmetro não existir no cadastro de contas. Esta exceção é lançada pelo cadastro e é repassada
+	 *            ao método chamador por este método.
+	 * @exception SaldoInsuficienteException lançada quando o saldo da conta de origem a ser debitada 
+	 *            é menor que o valor passado como parâmetro. Esta exceção é lançada pelo cadastro e é 
+	 *            repassada ao método chamador por este método.
+	 *
+	 * @see Q1 Este método repassa a responsabilidade de controlar o fluxo de processamento de uma
+	 *         operação de transferência ao cadastro de contas, quando esta responsabilidade é de uma classe
+	 *         controladora, que, em operações simples, é também a classe Fachada. Um bom exercício 
+	 *         adicional é passar este controle do fluxo de processamento de uma operação de transferência 
+	 *         para este método.
+	 * 
+	 * @see Q2 Que outras validações precisariam ser feitas em um processo de transferência ??  
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void transferir(String origem, String destino, long val)
+		throws ContaInexistenteException, SaldoInsuficienteException, ErroAcessoRepositorioException {
+
+		getContas().transferir(origem, destino, val);
+	}
+
+	/**
+	 * Realiza um lote de transferências, como as de um arquivo de liquidação, usando o
+	 * cadastro de contas. As contas são procuradas de uma só vez e as transferências
+	 * que não têm contas em comum são executadas em paralelo. Os erros de cada ordem
+	 * (conta inexistente, saldo insuficiente...) não interrompem o lote: eles são
+	 * informados no resultado da ordem.
+	 * 
+	 * @param ordens as ordens de transferência.
+	 * 
+	 * @return ResultadoTransferencia[] o resultado de cada ordem, na mesma posição
+	 *         da ordem na lista.
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public ResultadoTransferencia[] transferirLote(List<OrdemTransferencia> ordens)
+		throws ErroAcessoRepositorioException {
+
+		return getContas().transferirLote(ordens);
+	}
+	
+	
+	public Vector<Cliente> listarClientes()
+	throws ErroAcessoRepositorioException {
+
+		return getClientes().listar();
+	}
+
+	/**
+	 * Retorna todos os clientes cadastrados, carregando as associações de cada um
+	 * conforme o perfil de carga. listarClientes() equivale ao perfil RESUMO.
+	 * 
+	 * @param perfil o perfil de carga.
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public Vector<Cliente> listarClientes(PerfilCarga perfil)
+	throws ErroAcessoRepositorioException {
+
+		return getClientes().listar(perfil);
+	}
+
+	/**
+	 * Entrega ao consumidor, um a um, todos os clientes cadastrados, ordenados pelo
+	 * nome, sem carregar a lista completa em memória.
+	 * 
+	 * @param consumidor quem recebe os clientes. Se retornar false, a listagem é
+	 *        encerrada.
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public void listarClientes(ConsumidorClientes consumidor)
+	throws ErroAcessoRepositorioException {
+
+		getClientes().listar(consumidor);
+	}
+
+	/**
+	 * Retorna uma página de clientes cadastrados. Para percorrer todos os clientes,
+	 * passe null como último cliente na primeira chamada e, nas seguintes, o último
+	 * cliente da página anterior, até receber uma página vazia.
+	 * 
+	 * @param ordem a ordem da listagem (por CPF ou por nome).
+	 * @param ultimo o último cliente da página anterior, ou null para a primeira página.
+	 * @param tamanho a quantidade máxima de clientes da página.
+	 * 
+	 * @return Vector os clientes da página.
+	 * @throws ErroAcessoRepositorioException 
+	 */
+	public Vector<Cliente> listarClientes(OrdemClientes ordem, Cliente ultimo, int tamanho)
+	throws ErroAcessoRepositorioException {
+
+		return getClientes().listarPagina(ordem, ultimo, tamanho);
+	}
+	
 }
\ No newline at end of file
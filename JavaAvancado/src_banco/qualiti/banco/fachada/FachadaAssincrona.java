@@ -0,0 +1,334 @@
+package qualiti.banco.fachada;
+
+import java.lang.reflect.Method;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.contas.ContaAbstrata;
+import qualiti.banco.jdbcutil.JDBCConnectionUtil;
+
+/**
+ * Variante assíncrona da fachada, para atender muitos pedidos simultâneos (por exemplo,
+ * os dos caixas) sem uma thread da plataforma para cada pedido. Cada método apenas
+ * agenda a operação correspondente da Fachada e retorna um CompletableFuture, que é
+ * completado com o resultado da operação ou com a exceção que ela lançou (get() lança
+ * ExecutionException com essa exceção como causa).
+ *
+ * Quando a JVM oferece threads virtuais (Java 21 ou posterior), cada operação roda em
+ * uma thread virtual, e milhares de pedidos podem ficar em andamento ao mesmo tempo. Nas
+ * versões anteriores, as operações rodam em um pool fixo de threads e os pedidos
+ * excedentes esperam na fila do pool.
+ *
+ * Em ambos os casos, no máximo "concorrencia" operações acessam os repositórios ao mesmo
+ * tempo. O padrão é o tamanho máximo do pool de conexões (pool.tamanhoMaximo do
+ * jdbc.properties), de forma que as threads virtuais esperam no semáforo desta classe, e
+ * não presas à espera de uma conexão do pool. O limite pode ser alterado na propriedade
+ * banco.assincrono.concorrencia (banco.properties ou -D).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.fachada.Fachada
+ */
+public class FachadaAssincrona {
+
+	/**
+	 * Propriedade com a quantidade máxima de operações simultâneas nos repositórios.
+	 */
+	public static final String PROPRIEDADE_CONCORRENCIA = "banco.assincrono.concorrencia";
+
+	/**
+	 * A fachada que realiza as operações.
+	 */
+	private final Fachada fachada;
+	/**
+	 * Executa as operações: uma thread virtual por operação ou um pool fixo de threads.
+	 */
+	private final ExecutorService executor;
+	/**
+	 * Limita a quantidade de operações simultâneas nos repositórios.
+	 */
+	private final Semaphore acessos;
+	/**
+	 * Indica se as operações rodam em threads virtuais.
+	 */
+	private final boolean threadsVirtuais;
+
+	/**
+	 * O construtor da classe. Usa a instância da Fachada e o limite de operações
+	 * simultâneas configurado.
+	 */
+	public FachadaAssincrona() {
+
+		this(Fachada.obterInstancia(), concorrenciaConfigurada());
+	}
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param fachada a fachada que realiza as operações.
+	 * @param concorrencia a quantidade máxima de operações simultâneas nos repositórios.
+	 */
+	public FachadaAssincrona(Fachada fachada, int concorrencia) {
+
+		if (concorrencia < 1) {
+			throw new IllegalArgumentException("Concorrencia invalida: " + concorrencia);
+		}
+		this.fachada = fachada;
+		this.acessos = new Semaphore(concorrencia);
+		ExecutorService virtual = criarExecutorVirtual();
+		this.threadsVirtuais = virtual != null;
+		this.executor = virtual != null ? virtual : criarExecutorFixo(concorrencia);
+	}
+
+	/**
+	 * Busca um cliente.
+	 *
+	 * @param cpf o CPF do cliente a ser buscado.
+	 *
+	 * @return CompletableFuture completado com o cliente, ou com
+	 *         ClienteInexistenteException ou ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#procurarCliente(String)
+	 */
+	public CompletableFuture<Cliente> procurarCliente(final String cpf) {
+
+		return agendar(new Operacao<Cliente>() {
+			public Cliente executar() throws Exception {
+				return fachada.procurarCliente(cpf);
+			}
+		});
+	}
+
+	/**
+	 * Cadastra um cliente.
+	 *
+	 * @param c o cliente com os dados a serem cadastrados.
+	 *
+	 * @return CompletableFuture completado quando o cliente estiver cadastrado, ou com
+	 *         ClienteExistenteException ou ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#cadastrar(Cliente)
+	 */
+	public CompletableFuture<Void> cadastrar(final Cliente c) {
+
+		return agendar(new Operacao<Void>() {
+			public Void executar() throws Exception {
+				fachada.cadastrar(c);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Cadastra uma conta.
+	 *
+	 * @param c a conta com os dados a serem cadastrados.
+	 *
+	 * @return CompletableFuture completado quando a conta estiver cadastrada, ou com a
+	 *         exceção lançada pela Fachada.
+	 *
+	 * @see Fachada#cadastrar(ContaAbstrata)
+	 */
+	public CompletableFuture<Void> cadastrar(final ContaAbstrata c) {
+
+		return agendar(new Operacao<Void>() {
+			public Void executar() throws Exception {
+				fachada.cadastrar(c);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Credita um valor em uma conta.
+	 *
+	 * @param n o número da conta a ser creditada.
+	 * @param v o valor a ser creditado, em décimos de milésimo da unidade (ver Dinheiro).
+	 *
+	 * @return CompletableFuture completado quando o crédito estiver feito, ou com
+	 *         ContaInexistenteException ou ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#creditar(String, long)
+	 */
+	public CompletableFuture<Void> creditar(final String n, final long v) {
+
+		return agendar(new Operacao<Void>() {
+			public Void executar() throws Exception {
+				fachada.creditar(n, v);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Debita um valor em uma conta.
+	 *
+	 * @param n o número da conta a ser debitada.
+	 * @param v o valor a ser debitado, em décimos de milésimo da unidade (ver Dinheiro).
+	 *
+	 * @return CompletableFuture completado quando o débito estiver feito, ou com
+	 *         ContaInexistenteException, SaldoInsuficienteException ou
+	 *         ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#debitar(String, long)
+	 */
+	public CompletableFuture<Void> debitar(final String n, final long v) {
+
+		return agendar(new Operacao<Void>() {
+			public Void executar() throws Exception {
+				fachada.debitar(n, v);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Transfere um valor de uma conta para outra conta.
+	 *
+	 * @param origem o número da conta a ser debitada.
+	 * @param destino o número da conta a ser creditada.
+	 * @param val o valor a ser transferido, em décimos de milésimo da unidade (ver Dinheiro).
+	 *
+	 * @return CompletableFuture completado quando a transferência estiver feita, ou com
+	 *         ContaInexistenteException, SaldoInsuficienteException ou
+	 *         ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#transferir(String, String, long)
+	 */
+	public CompletableFuture<Void> transferir(final String origem, final String destino, final long val) {
+
+		return agendar(new Operacao<Void>() {
+			public Void executar() throws Exception {
+				fachada.transferir(origem, destino, val);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Retorna todos os clientes cadastrados.
+	 *
+	 * @return CompletableFuture completado com os clientes, ou com
+	 *         ErroAcessoRepositorioException.
+	 *
+	 * @see Fachada#listarClientes()
+	 */
+	public CompletableFuture<Vector<Cliente>> listarClientes() {
+
+		return agendar(new Operacao<Vector<Cliente>>() {
+			public Vector<Cliente> executar() throws Exception {
+				return fachada.listarClientes();
+			}
+		});
+	}
+
+	/**
+	 * Indica se as operações rodam em threads virtuais.
+	 *
+	 * @return boolean true se a JVM oferece threads virtuais.
+	 */
+	public boolean isThreadsVirtuais() {
+
+		return threadsVirtuais;
+	}
+
+	/**
+	 * Encerra o executor. As operações já agendadas são concluídas; as novas são
+	 * recusadas com RejectedExecutionException.
+	 */
+	public void encerrar() {
+
+		executor.shutdown();
+	}
+
+	/**
+	 * Uma operação da fachada, que pode lançar as exceções de negócio.
+	 */
+	private interface Operacao<T> {
+
+		T executar() throws Exception;
+	}
+
+	/**
+	 * Agenda uma operação no executor. A operação só roda depois de obter uma das
+	 * permissões do semáforo de acessos.
+	 */
+	private <T> CompletableFuture<T> agendar(final Operacao<T> op) {
+
+		final CompletableFuture<T> futuro = new CompletableFuture<T>();
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					acessos.acquire();
+				} catch (InterruptedException e) {
+					futuro.completeExceptionally(e);
+					return;
+				}
+				try {
+					futuro.complete(op.executar());
+				} catch (Throwable t) {
+					futuro.completeExceptionally(t);
+				} finally {
+					acessos.release();
+				}
+			}
+		});
+		return futuro;
+	}
+
+	/**
+	 * Retorna o limite de operações simultâneas configurado, ou o tamanho máximo do
+	 * pool de conexões.
+	 */
+	private static int concorrenciaConfigurada() {
+
+		String valor = Fachada.obterInstancia().getPropriedade(PROPRIEDADE_CONCORRENCIA);
+		if (valor != null && valor.trim().length() > 0) {
+			return Integer.parseInt(valor.trim());
+		}
+		return JDBCConnectionUtil.getTamanhoMaximoPool();
+	}
+
+	/**
+	 * Cria um executor com uma thread virtual por tarefa, se a JVM oferecer threads
+	 * virtuais. O método é chamado por reflexão porque o projeto também é compilado para
+	 * versões anteriores do Java.
+	 *
+	 * @return ExecutorService o executor, ou null se não houver threads virtuais.
+	 */
+	private static ExecutorService criarExecutorVirtual() {
+
+		try {
+			Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) m.invoke(null);
+		} catch (Exception e) {
+			// NoSuchMethodException antes do Java 21; no Java 19 e 20, sem --enable-preview,
+			// o método existe mas lança UnsupportedOperationException
+			return null;
+		}
+	}
+
+	/**
+	 * Cria o pool fixo usado quando não há threads virtuais. As threads são daemon, para
+	 * não impedir o fim do programa.
+	 */
+	private static ExecutorService criarExecutorFixo(int threads) {
+
+		final AtomicInteger contador = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "fachada-assincrona-" + contador.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+}
@@ -0,0 +1,83 @@
+package qualiti.banco.fachada;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.contas.Conta;
+import qualiti.banco.contas.SaldoInsuficienteException;
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Teste da FachadaAssincrona com os repositórios em memória. Agenda milhares de
+ * créditos ao mesmo tempo nas mesmas contas, espera todos terminarem e confere o total
+ * depositado. Em seguida agenda um débito maior que o saldo e confere se o futuro é
+ * completado com SaldoInsuficienteException.
+ *
+ * Uso: java qualiti.banco.fachada.TesteFachadaAssincrona [pedidos]
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.fachada.FachadaAssincrona
+ */
+public class TesteFachadaAssincrona {
+
+	/**
+	 * Mais contas que o tamanho inicial do RepositorioContasArray, para que o array
+	 * cresça durante o teste.
+	 */
+	private static final int CONTAS = 1000;
+	private static final long SALDO_INICIAL = Dinheiro.unidades(1000);
+
+	public static void main(String[] args) throws Exception {
+
+		int pedidos = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+		// repositórios em memória, sem banco de dados
+		System.setProperty(Fachada.PROPRIEDADE_REPOSITORIO_CONTAS, "array");
+		System.setProperty(Fachada.PROPRIEDADE_REPOSITORIO_CLIENTES, "map");
+		System.setProperty(FachadaAssincrona.PROPRIEDADE_CONCORRENCIA, "10");
+
+		FachadaAssincrona fachada = new FachadaAssincrona();
+		System.out.println("Threads virtuais: " + fachada.isThreadsVirtuais());
+
+		Cliente cli = new Cliente("12345678900", "Cliente");
+		fachada.cadastrar(cli).get();
+		for (int i = 0; i < CONTAS; i++) {
+			fachada.cadastrar(new Conta(String.valueOf(i), SALDO_INICIAL, cli)).get();
+		}
+
+		long inicio = System.currentTimeMillis();
+		List<CompletableFuture<Void>> futuros = new ArrayList<CompletableFuture<Void>>(pedidos);
+		for (int i = 0; i < pedidos; i++) {
+			futuros.add(fachada.creditar(String.valueOf(i % CONTAS), Dinheiro.unidades(1)));
+		}
+		CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[futuros.size()])).get();
+		long tempo = System.currentTimeMillis() - inicio;
+
+		long total = 0;
+		for (int i = 0; i < CONTAS; i++) {
+			total = total + Fachada.obterInstancia().procurarConta(String.valueOf(i)).getSaldo();
+		}
+		long esperado = CONTAS * SALDO_INICIAL + Dinheiro.unidades(pedidos);
+		System.out.println(pedidos + " creditos em " + tempo + " ms; total "
+			+ Dinheiro.formatar(total) + " (esperado " + Dinheiro.formatar(esperado) + ")");
+
+		boolean recusado = false;
+		try {
+			fachada.debitar("0", esperado).get();
+		} catch (ExecutionException e) {
+			recusado = e.getCause() instanceof SaldoInsuficienteException;
+		}
+		System.out.println("Debito acima do saldo recusado: " + recusado);
+
+		fachada.encerrar();
+		if (total != esperado || !recusado) {
+			System.exit(1);
+		}
+	}
+}
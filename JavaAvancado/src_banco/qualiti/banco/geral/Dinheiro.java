@@ -0,0 +1,196 @@
+package qualiti.banco.geral;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operações sobre valores monetários representados em ponto fixo. Um valor monetário
+ * é um long que guarda a quantia em décimos de milésimo da unidade (escala 4), a
+ * mesma precisão da coluna saldo DECIMAL(16,4) do banco de dados. Assim, R$ 1,00 é
+ * representado por 10000 e R$ 0,01 por 100.
+ *
+ * As somas e subtrações são exatas. As multiplicações por taxa arredondam o
+ * resultado para a escala 4 pelo critério "meio para o par" (arredondamento
+ * bancário). Em caso de estouro da capacidade do long é lançada ArithmeticException.
+ *
+ * Esta classe não pode ser instanciada.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+public final class Dinheiro {
+
+	/**
+	 * Quantidade de casas decimais da representação.
+	 */
+	public static final int CASAS = 4;
+	/**
+	 * Valor que representa uma unidade monetária (R$ 1,00).
+	 */
+	public static final long ESCALA = 10000;
+	/**
+	 * Taxa que representa 100%. As taxas também são expressas em décimos de milésimo,
+	 * de forma que 1% corresponde a 100.
+	 */
+	public static final long CEM_POR_CENTO = ESCALA;
+
+	private Dinheiro() {
+
+	}
+
+	/**
+	 * Retorna a representação de uma quantia inteira de unidades monetárias.
+	 *
+	 * @param unidades a quantia em unidades (reais).
+	 *
+	 * @return long o valor monetário correspondente.
+	 */
+	public static long unidades(long unidades) {
+
+		return multiplicarExato(unidades, ESCALA);
+	}
+
+	/**
+	 * Soma dois valores monetários.
+	 *
+	 * @exception ArithmeticException se o resultado não couber em um long.
+	 */
+	public static long somar(long a, long b) {
+
+		long r = a + b;
+		// estouro só ocorre se os dois operandos tiverem o mesmo sinal e o
+		// resultado tiver sinal diferente deles
+		if (((a ^ r) & (b ^ r)) < 0) {
+			throw new ArithmeticException("Estouro na soma de valores monetarios");
+		}
+		return r;
+	}
+
+	/**
+	 * Subtrai um valor monetário de outro.
+	 *
+	 * @exception ArithmeticException se o resultado não couber em um long.
+	 */
+	public static long subtrair(long a, long b) {
+
+		long r = a - b;
+		if (((a ^ b) & (a ^ r)) < 0) {
+			throw new ArithmeticException("Estouro na subtracao de valores monetarios");
+		}
+		return r;
+	}
+
+	/**
+	 * Aplica uma taxa a um valor monetário, arredondando o resultado para a escala da
+	 * representação.
+	 *
+	 * @param valor o valor monetário.
+	 * @param taxa a taxa em décimos de milésimo (1% = 100).
+	 *
+	 * @return long o valor vezes a taxa.
+	 *
+	 * @exception ArithmeticException se o resultado não couber em um long.
+	 */
+	public static long aplicarTaxa(long valor, long taxa) {
+
+		if (valor == 0 || taxa == 0) {
+			return 0;
+		}
+		if (valor != Long.MIN_VALUE && taxa != Long.MIN_VALUE
+			&& Math.abs(valor) < Long.MAX_VALUE / Math.abs(taxa)) {
+			long produto = valor * taxa;
+			long q = produto / ESCALA;
+			long resto = produto % ESCALA;
+			// arredondamento meio para o par
+			long dobro = Math.abs(resto) * 2;
+			if (dobro > ESCALA || (dobro == ESCALA && (q & 1) != 0)) {
+				q = q + (produto < 0 ? -1 : 1);
+			}
+			return q;
+		}
+		// produto intermediário grande demais para um long: caso raro, resolvido com
+		// BigDecimal
+		BigDecimal r = BigDecimal.valueOf(valor)
+			.multiply(BigDecimal.valueOf(taxa))
+			.divide(BigDecimal.valueOf(ESCALA), 0, RoundingMode.HALF_EVEN);
+		if (r.unscaledValue().bitLength() > 63) {
+			throw new ArithmeticException("Estouro na aplicacao de taxa");
+		}
+		return r.longValue();
+	}
+
+	/**
+	 * Converte um valor monetário para BigDecimal com escala 4, para gravação em
+	 * colunas DECIMAL.
+	 */
+	public static BigDecimal paraDecimal(long valor) {
+
+		return BigDecimal.valueOf(valor, CASAS);
+	}
+
+	/**
+	 * Converte um BigDecimal lido de uma coluna DECIMAL para valor monetário. Casas
+	 * além da quarta são arredondadas.
+	 *
+	 * @exception ArithmeticException se o valor não couber em um long.
+	 */
+	public static long deDecimal(BigDecimal d) {
+
+		BigDecimal r = d.setScale(CASAS, RoundingMode.HALF_EVEN);
+		if (r.unscaledValue().bitLength() > 63) {
+			throw new ArithmeticException("Valor monetario fora do limite: " + d);
+		}
+		return r.unscaledValue().longValue();
+	}
+
+	/**
+	 * Converte um texto como "1234,56" ou "1234.56" para valor monetário, sem passar
+	 * por ponto flutuante.
+	 *
+	 * @exception NumberFormatException se o texto não for um número válido ou tiver
+	 *            mais de quatro casas decimais.
+	 */
+	public static long deTexto(String texto) {
+
+		BigDecimal d = new BigDecimal(texto.trim().replace(',', '.'));
+		if (d.scale() > CASAS) {
+			throw new NumberFormatException("Mais de " + CASAS + " casas decimais: " + texto);
+		}
+		return deDecimal(d);
+	}
+
+	/**
+	 * Formata um valor monetário com as quatro casas decimais, como "1234.5600".
+	 */
+	public static String formatar(long valor) {
+
+		StringBuilder sb = new StringBuilder(24);
+		if (valor < 0) {
+			sb.append('-');
+		}
+		long abs = Math.abs(valor);
+		if (abs < 0) {
+			// Long.MIN_VALUE
+			return paraDecimal(valor).toPlainString();
+		}
+		sb.append(abs / ESCALA).append('.');
+		String fracao = String.valueOf(abs % ESCALA);
+		for (int i = fracao.length(); i < CASAS; i++) {
+			sb.append('0');
+		}
+		return sb.append(fracao).toString();
+	}
+
+	/**
+	 * Multiplicação de longs com verificação de estouro.
+	 */
+	private static long multiplicarExato(long a, long b) {
+
+		long r = a * b;
+		if (a != 0 && (r / a != b || (a == -1 && b == Long.MIN_VALUE))) {
+			throw new ArithmeticException("Estouro na multiplicacao de valores monetarios");
+		}
+		return r;
+	}
+}
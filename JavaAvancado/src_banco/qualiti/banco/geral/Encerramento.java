@@ -0,0 +1,92 @@
+package qualiti.banco.geral;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Tarefas executadas no término da JVM, em uma ordem definida. Os shutdown hooks da
+ * JVM são executados ao mesmo tempo e em qualquer ordem; por isso as tarefas que
+ * dependem umas das outras (por exemplo, gravar as atualizações pendentes antes de
+ * fechar o banco de dados embutido) são registradas aqui, e não como hooks separados.
+ *
+ * As tarefas são executadas por um único shutdown hook, fase a fase: primeiro todas as
+ * da fase FASE_CADASTROS, depois as da fase FASE_BANCO. Dentro de uma fase, na ordem
+ * de registro. Uma tarefa que falha é registrada no log e não impede as demais.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+public final class Encerramento {
+
+	/**
+	 * Fase dos cadastros: gravação do que ainda está só em memória.
+	 */
+	public static final int FASE_CADASTROS = 0;
+	/**
+	 * Fase do banco de dados: fechamento das conexões e do banco embutido.
+	 */
+	public static final int FASE_BANCO = 1;
+
+	private static final Logger LOG = Logger.getLogger(Encerramento.class);
+
+	/**
+	 * As tarefas de cada fase, pelo número da fase.
+	 */
+	private static final List<List<Runnable>> TAREFAS = new ArrayList<List<Runnable>>();
+
+	private static boolean hookRegistrado;
+
+	private Encerramento() {
+	}
+
+	/**
+	 * Registra uma tarefa para o término da JVM.
+	 *
+	 * @param fase a fase da tarefa: FASE_CADASTROS ou FASE_BANCO.
+	 * @param tarefa a tarefa.
+	 */
+	public static synchronized void registrar(int fase, Runnable tarefa) {
+
+		if (fase < FASE_CADASTROS || fase > FASE_BANCO) {
+			throw new IllegalArgumentException("Fase invalida: " + fase);
+		}
+		if (!hookRegistrado) {
+			for (int i = FASE_CADASTROS; i <= FASE_BANCO; i++) {
+				TAREFAS.add(new ArrayList<Runnable>());
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread("encerramento") {
+				public void run() {
+					executar();
+				}
+			});
+			hookRegistrado = true;
+		}
+		TAREFAS.get(fase).add(tarefa);
+	}
+
+	/**
+	 * Executa as tarefas registradas, fase a fase.
+	 */
+	private static void executar() {
+
+		List<List<Runnable>> fases;
+		synchronized (Encerramento.class) {
+			fases = new ArrayList<List<Runnable>>();
+			for (List<Runnable> f : TAREFAS) {
+				fases.add(new ArrayList<Runnable>(f));
+			}
+		}
+		for (List<Runnable> f : fases) {
+			for (Runnable t : f) {
+				try {
+					t.run();
+				} catch (RuntimeException e) {
+					LOG.error("Erro em uma tarefa de encerramento", e);
+				}
+			}
+		}
+	}
+}
@@ -1,60 +1,60 @@
-package qualiti.banco.geral;
-
-/**
- * Exceo lanada quando ocorre um erro de acesso ao mecanismo de armazenamento de
- * dados nas implementaes dos repositrios. 
- *
- * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
- *
- * @version 1.0 
- */
-@SuppressWarnings("serial")
-public class ErroAcessoRepositorioException extends Exception {
-
-	/**
-	 * A exceo interna ocorrida dentro da implementao do repositrio.
-	 */
-	private Exception excecaoInterna;
-
-	/**
-	 * O cdigo numrico de erro associado  exceo ocorrida dentro da implementao 
-	 * do repositrio. 
-	 */
-	private int codigoErro;
-
-	/**
-	 * O construtor da classe. Passa a mensagem de erro  super-classe, inicializa a 
-	 * exceo interna associada e o cdigo interno da exceo associada. 
-	 * 
-	 * @param pMensagem a mensagem de erro associada  exceo.
-	 * @param pExcecaoInterna a exceo interna ocorrida na implementao do repositrio.
-	 * @param pCodigoErro o cdigo de erro da exceo interna ocorrida na implementao 
-	 *        do repositrio.
-	 */
-	public ErroAcessoRepositorioException(
-		String pMensagem,
-		Exception pExcecaoInterna,
-		int pCodigoErro) {
-		super(pMensagem);
-		excecaoInterna = pExcecaoInterna;
-		codigoErro = pCodigoErro;
-	}
-	/**
-	 * Retorna o cdigo numrico de erro associado  exceo ocorrida dentro da implementao 
-	 * do repositrio.
-	 *
-	 * @return int o cdigo numrico de erro associado  exceo ocorrida dentro da 
-	 *         implementao do repositrio.
-	 */
-	public int getCodigoErro() {
-		return codigoErro;
-	}
-	/**
-	 * Retorna a exceo interna ocorrida dentro da implementao do repositrio.
-	 *
-	 * @return Exception a exceo interna ocorrida dentro da implementao do repositrio.
-	 */
-	public Exception getExcecaoInterna() {
-		return excecaoInterna;
-	}
+package qualiti.banco.geral;
+
+/**
+ * Exceção lançada quando ocorre um erro de acesso ao mecanismo de armazenamento de
+ * dados nas implementações dos repositórios. 
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0 
+ */
+@SuppressWarnings("serial")
+public class ErroAcessoRepositorioException extends Exception {
+
+	/**
+	 * A exceção interna ocorrida dentro da implementação do repositório.
+	 */
+	private Exception excecaoInterna;
+
+	/**
+	 * O código numérico de erro associado à exceção ocorrida dentro da implementação 
+	 * do repositório. 
+	 */
+	private int codigoErro;
+
+	/**
+	 * O construtor da classe. Passa a mensagem de erro à super-classe, inicializa a 
+	 * exceção interna associada e o código interno da exceção associada. 
+	 * 
+	 * @param pMensagem a mensagem de erro associada à exceção.
+	 * @param pExcecaoInterna a exceção interna ocorrida na implementação do repositório.
+	 * @param pCodigoErro o código de erro da exceção interna ocorrida na implementação 
+	 *        do repositório.
+	 */
+	public ErroAcessoRepositorioException(
+		String pMensagem,
+		Exception pExcecaoInterna,
+		int pCodigoErro) {
+		super(pMensagem);
+		excecaoInterna = pExcecaoInterna;
+		codigoErro = pCodigoErro;
+	}
+	/**
+	 * Retorna o código numérico de erro associado à exceção ocorrida dentro da implementação 
+	 * do repositório.
+	 *
+	 * @return int o código numérico de erro associado à exceção ocorrida dentro da 
+	 *         implementação do repositório.
+	 */
+	public int getCodigoErro() {
+		return codigoErro;
+	}
+	/**
+	 * Retorna a exceção interna ocorrida dentro da implementação do repositório.
+	 *
+	 * @return Exception a exceção interna ocorrida dentro da implementação do repositório.
+	 */
+	public Exception getExcecaoInterna() {
+		return excecaoInterna;
+	}
 }
\ No newline at end of file
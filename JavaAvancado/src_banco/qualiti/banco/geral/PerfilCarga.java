@@ -0,0 +1,30 @@
+package qualiti.banco.geral;
+
+/**
+ * Perfis de carga de entidades pelos repositórios. O perfil define até onde o grafo
+ * de objetos associados é carregado junto com a entidade pedida, de forma que cada
+ * tela lê apenas o que vai mostrar.
+ *
+ * Os objetos retornados pelos repositórios ficam desligados do mecanismo de
+ * armazenamento; associações que não fazem parte do perfil usado não podem ser
+ * percorridas depois.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+public enum PerfilCarga {
+
+	/**
+	 * Apenas os dados da própria entidade e das associações um-para-um (por exemplo,
+	 * o cliente e o seu endereço). As coleções associadas não são carregadas.
+	 */
+	RESUMO,
+
+	/**
+	 * A entidade e as suas coleções associadas diretas (por exemplo, as contas e os
+	 * gerentes de um cliente). As coleções são lidas em lotes, e não uma consulta por
+	 * entidade.
+	 */
+	DETALHE
+}
@@ -0,0 +1,96 @@
+package qualiti.banco.geral;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.HibernateException;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Tipo do Hibernate que mapeia um valor monetário em ponto fixo (long em décimos de
+ * milésimo, ver Dinheiro) para uma coluna DECIMAL com escala 4. Sem este tipo, o
+ * Hibernate leria a coluna com getLong(), perdendo as casas decimais.
+ *
+ * Uso: <code>@Type(type="qualiti.banco.geral.TipoDinheiro")</code>
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.geral.Dinheiro
+ */
+public class TipoDinheiro implements UserType {
+
+	private static final int[] TIPOS_SQL = { Types.DECIMAL };
+
+	public int[] sqlTypes() {
+
+		return TIPOS_SQL;
+	}
+
+	public Class<?> returnedClass() {
+
+		return Long.class;
+	}
+
+	public boolean equals(Object x, Object y) throws HibernateException {
+
+		return x == null ? y == null : x.equals(y);
+	}
+
+	public int hashCode(Object x) throws HibernateException {
+
+		return x.hashCode();
+	}
+
+	public Object nullSafeGet(ResultSet rs, String[] names, Object owner)
+		throws HibernateException, SQLException {
+
+		BigDecimal d = rs.getBigDecimal(names[0]);
+		if (d == null) {
+			return null;
+		}
+		return Long.valueOf(Dinheiro.deDecimal(d));
+	}
+
+	public void nullSafeSet(PreparedStatement st, Object value, int index)
+		throws HibernateException, SQLException {
+
+		if (value == null) {
+			st.setNull(index, Types.DECIMAL);
+		} else {
+			st.setBigDecimal(index, Dinheiro.paraDecimal(((Long) value).longValue()));
+		}
+	}
+
+	public Object deepCopy(Object value) throws HibernateException {
+
+		// Long é imutável
+		return value;
+	}
+
+	public boolean isMutable() {
+
+		return false;
+	}
+
+	public Serializable disassemble(Object value) throws HibernateException {
+
+		return (Serializable) value;
+	}
+
+	public Object assemble(Serializable cached, Object owner) throws HibernateException {
+
+		return cached;
+	}
+
+	public Object replace(Object original, Object target, Object owner)
+		throws HibernateException {
+
+		return original;
+	}
+}
@@ -0,0 +1,46 @@
+package qualiti.banco.gerentes;
+
+/**
+ * Exceção lançada quando um gerente não existe no cadastro de gerentes.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.gerentes.RepositorioGerentes
+ */
+@SuppressWarnings("serial")
+public class GerenteInexistenteException extends Exception {
+
+	/**
+	 * O identificador do gerente não existente no cadastro.
+	 */
+	private int id;
+
+	/**
+	 * O construtor da classe. Inicializa a mensagem da super-classe com uma mensagem
+	 * padrão de gerente não cadastrado e inicializa o identificador do gerente.
+	 *
+	 * @param id o identificador do gerente não existente no cadastro.
+	 */
+	public GerenteInexistenteException(int id) {
+
+		super(MSG_GER_INEXISTENTE);
+		this.id = id;
+	}
+
+	/**
+	 * Retorna o identificador do gerente não existente no cadastro.
+	 *
+	 * @return int o identificador do gerente.
+	 */
+	public int getId() {
+
+		return id;
+	}
+	/**
+	 * Constante com a mensagem de gerente não cadastrado.
+	 */
+	private static final String MSG_GER_INEXISTENTE =
+		"Gerente não cadastrado !!";
+}
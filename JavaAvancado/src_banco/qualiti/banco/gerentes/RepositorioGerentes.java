@@ -0,0 +1,82 @@
+package qualiti.banco.gerentes;
+
+import java.util.Vector;
+
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+
+/**
+ * Interface que define os métodos de acesso aos dados de gerente em um
+ * mecanismo de armazenamento de dados.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.gerentes.Gerente
+ */
+public interface RepositorioGerentes {
+	/**
+	 * Cadastra os dados de um gerente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS. O
+	 * identificador do gerente é gerado pelo mecanismo de armazenamento.
+	 *
+	 * @param g o gerente com os dados a serem cadastrados.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public void inserir(Gerente g) throws ErroAcessoRepositorioException;
+	/**
+	 * Atualiza os dados de um gerente EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @param g o gerente com os dados a serem atualizados.
+	 *
+	 * @exception GerenteInexistenteException lançada quando o gerente a ter seus dados
+	 *            atualizados não existe no MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public void atualizar(Gerente g)
+		throws GerenteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Retorna um gerente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @param id o identificador do gerente.
+	 * @param perfil RESUMO para ler só os dados do gerente, DETALHE para ler também
+	 *        os seus clientes.
+	 *
+	 * @return Gerente o gerente.
+	 *
+	 * @exception GerenteInexistenteException lançada quando o gerente não existe no
+	 *            MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public Gerente procurar(int id, PerfilCarga perfil)
+		throws GerenteInexistenteException, ErroAcessoRepositorioException;
+	/**
+	 * Lista todos os gerentes EM UM MECANISMO DE ARMAZENAMENTO DE DADOS, ordenados
+	 * pelo nome.
+	 *
+	 * @param perfil RESUMO para ler só os dados dos gerentes, DETALHE para ler também
+	 *        os seus clientes.
+	 *
+	 * @return Vector os gerentes.
+	 *
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public Vector<Gerente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException;
+	/**
+	 * Exclui um gerente armazenado EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 *
+	 * @param id o identificador do gerente.
+	 *
+	 * @exception GerenteInexistenteException lançada quando o gerente não existe no
+	 *            MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            no EM UM MECANISMO DE ARMAZENAMENTO DE DADOS.
+	 */
+	public void remover(int id)
+		throws GerenteInexistenteException, ErroAcessoRepositorioException;
+}
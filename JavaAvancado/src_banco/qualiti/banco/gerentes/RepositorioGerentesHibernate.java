@@ -0,0 +1,144 @@
+package qualiti.banco.gerentes;
+
+import java.util.List;
+import java.util.Vector;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import qualiti.banco.clientes.Cliente;
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.geral.PerfilCarga;
+import qualiti.banco.hibernateutil.HibernateConnectionUtil;
+
+/**
+ * Implementação do repositório de gerentes com Hibernate. Como no repositório de
+ * clientes, cada operação abre e fecha a sua própria sessão, e os gerentes retornados
+ * ficam desligados da sessão. Os clientes de um gerente só são carregados no perfil
+ * DETALHE, em lotes (ver @BatchSize em Gerente).
+ */
+public class RepositorioGerentesHibernate implements RepositorioGerentes {
+
+	private static final Logger LOG = Logger.getLogger(RepositorioGerentesHibernate.class);
+
+	private static final String MSG_ERRO_ACESSO_BD =
+		"Erro de acesso ao banco de dados";
+
+	//Abre a sessão de uma unidade de trabalho
+	private Session abrirSessao(){
+		return HibernateConnectionUtil.getSession();
+	}
+
+	//Desfaz a transação, se ela tiver sido iniciada, e fecha a sessão
+	private void encerrar(Session session, Transaction t){
+		try {
+			if (t != null && t.isActive()) {
+				t.rollback();
+			}
+		} catch (HibernateException e) {
+			LOG.warn("Erro ao desfazer a transacao", e);
+		} finally {
+			session.close();
+		}
+	}
+
+	private ErroAcessoRepositorioException erroAcesso(HibernateException e){
+		return new ErroAcessoRepositorioException(MSG_ERRO_ACESSO_BD, e, 0);
+	}
+
+	public void inserir(Gerente g) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			session.save(g);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	public void atualizar(Gerente g)
+			throws GerenteInexistenteException, ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			if (session.get(Gerente.class, g.getId()) == null) {
+				throw new GerenteInexistenteException(g.getId());
+			}
+			session.merge(g);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+
+	public Gerente procurar(int id, PerfilCarga perfil)
+			throws GerenteInexistenteException, ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		try {
+			Gerente g = (Gerente) session.get(Gerente.class, id);
+			if (g == null) {
+				throw new GerenteInexistenteException(id);
+			}
+			if (perfil == PerfilCarga.DETALHE) {
+				Hibernate.initialize(g.getClientes());
+			}
+			return g;
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	public Vector<Gerente> listar(PerfilCarga perfil) throws ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		try {
+			@SuppressWarnings("unchecked")
+			List<Gerente> gerentes = session.getNamedQuery("gerente.listar").list();
+			if (perfil == PerfilCarga.DETALHE) {
+				//com @BatchSize, cada inicialização carrega as coleções de vários gerentes
+				for (Gerente g : gerentes) {
+					Hibernate.initialize(g.getClientes());
+				}
+			}
+			return new Vector<Gerente>(gerentes);
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			session.close();
+		}
+	}
+
+	public void remover(int id)
+			throws GerenteInexistenteException, ErroAcessoRepositorioException {
+		Session session = abrirSessao();
+		Transaction t = null;
+		try {
+			t = session.beginTransaction();
+			Gerente g = (Gerente) session.get(Gerente.class, id);
+			if (g == null) {
+				throw new GerenteInexistenteException(id);
+			}
+			//o lado dono da associação é Cliente.gerentes
+			for (Cliente c : g.getClientes()) {
+				c.getGerentes().remove(g);
+			}
+			session.delete(g);
+			t.commit();
+		} catch (HibernateException e) {
+			throw erroAcesso(e);
+		} finally {
+			encerrar(session, t);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package qualiti.banco.gui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache dos resultados das consultas de uma tela, para que a mesma consulta repetida
+ * (o CPF digitado de novo, o botão de acesso depois da consulta feita durante a
+ * digitação) seja respondida sem ir ao banco de dados.
+ *
+ * O cache é limitado: quando está cheio, o resultado usado há mais tempo é descartado
+ * (LRU). Cada resultado também expira depois de um tempo de vida curto, já que outros
+ * usuários podem alterar os mesmos dados. A tela deve remover a entrada de um registro
+ * antes de alterá-lo.
+ *
+ * Não é sincronizado: deve ser usado apenas na thread de eventos do Swing, nos métodos
+ * concluir() das tarefas e nos tratadores de eventos da tela.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.gui.TarefaTela
+ */
+public class CacheConsultas<K, V> {
+
+	private Map<K, Entrada<V>> entradas;
+	private long tempoVidaNanos;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param capacidade a quantidade máxima de resultados guardados.
+	 * @param tempoVida o tempo de vida de cada resultado, em milissegundos.
+	 */
+	public CacheConsultas(final int capacidade, long tempoVida) {
+
+		this.tempoVidaNanos = tempoVida * 1000000L;
+		this.entradas = new LinkedHashMap<K, Entrada<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+				return size() > capacidade;
+			}
+		};
+	}
+
+	/**
+	 * Retorna um resultado guardado.
+	 *
+	 * @param chave a chave da consulta.
+	 *
+	 * @return V o resultado, ou null se ele não estiver no cache ou tiver expirado.
+	 */
+	public V get(K chave) {
+
+		Entrada<V> e = entradas.get(chave);
+		if (e == null) {
+			return null;
+		}
+		if (System.nanoTime() - e.nanosInclusao > tempoVidaNanos) {
+			entradas.remove(chave);
+			return null;
+		}
+		return e.valor;
+	}
+
+	/**
+	 * Guarda o resultado de uma consulta.
+	 *
+	 * @param chave a chave da consulta.
+	 * @param valor o resultado.
+	 */
+	public void put(K chave, V valor) {
+
+		entradas.put(chave, new Entrada<V>(valor));
+	}
+
+	/**
+	 * Remove o resultado de uma consulta, quando o registro vai ser alterado.
+	 *
+	 * @param chave a chave da consulta.
+	 */
+	public void remover(K chave) {
+
+		entradas.remove(chave);
+	}
+
+	/**
+	 * Remove todos os resultados.
+	 */
+	public void limpar() {
+
+		entradas.clear();
+	}
+
+	private static class Entrada<V> {
+
+		private V valor;
+		private long nanosInclusao = System.nanoTime();
+
+		Entrada(V valor) {
+			this.valor = valor;
+		}
+	}
+}
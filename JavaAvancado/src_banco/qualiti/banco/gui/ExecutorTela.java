@@ -0,0 +1,190 @@
+package qualiti.banco.gui;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * Executa as tarefas de acesso a dados de uma tela fora da thread de eventos do Swing,
+ * com SwingWorker, e entrega o resultado de volta na thread de eventos.
+ *
+ * Cada tarefa é executada em um canal, identificado por um nome (por exemplo,
+ * "consultaCpf" ou "gravacao"). Um canal tem no máximo uma tarefa em andamento:
+ * executar outra tarefa no mesmo canal cancela a anterior, cujo resultado é descartado.
+ * Assim, uma resposta atrasada do banco de dados nunca sobrescreve a de uma consulta
+ * mais recente. O cancelamento interrompe a thread da tarefa, mas uma chamada ao banco
+ * de dados já iniciada pode ir até o fim; apenas o seu resultado é ignorado.
+ *
+ * executarAdiado() espera um intervalo sem novas chamadas antes de iniciar a tarefa, para
+ * as consultas feitas enquanto o usuário digita: cada tecla reinicia a espera, e só a
+ * última consulta chega ao banco de dados.
+ *
+ * Enquanto houver tarefas iniciadas por executar(), a tela mostra o cursor de espera. As
+ * tarefas iniciadas por executarAdiado() não alteram o cursor.
+ *
+ * Todos os métodos devem ser chamados na thread de eventos.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.gui.TarefaTela
+ */
+public class ExecutorTela {
+
+	private Component tela;
+	private Map<String, Execucao<?>> emAndamento = new HashMap<String, Execucao<?>>();
+	private Map<String, Timer> adiadas = new HashMap<String, Timer>();
+	/**
+	 * Quantidade de tarefas em andamento que mostram o cursor de espera.
+	 */
+	private int ocupadas;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param tela a tela dona das tarefas, que mostra o cursor de espera e as mensagens
+	 *        de erro.
+	 */
+	public ExecutorTela(Component tela) {
+
+		this.tela = tela;
+	}
+
+	/**
+	 * Inicia uma tarefa, cancelando a tarefa em andamento ou adiada do mesmo canal.
+	 *
+	 * @param canal o canal da tarefa.
+	 * @param tarefa a tarefa.
+	 */
+	public <T> void executar(String canal, TarefaTela<T> tarefa) {
+
+		iniciar(canal, tarefa, true);
+	}
+
+	/**
+	 * Inicia uma tarefa depois de um intervalo, cancelando a tarefa em andamento ou
+	 * adiada do mesmo canal. Se outra tarefa for executada no canal antes do fim do
+	 * intervalo, esta tarefa não é executada.
+	 *
+	 * @param canal o canal da tarefa.
+	 * @param atraso o intervalo, em milissegundos.
+	 * @param tarefa a tarefa.
+	 */
+	public <T> void executarAdiado(final String canal, int atraso, final TarefaTela<T> tarefa) {
+
+		cancelar(canal);
+		Timer t = new Timer(atraso, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				adiadas.remove(canal);
+				iniciar(canal, tarefa, false);
+			}
+		});
+		t.setRepeats(false);
+		adiadas.put(canal, t);
+		t.start();
+	}
+
+	/**
+	 * Cancela a tarefa em andamento ou adiada de um canal. O resultado da tarefa, se ela
+	 * já tiver começado, é descartado.
+	 *
+	 * @param canal o canal.
+	 */
+	public void cancelar(String canal) {
+
+		Timer t = adiadas.remove(canal);
+		if (t != null) {
+			t.stop();
+		}
+		Execucao<?> ex = emAndamento.remove(canal);
+		if (ex != null) {
+			ex.cancel(true);
+			encerrada(ex);
+		}
+	}
+
+	/**
+	 * Verifica se um canal tem uma tarefa em andamento ou adiada.
+	 *
+	 * @param canal o canal.
+	 *
+	 * @return boolean true se houver uma tarefa no canal e false caso contrário.
+	 */
+	public boolean isExecutando(String canal) {
+
+		return emAndamento.containsKey(canal) || adiadas.containsKey(canal);
+	}
+
+	private <T> void iniciar(String canal, TarefaTela<T> tarefa, boolean espera) {
+
+		cancelar(canal);
+		Execucao<T> ex = new Execucao<T>(canal, tarefa, espera);
+		emAndamento.put(canal, ex);
+		if (espera && ocupadas++ == 0) {
+			tela.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		}
+		ex.execute();
+	}
+
+	/**
+	 * Chamado uma única vez para cada tarefa, quando ela é cancelada ou termina.
+	 */
+	private void encerrada(Execucao<?> ex) {
+
+		if (ex.espera && --ocupadas == 0) {
+			tela.setCursor(Cursor.getDefaultCursor());
+		}
+	}
+
+	/**
+	 * Execução de uma tarefa em um canal.
+	 */
+	private class Execucao<T> extends SwingWorker<T, Void> {
+
+		private String canal;
+		private TarefaTela<T> tarefa;
+		private boolean espera;
+
+		Execucao(String canal, TarefaTela<T> tarefa, boolean espera) {
+			this.canal = canal;
+			this.tarefa = tarefa;
+			this.espera = espera;
+		}
+
+		protected T doInBackground() throws Exception {
+
+			return tarefa.executar();
+		}
+
+		protected void done() {
+
+			// uma tarefa cancelada ou substituída já saiu do mapa
+			if (emAndamento.get(canal) != this) {
+				return;
+			}
+			emAndamento.remove(canal);
+			encerrada(this);
+			T resultado;
+			try {
+				resultado = get();
+			} catch (ExecutionException e) {
+				tarefa.falhar(tela, e.getCause());
+				return;
+			} catch (CancellationException e) {
+				return;
+			} catch (InterruptedException e) {
+				return;
+			}
+			tarefa.concluir(resultado);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package qualiti.banco.gui;
+
+import java.awt.Component;
+
+import javax.swing.JOptionPane;
+
+/**
+ * Uma operação de uma tela que acessa os dados do banco (em geral, uma chamada à
+ * Fachada). O método executar() roda fora da thread de eventos do Swing, de forma que a
+ * tela continua respondendo enquanto o banco de dados demora; concluir() e falhar()
+ * rodam depois na thread de eventos e podem alterar os componentes da tela.
+ *
+ * Quando a tarefa é cancelada, ou substituída por outra do mesmo canal, nem concluir()
+ * nem falhar() são chamados.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.gui.ExecutorTela
+ */
+public abstract class TarefaTela<T> {
+
+	/**
+	 * Executa o acesso aos dados. Roda fora da thread de eventos: não deve alterar os
+	 * componentes da tela.
+	 *
+	 * @return T o resultado, passado para concluir().
+	 */
+	protected abstract T executar() throws Exception;
+
+	/**
+	 * Mostra o resultado da tarefa. Roda na thread de eventos.
+	 *
+	 * @param resultado o valor retornado por executar().
+	 */
+	protected abstract void concluir(T resultado);
+
+	/**
+	 * Trata a exceção lançada por executar(). Roda na thread de eventos. A implementação
+	 * padrão mostra a mensagem da exceção em uma mensagem de erro, como as telas fazem.
+	 *
+	 * @param tela a tela dona da tarefa.
+	 * @param erro a exceção lançada por executar().
+	 */
+	protected void falhar(Component tela, Throwable erro) {
+
+		JOptionPane.showMessageDialog(tela, erro.getMessage(), "Mensagem de erro",
+			JOptionPane.ERROR_MESSAGE);
+	}
+}
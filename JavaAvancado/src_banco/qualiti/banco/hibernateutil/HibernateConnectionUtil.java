@@ -1,27 +1,51 @@
-package qualiti.banco.hibernateutil;
-
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.cfg.AnnotationConfiguration;
-
-public class HibernateConnectionUtil {
-
-	
-	private static SessionFactory sessionFactory;
-	
-	
-	static{
-		try {
-			AnnotationConfiguration acfg = new AnnotationConfiguration();
-			acfg.configure();
-			sessionFactory = acfg.buildSessionFactory();
-		} catch (Throwable ex) {
-				// Log exception!
-			throw new ExceptionInInitializerError(ex);
-		}		
-	}
-	
-	public static Session getSession(){
-		return sessionFactory.openSession();
-	}
-}
+package qualiti.banco.hibernateutil;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AnnotationConfiguration;
+
+import qualiti.banco.jdbcutil.BancoEmbutido;
+import qualiti.banco.jdbcutil.MigracaoEsquema;
+
+public class HibernateConnectionUtil {
+
+	
+	private static SessionFactory sessionFactory;
+	
+	
+	static{
+		try {
+			AnnotationConfiguration acfg = new AnnotationConfiguration();
+			acfg.configure();
+			//propriedades "hibernate.*" passadas na linha de comando (-D) têm precedência
+			//sobre o hibernate.cfg.xml; por exemplo, para usar um banco em memória
+			for (String nome : System.getProperties().stringPropertyNames()) {
+				if (nome.startsWith("hibernate.")) {
+					acfg.setProperty(nome, System.getProperty(nome));
+				}
+			}
+			//com url jdbc:hsqldb:mem: ou jdbc:hsqldb:file:, o HSQLDB roda neste processo
+			//e as tabelas sao criadas na primeira conexao (ver BancoEmbutido); depois,
+			//as migracoes pendentes do esquema sao aplicadas (ver MigracaoEsquema)
+			BancoEmbutido.preparar(
+					acfg.getProperty("hibernate.connection.driver_class"),
+					acfg.getProperty("hibernate.connection.url"),
+					acfg.getProperty("hibernate.connection.username"),
+					acfg.getProperty("hibernate.connection.password"),
+					acfg.getProperties());
+			MigracaoEsquema.migrar(
+					acfg.getProperty("hibernate.connection.driver_class"),
+					acfg.getProperty("hibernate.connection.url"),
+					acfg.getProperty("hibernate.connection.username"),
+					acfg.getProperty("hibernate.connection.password"));
+			sessionFactory = acfg.buildSessionFactory();
+		} catch (Throwable ex) {
+				// Log exception!
+			throw new ExceptionInInitializerError(ex);
+		}		
+	}
+	
+	public static Session getSession(){
+		return sessionFactory.openSession();
+	}
+}
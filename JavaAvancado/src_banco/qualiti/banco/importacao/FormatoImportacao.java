@@ -0,0 +1,65 @@
+package qualiti.banco.importacao;
+
+/**
+ * Formatos dos arquivos aceitos pelo ImportadorLote. Nos dois formatos cada linha traz
+ * um cliente e, opcionalmente, o seu endereço e uma conta, com os campos:
+ *
+ *   cpf          11 dígitos (obrigatório)
+ *   nome         até 100 caracteres (obrigatório)
+ *   cep          até 8 caracteres
+ *   numero       número do endereço, até 5 caracteres
+ *   complemento  até 100 caracteres
+ *   conta        número da conta, até 10 caracteres
+ *   saldo        saldo inicial da conta, como "1234,56" ou "1234.56" (padrão: 0)
+ *   tipo         tipo da conta: 1 conta, 2 poupança, 3 bonificada, 4 imposto
+ *                (padrão: 1)
+ *
+ * O endereço só é gravado se cep, numero ou complemento forem informados, e a conta
+ * só é criada se o número da conta for informado. Linhas em branco e linhas que
+ * começam com # são ignoradas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.importacao.ImportadorLote
+ */
+public enum FormatoImportacao {
+
+	/**
+	 * Campos separados por ponto e vírgula, na ordem acima. Um campo pode vir entre
+	 * aspas duplas, e nesse caso pode conter ponto e vírgula (aspas dentro do campo
+	 * são escritas duas vezes). Os campos finais vazios podem ser omitidos. Se a
+	 * primeira linha começar com "cpf", ela é tomada como cabeçalho e ignorada.
+	 */
+	CSV,
+
+	/**
+	 * Campos de largura fixa, na ordem acima, completados com espaços: cpf 11,
+	 * nome 100, cep 8, numero 5, complemento 100, conta 10, saldo 17 e tipo 1
+	 * posições. As larguras são contadas em bytes. Uma linha pode terminar antes do
+	 * fim dos campos opcionais.
+	 */
+	LARGURA_FIXA;
+
+	/**
+	 * Larguras dos campos no formato LARGURA_FIXA, na ordem dos campos.
+	 */
+	static final int[] LARGURAS = {11, 100, 8, 5, 100, 10, 17, 1};
+
+	/**
+	 * Converte o nome usado na linha de comando ("csv" ou "fixo") para o formato.
+	 *
+	 * @exception IllegalArgumentException se o nome não for de nenhum formato.
+	 */
+	public static FormatoImportacao deNome(String nome) {
+
+		if ("csv".equalsIgnoreCase(nome)) {
+			return CSV;
+		}
+		if ("fixo".equalsIgnoreCase(nome) || "largura_fixa".equalsIgnoreCase(nome)) {
+			return LARGURA_FIXA;
+		}
+		throw new IllegalArgumentException("Formato de importacao desconhecido: " + nome);
+	}
+}
@@ -0,0 +1,539 @@
+package qualiti.banco.importacao;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.geral.Dinheiro;
+import qualiti.banco.geral.ErroAcessoRepositorioException;
+import qualiti.banco.jdbcutil.JDBCConnectionUtil;
+import qualiti.banco.metricas.Medicao;
+import qualiti.banco.metricas.Metricas;
+
+/**
+ * Importação em massa de clientes, endereços e contas a partir de um arquivo CSV ou de
+ * largura fixa (ver FormatoImportacao), direto nas tabelas tb_cliente, tb_endereco e
+ * tb_conta, sem passar pelos cadastros.
+ *
+ * A importação é feita em duas etapas:
+ *
+ * - Leitura: o arquivo é dividido em trechos, que são mapeados em memória e lidos e
+ *   validados em paralelo (LeitorTrecho). Em seguida, na ordem do arquivo, os CPFs
+ *   repetidos são consolidados (vale o nome e o endereço da primeira linha) e os
+ *   números de conta repetidos são rejeitados.
+ * - Gravação: os CPFs e os números de conta já cadastrados são consultados em lotes;
+ *   os clientes já cadastrados não são alterados e as contas já cadastradas são
+ *   rejeitadas. Os registros novos são gravados com comandos em lote (addBatch), em
+ *   uma transação a cada tamanhoLote registros: primeiro os clientes e endereços,
+ *   depois as contas.
+ *
+ * Se ocorrer um erro de acesso ao banco de dados no meio da gravação, somente a
+ * transação corrente é desfeita: os lotes anteriores continuam gravados, e o arquivo
+ * pode ser importado de novo, já que os clientes gravados passam a ser considerados
+ * já cadastrados. Os cadastros e repositórios que mantêm dados em memória (como os
+ * índices de RepositorioContasBDR e RepositorioClientesCache) não enxergam os
+ * registros importados enquanto estiverem abertos; a importação deve ser feita com o
+ * sistema parado, ou antes da criação da Fachada.
+ *
+ * Executada como programa, a classe importa um arquivo no banco do jdbc.properties:
+ *
+ *   java qualiti.banco.importacao.ImportadorLote arquivo [csv|fixo]
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.importacao.FormatoImportacao
+ * @see qualiti.banco.importacao.RelatorioImportacao
+ */
+public class ImportadorLote {
+
+	/**
+	 * Quantidade padrão de registros gravados por transação.
+	 */
+	public static final int TAMANHO_LOTE_PADRAO = 1000;
+
+	/**
+	 * Codificação padrão dos arquivos, que vêm do Windows.
+	 */
+	public static final String CODIFICACAO_PADRAO = "ISO-8859-1";
+
+	/**
+	 * Tamanho mínimo de um trecho lido em paralelo, em bytes.
+	 */
+	private static final long TAMANHO_TRECHO_MINIMO = 1 << 20;
+
+	/**
+	 * Tamanho máximo de um trecho, para que ele e a sua última linha caibam em um
+	 * único mapeamento.
+	 */
+	private static final long TAMANHO_TRECHO_MAXIMO = Integer.MAX_VALUE - LeitorTrecho.LINHA_MAXIMA - 1;
+
+	/**
+	 * Trechos por thread de leitura, para equilibrar a carga quando as linhas de um
+	 * trecho são mais demoradas que as de outro.
+	 */
+	private static final int TRECHOS_POR_THREAD = 4;
+
+	/**
+	 * Na verificação das chaves já cadastradas, a tabela inteira é lida quando tem menos
+	 * que esta quantidade de linhas por chave procurada; senão, cada chave é procurada
+	 * pelo índice. O HSQLDB não usa os índices em consultas com IN (?, ?, ...), e por isso
+	 * as chaves não são procuradas em lotes.
+	 */
+	private static final int LINHAS_POR_CHAVE_VARREDURA = 8;
+
+	private static final String INSERT_CLI =
+		"INSERT INTO tb_cliente (cpf,nome) VALUES (?,?)";
+
+	private static final String INSERT_END =
+		"INSERT INTO tb_endereco (cep,numero,complemento,tb_cliente_cpf) VALUES (?,?,?,?)";
+
+	private static final String INSERT_CTA =
+		"INSERT INTO tb_conta (tb_cliente_cpf,numero,saldo,tipo) VALUES (?,?,?,?)";
+
+	private static final String[] EXISTE_CLI = {
+		"SELECT COUNT(*) FROM tb_cliente",
+		"SELECT cpf FROM tb_cliente",
+		"SELECT cpf FROM tb_cliente WHERE cpf = ?"
+	};
+
+	private static final String[] EXISTE_CTA = {
+		"SELECT COUNT(*) FROM tb_conta",
+		"SELECT numero FROM tb_conta",
+		"SELECT numero FROM tb_conta WHERE numero = ?"
+	};
+
+	/**
+	 * Mensagem que indica erro de acesso ao banco de dados.
+	 */
+	private static final String MSG_ERRO_ACESSO_BD =
+		"Erro de acesso ao banco de dados";
+
+	private static final Logger LOG = Logger.getLogger(ImportadorLote.class);
+
+	private FormatoImportacao formato;
+	private Charset codificacao;
+	private int threads;
+	private int tamanhoLote;
+
+	/**
+	 * O construtor da classe. Usa a codificação ISO-8859-1, uma thread de leitura por
+	 * processador e o tamanho de lote padrão.
+	 *
+	 * @param formato o formato dos arquivos.
+	 */
+	public ImportadorLote(FormatoImportacao formato) {
+
+		this(formato, Charset.forName(CODIFICACAO_PADRAO),
+			Runtime.getRuntime().availableProcessors(), TAMANHO_LOTE_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param formato o formato dos arquivos.
+	 * @param codificacao a codificação dos arquivos. Deve representar os caracteres
+	 *        ASCII com um byte, como a ISO-8859-1 e a UTF-8.
+	 * @param threads a quantidade de threads de leitura.
+	 * @param tamanhoLote a quantidade de registros gravados por transação.
+	 */
+	public ImportadorLote(FormatoImportacao formato, Charset codificacao, int threads, int tamanhoLote) {
+
+		if (threads < 1) {
+			throw new IllegalArgumentException("Quantidade de threads invalida: " + threads);
+		}
+		if (tamanhoLote < 1) {
+			throw new IllegalArgumentException("Tamanho de lote invalido: " + tamanhoLote);
+		}
+		this.formato = formato;
+		this.codificacao = codificacao;
+		this.threads = threads;
+		this.tamanhoLote = tamanhoLote;
+	}
+
+	/**
+	 * Importa um arquivo.
+	 *
+	 * @param arquivo o arquivo a ser importado.
+	 *
+	 * @return RelatorioImportacao as quantidades importadas e as linhas rejeitadas.
+	 *
+	 * @exception IOException lançada quando não for possível ler o arquivo.
+	 * @exception ErroAcessoRepositorioException lançada quando ocorrer erro de acesso
+	 *            ao banco de dados relacional. Os lotes já confirmados continuam
+	 *            gravados.
+	 */
+	public RelatorioImportacao importar(File arquivo)
+		throws IOException, ErroAcessoRepositorioException {
+
+		Medicao m = Metricas.iniciar("ImportadorLote.importar");
+		try {
+			RelatorioImportacao rel = new RelatorioImportacao();
+			long inicio = System.nanoTime();
+			List<LeitorTrecho> trechos = ler(arquivo);
+			Map<String, RegistroImportacao> clientes = new LinkedHashMap<String, RegistroImportacao>();
+			List<RegistroImportacao> contas = new ArrayList<RegistroImportacao>();
+			consolidar(trechos, rel, clientes, contas);
+			rel.nanosLeitura = System.nanoTime() - inicio;
+
+			inicio = System.nanoTime();
+			Set<String> existentes = consultarExistentes(EXISTE_CLI, clientes.keySet());
+			List<RegistroImportacao> novos = new ArrayList<RegistroImportacao>(clientes.size());
+			for (RegistroImportacao r : clientes.values()) {
+				if (!existentes.contains(r.cpf)) {
+					novos.add(r);
+				}
+			}
+			rel.clientesExistentes = clientes.size() - novos.size();
+			Set<String> numeros = new HashSet<String>(contas.size() * 2);
+			for (RegistroImportacao r : contas) {
+				numeros.add(r.conta);
+			}
+			existentes = consultarExistentes(EXISTE_CTA, numeros);
+			List<RegistroImportacao> contasNovas = new ArrayList<RegistroImportacao>(contas.size());
+			for (RegistroImportacao r : contas) {
+				if (existentes.contains(r.conta)) {
+					rel.rejeicoes.add(new RelatorioImportacao.Rejeicao(r.linha, "conta ja cadastrada: " + r.conta));
+				} else {
+					contasNovas.add(r);
+				}
+			}
+			gravarClientes(novos, rel);
+			gravarContas(contasNovas, rel);
+			rel.nanosGravacao = System.nanoTime() - inicio;
+
+			Collections.sort(rel.rejeicoes, new Comparator<RelatorioImportacao.Rejeicao>() {
+				public int compare(RelatorioImportacao.Rejeicao a, RelatorioImportacao.Rejeicao b) {
+					return a.getLinha() < b.getLinha() ? -1 : (a.getLinha() == b.getLinha() ? 0 : 1);
+				}
+			});
+			LOG.info("Importacao de " + arquivo + ": " + rel.linhas + " linhas, "
+				+ rel.rejeicoes.size() + " rejeitadas, "
+				+ Math.round(rel.getLinhasPorSegundo()) + " linhas/s");
+			return rel;
+		} catch (IOException e) {
+			Metricas.falhar(m);
+			throw e;
+		} catch (ErroAcessoRepositorioException e) {
+			Metricas.falhar(m);
+			throw e;
+		} catch (RuntimeException e) {
+			Metricas.falhar(m);
+			throw e;
+		} finally {
+			Metricas.encerrar(m);
+		}
+	}
+
+	/**
+	 * Lê o arquivo em paralelo, um trecho por tarefa.
+	 *
+	 * @return List os trechos lidos, na ordem do arquivo.
+	 */
+	private List<LeitorTrecho> ler(File arquivo) throws IOException {
+
+		FileInputStream in = new FileInputStream(arquivo);
+		try {
+			FileChannel canal = in.getChannel();
+			long tamanho = canal.size();
+			long tamanhoTrecho = Math.max(TAMANHO_TRECHO_MINIMO, tamanho / (threads * TRECHOS_POR_THREAD) + 1);
+			tamanhoTrecho = Math.min(tamanhoTrecho, TAMANHO_TRECHO_MAXIMO);
+			List<LeitorTrecho> trechos = new ArrayList<LeitorTrecho>();
+			for (long ini = 0; ini < tamanho; ini += tamanhoTrecho) {
+				trechos.add(new LeitorTrecho(canal, tamanho, ini, Math.min(tamanho, ini + tamanhoTrecho),
+					formato, codificacao));
+			}
+			if (trechos.size() == 1) {
+				trechos.get(0).call();
+				return trechos;
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, trechos.size()));
+			try {
+				List<Future<LeitorTrecho>> futuros = executor.invokeAll(trechos);
+				for (Future<LeitorTrecho> f : futuros) {
+					f.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Leitura do arquivo interrompida", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IOException("Erro na leitura do arquivo", e.getCause());
+			} finally {
+				executor.shutdown();
+			}
+			return trechos;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Numera as linhas a partir do início do arquivo e consolida os registros dos
+	 * trechos, na ordem do arquivo: cada CPF aparece uma única vez em clientes, e cada
+	 * número de conta uma única vez em contas.
+	 */
+	private void consolidar(
+		List<LeitorTrecho> trechos,
+		RelatorioImportacao rel,
+		Map<String, RegistroImportacao> clientes,
+		List<RegistroImportacao> contas) {
+
+		Set<String> numeros = new HashSet<String>();
+		long deslocamento = 0;
+		for (LeitorTrecho t : trechos) {
+			rel.linhas += t.linhasDados;
+			for (RelatorioImportacao.Rejeicao r : t.rejeicoes) {
+				rel.rejeicoes.add(new RelatorioImportacao.Rejeicao(r.getLinha() + deslocamento, r.getMotivo()));
+			}
+			for (RegistroImportacao r : t.registros) {
+				r.linha += deslocamento;
+				if (r.conta != null && !numeros.add(r.conta)) {
+					rel.rejeicoes.add(new RelatorioImportacao.Rejeicao(r.linha, "conta repetida no arquivo: " + r.conta));
+					continue;
+				}
+				if (clientes.containsKey(r.cpf)) {
+					rel.clientesRepetidos++;
+				} else {
+					clientes.put(r.cpf, r);
+				}
+				if (r.conta != null) {
+					contas.add(r);
+				}
+			}
+			deslocamento += t.linhas;
+		}
+	}
+
+	/**
+	 * Retorna as chaves que já estão cadastradas. Conforme a quantidade de chaves e o
+	 * tamanho da tabela, ou as chaves da tabela inteira são lidas em uma única consulta,
+	 * ou cada chave é procurada pelo índice (ver LINHAS_POR_CHAVE_VARREDURA).
+	 *
+	 * @param sql os comandos de contagem das linhas da tabela, de leitura de todas as
+	 *        chaves e de procura de uma chave.
+	 * @param chaves as chaves procuradas.
+	 */
+	private Set<String> consultarExistentes(String[] sql, Collection<String> chaves)
+		throws ErroAcessoRepositorioException {
+
+		Set<String> resp = new HashSet<String>();
+		if (chaves.isEmpty()) {
+			return resp;
+		}
+		Connection con = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			con = JDBCConnectionUtil.getConnection();
+			ps = con.prepareStatement(sql[0]);
+			rs = ps.executeQuery();
+			long linhas = rs.next() ? rs.getLong(1) : 0;
+			rs.close();
+			rs = null;
+			ps.close();
+			ps = null;
+			if (linhas == 0) {
+				return resp;
+			}
+			if (linhas < (long) chaves.size() * LINHAS_POR_CHAVE_VARREDURA) {
+				ps = con.prepareStatement(sql[1]);
+				rs = ps.executeQuery();
+				while (rs.next()) {
+					String chave = rs.getString(1).trim();
+					if (chaves.contains(chave)) {
+						resp.add(chave);
+					}
+				}
+			} else {
+				ps = con.prepareStatement(sql[2]);
+				for (String chave : chaves) {
+					ps.setString(1, chave);
+					rs = ps.executeQuery();
+					if (rs.next()) {
+						resp.add(chave);
+					}
+					rs.close();
+					rs = null;
+				}
+			}
+			return resp;
+		} catch (SQLException e) {
+			throw new ErroAcessoRepositorioException(
+				MSG_ERRO_ACESSO_BD,
+				e,
+				e.getErrorCode());
+		} finally {
+			fechaRecursos(con, ps, rs);
+		}
+	}
+
+	/**
+	 * Grava os clientes e os seus endereços, em uma transação a cada tamanhoLote
+	 * clientes.
+	 */
+	private void gravarClientes(List<RegistroImportacao> registros, RelatorioImportacao rel)
+		throws ErroAcessoRepositorioException {
+
+		for (int i = 0; i < registros.size(); i += tamanhoLote) {
+			List<RegistroImportacao> lote = registros.subList(i, Math.min(i + tamanhoLote, registros.size()));
+			Connection con = null;
+			PreparedStatement psCli = null;
+			PreparedStatement psEnd = null;
+			int enderecos = 0;
+			try {
+				JDBCConnectionUtil.createTransaction();
+				con = JDBCConnectionUtil.getConnection();
+				psCli = con.prepareStatement(INSERT_CLI);
+				psEnd = con.prepareStatement(INSERT_END);
+				for (RegistroImportacao r : lote) {
+					psCli.setString(1, r.cpf);
+					psCli.setString(2, r.nome);
+					psCli.addBatch();
+					if (r.temEndereco()) {
+						psEnd.setString(1, r.cep);
+						psEnd.setString(2, r.numeroEndereco);
+						psEnd.setString(3, r.complemento);
+						psEnd.setString(4, r.cpf);
+						psEnd.addBatch();
+						enderecos++;
+					}
+				}
+				psCli.executeBatch();
+				if (enderecos > 0) {
+					psEnd.executeBatch();
+				}
+				JDBCConnectionUtil.commitTransaction();
+			} catch (SQLException e) {
+				desfazer();
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(null, psEnd, null);
+				fechaRecursos(con, psCli, null);
+			}
+			rel.clientesInseridos += lote.size();
+			rel.enderecosInseridos += enderecos;
+		}
+	}
+
+	/**
+	 * Grava as contas, em uma transação a cada tamanhoLote contas.
+	 */
+	private void gravarContas(List<RegistroImportacao> registros, RelatorioImportacao rel)
+		throws ErroAcessoRepositorioException {
+
+		for (int i = 0; i < registros.size(); i += tamanhoLote) {
+			List<RegistroImportacao> lote = registros.subList(i, Math.min(i + tamanhoLote, registros.size()));
+			Connection con = null;
+			PreparedStatement ps = null;
+			try {
+				JDBCConnectionUtil.createTransaction();
+				con = JDBCConnectionUtil.getConnection();
+				ps = con.prepareStatement(INSERT_CTA);
+				for (RegistroImportacao r : lote) {
+					ps.setString(1, r.cpf);
+					ps.setString(2, r.conta);
+					ps.setBigDecimal(3, Dinheiro.paraDecimal(r.saldo));
+					ps.setInt(4, r.tipo);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				JDBCConnectionUtil.commitTransaction();
+			} catch (SQLException e) {
+				desfazer();
+				throw new ErroAcessoRepositorioException(
+					MSG_ERRO_ACESSO_BD,
+					e,
+					e.getErrorCode());
+			} finally {
+				fechaRecursos(con, ps, null);
+			}
+			rel.contasInseridas += lote.size();
+		}
+	}
+
+	private void desfazer() {
+
+		try {
+			JDBCConnectionUtil.rollbackTransaction();
+		} catch (SQLException e) {
+			LOG.warn("Erro ao desfazer a transacao", e);
+		}
+	}
+
+	/**
+	 * Fecha os recursos passados como parâmetros.
+	 *
+	 * @param con a conexão a ser fechada.
+	 * @param ps o prepared statement a ser fechado.
+	 * @param rs o result set a ser fechado.
+	 */
+	private void fechaRecursos(
+		Connection con,
+		PreparedStatement ps,
+		ResultSet rs) {
+
+		try {
+			if (rs != null)
+				rs.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (ps != null)
+				ps.close();
+		} catch (Exception e) {
+		}
+		try {
+			if (con != null)
+				con.close();
+		} catch (Exception e) {
+		}
+	}
+
+	/**
+	 * Importa um arquivo no banco do jdbc.properties e mostra o relatório. O formato
+	 * padrão é csv.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 1 || args.length > 2) {
+			System.out.println("Uso: java " + ImportadorLote.class.getName() + " arquivo [csv|fixo]");
+			System.exit(2);
+		}
+		FormatoImportacao formato = args.length > 1
+			? FormatoImportacao.deNome(args[1])
+			: FormatoImportacao.CSV;
+		RelatorioImportacao rel = new ImportadorLote(formato).importar(new File(args[0]));
+		System.out.println(rel);
+	}
+}
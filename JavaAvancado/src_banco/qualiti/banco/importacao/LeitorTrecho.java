@@ -0,0 +1,354 @@
+package qualiti.banco.importacao;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import qualiti.banco.geral.Dinheiro;
+
+/**
+ * Leitura de um trecho do arquivo importado, executada em paralelo com a dos demais
+ * trechos. O trecho é mapeado em memória (FileChannel.map) e contém as linhas que
+ * começam entre as posições inicio (inclusive) e fim (exclusive); a última linha pode
+ * terminar depois do fim, e por isso são mapeados também até LINHA_MAXIMA bytes
+ * seguintes. As linhas são validadas e convertidas em RegistroImportacao; as
+ * inválidas são rejeitadas com o motivo. As linhas são numeradas a partir do início
+ * do trecho.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+class LeitorTrecho implements Callable<LeitorTrecho> {
+
+	/**
+	 * Tamanho máximo de uma linha, em bytes.
+	 */
+	static final int LINHA_MAXIMA = 1 << 20;
+
+	private static final int CPF = 0;
+	private static final int NOME = 1;
+	private static final int CEP = 2;
+	private static final int NUMERO = 3;
+	private static final int COMPLEMENTO = 4;
+	private static final int CONTA = 5;
+	private static final int SALDO = 6;
+	private static final int TIPO = 7;
+	private static final int CAMPOS = 8;
+
+	/**
+	 * Tamanhos máximos dos campos de texto, conforme as colunas das tabelas.
+	 */
+	private static final int[] TAMANHOS = {11, 100, 8, 5, 100, 10};
+	private static final String[] NOMES = {"CPF", "nome", "CEP", "numero", "complemento", "conta"};
+
+	/**
+	 * Limite do saldo, em unidades de Dinheiro: a coluna saldo é DECIMAL(16,4).
+	 */
+	private static final long SALDO_LIMITE = 10000000000000000L;
+
+	/**
+	 * Maior valor da coluna tipo de tb_conta: os tipos de 1 a 4 são os discriminadores
+	 * das contas no mapeamento do hibernate.
+	 */
+	private static final int TIPO_MAXIMO = 4;
+
+	private FileChannel canal;
+	private long tamanhoArquivo;
+	private long inicio;
+	private long fim;
+	private FormatoImportacao formato;
+	private Charset codificacao;
+
+	/**
+	 * Quantidade de linhas que começam no trecho, incluindo as linhas em branco e os
+	 * comentários.
+	 */
+	long linhas;
+	/**
+	 * Quantidade de linhas de dados, válidas ou não.
+	 */
+	long linhasDados;
+	List<RegistroImportacao> registros = new ArrayList<RegistroImportacao>();
+	List<RelatorioImportacao.Rejeicao> rejeicoes = new ArrayList<RelatorioImportacao.Rejeicao>();
+
+	private String[] campos = new String[CAMPOS];
+	private byte[] linha = new byte[256];
+	private byte[] campo = new byte[256];
+
+	LeitorTrecho(
+		FileChannel canal,
+		long tamanhoArquivo,
+		long inicio,
+		long fim,
+		FormatoImportacao formato,
+		Charset codificacao) {
+
+		this.canal = canal;
+		this.tamanhoArquivo = tamanhoArquivo;
+		this.inicio = inicio;
+		this.fim = fim;
+		this.formato = formato;
+		this.codificacao = codificacao;
+	}
+
+	public LeitorTrecho call() throws IOException {
+
+		// a partir do byte anterior ao trecho, para saber se o trecho começa uma linha
+		long inicioMapa = inicio == 0 ? 0 : inicio - 1;
+		long fimMapa = Math.min(tamanhoArquivo, fim + LINHA_MAXIMA);
+		MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, inicioMapa, fimMapa - inicioMapa);
+		int limiteMapa = buf.limit();
+		int limite = (int) (fim - inicioMapa);
+		int pos = 0;
+		if (inicio > 0) {
+			// a linha que começou no trecho anterior pertence a ele
+			while (pos < limiteMapa && buf.get(pos) != '\n') {
+				pos++;
+			}
+			pos++;
+		}
+		while (pos < limite) {
+			int fimLinha = pos;
+			while (fimLinha < limiteMapa && buf.get(fimLinha) != '\n') {
+				fimLinha++;
+			}
+			linhas++;
+			if (fimLinha == limiteMapa && fimMapa < tamanhoArquivo) {
+				linhasDados++;
+				rejeitar("linha com mais de " + LINHA_MAXIMA + " bytes");
+				break;
+			}
+			int tamanho = fimLinha - pos;
+			if (tamanho > 0 && buf.get(fimLinha - 1) == '\r') {
+				tamanho--;
+			}
+			if (tamanho > linha.length) {
+				linha = new byte[Math.max(tamanho, linha.length * 2)];
+				campo = new byte[linha.length];
+			}
+			buf.position(pos);
+			buf.get(linha, 0, tamanho);
+			processar(tamanho);
+			pos = fimLinha + 1;
+		}
+		return this;
+	}
+
+	/**
+	 * Processa a linha que está no início de linha.
+	 */
+	private void processar(int tamanho) {
+
+		if (ignorar(tamanho)) {
+			return;
+		}
+		linhasDados++;
+		String erro = formato == FormatoImportacao.CSV
+			? separarCsv(tamanho)
+			: separarLarguraFixa(tamanho);
+		if (erro == null) {
+			erro = validar();
+		}
+		if (erro != null) {
+			rejeitar(erro);
+		}
+	}
+
+	/**
+	 * Indica se a linha está em branco, é um comentário ou é o cabeçalho.
+	 */
+	private boolean ignorar(int tamanho) {
+
+		int i = 0;
+		while (i < tamanho && (linha[i] == ' ' || linha[i] == '\t')) {
+			i++;
+		}
+		if (i == tamanho || linha[i] == '#') {
+			return true;
+		}
+		return formato == FormatoImportacao.CSV && inicio == 0 && linhas == 1
+			&& tamanho - i >= 3
+			&& (linha[i] == 'c' || linha[i] == 'C')
+			&& (linha[i + 1] == 'p' || linha[i + 1] == 'P')
+			&& (linha[i + 2] == 'f' || linha[i + 2] == 'F');
+	}
+
+	/**
+	 * Separa os campos de uma linha CSV.
+	 *
+	 * @return String o motivo da rejeição, ou null se a linha estiver bem formada.
+	 */
+	private String separarCsv(int tamanho) {
+
+		int n = 0;
+		int i = 0;
+		while (true) {
+			if (n == CAMPOS) {
+				return "mais de " + CAMPOS + " campos";
+			}
+			int t = 0;
+			// espaços antes das aspas de abertura são descartados
+			int j = i;
+			while (j < tamanho && linha[j] == ' ') {
+				j++;
+			}
+			if (j < tamanho && linha[j] == '"') {
+				i = j + 1;
+				while (true) {
+					if (i == tamanho) {
+						return "aspas nao fechadas";
+					}
+					if (linha[i] == '"') {
+						if (i + 1 < tamanho && linha[i + 1] == '"') {
+							campo[t++] = '"';
+							i += 2;
+						} else {
+							i++;
+							break;
+						}
+					} else {
+						campo[t++] = linha[i++];
+					}
+				}
+				while (i < tamanho && linha[i] == ' ') {
+					i++;
+				}
+				if (i < tamanho && linha[i] != ';') {
+					return "texto depois das aspas de fechamento";
+				}
+			} else {
+				while (i < tamanho && linha[i] != ';') {
+					campo[t++] = linha[i++];
+				}
+			}
+			campos[n++] = texto(campo, 0, t);
+			if (i == tamanho) {
+				break;
+			}
+			// ponto e vírgula
+			i++;
+		}
+		while (n < CAMPOS) {
+			campos[n++] = null;
+		}
+		return null;
+	}
+
+	/**
+	 * Separa os campos de uma linha de largura fixa.
+	 *
+	 * @return String o motivo da rejeição, ou null se a linha estiver bem formada.
+	 */
+	private String separarLarguraFixa(int tamanho) {
+
+		int pos = 0;
+		for (int i = 0; i < CAMPOS; i++) {
+			int largura = FormatoImportacao.LARGURAS[i];
+			campos[i] = pos < tamanho ? texto(linha, pos, Math.min(pos + largura, tamanho)) : null;
+			pos += largura;
+		}
+		if (tamanho > pos && texto(linha, pos, tamanho) != null) {
+			return "linha com mais de " + pos + " posicoes";
+		}
+		return null;
+	}
+
+	/**
+	 * Valida os campos separados e, se estiverem corretos, acrescenta o registro.
+	 *
+	 * @return String o motivo da rejeição, ou null se os campos estiverem corretos.
+	 */
+	private String validar() {
+
+		if (campos[CPF] == null) {
+			return "CPF nao informado";
+		}
+		if (!isCpf(campos[CPF])) {
+			return "CPF invalido: " + campos[CPF];
+		}
+		if (campos[NOME] == null) {
+			return "nome nao informado";
+		}
+		for (int i = NOME; i <= CONTA; i++) {
+			if (campos[i] != null && campos[i].length() > TAMANHOS[i]) {
+				return NOMES[i] + " com mais de " + TAMANHOS[i] + " caracteres";
+			}
+		}
+		RegistroImportacao r = new RegistroImportacao();
+		r.linha = linhas;
+		r.cpf = campos[CPF];
+		r.nome = campos[NOME];
+		r.cep = campos[CEP];
+		r.numeroEndereco = campos[NUMERO];
+		r.complemento = campos[COMPLEMENTO];
+		r.conta = campos[CONTA];
+		if (r.conta == null) {
+			if (campos[SALDO] != null || campos[TIPO] != null) {
+				return "saldo ou tipo sem o numero da conta";
+			}
+		} else {
+			if (campos[SALDO] != null) {
+				try {
+					r.saldo = Dinheiro.deTexto(campos[SALDO]);
+				} catch (NumberFormatException e) {
+					return "saldo invalido: " + campos[SALDO];
+				} catch (ArithmeticException e) {
+					return "saldo invalido: " + campos[SALDO];
+				}
+				if (r.saldo >= SALDO_LIMITE || r.saldo <= -SALDO_LIMITE) {
+					return "saldo fora do limite: " + campos[SALDO];
+				}
+			}
+			r.tipo = 1;
+			if (campos[TIPO] != null) {
+				String tipo = campos[TIPO];
+				if (tipo.length() != 1 || tipo.charAt(0) < '1' || tipo.charAt(0) > '0' + TIPO_MAXIMO) {
+					return "tipo de conta invalido: " + tipo;
+				}
+				r.tipo = tipo.charAt(0) - '0';
+			}
+		}
+		registros.add(r);
+		return null;
+	}
+
+	private void rejeitar(String motivo) {
+
+		rejeicoes.add(new RelatorioImportacao.Rejeicao(linhas, motivo));
+	}
+
+	private static boolean isCpf(String s) {
+
+		if (s.length() != 11) {
+			return false;
+		}
+		for (int i = 0; i < 11; i++) {
+			char ch = s.charAt(i);
+			if (ch < '0' || ch > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converte os bytes de um campo para texto, sem os espaços das pontas.
+	 *
+	 * @return String o texto, ou null se o campo estiver vazio.
+	 */
+	private String texto(byte[] b, int ini, int fim) {
+
+		while (ini < fim && (b[ini] == ' ' || b[ini] == '\t')) {
+			ini++;
+		}
+		while (fim > ini && (b[fim - 1] == ' ' || b[fim - 1] == '\t')) {
+			fim--;
+		}
+		return ini == fim ? null : new String(b, ini, fim - ini, codificacao);
+	}
+}
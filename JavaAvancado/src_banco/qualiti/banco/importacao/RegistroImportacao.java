@@ -0,0 +1,37 @@
+package qualiti.banco.importacao;
+
+/**
+ * Uma linha válida do arquivo importado: o cliente e, se informados, o endereço e a
+ * conta. Os campos opcionais não informados ficam com null.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ */
+class RegistroImportacao {
+
+	/**
+	 * Linha do arquivo, a partir de 1. Durante a leitura paralela é a linha dentro do
+	 * trecho; o ImportadorLote a corrige depois para a linha no arquivo.
+	 */
+	long linha;
+
+	String cpf;
+	String nome;
+
+	String cep;
+	String numeroEndereco;
+	String complemento;
+
+	String conta;
+	long saldo;
+	int tipo;
+
+	/**
+	 * Indica se a linha traz o endereço do cliente.
+	 */
+	boolean temEndereco() {
+
+		return cep != null || numeroEndereco != null || complemento != null;
+	}
+}
@@ -0,0 +1,168 @@
+package qualiti.banco.importacao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de uma importação: quantidades de linhas lidas e de registros gravados,
+ * linhas rejeitadas com o motivo e tempos de leitura e de gravação.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.importacao.ImportadorLote
+ */
+public class RelatorioImportacao {
+
+	/**
+	 * Quantidade máxima de rejeições mostradas por toString().
+	 */
+	private static final int REJEICOES_MOSTRADAS = 20;
+
+	/**
+	 * Uma linha rejeitada.
+	 */
+	public static class Rejeicao {
+
+		private long linha;
+		private String motivo;
+
+		Rejeicao(long linha, String motivo) {
+			this.linha = linha;
+			this.motivo = motivo;
+		}
+
+		/**
+		 * Retorna a linha do arquivo, a partir de 1.
+		 */
+		public long getLinha() {
+
+			return linha;
+		}
+
+		public String getMotivo() {
+
+			return motivo;
+		}
+
+		public String toString() {
+
+			return "linha " + linha + ": " + motivo;
+		}
+	}
+
+	long linhas;
+	long clientesInseridos;
+	long clientesExistentes;
+	long clientesRepetidos;
+	long enderecosInseridos;
+	long contasInseridas;
+	long nanosLeitura;
+	long nanosGravacao;
+	List<Rejeicao> rejeicoes = new ArrayList<Rejeicao>();
+
+	/**
+	 * Retorna a quantidade de linhas de dados lidas, sem contar as linhas em branco,
+	 * os comentários e o cabeçalho.
+	 */
+	public long getLinhas() {
+
+		return linhas;
+	}
+
+	/**
+	 * Retorna a quantidade de clientes gravados.
+	 */
+	public long getClientesInseridos() {
+
+		return clientesInseridos;
+	}
+
+	/**
+	 * Retorna a quantidade de clientes do arquivo que já estavam cadastrados. Eles não
+	 * são alterados, mas as suas contas são importadas.
+	 */
+	public long getClientesExistentes() {
+
+		return clientesExistentes;
+	}
+
+	/**
+	 * Retorna a quantidade de linhas com o CPF de um cliente que já apareceu em uma
+	 * linha anterior. Vale o nome e o endereço da primeira linha, mas as contas de
+	 * todas as linhas são importadas.
+	 */
+	public long getClientesRepetidos() {
+
+		return clientesRepetidos;
+	}
+
+	public long getEnderecosInseridos() {
+
+		return enderecosInseridos;
+	}
+
+	public long getContasInseridas() {
+
+		return contasInseridas;
+	}
+
+	/**
+	 * Retorna as linhas rejeitadas, na ordem do arquivo.
+	 */
+	public List<Rejeicao> getRejeicoes() {
+
+		return Collections.unmodifiableList(rejeicoes);
+	}
+
+	/**
+	 * Retorna o tempo de leitura e validação do arquivo, em milissegundos.
+	 */
+	public long getTempoLeitura() {
+
+		return nanosLeitura / 1000000;
+	}
+
+	/**
+	 * Retorna o tempo de gravação no banco de dados, incluindo a verificação dos
+	 * clientes e contas já cadastrados, em milissegundos.
+	 */
+	public long getTempoGravacao() {
+
+		return nanosGravacao / 1000000;
+	}
+
+	/**
+	 * Retorna a vazão da importação inteira, em linhas por segundo.
+	 */
+	public double getLinhasPorSegundo() {
+
+		long nanos = nanosLeitura + nanosGravacao;
+		return nanos == 0 ? 0 : linhas * 1000000000.0 / nanos;
+	}
+
+	public String toString() {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("Linhas lidas: ").append(linhas).append('\n');
+		sb.append("Clientes inseridos: ").append(clientesInseridos)
+			.append(" (ja cadastrados: ").append(clientesExistentes)
+			.append(", repetidos no arquivo: ").append(clientesRepetidos).append(")\n");
+		sb.append("Enderecos inseridos: ").append(enderecosInseridos).append('\n');
+		sb.append("Contas inseridas: ").append(contasInseridas).append('\n');
+		sb.append("Linhas rejeitadas: ").append(rejeicoes.size()).append('\n');
+		sb.append("Tempo: leitura ").append(getTempoLeitura()).append(" ms, gravacao ")
+			.append(getTempoGravacao()).append(" ms, ")
+			.append(Math.round(getLinhasPorSegundo())).append(" linhas/s");
+		int n = Math.min(rejeicoes.size(), REJEICOES_MOSTRADAS);
+		for (int i = 0; i < n; i++) {
+			sb.append("\n  ").append(rejeicoes.get(i));
+		}
+		if (rejeicoes.size() > n) {
+			sb.append("\n  ... mais ").append(rejeicoes.size() - n).append(" linhas rejeitadas");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,303 @@
+package qualiti.banco.jdbcutil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import qualiti.banco.geral.Encerramento;
+
+/**
+ * Modo embutido do HSQLDB: quando a URL do banco é jdbc:hsqldb:mem:... ou
+ * jdbc:hsqldb:file:..., o HSQLDB roda dentro do próprio processo, sem o servidor de
+ * HSQLDB/run_hsqldb.bat e sem a ida e volta pela rede. Na primeira conexão a um banco
+ * embutido que ainda não tem as tabelas do sistema, esta classe executa o script de
+ * criação (QIB_CREATEDB_HSQLDB.sql) e, se pedido, o de dados de teste
+ * (QIB_TEST_DATA_HSQLDB.sql).
+ *
+ * O modo é escolhido pela URL, no jdbc.properties (JDBCConnectionUtil) ou no
+ * hibernate.cfg.xml (HibernateConnectionUtil). Dentro da mesma JVM, a mesma URL leva ao
+ * mesmo banco, de forma que os repositórios JDBC e os do Hibernate enxergam os mesmos
+ * dados. Os scripts são configurados com as propriedades:
+ *
+ *   embutido.esquema      script de criação das tabelas
+ *                         (padrão: HSQLDB/QIB_UTILS/QIB_CREATEDB_HSQLDB.sql)
+ *   embutido.dadosTeste   true para carregar também os dados de teste (padrão: false)
+ *   embutido.dados        script dos dados de teste
+ *                         (padrão: HSQLDB/QIB_UTILS/QIB_TEST_DATA_HSQLDB.sql)
+ *
+ * Cada script é procurado primeiro como arquivo, a partir do diretório corrente, e
+ * depois no classpath, pelo nome do arquivo.
+ *
+ * Um banco jdbc:hsqldb:file:... é fechado com SHUTDOWN ao final da JVM, para que os
+ * dados fiquem gravados nos arquivos do banco. O fechamento é uma tarefa da última fase
+ * de Encerramento, depois que os cadastros gravaram o que estava pendente. Ele não pode estar aberto ao mesmo tempo
+ * pelo servidor.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.jdbcutil.JDBCConnectionUtil
+ * @see qualiti.banco.hibernateutil.HibernateConnectionUtil
+ */
+public final class BancoEmbutido {
+
+	/**
+	 * Propriedade com o script de criação das tabelas.
+	 */
+	public static final String PROPRIEDADE_ESQUEMA = "embutido.esquema";
+	/**
+	 * Propriedade que indica se os dados de teste devem ser carregados.
+	 */
+	public static final String PROPRIEDADE_DADOS_TESTE = "embutido.dadosTeste";
+	/**
+	 * Propriedade com o script dos dados de teste.
+	 */
+	public static final String PROPRIEDADE_DADOS = "embutido.dados";
+
+	/**
+	 * Script de criação das tabelas usado quando a propriedade não é informada.
+	 */
+	public static final String ESQUEMA_PADRAO = "HSQLDB/QIB_UTILS/QIB_CREATEDB_HSQLDB.sql";
+	/**
+	 * Script dos dados de teste usado quando a propriedade não é informada.
+	 */
+	public static final String DADOS_PADRAO = "HSQLDB/QIB_UTILS/QIB_TEST_DATA_HSQLDB.sql";
+
+	/**
+	 * Tabela cuja existência indica que o esquema já foi criado.
+	 */
+	private static final String TABELA_ESQUEMA = "TB_CLIENTE";
+
+	/**
+	 * Codificação dos scripts, que vêm do Windows.
+	 */
+	private static final String CODIFICACAO = "ISO-8859-1";
+
+	private static final Logger LOG = Logger.getLogger(BancoEmbutido.class);
+
+	/**
+	 * Bancos já preparados nesta JVM, pela URL sem as propriedades de conexão.
+	 */
+	private static Set<String> preparados = new HashSet<String>();
+
+	private BancoEmbutido() {
+	}
+
+	/**
+	 * Indica se uma URL é de um banco HSQLDB embutido.
+	 *
+	 * @param url a URL JDBC.
+	 *
+	 * @return boolean true se a URL for jdbc:hsqldb:mem:... ou jdbc:hsqldb:file:...
+	 */
+	public static boolean isEmbutido(String url) {
+
+		return url != null
+			&& (url.startsWith("jdbc:hsqldb:mem:") || url.startsWith("jdbc:hsqldb:file:"));
+	}
+
+	/**
+	 * Prepara um banco embutido: carrega o driver e, se o banco ainda não tiver as
+	 * tabelas do sistema, executa o script de criação e, se pedido, o de dados de
+	 * teste. Não faz nada se a URL não for de um banco embutido ou se o banco já tiver
+	 * sido preparado nesta JVM.
+	 *
+	 * @param driver a classe do driver JDBC, ou null se ele já estiver carregado.
+	 * @param url a URL JDBC.
+	 * @param user o usuário do banco.
+	 * @param pass a senha do usuário.
+	 * @param opcoes as propriedades embutido.* (ver a descrição da classe).
+	 *
+	 * @exception SQLException lançada quando não for possível abrir o banco, ler um
+	 *            script ou executar um dos seus comandos.
+	 */
+	public static synchronized void preparar(
+		String driver,
+		String url,
+		String user,
+		String pass,
+		Properties opcoes)
+		throws SQLException {
+
+		if (!isEmbutido(url)) {
+			return;
+		}
+		int fim = url.indexOf(';');
+		String banco = fim < 0 ? url : url.substring(0, fim);
+		if (preparados.contains(banco)) {
+			return;
+		}
+		if (driver != null) {
+			try {
+				Class.forName(driver);
+			} catch (ClassNotFoundException e) {
+				throw new SQLException("Driver JDBC nao encontrado: " + driver, e);
+			}
+		}
+		long inicio = System.nanoTime();
+		Connection con = DriverManager.getConnection(url, user, pass == null ? "" : pass);
+		try {
+			if (!existeEsquema(con)) {
+				executar(con, opcoes.getProperty(PROPRIEDADE_ESQUEMA, ESQUEMA_PADRAO));
+				if (Boolean.valueOf(opcoes.getProperty(PROPRIEDADE_DADOS_TESTE, "false").trim()).booleanValue()) {
+					executar(con, opcoes.getProperty(PROPRIEDADE_DADOS, DADOS_PADRAO));
+				}
+				LOG.info("Banco embutido " + banco + " criado em "
+					+ (System.nanoTime() - inicio) / 1000000 + " ms");
+			}
+		} finally {
+			con.close();
+		}
+		if (banco.startsWith("jdbc:hsqldb:file:")) {
+			fecharAoSair(url, user, pass);
+		}
+		preparados.add(banco);
+	}
+
+	/**
+	 * Verifica se o banco já tem as tabelas do sistema.
+	 */
+	private static boolean existeEsquema(Connection con) throws SQLException {
+
+		ResultSet rs = con.getMetaData().getTables(null, null, TABELA_ESQUEMA, null);
+		try {
+			return rs.next();
+		} finally {
+			rs.close();
+		}
+	}
+
+	/**
+	 * Executa os comandos de um script, um a um.
+	 */
+	private static void executar(Connection con, String script) throws SQLException {
+
+		List<String> comandos;
+		try {
+			comandos = separarComandos(lerScript(script));
+		} catch (IOException e) {
+			throw new SQLException("Erro ao ler o script " + script, e);
+		}
+		Statement st = con.createStatement();
+		try {
+			for (String comando : comandos) {
+				st.execute(comando);
+			}
+		} finally {
+			st.close();
+		}
+	}
+
+	/**
+	 * Lê um script do sistema de arquivos ou, se o arquivo não existir, do classpath.
+	 */
+	private static String lerScript(String script) throws IOException {
+
+		InputStream in;
+		File arquivo = new File(script);
+		if (arquivo.isFile()) {
+			in = new FileInputStream(arquivo);
+		} else {
+			in = BancoEmbutido.class.getResourceAsStream("/" + arquivo.getName());
+			if (in == null) {
+				throw new IOException("Script nao encontrado: " + script);
+			}
+		}
+		try {
+			Reader r = new InputStreamReader(in, CODIFICACAO);
+			StringBuilder sb = new StringBuilder();
+			char[] buffer = new char[4096];
+			int lidos;
+			while ((lidos = r.read(buffer)) != -1) {
+				sb.append(buffer, 0, lidos);
+			}
+			return sb.toString();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Separa o texto de um script em comandos terminados por ponto e vírgula. O ponto e
+	 * vírgula dentro de um literal entre aspas simples não separa comandos, e os
+	 * comentários de linha (--) são descartados.
+	 */
+	private static List<String> separarComandos(String texto) {
+
+		List<String> comandos = new ArrayList<String>();
+		StringBuilder atual = new StringBuilder();
+		boolean literal = false;
+		int n = texto.length();
+		for (int i = 0; i < n; i++) {
+			char ch = texto.charAt(i);
+			if (literal) {
+				atual.append(ch);
+				if (ch == '\'') {
+					literal = false;
+				}
+			} else if (ch == '\'') {
+				atual.append(ch);
+				literal = true;
+			} else if (ch == '-' && i + 1 < n && texto.charAt(i + 1) == '-') {
+				while (i < n && texto.charAt(i) != '\n') {
+					i++;
+				}
+				atual.append('\n');
+			} else if (ch == ';') {
+				adicionar(comandos, atual);
+			} else {
+				atual.append(ch);
+			}
+		}
+		adicionar(comandos, atual);
+		return comandos;
+	}
+
+	private static void adicionar(List<String> comandos, StringBuilder comando) {
+
+		String c = comando.toString().trim();
+		if (c.length() > 0) {
+			comandos.add(c);
+		}
+		comando.setLength(0);
+	}
+
+	/**
+	 * Registra o fechamento de um banco em arquivo ao final da JVM.
+	 */
+	private static void fecharAoSair(final String url, final String user, final String pass) {
+
+		Encerramento.registrar(Encerramento.FASE_BANCO, new Runnable() {
+			public void run() {
+				try {
+					Connection con = DriverManager.getConnection(url, user, pass == null ? "" : pass);
+					try {
+						Statement st = con.createStatement();
+						st.execute("SHUTDOWN");
+						st.close();
+					} finally {
+						con.close();
+					}
+				} catch (SQLException e) {
+					LOG.warn("Erro ao fechar o banco embutido " + url, e);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,317 @@
+package qualiti.banco.jdbcutil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Cache dos comandos preparados (PreparedStatement) de uma conexão física do pool,
+ * pelo texto SQL. O cache acompanha a conexão física entre os empréstimos, de forma
+ * que cada comando é preparado pelo banco (análise e plano de execução) uma única vez
+ * por conexão.
+ *
+ * Quem pede o comando recebe um proxy: close() não fecha o comando físico, apenas
+ * limpa os parâmetros e o lote e o devolve ao cache, e getConnection() retorna a
+ * conexão emprestada pelo pool, e não a física. Enquanto um comando estiver em
+ * uso, um novo pedido do mesmo SQL na mesma conexão recebe um comando fora do cache,
+ * fechado normalmente. O cache guarda no máximo tamanhoMaximo comandos; quando está
+ * cheio, o comando usado há mais tempo é fechado (LRU).
+ *
+ * Os ajustes setMaxRows(), setFetchSize() e setQueryTimeout() são desfeitos na
+ * devolução. Um comando com outros ajustes (setFetchDirection(), setCursorName()...)
+ * é fechado na devolução, em vez de voltar ao cache.
+ *
+ * Só é usado por uma thread de cada vez, a que tem a conexão emprestada; os métodos
+ * são sincronizados apenas para a devolução da conexão ao pool.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.jdbcutil.PoolConexoes
+ */
+class CacheComandos {
+
+	/**
+	 * Métodos de ajuste do comando que não são desfeitos na devolução.
+	 */
+	private static final String[] AJUSTES = {
+		"setFetchDirection", "setMaxFieldSize", "setEscapeProcessing", "setCursorName",
+		"setPoolable", "setLargeMaxRows", "closeOnCompletion"
+	};
+
+	private Connection conexao;
+	private int tamanhoMaximo;
+	private PoolConexoes pool;
+
+	/**
+	 * Os comandos, do usado há mais tempo para o usado mais recentemente.
+	 */
+	private LinkedHashMap<String, Comando> comandos;
+	/**
+	 * Comandos em uso que estão fora do cache.
+	 */
+	private List<Comando> avulsos;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param conexao a conexão física.
+	 * @param tamanhoMaximo a quantidade máxima de comandos guardados.
+	 * @param pool o pool, que contabiliza os acertos e as falhas do cache.
+	 */
+	CacheComandos(Connection conexao, int tamanhoMaximo, PoolConexoes pool) {
+
+		this.conexao = conexao;
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.pool = pool;
+		this.comandos = new LinkedHashMap<String, Comando>(16, 0.75f, true);
+		this.avulsos = new ArrayList<Comando>();
+	}
+
+	/**
+	 * Retorna um comando preparado para o SQL, do cache ou recém preparado.
+	 *
+	 * @param sql o texto SQL.
+	 * @param emprestada a conexão emprestada pelo pool (o proxy), retornada pelo
+	 *        getConnection() do comando.
+	 *
+	 * @return PreparedStatement o proxy do comando.
+	 */
+	synchronized PreparedStatement preparar(String sql, Connection emprestada) throws SQLException {
+
+		Comando c = comandos.get(sql);
+		if (c != null && c.uso != null) {
+			// o mesmo SQL já está em uso nesta conexão
+			pool.registrarCacheComandos(false);
+			c = new Comando(sql, conexao.prepareStatement(sql), false);
+			avulsos.add(c);
+		} else if (c != null) {
+			pool.registrarCacheComandos(true);
+		} else {
+			pool.registrarCacheComandos(false);
+			c = new Comando(sql, conexao.prepareStatement(sql), true);
+			comandos.put(sql, c);
+			limitar();
+		}
+		c.uso = new UsoComando(c, emprestada);
+		return (PreparedStatement) Proxy.newProxyInstance(
+			PreparedStatement.class.getClassLoader(),
+			new Class<?>[] {PreparedStatement.class},
+			c.uso);
+	}
+
+	/**
+	 * Chamado quando a conexão é devolvida ao pool: os comandos que não foram fechados
+	 * por quem os pediu voltam ao cache, e os de fora do cache são fechados. Os proxies
+	 * entregues até aqui não podem mais ser usados.
+	 */
+	synchronized void liberarTodos() {
+
+		List<Comando> emUso = new ArrayList<Comando>();
+		for (Comando c : comandos.values()) {
+			if (c.uso != null) {
+				emUso.add(c);
+			}
+		}
+		emUso.addAll(avulsos);
+		for (Comando c : emUso) {
+			devolver(c);
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de comandos guardados.
+	 */
+	synchronized int getTamanho() {
+
+		return comandos.size();
+	}
+
+	/**
+	 * Fecha os comandos usados há mais tempo até o cache caber no tamanho máximo. Os
+	 * que estiverem em uso são fechados quando forem devolvidos.
+	 */
+	private void limitar() {
+
+		Iterator<Comando> it = comandos.values().iterator();
+		while (comandos.size() > tamanhoMaximo && it.hasNext()) {
+			Comando c = it.next();
+			it.remove();
+			c.noCache = false;
+			if (c.uso == null) {
+				fechar(c);
+			} else {
+				avulsos.add(c);
+			}
+		}
+	}
+
+	/**
+	 * Recebe de volta um comando fechado por quem o pediu.
+	 */
+	private synchronized void devolver(Comando c) {
+
+		c.uso = null;
+		if (!c.noCache || c.descartar) {
+			remover(c);
+			return;
+		}
+		try {
+			ResultSet rs = c.fisico.getResultSet();
+			if (rs != null) {
+				rs.close();
+			}
+			c.fisico.clearParameters();
+			c.fisico.clearBatch();
+			if (c.alterado) {
+				c.fisico.setMaxRows(c.maxRows);
+				c.fisico.setFetchSize(c.fetchSize);
+				c.fisico.setQueryTimeout(c.queryTimeout);
+				c.alterado = false;
+			}
+		} catch (SQLException e) {
+			remover(c);
+		}
+	}
+
+	private void remover(Comando c) {
+
+		if (c.noCache) {
+			comandos.remove(c.sql);
+			c.noCache = false;
+		} else {
+			avulsos.remove(c);
+		}
+		fechar(c);
+	}
+
+	private void fechar(Comando c) {
+
+		try {
+			c.fisico.close();
+		} catch (SQLException e) {
+		}
+	}
+
+	/**
+	 * Um comando físico e o seu estado no cache.
+	 */
+	private static class Comando {
+
+		private String sql;
+		private PreparedStatement fisico;
+		/**
+		 * Indica se o comando está no cache; os comandos fora do cache são fechados
+		 * na devolução.
+		 */
+		private boolean noCache;
+		/**
+		 * O proxy entregue a quem está usando o comando, ou null se ele estiver livre.
+		 */
+		private UsoComando uso;
+		/**
+		 * Indica se algum dos ajustes desfeitos na devolução foi alterado.
+		 */
+		private boolean alterado;
+		/**
+		 * Indica se o comando recebeu algum ajuste que não é desfeito na devolução.
+		 */
+		private boolean descartar;
+
+		private int maxRows;
+		private int fetchSize;
+		private int queryTimeout;
+
+		Comando(String sql, PreparedStatement fisico, boolean noCache) throws SQLException {
+
+			this.sql = sql;
+			this.fisico = fisico;
+			this.noCache = noCache;
+			if (noCache) {
+				this.maxRows = fisico.getMaxRows();
+				this.fetchSize = fisico.getFetchSize();
+				this.queryTimeout = fisico.getQueryTimeout();
+			}
+		}
+	}
+
+	/**
+	 * Comportamento do proxy entregue a cada pedido de um comando. Repassa as chamadas
+	 * ao comando físico, exceto close(), que o devolve ao cache, e getConnection(), que
+	 * retorna a conexão emprestada: quem fechasse a conexão física obtida do comando a
+	 * tiraria do pool. Depois de fechado, ou depois que a conexão for devolvida ao
+	 * pool, o proxy não pode mais ser usado.
+	 */
+	private class UsoComando implements InvocationHandler {
+
+		private Comando comando;
+		private Connection emprestada;
+
+		UsoComando(Comando comando, Connection emprestada) {
+
+			this.comando = comando;
+			this.emprestada = emprestada;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			String nome = method.getName();
+			int parametros = method.getParameterTypes().length;
+			boolean valido = comando.uso == this;
+			if ("close".equals(nome) && parametros == 0) {
+				if (valido) {
+					devolver(comando);
+				}
+				return null;
+			}
+			if ("isClosed".equals(nome) && parametros == 0) {
+				return Boolean.valueOf(!valido || comando.fisico.isClosed());
+			}
+			if ("equals".equals(nome) && args != null && args.length == 1) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if ("hashCode".equals(nome) && args == null) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			if ("toString".equals(nome) && args == null) {
+				return "CacheComandos[" + comando.sql + "]";
+			}
+			if (!valido) {
+				throw new SQLException("Comando ja fechado");
+			}
+			if ("getConnection".equals(nome) && parametros == 0) {
+				return emprestada;
+			}
+			if ("setMaxRows".equals(nome) || "setFetchSize".equals(nome) || "setQueryTimeout".equals(nome)) {
+				comando.alterado = true;
+			} else if (isAjuste(nome)) {
+				comando.descartar = true;
+			}
+			try {
+				return method.invoke(comando.fisico, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+
+	private static boolean isAjuste(String nome) {
+
+		for (String a : AJUSTES) {
+			if (a.equals(nome)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
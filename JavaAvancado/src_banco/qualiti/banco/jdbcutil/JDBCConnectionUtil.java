@@ -1,83 +1,178 @@
-package qualiti.banco.jdbcutil;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.Savepoint;
-import java.util.Properties;
-
-
-public class JDBCConnectionUtil {
-	private static String driver;
-	private static String url;
-	private static String user;
-	private static String pass;
-	
-	private static Connection connection;
-	
-	static {
-		//Tenta carregar os dados da conexao
-		File file = new File("jdbc.properties");    
-		Properties props = new Properties();
-		FileInputStream fis = null;
-		try {
-			fis = new FileInputStream(file);
-			//l os dados que esto no arquivo
-			props.load(fis);
-			driver = props.getProperty("driver");
-			url = props.getProperty("url");
-			user = props.getProperty("user");
-			pass = props.getProperty("pass");
-			fis.close();
-		}catch (IOException ex) {
-			System.out.println(ex.getMessage());
-			ex.printStackTrace();
-		} 
-		
-		//Tenta carregar o driver do servidor de banco de dados
-		try {
-			Class.forName(driver);
-		} catch (ClassNotFoundException e) {
-			System.out.println("Erro ao carregar o driver JDBC do HSQLDB. ");
-			System.exit(-1);
-		}
-	}
-	
-	public static Connection getConnection() throws SQLException{
-		if (connection == null || connection.isClosed()){
-			//Tenta estabelecer um,a conexo com o servidor de Banco de dados
-			connection = DriverManager.getConnection(url, user, pass);
-		}
-		return connection;
-	}
-	
-	
-	
-	
-	public static void createTransaction() throws SQLException{
-		getConnection();
-		connection.setAutoCommit(false);
-	}
-	public static Savepoint createSavePoint(String name) throws SQLException{
-		getConnection();
-		return connection.setSavepoint(name);
-	}
-	public static void commitTransaction() throws SQLException{
-		getConnection();
-		connection.commit();
-		connection.setAutoCommit(true);
-	}
-	public static void rollbackTransaction() throws SQLException{
-		getConnection();
-		connection.rollback();
-		connection.setAutoCommit(true);
-	}
-	public static void rollbackTransaction(Savepoint savepoint) throws SQLException{
-		getConnection();
-		connection.rollback(savepoint);
-		connection.setAutoCommit(true);
-	}
-}
+package qualiti.banco.jdbcutil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+
+
+public class JDBCConnectionUtil {
+	private static final Logger LOG = Logger.getLogger(JDBCConnectionUtil.class);
+	private static String driver;
+	private static String url;
+	private static String user;
+	private static String pass;
+	
+	private static Properties props = new Properties();
+
+	//Criado no primeiro uso; volatile para que as outras threads vejam o pool
+	//completamente inicializado sem passar pela trava
+	private static volatile PoolConexoes pool;
+	private static final Object travaPool = new Object();
+
+	//Conexao presa a transacao aberta pela thread corrente
+	private static ThreadLocal<Connection> transacao = new ThreadLocal<Connection>();
+	
+	static {
+		//Tenta carregar os dados da conexao
+		File file = new File("jdbc.properties");    
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(file);
+			//lê os dados que estão no arquivo
+			props.load(fis);
+			driver = props.getProperty("driver");
+			url = props.getProperty("url");
+			user = props.getProperty("user");
+			pass = props.getProperty("pass");
+			fis.close();
+		}catch (IOException ex) {
+			LOG.error("Erro ao ler o arquivo jdbc.properties", ex);
+		} 
+		
+		//Tenta carregar o driver do servidor de banco de dados
+		try {
+			Class.forName(driver);
+		} catch (ClassNotFoundException e) {
+			LOG.fatal("Erro ao carregar o driver JDBC do HSQLDB.", e);
+			System.exit(-1);
+		}
+	}
+	
+	/**
+	 * Retorna o pool de conexoes, criando-o no primeiro uso com os parametros
+	 * pool.* do arquivo jdbc.properties. Se a url for de um banco embutido
+	 * (jdbc:hsqldb:mem: ou jdbc:hsqldb:file:), o banco e preparado antes, com as
+	 * propriedades embutido.* (ver BancoEmbutido). Em seguida sao aplicadas as
+	 * migracoes pendentes do esquema (ver MigracaoEsquema). Depois de criado, o
+	 * pool e obtido sem sincronizacao; so a criacao e feita com a trava, e uma
+	 * criacao que falha e tentada de novo na chamada seguinte.
+	 */
+	public static PoolConexoes getPool() throws SQLException{
+		PoolConexoes p = pool;
+		if (p == null){
+			synchronized (travaPool){
+				p = pool;
+				if (p == null){
+					BancoEmbutido.preparar(null, url, user, pass, props);
+					MigracaoEsquema.migrar(null, url, user, pass);
+					p = new PoolConexoes(url, user, pass,
+							getTamanhoMaximoPool(),
+							Integer.parseInt(props.getProperty("pool.tamanhoMinimo", "1")),
+							Long.parseLong(props.getProperty("pool.tempoEsperaMaximo", "5000")),
+							Long.parseLong(props.getProperty("pool.tempoOciosoMaximo", "60000")),
+							props.getProperty("pool.consultaValidacao", "CALL 1"),
+							Integer.parseInt(props.getProperty("pool.cacheComandos",
+									String.valueOf(PoolConexoes.TAMANHO_CACHE_COMANDOS_PADRAO))));
+					pool = p;
+				}
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * Retorna o tamanho maximo do pool de conexoes (pool.tamanhoMaximo do arquivo
+	 * jdbc.properties), sem criar o pool.
+	 */
+	public static int getTamanhoMaximoPool(){
+		return Integer.parseInt(props.getProperty("pool.tamanhoMaximo", "10"));
+	}
+
+	/**
+	 * Retorna a conexao da transacao aberta pela thread corrente ou, se nao houver
+	 * transacao, uma conexao emprestada do pool. Em ambos os casos quem chama deve
+	 * fechar a conexao: fora de uma transacao ela volta ao pool, dentro de uma
+	 * transacao o close() e ignorado ate o commit ou o rollback.
+	 */
+	public static Connection getConnection() throws SQLException{
+		Connection connection = transacao.get();
+		if (connection == null){
+			connection = getPool().getConnection();
+		}
+		return connection;
+	}
+
+	/**
+	 * Abre uma transacao presa a thread corrente. Ate o commit ou o rollback,
+	 * getConnection() retorna sempre a mesma conexao para esta thread. Se a
+	 * thread ja tiver uma transacao aberta, ela continua sendo usada.
+	 */
+	public static void createTransaction() throws SQLException{
+		if (transacao.get() != null){
+			return;
+		}
+		Connection connection = getPool().getConnection();
+		try {
+			connection.setAutoCommit(false);
+		} catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+		PoolConexoes.emprestimo(connection).setPresa(true);
+		transacao.set(connection);
+	}
+	public static Savepoint createSavePoint(String name) throws SQLException{
+		return getTransacao().setSavepoint(name);
+	}
+	public static void commitTransaction() throws SQLException{
+		Connection connection = getTransacao();
+		try {
+			connection.commit();
+			connection.setAutoCommit(true);
+		} finally {
+			encerrarTransacao(connection);
+		}
+	}
+	public static void rollbackTransaction() throws SQLException{
+		Connection connection = transacao.get();
+		if (connection == null){
+			//nada a desfazer
+			return;
+		}
+		try {
+			connection.rollback();
+			connection.setAutoCommit(true);
+		} finally {
+			encerrarTransacao(connection);
+		}
+	}
+	public static void rollbackTransaction(Savepoint savepoint) throws SQLException{
+		Connection connection = getTransacao();
+		try {
+			connection.rollback(savepoint);
+			connection.setAutoCommit(true);
+		} finally {
+			encerrarTransacao(connection);
+		}
+	}
+
+	private static Connection getTransacao() throws SQLException{
+		Connection connection = transacao.get();
+		if (connection == null){
+			throw new SQLException("Nenhuma transacao aberta nesta thread");
+		}
+		return connection;
+	}
+
+	//Solta a conexao da thread e a devolve ao pool
+	private static void encerrarTransacao(Connection connection){
+		transacao.remove();
+		PoolConexoes.emprestimo(connection).liberar();
+	}
+}
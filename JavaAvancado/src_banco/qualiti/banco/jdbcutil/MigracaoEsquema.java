@@ -0,0 +1,388 @@
+package qualiti.banco.jdbcutil;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Migrações versionadas do esquema do banco. O esquema criado por
+ * QIB_CREATEDB_HSQLDB.sql é a versão 0; cada migração leva o esquema à versão seguinte e
+ * é registrada na tabela tb_versao_esquema, de forma que é aplicada uma única vez em
+ * cada banco. As migrações pendentes são aplicadas na inicialização, antes da primeira
+ * conexão do pool (JDBCConnectionUtil) ou da criação da SessionFactory
+ * (HibernateConnectionUtil).
+ *
+ * Para acrescentar uma migração, basta incluir uma nova entrada no final de MIGRACOES,
+ * com a versão seguinte. Os passos de uma migração devem poder ser repetidos: se ela
+ * falhar no meio, a versão não é registrada e a migração inteira é tentada de novo na
+ * próxima inicialização.
+ *
+ * Executada como programa, a classe aplica as migrações ao banco do jdbc.properties e
+ * mostra o plano de execução das consultas mais frequentes dos repositórios, indicando
+ * as que varrem uma tabela inteira (ver verificarPlanos()).
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.jdbcutil.BancoEmbutido
+ */
+public final class MigracaoEsquema {
+
+	/**
+	 * Tabela com as versões aplicadas.
+	 */
+	private static final String TABELA_VERSAO = "TB_VERSAO_ESQUEMA";
+
+	private static final String CRIA_TABELA_VERSAO =
+		"CREATE CACHED TABLE tb_versao_esquema ("
+			+ "versao INTEGER NOT NULL, "
+			+ "descricao VARCHAR(200) NOT NULL, "
+			+ "aplicada_em TIMESTAMP NOT NULL, "
+			+ "PRIMARY KEY(versao))";
+
+	private static final String CONSULTA_VERSAO =
+		"SELECT MAX(versao) FROM tb_versao_esquema";
+
+	private static final String INSERE_VERSAO =
+		"INSERT INTO tb_versao_esquema (versao, descricao, aplicada_em) VALUES (?, ?, ?)";
+
+	/**
+	 * Tabela cuja existência indica que o esquema base (versão 0) foi criado.
+	 */
+	private static final String TABELA_BASE = "TB_CONTA";
+
+	/**
+	 * As consultas mais frequentes dos repositórios, cujos planos são verificados.
+	 */
+	private static final String[] CONSULTAS_VERIFICADAS = {
+		"SELECT saldo, tipo FROM tb_conta WHERE numero = ?",
+		"UPDATE tb_conta SET saldo = ?, bonus = ? WHERE numero = ?",
+		"DELETE FROM tb_conta WHERE numero = ?",
+		"SELECT numero, saldo FROM tb_conta WHERE tb_cliente_cpf = ?",
+		"SELECT tb_gerente_id FROM tb_gerentes_cliente WHERE tb_cliente_cpf = ?",
+		"SELECT nome FROM tb_cliente WHERE cpf = ?",
+		"SELECT cep, numero FROM tb_endereco WHERE tb_cliente_cpf = ?"
+	};
+
+	/**
+	 * Trecho do plano do HSQLDB que indica a varredura da tabela inteira.
+	 */
+	private static final String VARREDURA = "access=[FULL SCAN]";
+
+	private static final Logger LOG = Logger.getLogger(MigracaoEsquema.class);
+
+	/**
+	 * Uma migração do esquema.
+	 */
+	private abstract static class Migracao {
+
+		private int versao;
+		private String descricao;
+
+		Migracao(int versao, String descricao) {
+			this.versao = versao;
+			this.descricao = descricao;
+		}
+
+		abstract void aplicar(Connection con) throws SQLException;
+	}
+
+	/**
+	 * As migrações, na ordem das versões.
+	 */
+	private static final Migracao[] MIGRACOES = {
+		new Migracao(1, "Chave unica em tb_conta.numero e indices das colunas de cliente") {
+			void aplicar(Connection con) throws SQLException {
+				// as contas são procuradas, atualizadas e excluídas pelo número
+				criarIndice(con, "tb_conta", "numero", "uk_conta_numero", true);
+				// contas e gerentes de um cliente; o HSQLDB já indexa as chaves
+				// estrangeiras, e nesse caso os índices não são duplicados
+				criarIndice(con, "tb_conta", "tb_cliente_cpf", "ix_conta_cliente", false);
+				criarIndice(con, "tb_gerentes_cliente", "tb_cliente_cpf", "ix_gerentes_cliente_cpf", false);
+			}
+		},
+		new Migracao(2, "Coluna bonus em tb_conta, para as contas bonificadas") {
+			void aplicar(Connection con) throws SQLException {
+				// o bônus das contas bonificadas (tipo 3); nas demais fica zero
+				criarColuna(con, "tb_conta", "bonus", "DECIMAL(16,4) DEFAULT 0 NOT NULL");
+			}
+		}
+	};
+
+	/**
+	 * Bancos já migrados nesta JVM, pela URL sem as propriedades de conexão.
+	 */
+	private static Set<String> migrados = new HashSet<String>();
+
+	private MigracaoEsquema() {
+	}
+
+	/**
+	 * Aplica as migrações pendentes ao banco, se ainda não tiverem sido aplicadas nesta
+	 * JVM. Se o banco ainda não tiver o esquema base (QIB_CREATEDB_HSQLDB.sql), nada é
+	 * feito, e a migração é tentada de novo na próxima chamada.
+	 *
+	 * @param driver a classe do driver JDBC, ou null se ele já estiver carregado.
+	 * @param url a URL JDBC.
+	 * @param user o usuário do banco.
+	 * @param pass a senha do usuário.
+	 *
+	 * @exception SQLException lançada quando uma migração falhar.
+	 */
+	public static synchronized void migrar(String driver, String url, String user, String pass)
+		throws SQLException {
+
+		int fim = url.indexOf(';');
+		String banco = fim < 0 ? url : url.substring(0, fim);
+		if (migrados.contains(banco)) {
+			return;
+		}
+		if (driver != null) {
+			try {
+				Class.forName(driver);
+			} catch (ClassNotFoundException e) {
+				throw new SQLException("Driver JDBC nao encontrado: " + driver, e);
+			}
+		}
+		int versao;
+		Connection con = DriverManager.getConnection(url, user, pass == null ? "" : pass);
+		try {
+			versao = migrar(con);
+		} finally {
+			con.close();
+		}
+		if (versao >= 0) {
+			migrados.add(banco);
+		}
+	}
+
+	/**
+	 * Aplica as migrações pendentes usando uma conexão já aberta.
+	 *
+	 * @param con a conexão.
+	 *
+	 * @return int a versão do esquema depois das migrações, ou -1 se o banco não tiver
+	 *         o esquema base.
+	 *
+	 * @exception SQLException lançada quando uma migração falhar.
+	 */
+	public static int migrar(Connection con) throws SQLException {
+
+		if (!existeTabela(con, TABELA_BASE)) {
+			LOG.warn("Banco sem as tabelas do sistema; migracoes do esquema nao aplicadas");
+			return -1;
+		}
+		if (!existeTabela(con, TABELA_VERSAO)) {
+			executar(con, CRIA_TABELA_VERSAO);
+		}
+		int versao = getVersao(con);
+		for (Migracao m : MIGRACOES) {
+			if (m.versao > versao) {
+				try {
+					m.aplicar(con);
+				} catch (SQLException e) {
+					throw new SQLException(
+						"Erro na migracao do esquema para a versao " + m.versao + ": " + e.getMessage(), e);
+				}
+				PreparedStatement ps = con.prepareStatement(INSERE_VERSAO);
+				try {
+					ps.setInt(1, m.versao);
+					ps.setString(2, m.descricao);
+					ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+					ps.executeUpdate();
+				} finally {
+					ps.close();
+				}
+				LOG.info("Esquema migrado para a versao " + m.versao + ": " + m.descricao);
+				versao = m.versao;
+			}
+		}
+		return versao;
+	}
+
+	/**
+	 * Retorna a versão do esquema registrada no banco.
+	 *
+	 * @param con a conexão.
+	 *
+	 * @return int a versão, ou 0 se nenhuma migração tiver sido aplicada.
+	 */
+	public static int getVersao(Connection con) throws SQLException {
+
+		if (!existeTabela(con, TABELA_VERSAO)) {
+			return 0;
+		}
+		Statement st = con.createStatement();
+		try {
+			ResultSet rs = st.executeQuery(CONSULTA_VERSAO);
+			return rs.next() ? rs.getInt(1) : 0;
+		} finally {
+			st.close();
+		}
+	}
+
+	/**
+	 * Retorna o plano de execução (EXPLAIN PLAN do HSQLDB) das consultas mais frequentes
+	 * dos repositórios.
+	 *
+	 * @param con a conexão.
+	 *
+	 * @return Map os planos, indexados pela consulta, na ordem das consultas.
+	 */
+	public static Map<String, String> verificarPlanos(Connection con) throws SQLException {
+
+		Map<String, String> planos = new LinkedHashMap<String, String>();
+		Statement st = con.createStatement();
+		try {
+			for (String consulta : CONSULTAS_VERIFICADAS) {
+				ResultSet rs = st.executeQuery("EXPLAIN PLAN FOR " + consulta);
+				StringBuilder sb = new StringBuilder();
+				while (rs.next()) {
+					sb.append(rs.getString(1)).append('\n');
+				}
+				rs.close();
+				planos.put(consulta, sb.toString());
+			}
+		} finally {
+			st.close();
+		}
+		return planos;
+	}
+
+	/**
+	 * Retorna as consultas verificadas cujo plano varre alguma tabela inteira.
+	 *
+	 * @param con a conexão.
+	 *
+	 * @return List as consultas sem índice; vazia se todas usarem índices.
+	 */
+	public static List<String> consultasSemIndice(Connection con) throws SQLException {
+
+		List<String> resp = new ArrayList<String>();
+		for (Map.Entry<String, String> e : verificarPlanos(con).entrySet()) {
+			if (e.getValue().indexOf(VARREDURA) >= 0) {
+				resp.add(e.getKey());
+			}
+		}
+		return resp;
+	}
+
+	/**
+	 * Cria um índice em uma coluna, se ela ainda não for a primeira coluna de um índice
+	 * (único, no caso de um índice único). Um índice único é criado como restrição
+	 * UNIQUE.
+	 */
+	private static void criarIndice(
+		Connection con,
+		String tabela,
+		String coluna,
+		String nome,
+		boolean unico)
+		throws SQLException {
+
+		ResultSet rs = con.getMetaData().getIndexInfo(null, null, tabela.toUpperCase(), unico, false);
+		try {
+			while (rs.next()) {
+				if (rs.getShort("ORDINAL_POSITION") == 1
+					&& coluna.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+					return;
+				}
+			}
+		} finally {
+			rs.close();
+		}
+		if (unico) {
+			executar(con, "ALTER TABLE " + tabela + " ADD CONSTRAINT " + nome + " UNIQUE (" + coluna + ")");
+		} else {
+			executar(con, "CREATE INDEX " + nome + " ON " + tabela + " (" + coluna + ")");
+		}
+	}
+
+	/**
+	 * Acrescenta uma coluna a uma tabela, se ela ainda não existir.
+	 */
+	private static void criarColuna(
+		Connection con,
+		String tabela,
+		String coluna,
+		String definicao)
+		throws SQLException {
+
+		ResultSet rs = con.getMetaData().getColumns(null, null, tabela.toUpperCase(), coluna.toUpperCase());
+		try {
+			if (rs.next()) {
+				return;
+			}
+		} finally {
+			rs.close();
+		}
+		executar(con, "ALTER TABLE " + tabela + " ADD COLUMN " + coluna + " " + definicao);
+	}
+
+	private static boolean existeTabela(Connection con, String tabela) throws SQLException {
+
+		ResultSet rs = con.getMetaData().getTables(null, null, tabela, null);
+		try {
+			return rs.next();
+		} finally {
+			rs.close();
+		}
+	}
+
+	private static void executar(Connection con, String sql) throws SQLException {
+
+		Statement st = con.createStatement();
+		try {
+			st.execute(sql);
+		} finally {
+			st.close();
+		}
+	}
+
+	/**
+	 * Aplica as migrações ao banco do jdbc.properties e mostra os planos das consultas
+	 * verificadas. Termina com código 1 se alguma consulta varrer uma tabela inteira.
+	 */
+	public static void main(String[] args) throws SQLException {
+
+		// a primeira conexão do pool aplica as migrações
+		List<String> semIndice;
+		Connection con = JDBCConnectionUtil.getConnection();
+		try {
+			System.out.println("Versao do esquema: " + getVersao(con));
+			for (Map.Entry<String, String> e : verificarPlanos(con).entrySet()) {
+				System.out.println();
+				System.out.println(e.getKey());
+				for (String linha : e.getValue().split("\n")) {
+					if (linha.startsWith("table=") || linha.startsWith("access=")
+						|| linha.startsWith("index=")) {
+						System.out.println("    " + linha);
+					}
+				}
+			}
+			semIndice = consultasSemIndice(con);
+		} finally {
+			con.close();
+		}
+		System.out.println();
+		if (semIndice.isEmpty()) {
+			System.out.println("Todas as consultas usam indices.");
+		} else {
+			System.out.println("Consultas que varrem tabelas inteiras: " + semIndice);
+			System.exit(1);
+		}
+	}
+}
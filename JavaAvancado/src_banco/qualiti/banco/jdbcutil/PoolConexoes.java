@@ -0,0 +1,591 @@
+package qualiti.banco.jdbcutil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import qualiti.banco.metricas.Metricas;
+
+/**
+ * Pool limitado de conexões JDBC. No máximo tamanhoMaximo conexões ficam emprestadas
+ * ao mesmo tempo; quem pede uma conexão além disso espera até tempoEsperaMaximo
+ * milissegundos. As conexões devolvidas ficam ociosas no pool e são validadas com a
+ * consulta de validação antes de serem emprestadas de novo. Uma tarefa periódica fecha
+ * as conexões ociosas há mais de tempoOciosoMaximo milissegundos, mantendo pelo menos
+ * tamanhoMinimo conexões abertas.
+ *
+ * As conexões entregues são proxies da conexão física: chamar close() devolve a
+ * conexão ao pool em vez de fechá-la. Os comandos criados com prepareStatement(sql)
+ * vêm do cache de comandos preparados da conexão física (ver CacheComandos), com até
+ * tamanhoCacheComandos comandos por conexão. Com as métricas ligadas (ver Metricas),
+ * os comandos criados pelas conexões também são proxies, que contam as execuções.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.jdbcutil.JDBCConnectionUtil
+ */
+public class PoolConexoes {
+
+	/**
+	 * Quantidade padrão de comandos preparados guardados por conexão.
+	 */
+	public static final int TAMANHO_CACHE_COMANDOS_PADRAO = 50;
+
+	private String url;
+	private String user;
+	private String pass;
+
+	private int tamanhoMaximo;
+	private int tamanhoMinimo;
+	private long tempoEsperaMaximo;
+	private long tempoOciosoMaximo;
+	private String consultaValidacao;
+	private int tamanhoCacheComandos;
+
+	/**
+	 * Limita a quantidade de conexões emprestadas ao mesmo tempo.
+	 */
+	private Semaphore permissoes;
+	/**
+	 * Conexões físicas ociosas. A mais recentemente devolvida fica no início da lista.
+	 */
+	private LinkedList<ConexaoFisica> ociosas;
+	/**
+	 * Quantidade de conexões físicas abertas (emprestadas + ociosas).
+	 */
+	private int abertas;
+	/**
+	 * Tarefa periódica de descarte das conexões ociosas.
+	 */
+	private Timer descarte;
+
+	private AtomicLong emprestimos = new AtomicLong();
+	private AtomicLong esgotamentos = new AtomicLong();
+	private AtomicLong esperaTotal = new AtomicLong();
+	private AtomicLong esperaMaxima = new AtomicLong();
+	private AtomicLong criadas = new AtomicLong();
+	private AtomicLong descartadas = new AtomicLong();
+	private AtomicLong acertosComandos = new AtomicLong();
+	private AtomicLong falhasComandos = new AtomicLong();
+
+	/**
+	 * O construtor da classe, com o tamanho padrão do cache de comandos preparados.
+	 */
+	public PoolConexoes(
+		String url,
+		String user,
+		String pass,
+		int tamanhoMaximo,
+		int tamanhoMinimo,
+		long tempoEsperaMaximo,
+		long tempoOciosoMaximo,
+		String consultaValidacao) {
+
+		this(url, user, pass, tamanhoMaximo, tamanhoMinimo, tempoEsperaMaximo,
+			tempoOciosoMaximo, consultaValidacao, TAMANHO_CACHE_COMANDOS_PADRAO);
+	}
+
+	/**
+	 * O construtor da classe. Nenhuma conexão é aberta aqui: elas são abertas sob
+	 * demanda, nos empréstimos. Agenda o descarte periódico das conexões ociosas.
+	 *
+	 * @param url a URL JDBC do banco de dados.
+	 * @param user o usuário do banco de dados.
+	 * @param pass a senha do usuário.
+	 * @param tamanhoMaximo a quantidade máxima de conexões emprestadas ao mesmo tempo.
+	 * @param tamanhoMinimo a quantidade de conexões ociosas que não são descartadas.
+	 * @param tempoEsperaMaximo o tempo máximo, em milissegundos, de espera por uma conexão.
+	 * @param tempoOciosoMaximo o tempo, em milissegundos, após o qual uma conexão
+	 *        ociosa é descartada.
+	 * @param consultaValidacao a consulta executada para validar uma conexão antes de
+	 *        emprestá-la. Se for nula ou vazia, só é verificado se a conexão está fechada.
+	 * @param tamanhoCacheComandos a quantidade máxima de comandos preparados guardados
+	 *        por conexão física. Com o valor 0, os comandos não são guardados.
+	 */
+	public PoolConexoes(
+		String url,
+		String user,
+		String pass,
+		int tamanhoMaximo,
+		int tamanhoMinimo,
+		long tempoEsperaMaximo,
+		long tempoOciosoMaximo,
+		String consultaValidacao,
+		int tamanhoCacheComandos) {
+
+		if (tamanhoMaximo < 1 || tamanhoMinimo < 0 || tamanhoMinimo > tamanhoMaximo) {
+			throw new IllegalArgumentException(
+				"Tamanhos de pool invalidos: minimo " + tamanhoMinimo + ", maximo " + tamanhoMaximo);
+		}
+		if (tamanhoCacheComandos < 0) {
+			throw new IllegalArgumentException(
+				"Tamanho de cache de comandos invalido: " + tamanhoCacheComandos);
+		}
+		this.url = url;
+		this.user = user;
+		this.pass = pass;
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.tamanhoMinimo = tamanhoMinimo;
+		this.tempoEsperaMaximo = tempoEsperaMaximo;
+		this.tempoOciosoMaximo = tempoOciosoMaximo;
+		this.consultaValidacao = consultaValidacao;
+		this.tamanhoCacheComandos = tamanhoCacheComandos;
+		this.permissoes = new Semaphore(tamanhoMaximo, true);
+		this.ociosas = new LinkedList<ConexaoFisica>();
+
+		if (tempoOciosoMaximo > 0) {
+			long intervalo = Math.max(tempoOciosoMaximo / 2, 1000);
+			descarte = new Timer("PoolConexoes-descarte", true);
+			descarte.schedule(new TimerTask() {
+				public void run() {
+					descartarOciosas();
+				}
+			}, intervalo, intervalo);
+		}
+	}
+
+	/**
+	 * Empresta uma conexão do pool, esperando no máximo tempoEsperaMaximo milissegundos.
+	 * A conexão deve ser devolvida chamando close().
+	 *
+	 * @return Connection a conexão emprestada, com autocommit ligado.
+	 *
+	 * @exception SQLException lançada quando o tempo de espera se esgota ou quando não
+	 *            é possível abrir uma nova conexão física.
+	 */
+	public Connection getConnection() throws SQLException {
+
+		long inicio = System.nanoTime();
+		boolean obteve;
+		try {
+			obteve = permissoes.tryAcquire(tempoEsperaMaximo, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Espera por conexao interrompida");
+		}
+		registrarEspera(System.nanoTime() - inicio);
+		if (!obteve) {
+			esgotamentos.incrementAndGet();
+			throw new SQLException(
+				"Nenhuma conexao livre apos " + tempoEsperaMaximo + " ms (maximo " + tamanhoMaximo + ")");
+		}
+		try {
+			ConexaoFisica fisica = obterConexaoFisica();
+			emprestimos.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(
+				Connection.class.getClassLoader(),
+				new Class<?>[] {Connection.class},
+				new ConexaoEmprestada(fisica));
+		} catch (SQLException e) {
+			permissoes.release();
+			throw e;
+		} catch (RuntimeException e) {
+			permissoes.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Retorna uma conexão física válida: a ociosa mais recente que passar na validação
+	 * ou, se não houver, uma conexão nova.
+	 */
+	private ConexaoFisica obterConexaoFisica() throws SQLException {
+
+		ConexaoFisica ociosa;
+		while ((ociosa = retirarOciosa()) != null) {
+			if (valida(ociosa.conexao)) {
+				return ociosa;
+			}
+			descartar(ociosa.conexao);
+		}
+		synchronized (this) {
+			abertas++;
+		}
+		try {
+			Connection con = DriverManager.getConnection(url, user, pass);
+			criadas.incrementAndGet();
+			return new ConexaoFisica(
+				con,
+				tamanhoCacheComandos > 0 ? new CacheComandos(con, tamanhoCacheComandos, this) : null);
+		} catch (SQLException e) {
+			synchronized (this) {
+				abertas--;
+			}
+			throw e;
+		}
+	}
+
+	private synchronized ConexaoFisica retirarOciosa() {
+
+		return ociosas.isEmpty() ? null : ociosas.removeFirst();
+	}
+
+	/**
+	 * Verifica se uma conexão ociosa ainda pode ser usada.
+	 */
+	private boolean valida(Connection con) {
+
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			if (con.isClosed()) {
+				return false;
+			}
+			if (consultaValidacao == null || consultaValidacao.length() == 0) {
+				return true;
+			}
+			st = con.createStatement();
+			rs = st.executeQuery(consultaValidacao);
+			return rs.next();
+		} catch (SQLException e) {
+			return false;
+		} finally {
+			try {
+				if (rs != null)
+					rs.close();
+			} catch (Exception e) {
+			}
+			try {
+				if (st != null)
+					st.close();
+			} catch (Exception e) {
+			}
+		}
+	}
+
+	/**
+	 * Recebe de volta uma conexão física emprestada. Comandos esquecidos abertos voltam
+	 * ao cache, e transações esquecidas abertas são desfeitas; conexões com erro são
+	 * fechadas.
+	 */
+	private void devolver(ConexaoFisica fisica) {
+
+		try {
+			if (fisica.comandos != null) {
+				fisica.comandos.liberarTodos();
+			}
+			Connection con = fisica.conexao;
+			try {
+				if (con.isClosed()) {
+					synchronized (this) {
+						abertas--;
+					}
+					return;
+				}
+				if (!con.getAutoCommit()) {
+					con.rollback();
+					con.setAutoCommit(true);
+				}
+			} catch (SQLException e) {
+				descartar(con);
+				return;
+			}
+			fisica.desde = System.currentTimeMillis();
+			synchronized (this) {
+				ociosas.addFirst(fisica);
+			}
+		} finally {
+			permissoes.release();
+		}
+	}
+
+	/**
+	 * Fecha as conexões ociosas há mais de tempoOciosoMaximo milissegundos, mantendo
+	 * pelo menos tamanhoMinimo conexões abertas.
+	 */
+	void descartarOciosas() {
+
+		long limite = System.currentTimeMillis() - tempoOciosoMaximo;
+		LinkedList<Connection> aFechar = new LinkedList<Connection>();
+		synchronized (this) {
+			// as mais antigas ficam no fim da lista
+			Iterator<ConexaoFisica> it = ociosas.descendingIterator();
+			while (it.hasNext() && abertas - aFechar.size() > tamanhoMinimo) {
+				ConexaoFisica ociosa = it.next();
+				if (ociosa.desde > limite) {
+					break;
+				}
+				it.remove();
+				aFechar.add(ociosa.conexao);
+			}
+		}
+		for (Connection con : aFechar) {
+			descartar(con);
+		}
+	}
+
+	/**
+	 * Fecha uma conexão física que não volta mais ao pool.
+	 */
+	private void descartar(Connection con) {
+
+		synchronized (this) {
+			abertas--;
+		}
+		descartadas.incrementAndGet();
+		try {
+			con.close();
+		} catch (SQLException e) {
+		}
+	}
+
+	/**
+	 * Contabiliza um pedido ao cache de comandos preparados de uma conexão.
+	 *
+	 * @param acerto true se o comando já estava no cache.
+	 */
+	void registrarCacheComandos(boolean acerto) {
+
+		if (acerto) {
+			acertosComandos.incrementAndGet();
+			Metricas.contar("PoolConexoes.comandos.acertos");
+		} else {
+			falhasComandos.incrementAndGet();
+			Metricas.contar("PoolConexoes.comandos.falhas");
+		}
+	}
+
+	private void registrarEspera(long nanos) {
+
+		esperaTotal.addAndGet(nanos);
+		Metricas.registrar("PoolConexoes.espera", nanos);
+		long max = esperaMaxima.get();
+		while (nanos > max && !esperaMaxima.compareAndSet(max, nanos)) {
+			max = esperaMaxima.get();
+		}
+	}
+
+	/**
+	 * Fecha todas as conexões ociosas e cancela o descarte periódico. As conexões
+	 * emprestadas são fechadas quando forem devolvidas.
+	 */
+	public void fechar() {
+
+		if (descarte != null) {
+			descarte.cancel();
+		}
+		LinkedList<ConexaoFisica> restantes;
+		synchronized (this) {
+			restantes = new LinkedList<ConexaoFisica>(ociosas);
+			ociosas.clear();
+			tamanhoMinimo = 0;
+		}
+		for (ConexaoFisica ociosa : restantes) {
+			descartar(ociosa.conexao);
+		}
+	}
+
+	public int getTamanhoMaximo() {
+		return tamanhoMaximo;
+	}
+
+	public synchronized int getConexoesAbertas() {
+		return abertas;
+	}
+
+	public synchronized int getConexoesOciosas() {
+		return ociosas.size();
+	}
+
+	public int getConexoesEmprestadas() {
+		return tamanhoMaximo - permissoes.availablePermits();
+	}
+
+	public long getEmprestimos() {
+		return emprestimos.get();
+	}
+
+	/**
+	 * Retorna quantas vezes o tempo de espera por uma conexão se esgotou.
+	 */
+	public long getEsgotamentos() {
+		return esgotamentos.get();
+	}
+
+	/**
+	 * Retorna o tempo total, em milissegundos, gasto esperando por conexões.
+	 */
+	public long getTempoEsperaTotal() {
+		return TimeUnit.NANOSECONDS.toMillis(esperaTotal.get());
+	}
+
+	/**
+	 * Retorna o maior tempo, em milissegundos, gasto esperando por uma conexão.
+	 */
+	public long getTempoEsperaMaximo() {
+		return TimeUnit.NANOSECONDS.toMillis(esperaMaxima.get());
+	}
+
+	/**
+	 * Retorna o tempo médio, em milissegundos, gasto esperando por uma conexão.
+	 */
+	public double getTempoEsperaMedio() {
+		long n = emprestimos.get() + esgotamentos.get();
+		return n == 0 ? 0 : esperaTotal.get() / 1000000.0 / n;
+	}
+
+	public long getConexoesCriadas() {
+		return criadas.get();
+	}
+
+	public long getConexoesDescartadas() {
+		return descartadas.get();
+	}
+
+	public int getTamanhoCacheComandos() {
+		return tamanhoCacheComandos;
+	}
+
+	/**
+	 * Retorna quantos comandos preparados foram encontrados no cache da conexão.
+	 */
+	public long getAcertosCacheComandos() {
+		return acertosComandos.get();
+	}
+
+	/**
+	 * Retorna quantos comandos preparados tiveram de ser preparados pelo banco, por
+	 * não estarem no cache da conexão.
+	 */
+	public long getFalhasCacheComandos() {
+		return falhasComandos.get();
+	}
+
+	public String toString() {
+		return "PoolConexoes[" + url + ", abertas=" + getConexoesAbertas()
+			+ ", emprestadas=" + getConexoesEmprestadas()
+			+ ", emprestimos=" + getEmprestimos()
+			+ ", esgotamentos=" + getEsgotamentos()
+			+ ", esperaMedia=" + getTempoEsperaMedio() + "ms"
+			+ ", esperaMaxima=" + getTempoEsperaMaximo() + "ms"
+			+ ", cacheComandos=" + getAcertosCacheComandos() + "/"
+			+ (getAcertosCacheComandos() + getFalhasCacheComandos()) + "]";
+	}
+
+	/**
+	 * Retorna o pool dono de uma conexão emprestada, ou null se a conexão não veio
+	 * de um pool.
+	 */
+	static ConexaoEmprestada emprestimo(Connection con) {
+
+		if (con != null && Proxy.isProxyClass(con.getClass())) {
+			InvocationHandler h = Proxy.getInvocationHandler(con);
+			if (h instanceof ConexaoEmprestada) {
+				return (ConexaoEmprestada) h;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Conexão física do pool, com o seu cache de comandos preparados e, enquanto estiver
+	 * ociosa, o instante em que foi devolvida.
+	 */
+	private static class ConexaoFisica {
+
+		private Connection conexao;
+		private CacheComandos comandos;
+		private long desde;
+
+		ConexaoFisica(Connection conexao, CacheComandos comandos) {
+			this.conexao = conexao;
+			this.comandos = comandos;
+		}
+	}
+
+	/**
+	 * Comportamento do proxy entregue a quem pede uma conexão. Repassa as chamadas à
+	 * conexão física, exceto close(), que devolve a conexão ao pool. Enquanto a conexão
+	 * estiver presa a uma transação (ver JDBCConnectionUtil), close() é ignorado.
+	 */
+	class ConexaoEmprestada implements InvocationHandler {
+
+		private ConexaoFisica fisica;
+		private boolean devolvida;
+		private boolean presa;
+
+		ConexaoEmprestada(ConexaoFisica fisica) {
+			this.fisica = fisica;
+		}
+
+		/**
+		 * Prende ou solta a conexão de uma transação.
+		 */
+		void setPresa(boolean presa) {
+			this.presa = presa;
+		}
+
+		/**
+		 * Devolve a conexão ao pool, mesmo que esteja presa a uma transação.
+		 */
+		synchronized void liberar() {
+
+			if (!devolvida) {
+				devolvida = true;
+				presa = false;
+				devolver(fisica);
+			}
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			String nome = method.getName();
+			if ("close".equals(nome) && method.getParameterTypes().length == 0) {
+				if (!presa) {
+					liberar();
+				}
+				return null;
+			}
+			if ("isClosed".equals(nome) && method.getParameterTypes().length == 0) {
+				return Boolean.valueOf(devolvida || fisica.conexao.isClosed());
+			}
+			if ("equals".equals(nome) && args != null && args.length == 1) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if ("hashCode".equals(nome) && args == null) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			if ("toString".equals(nome) && args == null) {
+				return "ConexaoEmprestada[" + fisica.conexao + "]";
+			}
+			if (devolvida) {
+				throw new SQLException("Conexao ja devolvida ao pool");
+			}
+			Object resp;
+			if (fisica.comandos != null && "prepareStatement".equals(nome)
+				&& method.getParameterTypes().length == 1) {
+				resp = fisica.comandos.preparar((String) args[0], (Connection) proxy);
+			} else {
+				try {
+					resp = method.invoke(fisica.conexao, args);
+				} catch (InvocationTargetException e) {
+					throw e.getTargetException();
+				}
+			}
+			if (Metricas.ATIVAS && resp instanceof Statement) {
+				// conta os comandos SQL executados, para as métricas de cada operação
+				return contarExecucoes(method.getReturnType(), resp);
+			}
+			return resp;
+		}
+
+		private <T> T contarExecucoes(Class<T> tipo, Object comando) {
+			return Metricas.contarExecucoes(tipo, tipo.cast(comando));
+		}
+	}
+}
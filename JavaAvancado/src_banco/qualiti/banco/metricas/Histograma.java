@@ -0,0 +1,162 @@
+package qualiti.banco.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de tempos (em nanossegundos) com faixas de largura logarítmica, no estilo
+ * do HdrHistogram: os valores até 63 têm uma faixa cada; acima disso, cada potência de 2
+ * é dividida em 32 faixas iguais. O erro de qualquer percentil fica abaixo de 1/32 (cerca
+ * de 3%) do valor, e o histograma ocupa sempre o mesmo espaço (cerca de 15 KB),
+ * qualquer que seja a quantidade de valores registrados.
+ *
+ * O registro de um valor não usa travas: cada faixa é um contador atômico, e várias
+ * threads podem registrar valores ao mesmo tempo.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.Metrica
+ */
+public class Histograma {
+
+	/**
+	 * Quantidade de bits significativos de cada faixa: 2^5 = 32 faixas por potência de 2.
+	 */
+	private static final int BITS_SUBFAIXA = 5;
+	private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+	/**
+	 * Valores menores que este têm uma faixa cada.
+	 */
+	private static final int LIMITE_LINEAR = 2 * SUBFAIXAS;
+	/**
+	 * Quantidade de faixas: as lineares mais 32 para cada potência de 2 de 2^6 a 2^62.
+	 */
+	private static final int FAIXAS = LIMITE_LINEAR + (63 - 6) * SUBFAIXAS;
+
+	private AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+	private AtomicLong quantidade = new AtomicLong();
+	private AtomicLong soma = new AtomicLong();
+	private AtomicLong maximo = new AtomicLong();
+
+	/**
+	 * Registra um valor. Valores negativos são registrados como 0.
+	 *
+	 * @param valor o valor, em nanossegundos.
+	 */
+	public void registrar(long valor) {
+
+		if (valor < 0) {
+			valor = 0;
+		}
+		contagens.incrementAndGet(faixa(valor));
+		quantidade.incrementAndGet();
+		soma.addAndGet(valor);
+		long max = maximo.get();
+		while (valor > max && !maximo.compareAndSet(max, valor)) {
+			max = maximo.get();
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de valores registrados.
+	 *
+	 * @return long a quantidade de valores.
+	 */
+	public long getQuantidade() {
+
+		return quantidade.get();
+	}
+
+	/**
+	 * Retorna a média dos valores registrados.
+	 *
+	 * @return double a média, em nanossegundos, ou 0 se não houver valores.
+	 */
+	public double getMedia() {
+
+		long n = quantidade.get();
+		return n == 0 ? 0 : (double) soma.get() / n;
+	}
+
+	/**
+	 * Retorna o maior valor registrado.
+	 *
+	 * @return long o maior valor, em nanossegundos.
+	 */
+	public long getMaximo() {
+
+		return maximo.get();
+	}
+
+	/**
+	 * Retorna o valor abaixo do qual (ou igual ao qual) está o percentual pedido dos
+	 * valores registrados. O valor retornado é o limite superior da faixa do percentil.
+	 *
+	 * @param percentil o percentil, de 0 a 100 (por exemplo, 99.9).
+	 *
+	 * @return long o valor do percentil, em nanossegundos, ou 0 se não houver valores.
+	 */
+	public long getPercentil(double percentil) {
+
+		long n = quantidade.get();
+		if (n == 0) {
+			return 0;
+		}
+		long alvo = (long) Math.ceil(Math.min(percentil, 100) / 100 * n);
+		if (alvo < 1) {
+			alvo = 1;
+		}
+		long acumulado = 0;
+		for (int i = 0; i < FAIXAS; i++) {
+			acumulado += contagens.get(i);
+			if (acumulado >= alvo) {
+				return Math.min(limiteSuperior(i), getMaximo());
+			}
+		}
+		// registros feitos durante a varredura
+		return getMaximo();
+	}
+
+	/**
+	 * Zera o histograma. Valores registrados durante a operação podem ser perdidos.
+	 */
+	public void zerar() {
+
+		for (int i = 0; i < FAIXAS; i++) {
+			contagens.set(i, 0);
+		}
+		quantidade.set(0);
+		soma.set(0);
+		maximo.set(0);
+	}
+
+	/**
+	 * Retorna a faixa de um valor não negativo.
+	 */
+	static int faixa(long valor) {
+
+		if (valor < LIMITE_LINEAR) {
+			return (int) valor;
+		}
+		int expoente = 63 - Long.numberOfLeadingZeros(valor);
+		int deslocamento = expoente - BITS_SUBFAIXA;
+		int subfaixa = (int) (valor >>> deslocamento) - SUBFAIXAS;
+		return LIMITE_LINEAR + (expoente - 6) * SUBFAIXAS + subfaixa;
+	}
+
+	/**
+	 * Retorna o maior valor que cai em uma faixa.
+	 */
+	static long limiteSuperior(int faixa) {
+
+		if (faixa < LIMITE_LINEAR) {
+			return faixa;
+		}
+		int expoente = 6 + (faixa - LIMITE_LINEAR) / SUBFAIXAS;
+		int subfaixa = (faixa - LIMITE_LINEAR) % SUBFAIXAS;
+		int deslocamento = expoente - BITS_SUBFAIXA;
+		return ((long) (SUBFAIXAS + subfaixa + 1) << deslocamento) - 1;
+	}
+}
@@ -0,0 +1,43 @@
+package qualiti.banco.metricas;
+
+/**
+ * Uma execução de operação em andamento, criada por Metricas.iniciar(). Guarda o
+ * instante do início e a quantidade de comandos SQL já executados pela thread, para
+ * que encerrar() registre a diferença na métrica da operação.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.Metricas#iniciar(String)
+ */
+public class Medicao {
+
+	private Metrica metrica;
+	private long inicio;
+	private long sqlInicio;
+	private boolean erro;
+
+	Medicao(Metrica metrica, long sqlInicio) {
+
+		this.metrica = metrica;
+		this.sqlInicio = sqlInicio;
+		this.inicio = System.nanoTime();
+	}
+
+	/**
+	 * Marca a execução como terminada com exceção.
+	 */
+	void falhar() {
+
+		erro = true;
+	}
+
+	/**
+	 * Registra a execução na métrica da operação.
+	 */
+	void encerrar(long sqlFim) {
+
+		metrica.registrar(System.nanoTime() - inicio, sqlFim - sqlInicio, erro);
+	}
+}
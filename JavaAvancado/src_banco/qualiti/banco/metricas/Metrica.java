@@ -0,0 +1,103 @@
+package qualiti.banco.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * As medidas de uma operação (por exemplo, "CadastroContas.creditar"): quantas vezes foi
+ * executada, quantas terminaram com exceção, o histograma dos tempos e a quantidade de
+ * comandos SQL executados por ela.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.Metricas
+ */
+public class Metrica {
+
+	private String nome;
+	private Histograma tempos = new Histograma();
+	private AtomicLong erros = new AtomicLong();
+	private AtomicLong sqls = new AtomicLong();
+
+	Metrica(String nome) {
+
+		this.nome = nome;
+	}
+
+	/**
+	 * Registra uma execução da operação.
+	 *
+	 * @param nanos o tempo da execução, em nanossegundos.
+	 * @param sql a quantidade de comandos SQL executados.
+	 * @param erro true se a execução terminou com exceção.
+	 */
+	void registrar(long nanos, long sql, boolean erro) {
+
+		tempos.registrar(nanos);
+		if (sql > 0) {
+			sqls.addAndGet(sql);
+		}
+		if (erro) {
+			erros.incrementAndGet();
+		}
+	}
+
+	public String getNome() {
+
+		return nome;
+	}
+
+	public Histograma getTempos() {
+
+		return tempos;
+	}
+
+	public long getQuantidade() {
+
+		return tempos.getQuantidade();
+	}
+
+	public long getErros() {
+
+		return erros.get();
+	}
+
+	/**
+	 * Retorna a quantidade média de comandos SQL por execução.
+	 *
+	 * @return double a média, ou 0 se a operação ainda não foi executada.
+	 */
+	public double getSqlPorExecucao() {
+
+		long n = tempos.getQuantidade();
+		return n == 0 ? 0 : (double) sqls.get() / n;
+	}
+
+	void zerar() {
+
+		tempos.zerar();
+		erros.set(0);
+		sqls.set(0);
+	}
+
+	/**
+	 * Retorna uma linha do relatório, com os tempos em microssegundos.
+	 */
+	public String toString() {
+
+		return String.format(Locale.US,
+			"%-50s n=%d erros=%d media=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus sql/op=%.2f",
+			nome,
+			getQuantidade(),
+			getErros(),
+			tempos.getMedia() / 1000,
+			tempos.getPercentil(50) / 1000.0,
+			tempos.getPercentil(90) / 1000.0,
+			tempos.getPercentil(99) / 1000.0,
+			tempos.getPercentil(99.9) / 1000.0,
+			tempos.getMaximo() / 1000.0,
+			getSqlPorExecucao());
+	}
+}
@@ -0,0 +1,427 @@
+package qualiti.banco.metricas;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Métricas das operações do sistema: para cada operação (um método de cadastro ou de
+ * repositório, a espera por uma conexão do pool...), a quantidade de execuções, as
+ * exceções, o histograma dos tempos e a quantidade de comandos SQL executados; além
+ * disso, contadores avulsos, como os acertos e as faltas do cache de clientes.
+ *
+ * As métricas só são coletadas quando a JVM é iniciada com -Dbanco.metricas=true. O
+ * valor é lido uma única vez, em uma constante: com as métricas desligadas, iniciar()
+ * retorna null, encerrar(null) não faz nada, instrumentar() retorna o próprio objeto, e
+ * o custo para o sistema é o de um teste que o compilador JIT elimina.
+ *
+ * Com as métricas ligadas, elas são publicadas por JMX (qualiti.banco:type=Metricas, ver
+ * MonitorMetricasMBean) e gravadas no log (categoria qualiti.banco.metricas, nível INFO)
+ * a cada banco.metricas.intervalo segundos (padrão: 60; 0 desliga o relatório no log).
+ *
+ * Uso em um método:
+ *
+ *   Medicao m = Metricas.iniciar("CadastroContas.creditar");
+ *   try {
+ *       ...
+ *   } catch (Exception e) {
+ *       Metricas.falhar(m);
+ *       throw e;
+ *   } finally {
+ *       Metricas.encerrar(m);
+ *   }
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.Metrica
+ * @see qualiti.banco.metricas.MonitorMetricasMBean
+ */
+public final class Metricas {
+
+	/**
+	 * Propriedade de sistema que liga as métricas.
+	 */
+	public static final String PROPRIEDADE = "banco.metricas";
+	/**
+	 * Propriedade de sistema com o intervalo do relatório no log, em segundos.
+	 */
+	public static final String PROPRIEDADE_INTERVALO = "banco.metricas.intervalo";
+	/**
+	 * Nome do MBean das métricas.
+	 */
+	public static final String NOME_MBEAN = "qualiti.banco:type=Metricas";
+	/**
+	 * Nome do contador de comandos SQL executados.
+	 */
+	public static final String CONTADOR_SQL = "sql";
+
+	/**
+	 * Indica se as métricas estão ligadas.
+	 */
+	public static final boolean ATIVAS = Boolean.getBoolean(PROPRIEDADE);
+
+	private static final Logger LOG = Logger.getLogger(Metricas.class);
+
+	private static ConcurrentHashMap<String, Metrica> metricas =
+		new ConcurrentHashMap<String, Metrica>();
+	private static ConcurrentHashMap<String, AtomicLong> contadores =
+		new ConcurrentHashMap<String, AtomicLong>();
+	/**
+	 * Quantidade de comandos SQL executados por cada thread, usada para saber quantos
+	 * comandos cada operação executou.
+	 */
+	private static ThreadLocal<long[]> sqlDaThread = new ThreadLocal<long[]>() {
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+
+	private static Timer relatorio;
+
+	static {
+		if (ATIVAS) {
+			registrarMBean();
+			agendarRelatorio();
+		}
+	}
+
+	private Metricas() {
+	}
+
+	/**
+	 * Inicia a medição de uma execução de uma operação.
+	 *
+	 * @param operacao o nome da operação.
+	 *
+	 * @return Medicao a medição, a ser passada para encerrar(), ou null se as métricas
+	 *         estiverem desligadas.
+	 */
+	public static Medicao iniciar(String operacao) {
+
+		if (!ATIVAS) {
+			return null;
+		}
+		return new Medicao(getMetrica(operacao), sqlDaThread.get()[0]);
+	}
+
+	/**
+	 * Encerra a medição de uma execução, registrando o tempo e os comandos SQL na
+	 * métrica da operação.
+	 *
+	 * @param m a medição retornada por iniciar(), ou null.
+	 */
+	public static void encerrar(Medicao m) {
+
+		if (m != null) {
+			m.encerrar(sqlDaThread.get()[0]);
+		}
+	}
+
+	/**
+	 * Marca uma execução como terminada com exceção.
+	 *
+	 * @param m a medição retornada por iniciar(), ou null.
+	 */
+	public static void falhar(Medicao m) {
+
+		if (m != null) {
+			m.falhar();
+		}
+	}
+
+	/**
+	 * Registra um tempo medido fora de iniciar() e encerrar().
+	 *
+	 * @param operacao o nome da operação.
+	 * @param nanos o tempo, em nanossegundos.
+	 */
+	public static void registrar(String operacao, long nanos) {
+
+		if (ATIVAS) {
+			getMetrica(operacao).registrar(nanos, 0, false);
+		}
+	}
+
+	/**
+	 * Soma 1 a um contador.
+	 *
+	 * @param contador o nome do contador.
+	 */
+	public static void contar(String contador) {
+
+		if (ATIVAS) {
+			getContador(contador).incrementAndGet();
+		}
+	}
+
+	/**
+	 * Conta a execução de um comando SQL pela thread corrente.
+	 */
+	public static void contarSql() {
+
+		if (ATIVAS) {
+			sqlDaThread.get()[0]++;
+			getContador(CONTADOR_SQL).incrementAndGet();
+		}
+	}
+
+	/**
+	 * Retorna um proxy que mede cada chamada aos métodos de uma interface, com o nome
+	 * "Classe.metodo" (e os tipos dos parâmetros, quando o método é sobrecarregado).
+	 * Com as métricas desligadas, retorna o próprio objeto.
+	 *
+	 * @param tipo a interface, por exemplo RepositorioContas.class.
+	 * @param alvo o objeto que implementa a interface.
+	 *
+	 * @return T o proxy, ou o próprio objeto.
+	 */
+	public static <T> T instrumentar(Class<T> tipo, T alvo) {
+
+		if (!ATIVAS || alvo == null) {
+			return alvo;
+		}
+		return tipo.cast(Proxy.newProxyInstance(
+			tipo.getClassLoader(),
+			new Class<?>[] {tipo},
+			new Instrumentacao(tipo, alvo)));
+	}
+
+	/**
+	 * Retorna um proxy que conta as execuções (execute, executeQuery, executeUpdate,
+	 * executeBatch...) de um comando JDBC com contarSql(). Um lote conta como uma
+	 * execução. Com as métricas desligadas, retorna o próprio comando.
+	 *
+	 * @param tipo a interface do comando: Statement, PreparedStatement ou
+	 *        CallableStatement.
+	 * @param comando o comando.
+	 *
+	 * @return T o proxy, ou o próprio comando.
+	 */
+	public static <T> T contarExecucoes(Class<T> tipo, T comando) {
+
+		if (!ATIVAS || comando == null) {
+			return comando;
+		}
+		return tipo.cast(Proxy.newProxyInstance(
+			tipo.getClassLoader(),
+			new Class<?>[] {tipo},
+			new ContagemSql(comando)));
+	}
+
+	/**
+	 * Retorna as métricas das operações, ordenadas pelo nome.
+	 *
+	 * @return Map as métricas, indexadas pelo nome da operação.
+	 */
+	public static Map<String, Metrica> getMetricas() {
+
+		return new TreeMap<String, Metrica>(metricas);
+	}
+
+	/**
+	 * Retorna o valor de um contador.
+	 *
+	 * @param contador o nome do contador.
+	 *
+	 * @return long o valor do contador, ou 0 se ele não existir.
+	 */
+	public static long getValor(String contador) {
+
+		AtomicLong c = contadores.get(contador);
+		return c == null ? 0 : c.get();
+	}
+
+	/**
+	 * Retorna os contadores, ordenados pelo nome.
+	 *
+	 * @return Map os valores dos contadores, indexados pelo nome.
+	 */
+	public static Map<String, Long> getContadores() {
+
+		Map<String, Long> resp = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> e : contadores.entrySet()) {
+			resp.put(e.getKey(), Long.valueOf(e.getValue().get()));
+		}
+		return resp;
+	}
+
+	/**
+	 * Retorna o relatório das métricas: uma linha por operação e uma por contador.
+	 *
+	 * @return String o relatório.
+	 */
+	public static String relatorio() {
+
+		StringBuilder sb = new StringBuilder();
+		for (Metrica m : getMetricas().values()) {
+			sb.append(m).append('\n');
+		}
+		for (Map.Entry<String, Long> e : getContadores().entrySet()) {
+			sb.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Zera todas as métricas e contadores.
+	 */
+	public static void zerar() {
+
+		for (Metrica m : metricas.values()) {
+			m.zerar();
+		}
+		for (AtomicLong c : contadores.values()) {
+			c.set(0);
+		}
+	}
+
+	private static Metrica getMetrica(String operacao) {
+
+		Metrica m = metricas.get(operacao);
+		if (m == null) {
+			Metrica nova = new Metrica(operacao);
+			m = metricas.putIfAbsent(operacao, nova);
+			if (m == null) {
+				m = nova;
+			}
+		}
+		return m;
+	}
+
+	private static AtomicLong getContador(String contador) {
+
+		AtomicLong c = contadores.get(contador);
+		if (c == null) {
+			AtomicLong novo = new AtomicLong();
+			c = contadores.putIfAbsent(contador, novo);
+			if (c == null) {
+				c = novo;
+			}
+		}
+		return c;
+	}
+
+	private static void registrarMBean() {
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+				new MonitorMetricas(),
+				new ObjectName(NOME_MBEAN));
+		} catch (JMException e) {
+			LOG.warn("Nao foi possivel registrar o MBean " + NOME_MBEAN, e);
+		}
+	}
+
+	private static void agendarRelatorio() {
+
+		long intervalo = Long.getLong(PROPRIEDADE_INTERVALO, 60).longValue() * 1000;
+		if (intervalo > 0) {
+			relatorio = new Timer("Metricas-relatorio", true);
+			relatorio.scheduleAtFixedRate(new TimerTask() {
+				public void run() {
+					if (LOG.isInfoEnabled()) {
+						LOG.info("Metricas\n" + relatorio());
+					}
+				}
+			}, intervalo, intervalo);
+		}
+	}
+
+	/**
+	 * Comportamento do proxy de instrumentar(): mede cada chamada com iniciar() e
+	 * encerrar(), marcando como erro as que terminam com exceção.
+	 */
+	private static class Instrumentacao implements InvocationHandler {
+
+		private Object alvo;
+		private ConcurrentHashMap<Method, String> nomes = new ConcurrentHashMap<Method, String>();
+
+		Instrumentacao(Class<?> tipo, Object alvo) {
+
+			this.alvo = alvo;
+			String classe = alvo.getClass().getSimpleName();
+			for (Method m : tipo.getMethods()) {
+				nomes.put(m, classe + "." + m.getName() + (sobrecarregado(tipo, m) ? parametros(m) : ""));
+			}
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			String nome = nomes.get(method);
+			if (nome == null) {
+				// métodos de Object
+				return method.invoke(alvo, args);
+			}
+			Medicao m = iniciar(nome);
+			try {
+				return method.invoke(alvo, args);
+			} catch (InvocationTargetException e) {
+				falhar(m);
+				throw e.getTargetException();
+			} finally {
+				encerrar(m);
+			}
+		}
+
+		private static boolean sobrecarregado(Class<?> tipo, Method metodo) {
+
+			int n = 0;
+			for (Method m : tipo.getMethods()) {
+				if (m.getName().equals(metodo.getName())) {
+					n++;
+				}
+			}
+			return n > 1;
+		}
+
+		private static String parametros(Method m) {
+
+			StringBuilder sb = new StringBuilder("(");
+			Class<?>[] tipos = m.getParameterTypes();
+			for (int i = 0; i < tipos.length; i++) {
+				sb.append(i == 0 ? "" : ",").append(tipos[i].getSimpleName());
+			}
+			return sb.append(')').toString();
+		}
+	}
+
+	/**
+	 * Comportamento do proxy de contarExecucoes().
+	 */
+	private static class ContagemSql implements InvocationHandler {
+
+		private Object comando;
+
+		ContagemSql(Object comando) {
+
+			this.comando = comando;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			if (method.getName().startsWith("execute")) {
+				contarSql();
+			}
+			try {
+				return method.invoke(comando, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
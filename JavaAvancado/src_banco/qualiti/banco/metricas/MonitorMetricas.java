@@ -0,0 +1,63 @@
+package qualiti.banco.metricas;
+
+/**
+ * Implementação do MBean das métricas: apenas consulta Metricas.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.MonitorMetricasMBean
+ */
+public class MonitorMetricas implements MonitorMetricasMBean {
+
+	public String getRelatorio() {
+
+		return Metricas.relatorio();
+	}
+
+	public String[] getOperacoes() {
+
+		return Metricas.getMetricas().keySet().toArray(new String[0]);
+	}
+
+	public long getQuantidade(String operacao) {
+
+		Metrica m = Metricas.getMetricas().get(operacao);
+		return m == null ? 0 : m.getQuantidade();
+	}
+
+	public long getErros(String operacao) {
+
+		Metrica m = Metricas.getMetricas().get(operacao);
+		return m == null ? 0 : m.getErros();
+	}
+
+	public double getMedia(String operacao) {
+
+		Metrica m = Metricas.getMetricas().get(operacao);
+		return m == null ? 0 : m.getTempos().getMedia() / 1000;
+	}
+
+	public double getPercentil(String operacao, double percentil) {
+
+		Metrica m = Metricas.getMetricas().get(operacao);
+		return m == null ? 0 : m.getTempos().getPercentil(percentil) / 1000.0;
+	}
+
+	public double getSqlPorExecucao(String operacao) {
+
+		Metrica m = Metricas.getMetricas().get(operacao);
+		return m == null ? 0 : m.getSqlPorExecucao();
+	}
+
+	public long getContador(String contador) {
+
+		return Metricas.getValor(contador);
+	}
+
+	public void zerar() {
+
+		Metricas.zerar();
+	}
+}
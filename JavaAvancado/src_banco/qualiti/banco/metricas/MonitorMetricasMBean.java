@@ -0,0 +1,60 @@
+package qualiti.banco.metricas;
+
+/**
+ * Interface JMX das métricas, publicada como qualiti.banco:type=Metricas quando a JVM é
+ * iniciada com -Dbanco.metricas=true. Os tempos são em microssegundos.
+ *
+ * @author Qualiti <a href="mailto:qualiti@qualiti.com.br">qualiti@qualiti.com.br</a>
+ *
+ * @version 1.0
+ *
+ * @see qualiti.banco.metricas.Metricas
+ */
+public interface MonitorMetricasMBean {
+
+	/**
+	 * Retorna o relatório das métricas, uma linha por operação e por contador.
+	 */
+	String getRelatorio();
+
+	/**
+	 * Retorna os nomes das operações medidas.
+	 */
+	String[] getOperacoes();
+
+	/**
+	 * Retorna a quantidade de execuções de uma operação.
+	 */
+	long getQuantidade(String operacao);
+
+	/**
+	 * Retorna a quantidade de execuções de uma operação que terminaram com exceção.
+	 */
+	long getErros(String operacao);
+
+	/**
+	 * Retorna o tempo médio de uma operação, em microssegundos.
+	 */
+	double getMedia(String operacao);
+
+	/**
+	 * Retorna um percentil (por exemplo, 99.9) do tempo de uma operação, em
+	 * microssegundos.
+	 */
+	double getPercentil(String operacao, double percentil);
+
+	/**
+	 * Retorna a quantidade média de comandos SQL por execução de uma operação.
+	 */
+	double getSqlPorExecucao(String operacao);
+
+	/**
+	 * Retorna o valor de um contador.
+	 */
+	long getContador(String contador);
+
+	/**
+	 * Zera todas as métricas e contadores.
+	 */
+	void zerar();
+}
@@ -0,0 +1,209 @@
+package br.org.qualiti.bank.cliente.persistencia;
+
+import java.util.Arrays;
+
+/**
+ * Indice de CPF para posicao no array, em tabela hash de enderecamento aberto
+ * (sondagem linear) com chaves long e valores int, sem objetos por entrada.
+ * Nao e sincronizado.
+ */
+class IndiceCpf {
+
+	/**
+	 * Valor que marca uma posição livre da tabela, e que é retornado quando uma chave
+	 * não está no índice. Nenhum CPF é convertido para este valor.
+	 */
+	static final int AUSENTE = -1;
+
+	private static final long LIVRE = -1L;
+
+	/**
+	 * Multiplicador do hash (parte fracionária da razão áurea), que espalha os CPFs
+	 * sequenciais pela tabela.
+	 */
+	private static final long MULTIPLICADOR = 0x9E3779B97F4A7C15L;
+
+	private static final int CAPACIDADE_MINIMA = 16;
+
+	private long[] chaves;
+	private int[] valores;
+	private int mascara;
+	/**
+	 * Deslocamento que leva os bits mais altos do hash para o tamanho da tabela.
+	 */
+	private int deslocamento;
+	private int tamanho;
+	private int limite;
+
+	/**
+	 * O construtor da classe.
+	 *
+	 * @param esperados a quantidade de entradas esperada, para que a tabela seja criada
+	 *        já com o tamanho necessário.
+	 */
+	IndiceCpf(int esperados) {
+
+		int capacidade = CAPACIDADE_MINIMA;
+		while (capacidade * 3L / 4 < esperados) {
+			capacidade <<= 1;
+		}
+		alocar(capacidade);
+	}
+
+	/**
+	 * Converte um CPF para a chave do índice.
+	 *
+	 * @param cpf o CPF.
+	 *
+	 * @return long a chave, ou AUSENTE se o CPF não tiver exatamente 11 dígitos.
+	 */
+	static long chave(String cpf) {
+
+		if (cpf == null || cpf.length() != 11) {
+			return AUSENTE;
+		}
+		long resp = 0;
+		for (int i = 0; i < 11; i++) {
+			char ch = cpf.charAt(i);
+			if (ch < '0' || ch > '9') {
+				return AUSENTE;
+			}
+			resp = resp * 10 + (ch - '0');
+		}
+		return resp;
+	}
+
+	/**
+	 * Retorna a posição associada a uma chave.
+	 *
+	 * @return int a posição, ou AUSENTE se a chave não estiver no índice.
+	 */
+	int get(long chave) {
+
+		int i = inicio(chave);
+		while (true) {
+			long k = chaves[i];
+			if (k == chave) {
+				return valores[i];
+			}
+			if (k == LIVRE) {
+				return AUSENTE;
+			}
+			i = (i + 1) & mascara;
+		}
+	}
+
+	/**
+	 * Associa uma posição (não negativa) a uma chave.
+	 *
+	 * @return int a posição associada antes, ou AUSENTE se a chave não estava no índice.
+	 */
+	int put(long chave, int valor) {
+
+		int i = inicio(chave);
+		while (true) {
+			long k = chaves[i];
+			if (k == chave) {
+				int anterior = valores[i];
+				valores[i] = valor;
+				return anterior;
+			}
+			if (k == LIVRE) {
+				chaves[i] = chave;
+				valores[i] = valor;
+				if (++tamanho > limite) {
+					redimensionar(chaves.length << 1);
+				}
+				return AUSENTE;
+			}
+			i = (i + 1) & mascara;
+		}
+	}
+
+	/**
+	 * Retira uma chave do índice.
+	 *
+	 * @return int a posição que estava associada à chave, ou AUSENTE se ela não estava
+	 *         no índice.
+	 */
+	int remove(long chave) {
+
+		int i = inicio(chave);
+		while (true) {
+			long k = chaves[i];
+			if (k == LIVRE) {
+				return AUSENTE;
+			}
+			if (k == chave) {
+				break;
+			}
+			i = (i + 1) & mascara;
+		}
+		int anterior = valores[i];
+		// desloca para trás as entradas seguintes que não estão no seu lugar ideal
+		int livre = i;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mascara;
+			long k = chaves[j];
+			if (k == LIVRE) {
+				break;
+			}
+			int ideal = inicio(k);
+			// a entrada só pode ir para a posição livre se ela estiver entre a posição
+			// ideal e a posição atual, na ordem circular da tabela
+			if (((j - ideal) & mascara) >= ((j - livre) & mascara)) {
+				chaves[livre] = k;
+				valores[livre] = valores[j];
+				livre = j;
+			}
+		}
+		chaves[livre] = LIVRE;
+		tamanho--;
+		return anterior;
+	}
+
+	int size() {
+
+		return tamanho;
+	}
+
+	void clear() {
+
+		Arrays.fill(chaves, LIVRE);
+		tamanho = 0;
+	}
+
+	private int inicio(long chave) {
+
+		return (int) ((chave * MULTIPLICADOR) >>> deslocamento);
+	}
+
+	private void alocar(int capacidade) {
+
+		chaves = new long[capacidade];
+		Arrays.fill(chaves, LIVRE);
+		valores = new int[capacidade];
+		mascara = capacidade - 1;
+		deslocamento = 64 - Integer.numberOfTrailingZeros(capacidade);
+		limite = (int) (capacidade * 3L / 4);
+	}
+
+	private void redimensionar(int capacidade) {
+
+		long[] chavesAntigas = chaves;
+		int[] valoresAntigos = valores;
+		alocar(capacidade);
+		for (int i = 0; i < chavesAntigas.length; i++) {
+			long k = chavesAntigas[i];
+			if (k != LIVRE) {
+				int j = inicio(k);
+				while (chaves[j] != LIVRE) {
+					j = (j + 1) & mascara;
+				}
+				chaves[j] = k;
+				valores[j] = valoresAntigos[i];
+			}
+		}
+	}
+}
@@ -1,93 +1,126 @@
-package br.org.qualiti.bank.cliente.persistencia;
-
-import br.org.qualiti.bank.cliente.excecoes.ClienteExistenteException;
-import br.org.qualiti.bank.cliente.excecoes.ClienteInexistenteException;
-import br.org.qualiti.bank.cliente.model.Cliente;
-import br.org.qualiti.bank.conta.excecoes.CapacidadeMaximaExcedidaException;
-
-	public class RepositorioClienteArray implements RepositorioCliente {
-	
-	private static final byte MAX_TAM = 100;
-	
-	private Cliente[] clientes;
-	
-	private int index;
-	
-	
-	public RepositorioClienteArray() {
-		this.clientes = new Cliente[MAX_TAM];		
-	}
-	
-	
-	private int procurarIndice(Cliente cliente) {
-		int indiceEncontrado = -1;
-		for(int i =0;i<index;i++){	
-			if(this.clientes[i].getCpf().equals(cliente.getCpf())) {
-				indiceEncontrado = i;
-				break;
-			}
-		}
-
-		return indiceEncontrado;
-	}
-	
-	
-	@Override
-	public void inserir(Cliente cliente) throws ClienteExistenteException {
-		if (existe(cliente)) {
-			throw new ClienteExistenteException();
-		}
-		
-		if(index == MAX_TAM) {
-			throw new CapacidadeMaximaExcedidaException();
-		}
-		
-		this.clientes[index++] = cliente;
-	}
-
-	@Override
-	public void atualizar(Cliente cliente) throws ClienteInexistenteException {		
-		int i = procurarIndice(cliente);
-		
-		if (i == -1 ) {
-			throw new ClienteInexistenteException();
-		}
-		
-		this.clientes[i] = cliente;
-	}
-
-	@Override
-	public void remover(Cliente cliente) throws ClienteInexistenteException {	
-		int i = procurarIndice(cliente);
-		
-		if (i>=0) {
-			this.clientes[i] = this.clientes[index--];
-		}
-		else {
-			throw new ClienteInexistenteException();
-		}
-	}
-
-	@Override
-	public boolean existe(Cliente cliente) {
-		return (procurarIndice(cliente)!= -1);
-	}
-
-	@Override
-	public Cliente pesquisar(Cliente cliente) {
-		Cliente retorno = null; 
-		
-		int i = procurarIndice(cliente);
-		
-		if  (i >= 0) {
-			retorno = this.clientes[i];
-		}
-		return retorno;
-	}
-
-	@Override
-	public Cliente[] listar() {
-		return this.clientes;
-	}
-
-}
+package br.org.qualiti.bank.cliente.persistencia;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import br.org.qualiti.bank.cliente.excecoes.ClienteExistenteException;
+import br.org.qualiti.bank.cliente.excecoes.ClienteInexistenteException;
+import br.org.qualiti.bank.cliente.model.Cliente;
+
+	public class RepositorioClienteArray implements RepositorioCliente {
+	
+	private static final int TAM_INICIAL = 100;
+	
+	private Cliente[] clientes;
+	
+	private int index;
+	
+	// posicao de cada cliente no array pelo CPF; CPFs fora do padrao de 11 digitos ficam no mapa
+	private IndiceCpf posicoes;
+	
+	private Map<String, Integer> outrasPosicoes;
+	
+	
+	public RepositorioClienteArray() {
+		this.clientes = new Cliente[TAM_INICIAL];
+		this.posicoes = new IndiceCpf(TAM_INICIAL);
+		this.outrasPosicoes = new HashMap<String, Integer>();
+	}
+	
+	
+	private int procurarIndice(Cliente cliente) {
+		String cpf = cliente.getCpf();
+		long chave = IndiceCpf.chave(cpf);
+		if (chave != IndiceCpf.AUSENTE) {
+			return posicoes.get(chave);
+		}
+		Integer i = outrasPosicoes.get(cpf);
+		return i == null ? -1 : i.intValue();
+	}
+	
+	private void indexar(Cliente cliente, int i) {
+		long chave = IndiceCpf.chave(cliente.getCpf());
+		if (chave != IndiceCpf.AUSENTE) {
+			posicoes.put(chave, i);
+		} else {
+			outrasPosicoes.put(cliente.getCpf(), i);
+		}
+	}
+	
+	private void desindexar(Cliente cliente) {
+		long chave = IndiceCpf.chave(cliente.getCpf());
+		if (chave != IndiceCpf.AUSENTE) {
+			posicoes.remove(chave);
+		} else {
+			outrasPosicoes.remove(cliente.getCpf());
+		}
+	}
+	
+	
+	@Override
+	public void inserir(Cliente cliente) throws ClienteExistenteException {
+		if (existe(cliente)) {
+			throw new ClienteExistenteException();
+		}
+		
+		if(index == clientes.length) {
+			this.clientes = Arrays.copyOf(clientes, clientes.length * 2);
+		}
+		
+		indexar(cliente, index);
+		this.clientes[index++] = cliente;
+	}
+
+	@Override
+	public void atualizar(Cliente cliente) throws ClienteInexistenteException {		
+		int i = procurarIndice(cliente);
+		
+		if (i == -1 ) {
+			throw new ClienteInexistenteException();
+		}
+		
+		this.clientes[i] = cliente;
+	}
+
+	@Override
+	public void remover(Cliente cliente) throws ClienteInexistenteException {	
+		int i = procurarIndice(cliente);
+		
+		if (i>=0) {
+			desindexar(cliente);
+			index--;
+			if (i != index) {
+				this.clientes[i] = this.clientes[index];
+				indexar(this.clientes[i], i);
+			}
+			this.clientes[index] = null;
+		}
+		else {
+			throw new ClienteInexistenteException();
+		}
+	}
+
+	@Override
+	public boolean existe(Cliente cliente) {
+		return (procurarIndice(cliente)!= -1);
+	}
+
+	@Override
+	public Cliente pesquisar(Cliente cliente) {
+		Cliente retorno = null; 
+		
+		int i = procurarIndice(cliente);
+		
+		if  (i >= 0) {
+			retorno = this.clientes[i];
+		}
+		return retorno;
+	}
+
+	@Override
+	public Cliente[] listar() {
+		return Arrays.copyOf(this.clientes, index);
+	}
+
+}
@@ -1,39 +1,63 @@
-package br.org.qualiti.bank.cliente.persistencia;
-
-import br.org.qualiti.bank.cliente.excecoes.ClienteExistenteException;
-import br.org.qualiti.bank.cliente.excecoes.ClienteInexistenteException;
-import br.org.qualiti.bank.cliente.model.Cliente;
-
-public class RepositorioClienteMap implements RepositorioCliente {
-
-	@Override
-	public void inserir(Cliente cliente) throws ClienteExistenteException {
-
-	}
-
-	@Override
-	public void atualizar(Cliente cliente) throws ClienteInexistenteException {
-
-	}
-
-	@Override
-	public void remover(Cliente cliente) throws ClienteInexistenteException {
-
-	}
-
-	@Override
-	public boolean existe(Cliente cliente) {
-		return false;
-	}
-
-	@Override
-	public Cliente pesquisar(Cliente cliente) {
-		return null;
-	}
-
-	@Override
-	public Cliente[] listar() {
-		return null;
-	}
-
-}
+package br.org.qualiti.bank.cliente.persistencia;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import br.org.qualiti.bank.cliente.excecoes.ClienteExistenteException;
+import br.org.qualiti.bank.cliente.excecoes.ClienteInexistenteException;
+import br.org.qualiti.bank.cliente.model.Cliente;
+
+/**
+ * Repositorio de clientes em um mapa concorrente, com o CPF como chave. Pode ser
+ * usado por varias threads: cada operacao e uma unica operacao atomica do mapa.
+ * O mapa nao aceita chave null: um cliente sem CPF nunca esta no repositorio.
+ */
+public class RepositorioClienteMap implements RepositorioCliente {
+
+	private ConcurrentMap<String, Cliente> clientes;
+	
+	
+	public RepositorioClienteMap() {
+		this.clientes = new ConcurrentHashMap<String, Cliente>();
+	}
+
+	@Override
+	public void inserir(Cliente cliente) throws ClienteExistenteException {
+		// verifica e insere de uma vez so, sem deixar outra thread inserir no meio
+		if (this.clientes.putIfAbsent(cliente.getCpf(), cliente) != null) {
+			throw new ClienteExistenteException();
+		}
+	}
+
+	@Override
+	public void atualizar(Cliente cliente) throws ClienteInexistenteException {
+		if (cliente.getCpf() == null
+				|| this.clientes.replace(cliente.getCpf(), cliente) == null) {
+			throw new ClienteInexistenteException();
+		}
+	}
+
+	@Override
+	public void remover(Cliente cliente) throws ClienteInexistenteException {
+		if (cliente.getCpf() == null || this.clientes.remove(cliente.getCpf()) == null) {
+			throw new ClienteInexistenteException();
+		}
+	}
+
+	@Override
+	public boolean existe(Cliente cliente) {
+		return cliente.getCpf() != null && this.clientes.containsKey(cliente.getCpf());
+	}
+
+	@Override
+	public Cliente pesquisar(Cliente cliente) {
+		return cliente.getCpf() == null ? null : this.clientes.get(cliente.getCpf());
+	}
+
+	// copia dos clientes do momento; alteracoes feitas durante a copia podem ou nao aparecer
+	@Override
+	public Cliente[] listar() {
+		return this.clientes.values().toArray(new Cliente[0]);
+	}
+
+}
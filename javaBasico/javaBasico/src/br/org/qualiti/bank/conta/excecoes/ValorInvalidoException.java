@@ -1,10 +1,10 @@
-package br.org.qualiti.bank.conta.excecoes;
-
-public class ValorInvalidoException extends Exception {
-
-	private static final long serialVersionUID = -5007946120280382988L;
-
-	public ValorInvalidoException() {
-		super("O Valor  invlido");
-	}
-}
+package br.org.qualiti.bank.conta.excecoes;
+
+public class ValorInvalidoException extends Exception {
+
+	private static final long serialVersionUID = -5007946120280382988L;
+
+	public ValorInvalidoException() {
+		super("O Valor é inválido");
+	}
+}